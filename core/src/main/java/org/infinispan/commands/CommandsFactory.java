@@ -49,6 +49,8 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -439,6 +441,10 @@ default SingleRpcCommand buildSingleRpcCommand(ReplicableCommand call) {
 
    ConflictResolutionStartCommand buildConflictResolutionStartCommand(int topologyId, IntSet segments);
 
+   ConflictDigestCommand buildConflictDigestCommand(int topologyId, int segmentId);
+
+   ConflictEntriesCommand buildConflictEntriesCommand(int topologyId, int segmentId, IntSet leaves);
+
    StateTransferCancelCommand buildStateTransferCancelCommand(int topologyId, IntSet segments);
 
    StateTransferGetListenersCommand buildStateTransferGetListenersCommand(int topologyId);
@@ -50,6 +50,8 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -346,6 +348,16 @@ public ConflictResolutionStartCommand buildConflictResolutionStartCommand(int to
       return new ConflictResolutionStartCommand(cacheName, topologyId, segments);
    }
 
+   @Override
+   public ConflictDigestCommand buildConflictDigestCommand(int topologyId, int segmentId) {
+      return new ConflictDigestCommand(cacheName, topologyId, segmentId);
+   }
+
+   @Override
+   public ConflictEntriesCommand buildConflictEntriesCommand(int topologyId, int segmentId, IntSet leaves) {
+      return new ConflictEntriesCommand(cacheName, topologyId, segmentId, leaves);
+   }
+
    @Override
    public ScatteredStateConfirmRevokedCommand buildScatteredStateConfirmRevokeCommand(int topologyId, IntSet segments) {
       return new ScatteredStateConfirmRevokedCommand(cacheName, topologyId, segments);
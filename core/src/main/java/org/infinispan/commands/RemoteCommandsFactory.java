@@ -26,6 +26,7 @@
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.CoalescedCommand;
 import org.infinispan.commands.remote.CheckTransactionRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
@@ -37,6 +38,8 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -224,6 +227,9 @@ public ReplicableCommand fromStream(byte id, byte type) {
             case HeartBeatCommand.COMMAND_ID:
                command = HeartBeatCommand.INSTANCE;
                break;
+            case CoalescedCommand.COMMAND_ID:
+               command = new CoalescedCommand();
+               break;
             case CacheJoinCommand.COMMAND_ID:
                command = new CacheJoinCommand();
                break;
@@ -327,6 +333,12 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case StateTransferGetListenersCommand.COMMAND_ID:
                command = new StateTransferGetListenersCommand(cacheName);
                break;
+            case ConflictDigestCommand.COMMAND_ID:
+               command = new ConflictDigestCommand(cacheName);
+               break;
+            case ConflictEntriesCommand.COMMAND_ID:
+               command = new ConflictEntriesCommand(cacheName);
+               break;
             case StateTransferGetTransactionsCommand.COMMAND_ID:
                command = new StateTransferGetTransactionsCommand(cacheName);
                break;
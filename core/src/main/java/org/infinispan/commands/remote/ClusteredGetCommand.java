@@ -19,6 +19,7 @@
 import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.ByteString;
 import org.infinispan.util.logging.Log;
@@ -72,6 +73,10 @@ public CompletionStage<?> invokeAsync(ComponentRegistry componentRegistry) throw
       // as our caller is already calling the ClusteredGetCommand on all the relevant nodes
       // CACHE_MODE_LOCAL is not used as it can be used when we want to ignore the ownership with respect to reads
       long flagBitSet = EnumUtil.bitSetOf(Flag.SKIP_REMOTE_LOOKUP);
+      StateTransferManager stateTransferManager = componentRegistry.getStateTransferManager();
+      if (stateTransferManager != null && stateTransferManager.getStateProvider() != null) {
+         stateTransferManager.getStateProvider().onRemoteRead(segment);
+      }
       GetCacheEntryCommand command = componentRegistry.getCommandsFactory().buildGetCacheEntryCommand(key, segment,
             EnumUtil.mergeBitSets(flagBitSet, getFlagsBitSet()));
       command.setTopologyId(topologyId);
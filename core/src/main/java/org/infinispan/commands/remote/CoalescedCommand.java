@@ -0,0 +1,64 @@
+package org.infinispan.commands.remote;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.marshall.MarshallUtil;
+
+/**
+ * Carries several one-way commands sent to the same member in a single message.
+ * <p>
+ * The transport coalesces the commands that don't expect a response and don't need to be delivered in order, and
+ * the receiver handles each of them as if it was received in its own message.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public class CoalescedCommand implements ReplicableCommand {
+
+   public static final byte COMMAND_ID = 28;
+
+   private List<ReplicableCommand> commands;
+
+   public CoalescedCommand() {
+   }
+
+   public CoalescedCommand(List<ReplicableCommand> commands) {
+      this.commands = commands;
+   }
+
+   public List<ReplicableCommand> getCommands() {
+      return commands;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallCollection(commands, output);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      commands = MarshallUtil.unmarshallCollection(input, ArrayList::new);
+   }
+
+   @Override
+   public String toString() {
+      return "CoalescedCommand{" +
+            "commands=" + commands +
+            '}';
+   }
+}
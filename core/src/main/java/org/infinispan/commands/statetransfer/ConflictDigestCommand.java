@@ -0,0 +1,91 @@
+package org.infinispan.commands.statetransfer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.conflict.impl.StateReceiver;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.util.ByteString;
+
+/**
+ * Get the hash tree of the entries of a segment, to find the entries that differ between the owners during conflict
+ * resolution.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public class ConflictDigestCommand extends BaseRpcCommand implements TopologyAffectedCommand {
+
+   public static final byte COMMAND_ID = 125;
+
+   private int topologyId;
+   private int segmentId;
+
+   // For command id uniqueness test only
+   public ConflictDigestCommand() {
+      this(null);
+   }
+
+   public ConflictDigestCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public ConflictDigestCommand(ByteString cacheName, int topologyId, int segmentId) {
+      super(cacheName);
+      this.topologyId = topologyId;
+      this.segmentId = segmentId;
+   }
+
+   @Override
+   public CompletionStage<long[]> invokeAsync(ComponentRegistry registry) throws Throwable {
+      StateReceiver<?, ?> stateReceiver = registry.getComponent(StateReceiver.class);
+      return stateReceiver.getSegmentDigest(segmentId);
+   }
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   public int getSegmentId() {
+      return segmentId;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeInt(segmentId);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      segmentId = input.readInt();
+   }
+
+   @Override
+   public String toString() {
+      return "ConflictDigestCommand{" +
+            "topologyId=" + topologyId +
+            ", segmentId=" + segmentId +
+            ", cacheName=" + cacheName +
+            '}';
+   }
+}
@@ -0,0 +1,104 @@
+package org.infinispan.commands.statetransfer;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSetsExternalization;
+import org.infinispan.conflict.impl.StateReceiver;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.util.ByteString;
+
+/**
+ * Get the entries of a segment that belong to some leaves of the segment's hash tree, after the digests of those
+ * leaves were found to differ between the owners during conflict resolution.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public class ConflictEntriesCommand extends BaseRpcCommand implements TopologyAffectedCommand {
+
+   public static final byte COMMAND_ID = 126;
+
+   private int topologyId;
+   private int segmentId;
+   private IntSet leaves;
+
+   // For command id uniqueness test only
+   public ConflictEntriesCommand() {
+      this(null);
+   }
+
+   public ConflictEntriesCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public ConflictEntriesCommand(ByteString cacheName, int topologyId, int segmentId, IntSet leaves) {
+      super(cacheName);
+      this.topologyId = topologyId;
+      this.segmentId = segmentId;
+      this.leaves = leaves;
+   }
+
+   @Override
+   public CompletionStage<Collection<InternalCacheEntry<Object, Object>>> invokeAsync(ComponentRegistry registry) throws Throwable {
+      StateReceiver<Object, Object> stateReceiver = registry.getComponent(StateReceiver.class);
+      return stateReceiver.getSegmentEntries(segmentId, leaves);
+   }
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   public int getSegmentId() {
+      return segmentId;
+   }
+
+   public IntSet getLeaves() {
+      return leaves;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeInt(segmentId);
+      IntSetsExternalization.writeTo(output, leaves);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      segmentId = input.readInt();
+      leaves = IntSetsExternalization.readFrom(input);
+   }
+
+   @Override
+   public String toString() {
+      return "ConflictEntriesCommand{" +
+            "topologyId=" + topologyId +
+            ", segmentId=" + segmentId +
+            ", leaves=" + leaves +
+            ", cacheName=" + cacheName +
+            '}';
+   }
+}
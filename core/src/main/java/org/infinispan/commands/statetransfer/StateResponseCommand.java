@@ -1,15 +1,21 @@
 package org.infinispan.commands.statetransfer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.CompletionStage;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.conflict.impl.StateReceiver;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.statetransfer.StateChunk;
@@ -41,6 +47,11 @@ public class StateResponseCommand extends BaseRpcCommand implements TopologyAffe
     */
    private Collection<StateChunk> stateChunks;
 
+   /**
+    * The state chunks marshalled and compressed, or {@code null} if the state chunks are not compressed.
+    */
+   private byte[] compressedChunks;
+
    /**
     * Whether the returned state should be applied to the underlying cache upon delivery
     */
@@ -75,6 +86,10 @@ public CompletionStage<?> invokeAsync(ComponentRegistry componentRegistry) throw
       final boolean trace = log.isTraceEnabled();
       LogFactory.pushNDC(cacheName, trace);
       try {
+         if (compressedChunks != null) {
+            stateChunks = decompress(componentRegistry.getInternalMarshaller());
+            compressedChunks = null;
+         }
          if (applyState) {
             StateConsumer stateConsumer = componentRegistry.getStateTransferManager().getStateConsumer();
             return stateConsumer.applyState(origin, topologyId, pushTransfer, stateChunks);
@@ -112,17 +127,59 @@ public Collection<StateChunk> getStateChunks() {
       return stateChunks;
    }
 
+   /**
+    * Marshalls and compresses the state chunks, so that they are sent compressed.
+    *
+    * @return the size of the compressed state chunks in bytes
+    */
+   public int compress(StreamingMarshaller marshaller) throws IOException, InterruptedException {
+      byte[] bytes = marshaller.objectToByteBuffer(new ArrayList<>(stateChunks));
+      ExposedByteArrayOutputStream compressed = new ExposedByteArrayOutputStream(bytes.length / 2 + 64);
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+         out.write(bytes);
+      } finally {
+         deflater.end();
+      }
+      compressedChunks = compressed.toByteArray();
+      if (log.isTraceEnabled())
+         log.tracef("Compressed %d bytes of state chunks to %d bytes", bytes.length, compressedChunks.length);
+      return compressedChunks.length;
+   }
+
+   @SuppressWarnings("unchecked")
+   private Collection<StateChunk> decompress(StreamingMarshaller marshaller) throws IOException, ClassNotFoundException {
+      ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream(compressedChunks.length * 2);
+      try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(compressedChunks))) {
+         byte[] buf = new byte[8192];
+         int read;
+         while ((read = in.read(buf)) != -1) {
+            bytes.write(buf, 0, read);
+         }
+      }
+      return (Collection<StateChunk>) marshaller.objectFromByteBuffer(bytes.getRawBuffer(), 0, bytes.size());
+   }
+
    @Override
    public void writeTo(ObjectOutput output) throws IOException {
       output.writeBoolean(pushTransfer);
-      MarshallUtil.marshallCollection(stateChunks, output);
+      output.writeBoolean(compressedChunks != null);
+      if (compressedChunks != null) {
+         MarshallUtil.marshallByteArray(compressedChunks, output);
+      } else {
+         MarshallUtil.marshallCollection(stateChunks, output);
+      }
       output.writeBoolean(applyState);
    }
 
    @Override
    public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
       pushTransfer = input.readBoolean();
-      stateChunks = MarshallUtil.unmarshallCollection(input, ArrayList::new);
+      if (input.readBoolean()) {
+         compressedChunks = MarshallUtil.unmarshallByteArray(input);
+      } else {
+         stateChunks = MarshallUtil.unmarshallCollection(input, ArrayList::new);
+      }
       applyState = input.readBoolean();
    }
 
@@ -131,7 +188,7 @@ public String toString() {
       return "StateResponseCommand{" +
             "cache=" + cacheName +
             ", pushTransfer=" + pushTransfer +
-            ", stateChunks=" + stateChunks +
+            ", stateChunks=" + (compressedChunks != null ? compressedChunks.length + " compressed bytes" : stateChunks) +
             ", origin=" + origin +
             ", topologyId=" + topologyId +
             ", applyState=" + applyState +
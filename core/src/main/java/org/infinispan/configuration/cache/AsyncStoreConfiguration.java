@@ -22,9 +22,12 @@ public class AsyncStoreConfiguration implements ConfigurationInfo {
    @Deprecated
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder("threadPoolSize", 1).immutable().build();
    public static final AttributeDefinition<Boolean> FAIL_SILENTLY = AttributeDefinition.builder("failSilently", false).immutable().build();
+   public static final AttributeDefinition<Long> FLUSH_INTERVAL = AttributeDefinition.builder("flushInterval", 0L).immutable().build();
+   public static final AttributeDefinition<Boolean> SPILL_WHEN_FULL = AttributeDefinition.builder("spillWhenFull", false).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY,
+            FLUSH_INTERVAL, SPILL_WHEN_FULL);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(WRITE_BEHIND.getLocalName());
@@ -33,6 +36,8 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> modificationQueueSize;
    private final Attribute<Integer> threadPoolSize;
    private final Attribute<Boolean> failSilently;
+   private final Attribute<Long> flushInterval;
+   private final Attribute<Boolean> spillWhenFull;
 
    private final AttributeSet attributes;
 
@@ -42,6 +47,8 @@ static AttributeSet attributeDefinitionSet() {
       this.modificationQueueSize = attributes.attribute(MODIFICATION_QUEUE_SIZE);
       this.threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
       this.failSilently = attributes.attribute(FAIL_SILENTLY);
+      this.flushInterval = attributes.attribute(FLUSH_INTERVAL);
+      this.spillWhenFull = attributes.attribute(SPILL_WHEN_FULL);
    }
 
    @Override
@@ -79,6 +86,22 @@ public boolean failSilently() {
       return failSilently.get();
    }
 
+   /**
+    * The time, in milliseconds, that modifications are collected before they are written to the store. If 0, a batch
+    * is written as soon as a modification is made and no other batch is being written.
+    */
+   public long flushInterval() {
+      return flushInterval.get();
+   }
+
+   /**
+    * If true, modifications of keys that are not queued are written directly to the store when the modification queue
+    * is full, instead of waiting for the current batch to complete.
+    */
+   public boolean spillWhenFull() {
+      return spillWhenFull.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
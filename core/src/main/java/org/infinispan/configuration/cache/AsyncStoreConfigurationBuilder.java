@@ -2,8 +2,13 @@
 
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FAIL_SILENTLY;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_INTERVAL;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.SPILL_WHEN_FULL;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
+import static org.infinispan.util.logging.Log.CONFIG;
+
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
@@ -92,9 +97,41 @@ public AsyncStoreConfigurationBuilder<S> failSilently(boolean failSilently) {
       return this;
    }
 
+   /**
+    * @param interval The time, in milliseconds, that modifications are collected before they are written to the store
+    *                 as a single batch, so that repeated updates of the same key are written only once. The batch is
+    *                 written earlier if the modification queue is full. If 0, which is the default, a batch is written
+    *                 as soon as a modification is made and no other batch is being written.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushInterval(long interval) {
+      attributes.attribute(FLUSH_INTERVAL).set(interval);
+      return this;
+   }
+
+   /**
+    * Same as {@link #flushInterval(long)} but with a {@link TimeUnit}.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushInterval(long interval, TimeUnit unit) {
+      return flushInterval(unit.toMillis(interval));
+   }
+
+   /**
+    * @param spillWhenFull If true, the modifications of keys that are not queued are written directly to the
+    *                      underlying store when the modification queue is full, instead of making the write wait
+    *                      until the current batch completes. This bounds the memory used by the queue without
+    *                      blocking the writers on the batches.
+    */
+   public AsyncStoreConfigurationBuilder<S> spillWhenFull(boolean spillWhenFull) {
+      attributes.attribute(SPILL_WHEN_FULL).set(spillWhenFull);
+      return this;
+   }
+
    @Override
    public
    void validate() {
+      if (attributes.attribute(FLUSH_INTERVAL).get() < 0) {
+         throw CONFIG.invalidAsyncStoreFlushInterval(attributes.attribute(FLUSH_INTERVAL).get());
+      }
    }
 
    @Override
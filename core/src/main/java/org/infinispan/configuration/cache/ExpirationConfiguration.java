@@ -20,11 +20,14 @@ public class ExpirationConfiguration implements Matchable<ExpirationConfiguratio
    public static final AttributeDefinition<Long> MAX_IDLE = AttributeDefinition.builder("maxIdle", -1l).build();
    public static final AttributeDefinition<Boolean> REAPER_ENABLED = AttributeDefinition.builder("reaperEnabled", true).immutable().autoPersist(false).build();
    public static final AttributeDefinition<Long> WAKEUP_INTERVAL = AttributeDefinition.builder("wakeUpInterval", TimeUnit.MINUTES.toMillis(1)).xmlName("interval").build();
+   public static final AttributeDefinition<Integer> REAPER_SEGMENTS_PER_RUN = AttributeDefinition.builder("reaperSegmentsPerRun", -1).immutable().build();
+   public static final AttributeDefinition<Boolean> REAPER_INDEX = AttributeDefinition.builder("reaperIndex", false).immutable().build();
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(EXPIRATION.getLocalName());
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(ExpirationConfiguration.class, LIFESPAN, MAX_IDLE, REAPER_ENABLED, WAKEUP_INTERVAL);
+      return new AttributeSet(ExpirationConfiguration.class, LIFESPAN, MAX_IDLE, REAPER_ENABLED, WAKEUP_INTERVAL,
+            REAPER_SEGMENTS_PER_RUN, REAPER_INDEX);
    }
 
    @Override
@@ -36,6 +39,8 @@ public ElementDefinition getElementDefinition() {
    private final Attribute<Long> maxIdle;
    private final Attribute<Boolean> reaperEnabled;
    private final Attribute<Long> wakeUpInterval;
+   private final Attribute<Integer> reaperSegmentsPerRun;
+   private final Attribute<Boolean> reaperIndex;
    private final AttributeSet attributes;
 
    ExpirationConfiguration(AttributeSet attributes) {
@@ -44,6 +49,8 @@ public ElementDefinition getElementDefinition() {
       maxIdle = attributes.attribute(MAX_IDLE);
       reaperEnabled = attributes.attribute(REAPER_ENABLED);
       wakeUpInterval = attributes.attribute(WAKEUP_INTERVAL);
+      reaperSegmentsPerRun = attributes.attribute(REAPER_SEGMENTS_PER_RUN);
+      reaperIndex = attributes.attribute(REAPER_INDEX);
    }
 
    /**
@@ -84,6 +91,23 @@ public long wakeUpInterval() {
       return wakeUpInterval.get();
    }
 
+   /**
+    * The number of segments whose in-memory entries are checked for expiration by each run of the reaper. The runs go
+    * through the segments in turn, so all the segments are checked every {@code numSegments / reaperSegmentsPerRun}
+    * runs. -1 means all the segments are checked by each run.
+    */
+   public int reaperSegmentsPerRun() {
+      return reaperSegmentsPerRun.get();
+   }
+
+   /**
+    * Whether the reaper keeps an index of the in-memory entries by expiration time, so that each run only checks the
+    * entries that are due to expire instead of iterating over the data container.
+    */
+   public boolean reaperIndex() {
+      return reaperIndex.get();
+   }
+
    @Override
    public String toString() {
       return "ExpirationConfiguration [attributes=" + attributes + "]";
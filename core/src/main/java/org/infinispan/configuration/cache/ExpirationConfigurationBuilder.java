@@ -3,7 +3,10 @@
 import static org.infinispan.configuration.cache.ExpirationConfiguration.LIFESPAN;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.MAX_IDLE;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.REAPER_ENABLED;
+import static org.infinispan.configuration.cache.ExpirationConfiguration.REAPER_INDEX;
+import static org.infinispan.configuration.cache.ExpirationConfiguration.REAPER_SEGMENTS_PER_RUN;
 import static org.infinispan.configuration.cache.ExpirationConfiguration.WAKEUP_INTERVAL;
+import static org.infinispan.util.logging.Log.CONFIG;
 
 import java.util.concurrent.TimeUnit;
 
@@ -130,8 +133,32 @@ public ExpirationConfigurationBuilder wakeUpInterval(long l, TimeUnit unit) {
       return wakeUpInterval(unit.toMillis(l));
    }
 
+   /**
+    * The number of segments whose in-memory entries are checked for expiration by each run of the reaper. The runs go
+    * through the segments in turn, so all the segments are checked every {@code numSegments / reaperSegmentsPerRun}
+    * runs. -1 means all the segments are checked by each run.
+    */
+   public ExpirationConfigurationBuilder reaperSegmentsPerRun(int segments) {
+      attributes.attribute(REAPER_SEGMENTS_PER_RUN).set(segments);
+      return this;
+   }
+
+   /**
+    * Whether the reaper keeps an index of the in-memory entries by expiration time, so that each run only checks the
+    * entries that are due to expire instead of iterating over the data container. The index uses additional memory
+    * for each entry that can expire.
+    */
+   public ExpirationConfigurationBuilder reaperIndex(boolean enabled) {
+      attributes.attribute(REAPER_INDEX).set(enabled);
+      return this;
+   }
+
    @Override
    public void validate() {
+      int segmentsPerRun = attributes.attribute(REAPER_SEGMENTS_PER_RUN).get();
+      if (segmentsPerRun == 0 || segmentsPerRun < -1) {
+         throw CONFIG.invalidReaperSegmentsPerRun(segmentsPerRun);
+      }
    }
 
    @Override
@@ -10,6 +10,7 @@
 import org.infinispan.commons.configuration.elements.DefaultElementDefinition;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
 import org.infinispan.commons.util.ByteQuantity;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionType;
 
@@ -25,11 +26,13 @@ public class MemoryConfiguration implements Matchable<MemoryConfiguration>, Conf
    public static final AttributeDefinition<String> MAX_SIZE = AttributeDefinition.builder("maxSize", null, String.class).build();
    public static final AttributeDefinition<Long> MAX_COUNT = AttributeDefinition.builder("maxCount", -1L).build();
    public static final AttributeDefinition<EvictionStrategy> WHEN_FULL = AttributeDefinition.builder("whenFull", EvictionStrategy.NONE).immutable().build();
+   public static final AttributeDefinition<OffHeapAllocatorType> ALLOCATOR = AttributeDefinition.builder("allocator", OffHeapAllocatorType.UNPOOLED).immutable().build();
+   public static final AttributeDefinition<EvictionPolicy> EVICTION_POLICY = AttributeDefinition.builder("evictionPolicy", EvictionPolicy.LRU).immutable().build();
 
    private final MemoryStorageConfiguration memoryStorageConfiguration;
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL);
+      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL, ALLOCATOR, EVICTION_POLICY);
    }
 
    private final AttributeSet attributes;
@@ -165,6 +168,20 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(WHEN_FULL).get();
    }
 
+   /**
+    * @return The {@link OffHeapAllocatorType} used to allocate native memory when the storage is off-heap.
+    */
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(ALLOCATOR).get();
+   }
+
+   /**
+    * @return The {@link EvictionPolicy} used to select entries to remove when the storage is off-heap.
+    */
+   public EvictionPolicy evictionPolicy() {
+      return attributes.attribute(EVICTION_POLICY).get();
+   }
+
    /**
     * Returns whether remove eviction is in use
     */
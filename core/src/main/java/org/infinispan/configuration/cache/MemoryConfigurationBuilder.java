@@ -15,6 +15,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.elements.ElementDefinition;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionType;
 
@@ -262,6 +263,36 @@ public EvictionStrategy evictionStrategy() {
       return whenFull();
    }
 
+   /**
+    * Defines how native memory is allocated when the storage is {@link StorageType#OFF_HEAP}. Defaults to
+    * {@link OffHeapAllocatorType#UNPOOLED}.
+    * @param allocator the allocator type
+    * @return this configuration builder
+    */
+   public MemoryConfigurationBuilder allocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(MemoryConfiguration.ALLOCATOR).get();
+   }
+
+   /**
+    * Defines which entries are removed when the container is full and the storage is {@link StorageType#OFF_HEAP}.
+    * Defaults to {@link EvictionPolicy#LRU}. Heap storage always uses W-TinyLFU.
+    * @param evictionPolicy the eviction policy
+    * @return this configuration builder
+    */
+   public MemoryConfigurationBuilder evictionPolicy(EvictionPolicy evictionPolicy) {
+      attributes.attribute(MemoryConfiguration.EVICTION_POLICY).set(evictionPolicy);
+      return this;
+   }
+
+   public EvictionPolicy evictionPolicy() {
+      return attributes.attribute(MemoryConfiguration.EVICTION_POLICY).get();
+   }
+
    boolean isSizeBounded() {
       return maxSize() != null;
    }
@@ -318,6 +349,12 @@ public void validate() {
             }
          }
       }
+      if (allocator() != OffHeapAllocatorType.UNPOOLED && storage() != StorageType.OFF_HEAP) {
+         throw CONFIG.offHeapAllocatorRequiresOffHeapStorage(allocator());
+      }
+      if (evictionPolicy() != EvictionPolicy.LRU && storage() != StorageType.OFF_HEAP) {
+         throw CONFIG.evictionPolicyRequiresOffHeapStorage(evictionPolicy());
+      }
       checkBinaryRequirement();
    }
 
@@ -0,0 +1,20 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how native memory is allocated when the data container uses {@link StorageType#OFF_HEAP}.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public enum OffHeapAllocatorType {
+   /**
+    * Every entry is allocated and freed individually by the native allocator.
+    */
+   UNPOOLED,
+
+   /**
+    * Entries are carved out of larger native slabs grouped by size class, which are reused as entries are removed.
+    * This avoids a call to the native allocator for most writes and reduces native memory fragmentation.
+    */
+   POOLED
+}
@@ -22,8 +22,11 @@ public class PersistenceConfiguration implements Matchable<PersistenceConfigurat
    public static final AttributeDefinition<Integer> AVAILABILITY_INTERVAL = AttributeDefinition.builder("availabilityInterval", 1000).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_ATTEMPTS = AttributeDefinition.builder("connectionAttempts", 10).immutable().build();
    public static final AttributeDefinition<Integer> CONNECTION_INTERVAL = AttributeDefinition.builder("connectionInterval", 50).immutable().build();
+   public static final AttributeDefinition<Boolean> NEGATIVE_LOOKUP_FILTER = AttributeDefinition.builder("negativeLookupFilter", false).immutable().build();
+   public static final AttributeDefinition<Integer> PRELOAD_PARALLELISM = AttributeDefinition.builder("preloadParallelism", 0).immutable().build();
+   public static final AttributeDefinition<Long> TIER_DEMOTION_IDLE_TIME = AttributeDefinition.builder("tierDemotionIdleTime", -1L).immutable().build();
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL);
+      return new AttributeSet(PersistenceConfiguration.class, PASSIVATION, AVAILABILITY_INTERVAL, CONNECTION_ATTEMPTS, CONNECTION_INTERVAL, NEGATIVE_LOOKUP_FILTER, PRELOAD_PARALLELISM, TIER_DEMOTION_IDLE_TIME);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(PERSISTENCE.getLocalName());
@@ -32,6 +35,9 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> availabilityInterval;
    private final Attribute<Integer> connectionAttempts;
    private final Attribute<Integer> connectionInterval;
+   private final Attribute<Boolean> negativeLookupFilter;
+   private final Attribute<Integer> preloadParallelism;
+   private final Attribute<Long> tierDemotionIdleTime;
    private final AttributeSet attributes;
    private final List<StoreConfiguration> stores;
    private final List<ConfigurationInfo> subElements = new ArrayList<>();
@@ -43,6 +49,9 @@ static AttributeSet attributeDefinitionSet() {
       this.availabilityInterval = attributes.attribute(AVAILABILITY_INTERVAL);
       this.connectionAttempts = attributes.attribute(CONNECTION_ATTEMPTS);
       this.connectionInterval = attributes.attribute(CONNECTION_INTERVAL);
+      this.negativeLookupFilter = attributes.attribute(NEGATIVE_LOOKUP_FILTER);
+      this.preloadParallelism = attributes.attribute(PRELOAD_PARALLELISM);
+      this.tierDemotionIdleTime = attributes.attribute(TIER_DEMOTION_IDLE_TIME);
       this.stores = stores;
       this.subElements.addAll(stores);
    }
@@ -77,6 +86,37 @@ public int connectionInterval() {
       return connectionInterval.get();
    }
 
+   /**
+    * If true, a Bloom filter of the keys contained in the stores is kept for each segment, so that loads of keys
+    * which are not in any store do not have to hit the stores.
+    */
+   public boolean negativeLookupFilter() {
+      return negativeLookupFilter.get();
+   }
+
+   /**
+    * The number of groups of segments that are preloaded concurrently from a segmented store. 0 means the number of
+    * available processors.
+    */
+   public int preloadParallelism() {
+      return preloadParallelism.get();
+   }
+
+   /**
+    * The time, in milliseconds, after which an entry that was not accessed is moved from the first store, the fast tier,
+    * to the second store, the cold tier. A negative or zero value means the stores are not tiered.
+    */
+   public long tierDemotionIdleTime() {
+      return tierDemotionIdleTime.get();
+   }
+
+   /**
+    * @return true if the two stores are composed as a fast tier and a cold tier
+    */
+   public boolean tiered() {
+      return tierDemotionIdleTime.get() > 0;
+   }
+
    public List<StoreConfiguration> stores() {
       return stores;
    }
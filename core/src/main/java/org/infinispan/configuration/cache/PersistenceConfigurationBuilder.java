@@ -3,7 +3,10 @@
 import static org.infinispan.configuration.cache.PersistenceConfiguration.AVAILABILITY_INTERVAL;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_ATTEMPTS;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.CONNECTION_INTERVAL;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.NEGATIVE_LOOKUP_FILTER;
 import static org.infinispan.configuration.cache.PersistenceConfiguration.PASSIVATION;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.PRELOAD_PARALLELISM;
+import static org.infinispan.configuration.cache.PersistenceConfiguration.TIER_DEMOTION_IDLE_TIME;
 import static org.infinispan.configuration.parsing.Element.CLUSTER_LOADER;
 import static org.infinispan.configuration.parsing.Element.FILE_STORE;
 import static org.infinispan.configuration.parsing.Element.STORE;
@@ -138,6 +141,46 @@ public PersistenceConfigurationBuilder connectionInterval(int interval) {
       return this;
    }
 
+   /**
+    * @param enabled If true, a Bloom filter of the keys contained in the stores is maintained for each segment and
+    *                consulted before loading a key, so that the stores are not hit for keys that they do not contain.
+    *                The filters are built from the stores on startup. The filter is only used when all the stores are
+    *                local, writable and support bulk reads.
+    */
+   public PersistenceConfigurationBuilder negativeLookupFilter(boolean enabled) {
+      attributes.attribute(NEGATIVE_LOOKUP_FILTER).set(enabled);
+      return this;
+   }
+
+   /**
+    * @param parallelism The number of groups of segments that are read concurrently from the store when preloading.
+    *                    Segments are only read concurrently if the preloading store is segmented. 0, the default, means
+    *                    the number of available processors.
+    */
+   public PersistenceConfigurationBuilder preloadParallelism(int parallelism) {
+      attributes.attribute(PRELOAD_PARALLELISM).set(parallelism);
+      return this;
+   }
+
+   /**
+    * @param idleTime The time, in milliseconds, after which an entry that was not written or read is moved from the fast
+    *                 tier to the cold tier. A positive value composes the two configured stores as tiers: writes land
+    *                 in the first store, idle entries are demoted asynchronously to the second store and reads of
+    *                 demoted entries promote them back to the first store. A negative or zero value, the default,
+    *                 disables tiering.
+    */
+   public PersistenceConfigurationBuilder tierDemotionIdleTime(long idleTime) {
+      attributes.attribute(TIER_DEMOTION_IDLE_TIME).set(idleTime);
+      return this;
+   }
+
+   /**
+    * Same as {@link #tierDemotionIdleTime(long)} but with an explicit time unit.
+    */
+   public PersistenceConfigurationBuilder tierDemotionIdleTime(long idleTime, TimeUnit unit) {
+      return tierDemotionIdleTime(unit.toMillis(idleTime));
+   }
+
    /**
     * If true, data is written to the cache store only when it is evicted from memory, which is known as 'passivation'.
     * When the data is requested again it is activated, which returns the data to memory and removes it from the
@@ -241,6 +284,21 @@ public void validate() {
       if (numPreload > 1) {
          throw CONFIG.onlyOnePreloadStoreAllowed();
       }
+      int preloadParallelism = attributes.attribute(PRELOAD_PARALLELISM).get();
+      if (preloadParallelism < 0) {
+         throw CONFIG.invalidPreloadParallelism(preloadParallelism);
+      }
+      if (attributes.attribute(TIER_DEMOTION_IDLE_TIME).get() > 0) {
+         if (stores.size() != 2) {
+            throw CONFIG.tieredPersistenceRequiresTwoStores(stores.size());
+         }
+         for (StoreConfigurationBuilder<?, ?> b : stores) {
+            StoreConfiguration storeConfiguration = b.create();
+            if (storeConfiguration.transactional()) {
+               throw CONFIG.tieredStoreCannotBeTransactional(storeConfiguration.getClass().getSimpleName());
+            }
+         }
+      }
 
       // If a store is present, the reaper expiration thread must be enabled.
       if (!stores.isEmpty()) {
@@ -28,9 +28,11 @@ public class SingleFileStoreConfiguration extends AbstractSegmentedStoreConfigur
    public static final AttributeDefinition<String> LOCATION = AttributeDefinition.builder("location", null, String.class).immutable().xmlName("path").global(false).build();
    public static final AttributeDefinition<Integer> MAX_ENTRIES = AttributeDefinition.builder("maxEntries", -1).immutable().build();
    public static final AttributeDefinition<Float> FRAGMENTATION_FACTOR = AttributeDefinition.builder("fragmentationFactor", 0.75f).immutable().build();
+   public static final AttributeDefinition<Boolean> APPEND_ONLY = AttributeDefinition.builder("appendOnly", false).immutable().build();
+   public static final AttributeDefinition<Float> COMPACTION_THRESHOLD = AttributeDefinition.builder("compactionThreshold", 0.5f).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR);
+      return new AttributeSet(SingleFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, MAX_ENTRIES, FRAGMENTATION_FACTOR, APPEND_ONLY, COMPACTION_THRESHOLD);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(FILE_STORE.getLocalName(), true, false);
@@ -38,12 +40,16 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<String> location;
    private final Attribute<Integer> maxEntries;
    private final Attribute<Float> fragmentationFactor;
+   private final Attribute<Boolean> appendOnly;
+   private final Attribute<Float> compactionThreshold;
 
    public SingleFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
       super(attributes, async);
       location = attributes.attribute(LOCATION);
       maxEntries = attributes.attribute(MAX_ENTRIES);
       fragmentationFactor = attributes.attribute(FRAGMENTATION_FACTOR);
+      appendOnly = attributes.attribute(APPEND_ONLY);
+      compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD);
    }
 
    @Override
@@ -81,6 +87,14 @@ public float fragmentationFactor() {
       return fragmentationFactor.get();
    }
 
+   public boolean appendOnly() {
+      return appendOnly.get();
+   }
+
+   public float compactionThreshold() {
+      return compactionThreshold.get();
+   }
+
    @Override
    public AttributeSet attributes() {
       return attributes;
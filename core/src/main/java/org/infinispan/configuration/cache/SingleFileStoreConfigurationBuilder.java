@@ -1,6 +1,8 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.APPEND_ONLY;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
@@ -92,6 +94,26 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * When enabled, the store never overwrites free space in the file. Every write is appended to the end of the file
+    * and the space of replaced or removed entries is reclaimed by a background compaction that rewrites the live
+    * entries to a new file. The in-memory index is a concurrent map, so writes from different threads don't have to
+    * wait for each other. An append-only store cannot be bounded with {@link #maxEntries(int)}.
+    */
+   public SingleFileStoreConfigurationBuilder appendOnly(boolean appendOnly) {
+      attributes.attribute(APPEND_ONLY).set(appendOnly);
+      return this;
+   }
+
+   /**
+    * The fraction of the file occupied by replaced or removed entries that triggers a compaction of an append-only
+    * store. Must be greater than 0 and less than or equal to 1, the default is 0.5.
+    */
+   public SingleFileStoreConfigurationBuilder compactionThreshold(float compactionThreshold) {
+      attributes.attribute(COMPACTION_THRESHOLD).set(compactionThreshold);
+      return this;
+   }
+
    @Override
    public void validate() {
       Attribute<Boolean> segmentedAttribute = attributes.attribute(SEGMENTED);
@@ -99,6 +121,13 @@ public void validate() {
          NOTIFIED_SEGMENTED = true;
          Log.CONFIG.segmentedStoreUsesManyFileDescriptors(SingleFileStore.class.getSimpleName());
       }
+      if (attributes.attribute(APPEND_ONLY).get() && attributes.attribute(MAX_ENTRIES).get() > 0) {
+         throw Log.CONFIG.appendOnlyFileStoreCannotBeBounded();
+      }
+      float compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD).get();
+      if (compactionThreshold <= 0 || compactionThreshold > 1) {
+         throw Log.CONFIG.invalidFileStoreCompactionThreshold(compactionThreshold);
+      }
       super.validate();
    }
 
@@ -23,17 +23,22 @@ public class StateTransferConfiguration implements Matchable<StateTransferConfig
    public static final AttributeDefinition<Boolean> FETCH_IN_MEMORY_STATE = AttributeDefinition.builder("fetchInMemoryState", true).xmlName("enabled").immutable().build();
    public static final AttributeDefinition<Long> TIMEOUT = AttributeDefinition.builder("timeout", TimeUnit.MINUTES.toMillis(4)).immutable().build();
    public static final AttributeDefinition<Integer> CHUNK_SIZE = AttributeDefinition.builder("chunkSize", 512).immutable().build();
+   public static final AttributeDefinition<Long> CHUNK_BYTES = AttributeDefinition.builder("chunkBytes", 0L).immutable().build();
+   public static final AttributeDefinition<Boolean> COMPRESSION = AttributeDefinition.builder("compression", false).immutable().build();
 
    public static final ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(STATE_TRANSFER.getLocalName());
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(StateTransferConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, AWAIT_INITIAL_TRANSFER);
+      return new AttributeSet(StateTransferConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, CHUNK_BYTES, COMPRESSION,
+            AWAIT_INITIAL_TRANSFER);
    }
 
    private final Attribute<Boolean> awaitInitialTransfer;
    private final Attribute<Boolean> fetchInMemoryState;
    private final Attribute<Long> timeout;
    private final Attribute<Integer> chunkSize;
+   private final Attribute<Long> chunkBytes;
+   private final Attribute<Boolean> compression;
    private final AttributeSet attributes;
 
    StateTransferConfiguration(AttributeSet attributes) {
@@ -42,6 +47,8 @@ static AttributeSet attributeDefinitionSet() {
       fetchInMemoryState = attributes.attribute(FETCH_IN_MEMORY_STATE);
       timeout = attributes.attribute(TIMEOUT);
       chunkSize = attributes.attribute(CHUNK_SIZE);
+      chunkBytes = attributes.attribute(CHUNK_BYTES);
+      compression = attributes.attribute(COMPRESSION);
    }
 
    /**
@@ -81,6 +88,23 @@ public int chunkSize() {
       return chunkSize.get();
    }
 
+   /**
+    * The maximum estimated size in bytes of a batch of cache entries. A batch is sent when it reaches either
+    * {@link #chunkSize()} entries or {@code chunkBytes} bytes, so that caches with large values send fewer entries per
+    * batch. The size of the entries is estimated by marshalling a sample of them. {@code 0} (the default) limits the
+    * batches only by the number of entries.
+    */
+   public long chunkBytes() {
+      return chunkBytes.get();
+   }
+
+   /**
+    * If {@code true}, the batches of cache entries are compressed before they are sent to the other nodes.
+    */
+   public boolean compression() {
+      return compression.get();
+   }
+
    /**
     * If {@code true}, this will cause the first call to method {@code CacheManager.getCache()} on the joiner node to
     * block and wait until the joining is complete and the cache has finished receiving state from neighboring caches
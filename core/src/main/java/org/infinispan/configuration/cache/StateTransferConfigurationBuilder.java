@@ -1,7 +1,9 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.StateTransferConfiguration.AWAIT_INITIAL_TRANSFER;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_BYTES;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.COMPRESSION;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.FETCH_IN_MEMORY_STATE;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.TIMEOUT;
 import static org.infinispan.util.logging.Log.CONFIG;
@@ -75,6 +77,24 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * The maximum estimated size in bytes of a batch of cache entries. A batch is sent when it reaches either
+    * {@code chunkSize} entries or {@code chunkBytes} bytes. {@code 0} (the default) limits the batches only by the
+    * number of entries.
+    */
+   public StateTransferConfigurationBuilder chunkBytes(long bytes) {
+      attributes.attribute(CHUNK_BYTES).set(bytes);
+      return this;
+   }
+
+   /**
+    * If {@code true}, the batches of cache entries are compressed before they are sent to the other nodes.
+    */
+   public StateTransferConfigurationBuilder compression(boolean compression) {
+      attributes.attribute(COMPRESSION).set(compression);
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -98,6 +118,10 @@ public void validate() {
       if (chunkSize <= 0) {
          throw CONFIG.invalidChunkSize(chunkSize);
       }
+      long chunkBytes = attributes.attribute(CHUNK_BYTES).get();
+      if (chunkBytes < 0) {
+         throw CONFIG.invalidChunkBytes(chunkBytes);
+      }
 
       if (clustering().cacheMode().isInvalidation()) {
          Attribute<Boolean> fetchAttribute = attributes.attribute(FETCH_IN_MEMORY_STATE);
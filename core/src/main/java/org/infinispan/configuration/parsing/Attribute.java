@@ -18,9 +18,11 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     @Deprecated
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     @Deprecated
+    APPEND_ONLY,
     ASYNC_EXECUTOR,
     @Deprecated
     ASYNC_MARSHALLING,
@@ -35,10 +37,13 @@ public enum Attribute {
     BIAS_LIFESPAN,
     BLOCKING_EXECUTOR,
     CAPACITY_FACTOR("capacity"),
+    CHUNK_BYTES,
     CHUNK_SIZE,
     CLASS,
     CLUSTER,
+    COMPACTION_THRESHOLD,
     COMPLETED_TX_TIMEOUT("complete-timeout"),
+    COMPRESSION,
     CONCURRENCY_LEVEL,
     CONFIGURATION,
     CONNECTION_ATTEMPTS,
@@ -56,6 +61,7 @@ public enum Attribute {
     EVICTION,
     @Deprecated
     EVICTION_EXECUTOR,
+    EVICTION_POLICY,
     @Deprecated
     EVICTION_STRATEGY,
     EXPIRATION_EXECUTOR,
@@ -65,6 +71,7 @@ public enum Attribute {
     FETCH_STATE,
     @Deprecated
     FLUSH_LOCK_TIMEOUT,
+    FLUSH_INTERVAL,
     FRAGMENTATION_FACTOR,
     GAUGES,
     GROUP_NAME,
@@ -108,6 +115,7 @@ public enum Attribute {
     NAME,
     NAMES,
     NAMES_AS_TAGS("namesAsTags"),
+    NEGATIVE_LOOKUP_FILTER,
     NON_BLOCKING_EXECUTOR,
     NOTIFICATIONS,
     ON_REHASH("onRehash"),
@@ -120,6 +128,7 @@ public enum Attribute {
     POSITION,
     PREFIX,
     PRELOAD,
+    PRELOAD_PARALLELISM,
     PRIORITY,
     PURGE,
     @Deprecated
@@ -129,6 +138,8 @@ public enum Attribute {
     QUEUE_SIZE,
     RACK_ID("rack"),
     READ_ONLY,
+    REAPER_INDEX,
+    REAPER_SEGMENTS_PER_RUN,
     REAPER_WAKE_UP_INTERVAL("reaper-interval"),
     RECOVERY_INFO_CACHE_NAME("recovery-cache"),
     RELATIVE_TO,
@@ -151,6 +162,7 @@ public enum Attribute {
     SITE,
     SIZE,
     @Deprecated
+    SPILL_WHEN_FULL,
     SPIN_DURATION("deadlock-detection-spin"),
     STATISTICS,
     STATISTICS_AVAILABLE,
@@ -171,6 +183,7 @@ public enum Attribute {
     THREAD_POLICY,
     @Deprecated
     THREAD_POOL_SIZE,
+    TIER_DEMOTION_IDLE_TIME,
     TIMEOUT,
     TOTAL_ORDER_EXECUTOR,
     TRANSACTION_MANAGER_LOOKUP_CLASS("transaction-manager-lookup"),
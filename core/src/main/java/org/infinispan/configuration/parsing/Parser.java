@@ -49,6 +49,7 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
@@ -68,6 +69,7 @@
 import org.infinispan.configuration.global.AllowListConfigurationBuilder;
 import org.infinispan.conflict.EntryMergePolicy;
 import org.infinispan.conflict.MergePolicy;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.threads.DefaultThreadFactory;
@@ -1632,6 +1634,20 @@ private void parseMemory(final XMLExtendedStreamReader reader, final Configurati
                case WHEN_FULL:
                   memoryBuilder.whenFull(EvictionStrategy.valueOf(value));
                   break;
+               case ALLOCATOR:
+                  if (reader.getSchema().since(12, 0)) {
+                     memoryBuilder.allocator(OffHeapAllocatorType.valueOf(value));
+                  } else {
+                     throw ParseUtils.unexpectedAttribute(reader, i);
+                  }
+                  break;
+               case EVICTION_POLICY:
+                  if (reader.getSchema().since(12, 0)) {
+                     memoryBuilder.evictionPolicy(EvictionPolicy.valueOf(value));
+                  } else {
+                     throw ParseUtils.unexpectedAttribute(reader, i);
+                  }
+                  break;
                default:
                   throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -2040,6 +2056,14 @@ private void parseExpiration(XMLExtendedStreamReader reader, ConfigurationBuilde
                builder.expiration().wakeUpInterval(Long.parseLong(value));
                break;
             }
+            case REAPER_SEGMENTS_PER_RUN: {
+               builder.expiration().reaperSegmentsPerRun(Integer.parseInt(value));
+               break;
+            }
+            case REAPER_INDEX: {
+               builder.expiration().reaperIndex(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -2201,6 +2225,14 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case CHUNK_BYTES: {
+               builder.clustering().stateTransfer().chunkBytes(Long.parseLong(value));
+               break;
+            }
+            case COMPRESSION: {
+               builder.clustering().stateTransfer().compression(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -2377,6 +2409,15 @@ private void parsePersistence(final XMLExtendedStreamReader reader, final Config
             case CONNECTION_INTERVAL:
                builder.persistence().connectionInterval(Integer.parseInt(value));
                break;
+            case NEGATIVE_LOOKUP_FILTER:
+               builder.persistence().negativeLookupFilter(Boolean.parseBoolean(value));
+               break;
+            case PRELOAD_PARALLELISM:
+               builder.persistence().preloadParallelism(Integer.parseInt(value));
+               break;
+            case TIER_DEMOTION_IDLE_TIME:
+               builder.persistence().tierDemotionIdleTime(Long.parseLong(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2451,6 +2492,22 @@ protected void parseFileStore(XMLExtendedStreamReader reader, ConfigurationBuild
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case APPEND_ONLY: {
+               if (reader.getSchema().since(12, 0)) {
+                  storeBuilder.appendOnly(Boolean.parseBoolean(value));
+               } else {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               break;
+            }
+            case COMPACTION_THRESHOLD: {
+               if (reader.getSchema().since(12, 0)) {
+                  storeBuilder.compactionThreshold(Float.parseFloat(value));
+               } else {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -2563,6 +2620,12 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
             case FAIL_SILENTLY:
                storeBuilder.failSilently(Boolean.parseBoolean(value));
                break;
+            case FLUSH_INTERVAL:
+               storeBuilder.flushInterval(Long.parseLong(value));
+               break;
+            case SPILL_WHEN_FULL:
+               storeBuilder.spillWhenFull(Boolean.parseBoolean(value));
+               break;
             case SHUTDOWN_TIMEOUT: {
                if (reader.getSchema().since(9, 0)) {
                   throw ParseUtils.unexpectedAttribute(reader, attribute.getLocalName());
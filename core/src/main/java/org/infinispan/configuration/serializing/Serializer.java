@@ -640,6 +640,8 @@ private void writeMemory(XMLExtendedStreamWriter writer, Configuration configura
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
+         attributes.write(writer, MemoryConfiguration.EVICTION_POLICY, Attribute.EVICTION_POLICY);
          writer.writeEndElement();
       }
    }
@@ -684,6 +686,9 @@ private void writePersistence(XMLExtendedStreamWriter writer, Configuration conf
          attributes.write(writer, PersistenceConfiguration.AVAILABILITY_INTERVAL, Attribute.AVAILABILITY_INTERVAL);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_ATTEMPTS, Attribute.CONNECTION_ATTEMPTS);
          attributes.write(writer, PersistenceConfiguration.CONNECTION_INTERVAL, Attribute.CONNECTION_INTERVAL);
+         attributes.write(writer, PersistenceConfiguration.NEGATIVE_LOOKUP_FILTER, Attribute.NEGATIVE_LOOKUP_FILTER);
+         attributes.write(writer, PersistenceConfiguration.PRELOAD_PARALLELISM, Attribute.PRELOAD_PARALLELISM);
+         attributes.write(writer, PersistenceConfiguration.TIER_DEMOTION_IDLE_TIME, Attribute.TIER_DEMOTION_IDLE_TIME);
          for (StoreConfiguration store : persistence.stores()) {
             writeStore(writer, store);
          }
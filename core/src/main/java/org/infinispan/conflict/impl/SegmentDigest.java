@@ -0,0 +1,114 @@
+package org.infinispan.conflict.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+
+/**
+ * Hash tree of the entries of a segment, used to find the entries that may differ between the owners of the segment
+ * without transferring all of them.
+ * <p>
+ * Each entry is assigned to one of {@link #LEAVES} leaves by the hash of its key. A leaf digest is the sum of the
+ * hashes of its entries, so it does not depend on the iteration order of the data container, and every inner node is
+ * a hash of its two children. The tree is stored as a binary heap: the root is at index 1 and the children of node
+ * {@code i} are at {@code 2 * i} and {@code 2 * i + 1}.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class SegmentDigest {
+   static final int LEAVES = 256;
+
+   private final long[] tree;
+
+   private SegmentDigest(long[] tree) {
+      this.tree = tree;
+   }
+
+   static SegmentDigest fromArray(long[] tree) {
+      if (tree.length != 2 * LEAVES)
+         throw new IllegalArgumentException("Expected a tree with " + LEAVES + " leaves, got " + tree.length / 2);
+      return new SegmentDigest(tree);
+   }
+
+   /**
+    * @return the leaf of the entries whose key has the given hash
+    */
+   static int leafOf(long keyHash) {
+      return (int) (keyHash & (LEAVES - 1));
+   }
+
+   /**
+    * Finds the leaves whose digest is not the same in all the trees, only descending in the subtrees whose root
+    * digests differ.
+    */
+   static IntSet differingLeaves(Collection<SegmentDigest> digests) {
+      IntSet leaves = IntSets.mutableEmptySet(LEAVES);
+      if (digests.size() < 2)
+         return leaves;
+
+      Deque<Integer> nodes = new ArrayDeque<>();
+      nodes.push(1);
+      while (!nodes.isEmpty()) {
+         int node = nodes.pop();
+         if (sameDigest(digests, node))
+            continue;
+         if (node >= LEAVES) {
+            leaves.set(node - LEAVES);
+         } else {
+            nodes.push(2 * node + 1);
+            nodes.push(2 * node);
+         }
+      }
+      return leaves;
+   }
+
+   private static boolean sameDigest(Collection<SegmentDigest> digests, int node) {
+      Iterator<SegmentDigest> it = digests.iterator();
+      long digest = it.next().tree[node];
+      while (it.hasNext()) {
+         if (it.next().tree[node] != digest)
+            return false;
+      }
+      return true;
+   }
+
+   // Finalizer of SplitMix64
+   private static long mix(long h) {
+      h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+      h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+      return h ^ (h >>> 31);
+   }
+
+   static class Builder {
+      private final long[] tree = new long[2 * LEAVES];
+
+      /**
+       * Adds an entry to the tree.
+       * @param keyHash the hash of the key of the entry
+       * @param valueHash the hash of the value of the entry
+       */
+      void add(long keyHash, long valueHash) {
+         tree[LEAVES + leafOf(keyHash)] += mix(keyHash * 31 + valueHash);
+      }
+
+      SegmentDigest build() {
+         for (int i = LEAVES - 1; i > 0; i--) {
+            tree[i] = mix(tree[2 * i] * 31 + tree[2 * i + 1]);
+         }
+         return new SegmentDigest(tree);
+      }
+   }
+
+   long root() {
+      return tree[1];
+   }
+
+   long[] toArray() {
+      return tree;
+   }
+}
@@ -4,8 +4,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -34,4 +37,19 @@
    CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> getAllReplicasForSegment(int segmentId, LocalizedCacheTopology topology, long timeout);
 
    void receiveState(Address sender, int topologyId, Collection<StateChunk> stateChunks);
+
+   /**
+    * Computes the hash tree of the local entries of a segment, in the data container and in the stores, so that the
+    * node requesting the replicas of the segment only has to transfer the entries whose digests differ between the
+    * owners.
+    *
+    * @return the nodes of the tree, as a binary heap
+    */
+   CompletionStage<long[]> getSegmentDigest(int segmentId);
+
+   /**
+    * Return the local entries of a segment, in the data container and in the stores, that belong to the given leaves
+    * of the segment's hash tree.
+    */
+   CompletionStage<Collection<InternalCacheEntry<K, V>>> getSegmentEntries(int segmentId, IntSet leaves);
 }
@@ -2,25 +2,37 @@
 
 import static org.infinispan.factories.KnownComponentNames.CACHE_NAME;
 import static org.infinispan.factories.KnownComponentNames.NON_BLOCKING_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.PERSISTENCE_MARSHALLER;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.hash.MurmurHash3;
 import org.infinispan.commons.logging.Log;
 import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
+import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.NullCacheEntry;
 import org.infinispan.container.impl.InternalDataContainer;
+import org.infinispan.container.impl.InternalEntryFactory;
 import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.executors.LimitedExecutor;
 import org.infinispan.factories.annotations.ComponentName;
@@ -29,17 +41,34 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.marshall.persistence.PersistenceMarshaller;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.event.DataRehashedEvent;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.ValidResponse;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.impl.MapResponseCollector;
 import org.infinispan.statetransfer.InboundTransferTask;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.concurrent.CompletableFutures;
+
+import io.reactivex.rxjava3.core.Flowable;
 
 /**
+ * Retrieves the replicas of the entries of a segment from all its owners.
+ * <p>
+ * Each owner first computes a {@link SegmentDigest hash tree} of its entries in the segment. When the trees of all
+ * the owners are the same the segment has no conflicts and no entries are transferred, otherwise only the entries in
+ * the leaves whose digests differ are requested. If too many leaves differ, or the digests cannot be retrieved, the
+ * whole segment is transferred from every owner.
+ * <p>
+ * The local entries of a segment include the entries that are only in the stores, as in the state transfer.
+ *
  * @author Ryan Emerson
  * @since 9.1
  */
@@ -55,7 +84,11 @@
    @Inject CacheNotifier<K, V> cacheNotifier;
    @Inject CommandsFactory commandsFactory;
    @Inject InternalDataContainer<K, V> dataContainer;
+   @Inject PersistenceManager persistenceManager;
+   @Inject InternalEntryFactory entryFactory;
    @Inject RpcManager rpcManager;
+   @Inject @ComponentName(PERSISTENCE_MARSHALLER)
+   PersistenceMarshaller persistenceMarshaller;
    @Inject @ComponentName(NON_BLOCKING_EXECUTOR)
    ExecutorService nonBlockingExecutor;
 
@@ -118,6 +151,100 @@ public void receiveState(Address sender, int topologyId, Collection<StateChunk>
       request.receiveState(sender, topologyId, stateChunks);
    }
 
+   @Override
+   public CompletionStage<long[]> getSegmentDigest(int segmentId) {
+      return publishEntries(segmentId)
+            .collect(SegmentDigest.Builder::new, (builder, entry) -> builder.add(hash(entry.getKey()), hash(entry.getValue())))
+            .map(builder -> builder.build().toArray())
+            .toCompletionStage();
+   }
+
+   @Override
+   public CompletionStage<Collection<InternalCacheEntry<K, V>>> getSegmentEntries(int segmentId, IntSet leaves) {
+      return publishEntries(segmentId)
+            .filter(entry -> leaves.contains(SegmentDigest.leafOf(hash(entry.getKey()))))
+            .<Collection<InternalCacheEntry<K, V>>>collect(ArrayList::new, Collection::add)
+            .toCompletionStage();
+   }
+
+   /**
+    * Publishes the entries of a segment in the data container, followed by the entries that are only contained in the
+    * stores used for state transfer, like {@link org.infinispan.statetransfer.StateProviderImpl} does.
+    */
+   private Flowable<InternalCacheEntry<K, V>> publishEntries(int segmentId) {
+      IntSet segments = IntSets.immutableSet(segmentId);
+      Flowable<InternalCacheEntry<K, V>> containerEntries = Flowable.fromIterable(() -> dataContainer.iterator(segments))
+            .filter(ice -> !ice.isL1Entry());
+      Flowable<InternalCacheEntry<K, V>> storeEntries = Flowable.fromPublisher(
+            persistenceManager.<K, V>publishEntries(segments, k -> !dataContainer.containsKey(k), true, true,
+                                                    Configurations::isStateTransferStore))
+            .map(me -> entryFactory.create(me.getKey(), me.getValue(), me.getMetadata()));
+      return containerEntries.concatWith(storeEntries);
+   }
+
+   /**
+    * Hashes the marshalled form of an object, because the hash code of a key or value is not guaranteed to be the
+    * same on every node.
+    */
+   private long hash(Object o) {
+      byte[] bytes;
+      if (o instanceof WrappedBytes) {
+         WrappedBytes wrappedBytes = (WrappedBytes) o;
+         bytes = wrappedBytes.getBytes();
+         if (wrappedBytes.backArrayOffset() != 0 || wrappedBytes.getLength() != bytes.length) {
+            bytes = Arrays.copyOfRange(bytes, wrappedBytes.backArrayOffset(),
+                  wrappedBytes.backArrayOffset() + wrappedBytes.getLength());
+         }
+      } else {
+         try {
+            bytes = persistenceMarshaller.objectToByteBuffer(o);
+         } catch (IOException e) {
+            throw new CacheException(e);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         }
+      }
+      return MurmurHash3.MurmurHash3_x64_64(bytes, 9001);
+   }
+
+   /**
+    * Retrieves the hash trees of a segment from all its replicas.
+    *
+    * @return the tree of every replica, or {@code null} if the whole segment must be transferred
+    */
+   CompletionStage<Map<Address, SegmentDigest>> requestDigests(int segmentId, LocalizedCacheTopology topology,
+                                                               List<Address> replicas) {
+      List<Address> remoteReplicas = new ArrayList<>(replicas);
+      CompletionStage<long[]> localTree = remoteReplicas.remove(rpcManager.getAddress()) ?
+            getSegmentDigest(segmentId) : CompletableFutures.completedNull();
+      CompletionStage<Map<Address, Response>> remoteTrees;
+      if (remoteReplicas.isEmpty()) {
+         remoteTrees = CompletableFuture.completedFuture(Collections.emptyMap());
+      } else {
+         ConflictDigestCommand cmd = commandsFactory.buildConflictDigestCommand(topology.getTopologyId(), segmentId);
+         remoteTrees = rpcManager.invokeCommand(remoteReplicas, cmd, MapResponseCollector.validOnly(remoteReplicas.size()),
+                                                rpcManager.getSyncRpcOptions());
+      }
+      return localTree.thenCombine(remoteTrees, (tree, responses) -> {
+         Map<Address, SegmentDigest> digests = new HashMap<>();
+         if (tree != null) {
+            digests.put(rpcManager.getAddress(), SegmentDigest.fromArray(tree));
+         }
+         for (Map.Entry<Address, Response> response : responses.entrySet()) {
+            long[] remoteTree = (long[]) ((ValidResponse) response.getValue()).getResponseValue();
+            digests.put(response.getKey(), SegmentDigest.fromArray(remoteTree));
+         }
+         return digests;
+      }).handle((digests, t) -> {
+         if (t != null) {
+            if (trace) log.tracef(t, "Cache %s unable to retrieve the digests of segment %s", cacheName, segmentId);
+            return null;
+         }
+         return digests;
+      });
+   }
+
    Map<K, Map<Address, CacheEntry<K, V>>> getKeyReplicaMap(int segmentId) {
       return requestMap.get(segmentId).keyReplicaMap;
    }
@@ -139,6 +266,7 @@ class SegmentRequest {
       final Map<K, Map<Address, CacheEntry<K, V>>> keyReplicaMap = new HashMap<>();
       final Map<Address, InboundTransferTask> transferTaskMap = new ConcurrentHashMap<>();
       CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> future;
+      boolean awaitingLocalEntries;
 
       SegmentRequest(int segmentId, LocalizedCacheTopology topology, long timeout) {
          this.segmentId = segmentId;
@@ -167,18 +295,66 @@ synchronized CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> requestStat
             }
          });
 
+         requestDigests(segmentId, topology, replicaHosts).whenComplete((digests, t) -> onDigests(digests));
+         return future;
+      }
+
+      synchronized void onDigests(Map<Address, SegmentDigest> digests) {
+         if (future.isDone())
+            return;
+
+         if (digests == null) {
+            requestAllEntries();
+            return;
+         }
+
+         IntSet leaves = SegmentDigest.differingLeaves(digests.values());
+         if (trace) log.tracef("Cache %s segment %s has %d differing leaves", cacheName, segmentId, leaves.size());
+         if (leaves.isEmpty()) {
+            completeRequest();
+         } else if (leaves.size() > SegmentDigest.LEAVES / 2) {
+            // Most of the segment must be compared anyway, stream it in chunks instead of in a single response
+            requestAllEntries();
+         } else {
+            stateReceiverExecutor.execute(() -> requestEntries(leaves));
+         }
+      }
+
+      void requestEntries(IntSet leaves) {
+         List<Address> remoteReplicas = new ArrayList<>(replicaHosts);
+         CompletionStage<Collection<InternalCacheEntry<K, V>>> localEntries = remoteReplicas.remove(rpcManager.getAddress()) ?
+               getSegmentEntries(segmentId, leaves) : CompletableFuture.completedFuture(Collections.emptyList());
+
+         ConflictEntriesCommand cmd = commandsFactory.buildConflictEntriesCommand(topology.getTopologyId(), segmentId, leaves);
+         rpcManager.invokeCommand(remoteReplicas, cmd, MapResponseCollector.validOnly(remoteReplicas.size()),
+                                  rpcManager.getSyncRpcOptions())
+               .thenCombine(localEntries, (responses, entries) -> {
+                  onEntries(responses, entries);
+                  return null;
+               })
+               .exceptionally(t -> {
+                  cancel(t);
+                  return null;
+               });
+      }
+
+      synchronized void onEntries(Map<Address, Response> responses, Collection<InternalCacheEntry<K, V>> localEntries) {
+         if (future.isDone())
+            return;
+
+         localEntries.forEach(entry -> addKeyToReplicaMap(rpcManager.getAddress(), entry));
+         for (Map.Entry<Address, Response> response : responses.entrySet()) {
+            Collection<CacheEntry<K, V>> entries = (Collection<CacheEntry<K, V>>) ((ValidResponse) response.getValue()).getResponseValue();
+            entries.forEach(entry -> addKeyToReplicaMap(response.getKey(), entry));
+         }
+         completeRequest();
+      }
+
+      void requestAllEntries() {
+         boolean localReplica = false;
          for (final Address replica : replicaHosts) {
             if (replica.equals(rpcManager.getAddress())) {
-               dataContainer.forEach(entry -> {
-                  int keySegment = topology.getDistribution(entry.getKey()).segmentId();
-                  if (keySegment == segmentId) {
-                     addKeyToReplicaMap(replica, entry);
-                  }
-               });
-               // numOwner == 1, then we cannot rely on receiveState to complete the future
-               if (replicaHosts.size() == 1) {
-                  completeRequest();
-               }
+               localReplica = true;
             } else {
                final InboundTransferTask transferTask = createTransferTask(segmentId, replica, topology, timeout);
                transferTaskMap.put(replica, transferTask);
@@ -197,7 +373,26 @@ synchronized CompletableFuture<List<Map<Address, CacheEntry<K, V>>>> requestStat
                });
             }
          }
-         return future;
+         if (localReplica) {
+            // Published once all the transfer tasks are registered, as the request completes with the last of them
+            awaitingLocalEntries = true;
+            publishEntries(segmentId).toList().toCompletionStage().whenComplete(this::onLocalEntries);
+         }
+      }
+
+      synchronized void onLocalEntries(List<InternalCacheEntry<K, V>> entries, Throwable t) {
+         if (future.isDone())
+            return;
+
+         if (t != null) {
+            cancel(t);
+            return;
+         }
+         entries.forEach(entry -> addKeyToReplicaMap(rpcManager.getAddress(), entry));
+         awaitingLocalEntries = false;
+         if (transferTaskMap.isEmpty()) {
+            completeRequest();
+         }
       }
 
       synchronized void clear() {
@@ -230,7 +425,7 @@ synchronized void receiveState(Address sender, int topologyId, Collection<StateC
             if (isLastChunk) {
                transferTaskMap.remove(sender);
 
-               if (transferTaskMap.isEmpty()) {
+               if (transferTaskMap.isEmpty() && !awaitingLocalEntries) {
                   completeRequest();
                }
             }
@@ -151,6 +151,11 @@ public void put(int segment, K k, V v, Metadata metadata, PrivateMetadata intern
          if (trace)
             log.tracef("Store %s=%s in container", k, copy);
          entries.put(k, copy);
+         if (copy.canExpire()) {
+            expirationManager.entryWrittenInMemory(segment, copy);
+         } else if (e != null && e.canExpire()) {
+            expirationManager.entryRemovedFromMemory(segment, k);
+         }
       } else {
          log.tracef("Insertion attempted for key: %s but there was no map created for it at segment: %d", k, segment);
       }
@@ -188,6 +193,9 @@ public InternalCacheEntry<K, V> remove(int segment, Object k) {
          if (trace) {
             log.tracef("Removed %s=%s from container", k, e);
          }
+         if (e != null && e.canExpire()) {
+            expirationManager.entryRemovedFromMemory(segment, k);
+         }
 
          return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
       }
@@ -232,9 +240,17 @@ public InternalCacheEntry<K, V> compute(int segment, K key, DataContainer.Comput
             return oldEntry;
          } else if (newEntry == null) {
             computeEntryRemoved(k, oldEntry);
+            if (oldEntry != null && oldEntry.canExpire()) {
+               expirationManager.entryRemovedFromMemory(segment, k);
+            }
             return null;
          }
          computeEntryWritten(k, newEntry);
+         if (newEntry.canExpire()) {
+            expirationManager.entryWrittenInMemory(segment, newEntry);
+         } else if (oldEntry != null && oldEntry.canExpire()) {
+            expirationManager.entryRemovedFromMemory(segment, k);
+         }
          if (trace)
             log.tracef("Store %s in container", newEntry);
          return newEntry;
@@ -13,6 +13,7 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.metadata.Metadata;
@@ -30,12 +31,11 @@ public class BoundedOffHeapDataContainer extends SegmentedBoundedOffHeapDataCont
       new CopyOnWriteArrayList<>();
 
    public BoundedOffHeapDataContainer(long maxSize, EvictionType type) {
-      super(1, maxSize, type);
+      this(maxSize, type, EvictionPolicy.LRU);
    }
 
-   @Override
-   protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
-      return (OffHeapConcurrentMap) dataContainer.getMapForSegment(0);
+   public BoundedOffHeapDataContainer(long maxSize, EvictionType type, EvictionPolicy evictionPolicy) {
+      super(1, maxSize, type, evictionPolicy);
    }
 
    @Override
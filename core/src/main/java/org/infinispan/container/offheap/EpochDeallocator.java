@@ -0,0 +1,180 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.commons.util.ProcessorInfo;
+import org.infinispan.commons.util.Util;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Defers deallocation of off-heap memory until no optimistic reader can still be accessing it.
+ * <p>
+ * Readers that traverse memory without holding a lock must surround the traversal with {@link #enter()} and
+ * {@link #exit(int)}. Writers that unlink memory while holding the appropriate write lock hand it to
+ * {@link #retire(long, long)} instead of deallocating it directly. Retired memory is only given back to the
+ * {@link OffHeapMemoryAllocator} by {@link #tryReclaim()} once every reader that entered before it was retired has
+ * exited.
+ * <p>
+ * This is a simple epoch based scheme with two epochs in flight: readers register in a counter for the parity of
+ * the current epoch, which is striped to avoid contention. Reclamation moves everything retired so far to a waiting
+ * list, advances the epoch and frees the waiting list once all readers registered with the previous parity have
+ * exited. The epoch is never advanced again until the waiting list has been freed, so a parity is never shared by
+ * readers of two different live epochs.
+ * @author agent
+ * @since 12.0
+ */
+class EpochDeallocator {
+   // Each counter is padded to its own cache line
+   private static final int PADDING = 8;
+   private static final int STRIPES = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()), 64);
+
+   private final OffHeapMemoryAllocator allocator;
+   private final AtomicLongArray readers = new AtomicLongArray(STRIPES * 2 * PADDING);
+   private final ReentrantLock reclaimLock = new ReentrantLock();
+
+   private volatile long epoch;
+   // Whether there is anything to reclaim, can be read without holding any lock
+   private volatile boolean pending;
+
+   @GuardedBy("this")
+   private AddressList retired = new AddressList();
+   @GuardedBy("reclaimLock")
+   private AddressList waiting = new AddressList();
+   @GuardedBy("reclaimLock")
+   private int waitingParity;
+
+   EpochDeallocator(OffHeapMemoryAllocator allocator) {
+      this.allocator = allocator;
+   }
+
+   /**
+    * Registers the current thread as a reader. Memory that is retired after this method returns will not be
+    * deallocated until {@link #exit(int)} is invoked with the returned value.
+    * @return the reader slot that must be passed to {@link #exit(int)}
+    */
+   int enter() {
+      int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+      while (true) {
+         long currentEpoch = epoch;
+         int slot = ((stripe << 1) | (int) (currentEpoch & 1)) * PADDING;
+         readers.incrementAndGet(slot);
+         if (epoch == currentEpoch) {
+            return slot;
+         }
+         // The epoch advanced while we registered - the reclaimer may have already checked our counter
+         readers.decrementAndGet(slot);
+      }
+   }
+
+   void exit(int slot) {
+      readers.decrementAndGet(slot);
+   }
+
+   /**
+    * Retires the given memory, which must already be unreachable for any reader that enters after this invocation.
+    * @param address the address to deallocate
+    * @param size the size originally provided to {@link OffHeapMemoryAllocator#allocate(long)}
+    */
+   synchronized void retire(long address, long size) {
+      retired.add(address, size);
+      pending = true;
+   }
+
+   /**
+    * Deallocates as much retired memory as possible without waiting for readers. This should be invoked after
+    * write operations, without holding any locks.
+    */
+   void tryReclaim() {
+      if (!pending || !reclaimLock.tryLock()) {
+         return;
+      }
+      try {
+         // First round frees what was waiting from a previous invocation, the second what was retired since then
+         for (int i = 0; i < 2; ++i) {
+            if (waiting.isEmpty() && !advanceEpoch()) {
+               return;
+            }
+            if (!isDrained(waitingParity)) {
+               return;
+            }
+            waiting.deallocateAll(allocator);
+         }
+      } finally {
+         reclaimLock.unlock();
+      }
+   }
+
+   /**
+    * Deallocates all retired memory, waiting for any concurrent readers to exit. This should only be invoked when
+    * no more readers are expected, such as when the owning map is closed.
+    */
+   void reclaimAll() {
+      reclaimLock.lock();
+      try {
+         while (!waiting.isEmpty() || advanceEpoch()) {
+            while (!isDrained(waitingParity)) {
+               Thread.yield();
+            }
+            waiting.deallocateAll(allocator);
+         }
+      } finally {
+         reclaimLock.unlock();
+      }
+   }
+
+   @GuardedBy("reclaimLock")
+   private boolean advanceEpoch() {
+      synchronized (this) {
+         if (retired.isEmpty()) {
+            pending = false;
+            return false;
+         }
+         AddressList emptyList = waiting;
+         waiting = retired;
+         retired = emptyList;
+         long currentEpoch = epoch;
+         waitingParity = (int) (currentEpoch & 1);
+         epoch = currentEpoch + 1;
+         return true;
+      }
+   }
+
+   private boolean isDrained(int parity) {
+      for (int stripe = 0; stripe < STRIPES; ++stripe) {
+         if (readers.get(((stripe << 1) | parity) * PADDING) != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Growable list of address and size pairs
+    */
+   private static class AddressList {
+      private long[] values = new long[32];
+      private int count;
+
+      void add(long address, long size) {
+         if (count + 2 > values.length) {
+            values = Arrays.copyOf(values, values.length << 1);
+         }
+         values[count++] = address;
+         values[count++] = size;
+      }
+
+      boolean isEmpty() {
+         return count == 0;
+      }
+
+      void deallocateAll(OffHeapMemoryAllocator allocator) {
+         for (int i = 0; i < count; i += 2) {
+            allocator.deallocate(values[i], values[i + 1]);
+         }
+         count = 0;
+      }
+   }
+}
@@ -0,0 +1,134 @@
+package org.infinispan.container.offheap;
+
+/*
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Note: this file is adapted from the FrequencySketch of Caffeine (https://github.com/ben-manes/caffeine).
+ */
+
+import org.infinispan.commons.util.Util;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Count-min sketch estimating how often an entry has been accessed, using 4 bit counters so that the most frequent
+ * entries are only distinguished up to 15 accesses. The counters are halved once enough accesses have been recorded,
+ * so that the frequencies reflect recent use (the aging process of TinyLFU).
+ * <p>
+ * Entries are identified by their hash code only, as that is stored along with every off-heap entry. Each table slot
+ * holds 16 counters, and a hash code maps to 4 counters in different slots, of which the smallest is the estimate.
+ * <p>
+ * Adapted from the {@code FrequencySketch} of Caffeine, which takes objects instead of hash codes.
+ * @author Ben Manes
+ * @author agent
+ * @since 12.0
+ */
+@NotThreadSafe
+class FrequencySketch {
+   private static final long[] SEED = {
+         0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+   private static final long RESET_MASK = 0x7777777777777777L;
+   private static final long ONE_MASK = 0x1111111111111111L;
+
+   private long[] table = new long[1];
+   private int tableMask;
+   private int sampleSize = 10;
+   private int size;
+
+   /**
+    * Makes sure the sketch can tell apart the frequencies of the given number of entries. Growing the sketch
+    * discards all frequencies recorded so far.
+    * @param maximumSize the expected number of entries
+    */
+   void ensureCapacity(long maximumSize) {
+      int maximum = (int) Math.min(Math.max(maximumSize, 1), 1 << 30);
+      if (table.length >= maximum) {
+         return;
+      }
+      table = new long[Util.findNextHighestPowerOfTwo(maximum)];
+      tableMask = table.length - 1;
+      sampleSize = 10 * maximum;
+      if (sampleSize <= 0) {
+         sampleSize = Integer.MAX_VALUE;
+      }
+      size = 0;
+   }
+
+   /**
+    * @param hashCode the hash code of the entry
+    * @return the estimated number of accesses of the entry, up to 15
+    */
+   int frequency(int hashCode) {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; ++i) {
+         int index = indexOf(hash, i);
+         int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+         frequency = Math.min(frequency, count);
+      }
+      return frequency;
+   }
+
+   /**
+    * Records an access of the entry with the given hash code.
+    * @param hashCode the hash code of the entry
+    */
+   void increment(int hashCode) {
+      int hash = spread(hashCode);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; ++i) {
+         added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++size == sampleSize) {
+         reset();
+      }
+   }
+
+   private boolean incrementAt(int index, int counter) {
+      int offset = counter << 2;
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+         table[index] += 1L << offset;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Halves every counter, so old accesses gradually lose weight
+    */
+   private void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; ++i) {
+         odd += Long.bitCount(table[i] & ONE_MASK);
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size = (size >>> 1) - (odd >>> 2);
+   }
+
+   private int indexOf(int hash, int i) {
+      long value = (hash + SEED[i]) * SEED[i];
+      value += value >>> 32;
+      return ((int) value) & tableMask;
+   }
+
+   private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+   }
+}
@@ -28,7 +28,8 @@ public MemoryAddressHash(int pointers, OffHeapMemoryAllocator allocator) {
    }
 
    public void putMemoryAddressOffset(int offset, long address) {
-      MEMORY.putLong(memory, offset << 3, address);
+      // Ordered so that optimistic readers never see the address before the entry it points to
+      MEMORY.putLongOrdered(memory, offset << 3, address);
    }
 
    public long getMemoryAddressOffset(int offset) {
@@ -43,6 +44,15 @@ public void deallocate() {
       allocator.deallocate(memory, pointerCount << 3);
    }
 
+   /**
+    * Hands the memory of this lookup to the given deallocator, so it is only freed once no optimistic reader can
+    * still be reading from it.
+    * @param deallocator the deallocator to retire the memory to
+    */
+   void retire(EpochDeallocator deallocator) {
+      deallocator.retire(memory, pointerCount << 3);
+   }
+
    /**
     * Returns a stream of longs that are all of the various memory locations
     * @return stream of the various memory locations
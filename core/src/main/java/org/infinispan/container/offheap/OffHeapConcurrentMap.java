@@ -11,9 +11,9 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.PrimitiveIterator;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
@@ -55,8 +55,10 @@
  * <p>
  * A map must be started after creating to create the initial memory lookup, which is also store in the native heap.
  * When the size of the map reaches the load factor, that is .75 times the capacity, the map will attempt to resize
- * by increasing its internal memory lookup to have an array of buckets twice as big. Normal operations can still
- * proceed during this, allowing for minimal downtime during a resize.
+ * by increasing its internal memory lookup to have an array of buckets twice as big. The entries are moved to the new
+ * lookup incrementally, one lock region at a time: a write operation first transfers the region it writes to and
+ * insertions help transfer another pending region, similar to how {@link java.util.concurrent.ConcurrentHashMap}
+ * transfers bins. Normal operations can still proceed during this, allowing for minimal downtime during a resize.
  * <p>
  * This map is created assuming some knowledge of expiration in the Infinispan system. Thus operations that do not
  * expose this information via its APIs are not supported. These methods are {@code keySet}, {@code containsKey} and
@@ -64,9 +66,11 @@
  * <p>
  * This map guarantees consistency under concurrent read ands writes through a {@link StripedLock} where each
  * {@link java.util.concurrent.locks.ReadWriteLock} instance protects an equivalent region of buckets in the underlying
- * memory lookup. Read operations, that is ones that only acquire the read lock for their specific lock region, are
- * ({@code get} and {@code peek}). Iteration on a returned entrySet or value collection will acquire only a single
- * read lock at a time while inspecting a given lock region for a valid value. Write operations, ones that acquire the
+ * memory lookup. Read operations, that is ones that only need the read lock for their specific lock region, are
+ * ({@code get} and {@code peek}). These first attempt an optimistic read of the lock region, only acquiring the read
+ * lock if a write to the same region happened concurrently. Memory unlinked by writers is only freed once no optimistic
+ * reader can still access it, see {@link EpochDeallocator}. Iteration on a returned entrySet or value collection reads
+ * a single lock region at a time in the same fashion while inspecting it for a valid value. Write operations, ones that acquire the
  * write lock for the lock region, are ({@code put}, {@code remove}, {@code replace}, {@code compute}. A clear
  * will acquire all write locks when invoked. This allows the clear to also resize the map down to the initial size.
  * <p>
@@ -100,6 +104,8 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    // We always have to have more buckets than locks
    public final static int INITIAL_SIZE = 256;
+   // How many lock regions a write operation transfers at most while a resize is in progress, besides its own
+   private final static int TRANSFER_STRIDE = 1;
 
    private final static int LOCK_COUNT = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()) << 1,
          INITIAL_SIZE);
@@ -116,6 +122,12 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    private final OffHeapMemoryAllocator allocator;
    private final OffHeapEntryFactory offHeapEntryFactory;
+   // All memory that optimistic readers may access must be released through this
+   private final EpochDeallocator deallocator;
+   // Ensures only a single thread completes a resize when the last lock regions are transferred concurrently
+   private final Object transferLock;
+   // Ensures only a single thread allocates the new memory lookup when the threshold is reached concurrently
+   private final AtomicBoolean resizing = new AtomicBoolean();
 
    private final EntryListener listener;
 
@@ -127,8 +139,10 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    // Non null during a resize operation - this will be initialized to contain all of the numbers equal to how many
    // locks we have - This and oldMemoryLookup should always be either both null or not null at the same time.
+   // This is volatile as the resize is completed by whichever thread transfers the last lock region, while only
+   // holding the lock for that region
    @GuardedBy("locks")
-   private IntSet pendingBlocks;
+   private volatile IntSet pendingBlocks;
    // Always non null, unless map has been stopped
    @GuardedBy("locks")
    private MemoryAddressHash memoryLookup;
@@ -138,7 +152,7 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    // elements depending upon if a lock region is still pending transfer - This and pendingBlocks should always be
    // either both null or not null at the same time.
    @GuardedBy("locks")
-   private MemoryAddressHash oldMemoryLookup;
+   private volatile MemoryAddressHash oldMemoryLookup;
    @GuardedBy("locks")
    private int oldMemoryShift;
 
@@ -147,6 +161,8 @@ public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
       this.allocator = Objects.requireNonNull(allocator);
       this.offHeapEntryFactory = Objects.requireNonNull(offHeapEntryFactory);
       this.listener = listener;
+      this.deallocator = new EpochDeallocator(allocator);
+      this.transferLock = new Object();
 
       locks = new StripedLock(LOCK_COUNT);
 
@@ -172,15 +188,10 @@ public boolean touchKey(Object k, long currentTimeMillis) {
       long writeStamp = stampedLock.writeLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
-         }
-         return lockedTouch(memoryLookup, (WrappedBytes) k, hashCode, currentTimeMillis);
+         return lockedTouch(lookupForLockOffset(lockOffset), (WrappedBytes) k, hashCode, currentTimeMillis);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
    }
 
@@ -265,7 +276,7 @@ private void entryRemoved(long removedAddress) {
       if (listener != null) {
          listener.entryRemoved(removedAddress);
       }
-      allocator.deallocate(removedAddress, offHeapEntryFactory.getSize(removedAddress, false));
+      deallocator.retire(removedAddress, offHeapEntryFactory.getSize(removedAddress, false));
    }
 
    @GuardedBy("locks#writeLock")
@@ -273,7 +284,7 @@ private void entryReplaced(long newAddress, long oldAddress) {
       if (listener != null) {
          listener.entryReplaced(newAddress, oldAddress);
       }
-      allocator.deallocate(oldAddress, offHeapEntryFactory.getSize(oldAddress, false));
+      deallocator.retire(oldAddress, offHeapEntryFactory.getSize(oldAddress, false));
    }
 
    @GuardedBy("locks#readLock")
@@ -319,6 +330,10 @@ StampedLock getStampedLock(int hashCode) {
       return locks.getLockWithOffset(getLockOffset(hashCode));
    }
 
+   EntryListener getListener() {
+      return listener;
+   }
+
    private int getLockOffset(int hashCode) {
       return getOffset(hashCode, LOCK_SHIFT);
    }
@@ -348,9 +363,24 @@ private void checkDeallocation() {
     */
    @GuardedBy("locks#lockAll")
    private boolean sizeMemoryBuckets(int bucketCount) {
+      return sizeMemoryBuckets(bucketCount, null);
+   }
+
+   /**
+    * Same as {@link #sizeMemoryBuckets(int)} except that the new memory lookup may have been allocated already.
+    * @param bucketCount the expected new size
+    * @param newMemoryLookup the new memory lookup with {@code bucketCount} pointers or null to allocate it; this is
+    *                        deallocated if the resize is not possible
+    * @return true if the bucket was able to be resized
+    */
+   @GuardedBy("locks#lockAll")
+   private boolean sizeMemoryBuckets(int bucketCount, MemoryAddressHash newMemoryLookup) {
       if (listener != null) {
          if (!listener.resize(bucketCount)) {
             sizeThreshold = Integer.MAX_VALUE;
+            if (newMemoryLookup != null) {
+               newMemoryLookup.deallocate();
+            }
             return false;
          }
       }
@@ -359,7 +389,7 @@ private boolean sizeMemoryBuckets(int bucketCount) {
 
       oldMemoryLookup = memoryLookup;
       oldMemoryShift = memoryShift;
-      memoryLookup = new MemoryAddressHash(bucketCount, allocator);
+      memoryLookup = newMemoryLookup != null ? newMemoryLookup : new MemoryAddressHash(bucketCount, allocator);
       // Max capacity is 2^31 (thus find the bit position that would be like dividing evenly into that)
       memoryShift = 31 - Integer.numberOfTrailingZeros(bucketCount);
 
@@ -381,31 +411,70 @@ StripedLock getLocks() {
    }
 
    /**
-    * This method checks if the map must be resized and if so starts the operation. This caller <b>MUST NOT</b>
+    * This method checks if the map must be resized and if so starts the operation. If a resize is already in progress
+    * this will instead help transfer a few lock regions to the new memory lookup. This caller <b>MUST NOT</b>
     * hold any locks when invoked.
     */
    private void checkResize() {
-      // We don't do a resize if we aren't to the boundary or if we are in a pending resize
-      if (size.get() < sizeThreshold || oldMemoryLookup != null) {
+      IntSet localPendingBlocks = this.pendingBlocks;
+      if (localPendingBlocks != null) {
+         helpTransfer(localPendingBlocks, TRANSFER_STRIDE);
+         return;
+      }
+      // We don't do a resize if we aren't to the boundary
+      if (size.get() < sizeThreshold) {
+         return;
+      }
+      // Other threads that reach the threshold at the same time skip the resize instead of allocating a lookup too
+      if (!resizing.compareAndSet(false, true)) {
          return;
       }
-      boolean onlyHelp = false;
+      try {
+         MemoryAddressHash currentMemoryLookup = memoryLookup;
+         // The resize may have been started and completed since the checks above
+         if (currentMemoryLookup == null || this.pendingBlocks != null || size.get() < sizeThreshold) {
+            return;
+         }
+         int newBucketCount = currentMemoryLookup.getPointerCount() << 1;
+         // Allocating and clearing the new lookup can take a while for a large map, so do it before acquiring the locks
+         MemoryAddressHash newMemoryLookup = new MemoryAddressHash(newBucketCount, allocator);
+         localPendingBlocks = startResize(currentMemoryLookup, newBucketCount, newMemoryLookup);
+      } finally {
+         resizing.set(false);
+      }
+
+      // The entries are not transferred all at once, instead every write operation transfers the lock region it
+      // writes to and any insertion helps transfer another region, until the last one completes the resize
+      if (localPendingBlocks != null) {
+         helpTransfer(localPendingBlocks, TRANSFER_STRIDE);
+      }
+   }
+
+   /**
+    * Installs the new memory lookup, unless the map was resized or cleared concurrently.
+    * @param currentMemoryLookup the memory lookup the resize was decided with
+    * @param newBucketCount the pointer count of the new memory lookup
+    * @param newMemoryLookup the new memory lookup, which is deallocated if it is not installed
+    * @return the lock regions to transfer or null if the resize was not started
+    */
+   private IntSet startResize(MemoryAddressHash currentMemoryLookup, int newBucketCount,
+                              MemoryAddressHash newMemoryLookup) {
       IntSet localPendingBlocks;
       locks.lockAll();
       try {
-         // Don't replace blocks if it was already done - means we had concurrent requests
-         if (oldMemoryLookup != null) {
-            onlyHelp = true;
-            localPendingBlocks = this.pendingBlocks;
+         // Don't replace blocks if it was already done or the map was cleared - means we had concurrent requests
+         if (oldMemoryLookup != null || memoryLookup != currentMemoryLookup) {
+            localPendingBlocks = null;
          } else {
-            int newBucketCount = memoryLookup.getPointerCount() << 1;
             if (newBucketCount == MAX_ADDRESS_COUNT) {
                sizeThreshold = Integer.MAX_VALUE;
             }
 
+            MemoryAddressHash resizedMemoryLookup = newMemoryLookup;
+            newMemoryLookup = null;
             // We couldn't resize
-            if (!sizeMemoryBuckets(newBucketCount)) {
-               return;
+            if (!sizeMemoryBuckets(newBucketCount, resizedMemoryLookup)) {
+               return null;
             }
             localPendingBlocks = IntSets.concurrentSet(LOCK_COUNT);
             for (int i = 0; i < LOCK_COUNT; ++i) {
@@ -415,38 +484,18 @@ private void checkResize() {
          }
       } finally {
          locks.unlockAll();
-      }
-
-      // Try to complete without waiting if possible for locks
-      helpCompleteTransfer(localPendingBlocks, true);
-
-      if (!onlyHelp) {
-         if (!localPendingBlocks.isEmpty()) {
-            // We attempted to transfer without waiting on locks - but we didn't finish them all yet - so now we have
-            // to wait to ensure they are all transferred
-            helpCompleteTransfer(localPendingBlocks, false);
-            // Now everything should be empty for sure
-            assert localPendingBlocks.isEmpty();
-         }
-
-         // Now that all blocks have been transferred we can replace references
-         locks.lockAll();
-         try {
-            // This means that someone else completed the transfer for us - only clear can do that currently
-            if (this.pendingBlocks == null) {
-               return;
-            }
-            transferComplete();
-         } finally {
-            locks.unlockAll();
+         if (newMemoryLookup != null) {
+            newMemoryLookup.deallocate();
          }
       }
+      return localPendingBlocks;
    }
 
    /**
-    * Invoked when a transfer has completed to clean up the old memory lookup
+    * Invoked when a transfer has completed to clean up the old memory lookup. The caller must either hold all
+    * locks or the write lock of the last lock region that was transferred.
     */
-   @GuardedBy("locks#lockAll")
+   @GuardedBy("locks#writeLock")
    private void transferComplete() {
       MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
       this.pendingBlocks = null;
@@ -456,37 +505,57 @@ private void transferComplete() {
       }
       this.oldMemoryLookup = null;
 
-      oldMemoryLookup.deallocate();
+      oldMemoryLookup.retire(deallocator);
    }
 
    /**
-    * This <b>MUST NOT</b>  be invoked while holding any lock
-    * @param tryLock whether the lock acquisition only does a try, returning earlier with some lock segments not transferred possibly
+    * Completes the resize if all lock regions have been transferred.
+    * @param pendingBlocks the pending blocks of the resize the caller transferred a region for
     */
-   private void helpCompleteTransfer(IntSet pendingBlocks, boolean tryLock) {
-      if (pendingBlocks != null) {
-         PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
-         while (iterator.hasNext()) {
-            int offset = iterator.nextInt();
-            StampedLock lock = locks.getLockWithOffset(offset);
-
-            long stamp;
-            if (tryLock) {
-               // If we can't get it - just assume another person is working on it - so try next one
-               if ((stamp = lock.tryWriteLock()) == 0) {
-                  continue;
-               }
-            } else {
-               stamp = lock.writeLock();
+   @GuardedBy("locks#writeLock")
+   private void tryCompleteTransfer(IntSet pendingBlocks) {
+      if (pendingBlocks.isEmpty()) {
+         synchronized (transferLock) {
+            // The last regions may have been transferred concurrently, only one of those threads can complete it
+            if (this.pendingBlocks == pendingBlocks) {
+               transferComplete();
             }
-            try {
-               // Only run it now that we have lock if someone else just didn't finish it
-               if (pendingBlocks.remove(offset)) {
-                  transfer(offset);
-               }
-            } finally {
-               lock.unlockWrite(stamp);
+         }
+      }
+   }
+
+   /**
+    * Transfers up to {@code maxRegions} lock regions that are still pending, skipping those whose lock is currently
+    * held by another thread. This <b>MUST NOT</b> be invoked while holding any lock
+    * @param pendingBlocks the pending blocks of the resize to help with
+    * @param maxRegions how many regions to transfer at most
+    */
+   private void helpTransfer(IntSet pendingBlocks, int maxRegions) {
+      PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
+      int transferred = 0;
+      while (transferred < maxRegions && iterator.hasNext()) {
+         int offset = iterator.nextInt();
+         StampedLock lock = locks.getLockWithOffset(offset);
+
+         // If we can't get it - just assume another person is working on it - so try next one
+         long stamp = lock.tryWriteLock();
+         if (stamp == 0) {
+            continue;
+         }
+         try {
+            // The resize may have been completed by a clear in the mean time
+            if (this.pendingBlocks != pendingBlocks) {
+               return;
             }
+            // Only run it now that we have lock if someone else just didn't finish it
+            if (pendingBlocks.remove(offset)) {
+               transfer(offset);
+               tryCompleteTransfer(pendingBlocks);
+               transferred++;
+            }
+         } finally {
+            lock.unlockWrite(stamp);
+            deallocator.tryReclaim();
          }
       }
    }
@@ -499,9 +568,11 @@ private void helpCompleteTransfer(IntSet pendingBlocks, boolean tryLock) {
     */
    @GuardedBy("locks#writeLock")
    private void ensureTransferred(int lockOffset) {
+      IntSet pendingBlocks = this.pendingBlocks;
       if (pendingBlocks != null) {
          if (pendingBlocks.remove(lockOffset)) {
             transfer(lockOffset);
+            tryCompleteTransfer(pendingBlocks);
          }
       }
    }
@@ -512,6 +583,8 @@ private void ensureTransferred(int lockOffset) {
     */
    @GuardedBy("locks#writeLock")
    private void transfer(int lockOffset) {
+      MemoryAddressHash oldMemoryLookup = this.oldMemoryLookup;
+      MemoryAddressHash memoryLookup = this.memoryLookup;
       int pointerCount = oldMemoryLookup.getPointerCount();
       int blockSize = getBucketRegionSize(pointerCount);
 
@@ -538,11 +611,12 @@ public void close() {
       locks.lockAll();
       try {
          actualClear();
-         memoryLookup.deallocate();
+         memoryLookup.retire(deallocator);
          memoryLookup = null;
       } finally {
          locks.unlockAll();
       }
+      deallocator.reclaimAll();
    }
 
    @Override
@@ -591,6 +665,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          }
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
       if (prev == null && result != null) {
          checkResize();
@@ -612,21 +687,96 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       int hashCode = k.hashCode();
       int lockOffset = getLockOffset(hashCode);
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      // A stamp of 0 means a writer currently holds the lock, so there is no point in reading optimistically
+      long stamp = stampedLock.tryOptimisticRead();
+      if (stamp != 0) {
+         int reader = deallocator.enter();
+         try {
+            long actualAddress = optimisticGet(stampedLock, stamp, lockOffset, k, hashCode);
+            if (actualAddress == 0) {
+               if (stampedLock.validate(stamp)) {
+                  return null;
+               }
+            } else if (actualAddress != -1) {
+               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(actualAddress);
+               if (peek || listener == null) {
+                  if (stampedLock.validate(stamp)) {
+                     return ice;
+                  }
+               } else {
+                  // The listener must only be notified while the entry is guaranteed to still be present
+                  long readStamp = stampedLock.tryConvertToReadLock(stamp);
+                  if (readStamp != 0) {
+                     try {
+                        entryRetrieved(actualAddress);
+                     } finally {
+                        stampedLock.unlockRead(readStamp);
+                     }
+                     return ice;
+                  }
+               }
+            }
+         } catch (RuntimeException e) {
+            // Reading concurrently with a writer can see partially written entries - only report consistent reads
+            if (stampedLock.validate(stamp)) {
+               throw e;
+            }
+         } finally {
+            deallocator.exit(reader);
+         }
+      }
       long readStamp = stampedLock.readLock();
       try {
          checkDeallocation();
-         MemoryAddressHash memoryLookup;
-         if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-            memoryLookup = this.oldMemoryLookup;
-         } else {
-            memoryLookup = this.memoryLookup;
-         }
-         return lockedPeekOrGet(memoryLookup, k, hashCode, peek);
+         return lockedPeekOrGet(lookupForLockOffset(lockOffset), k, hashCode, peek);
       } finally {
          stampedLock.unlockRead(readStamp);
       }
    }
 
+   /**
+    * Returns the memory lookup that currently holds the buckets for the given lock region. This can be read
+    * optimistically, in which case the result may be null and must only be trusted after validating the stamp.
+    * @param lockOffset the lock region
+    * @return the lookup holding the buckets for the lock region
+    */
+   @GuardedBy("locks#readLock")
+   private MemoryAddressHash lookupForLockOffset(int lockOffset) {
+      IntSet pendingBlocks = this.pendingBlocks;
+      if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
+         return this.oldMemoryLookup;
+      }
+      return this.memoryLookup;
+   }
+
+   /**
+    * Finds the address of the given key without acquiring any lock. The caller must have entered the
+    * {@link EpochDeallocator} and has to validate the stamp before trusting the result.
+    * @return the address of the entry, 0 if the key is not present or -1 if a concurrent write interfered
+    */
+   private long optimisticGet(StampedLock stampedLock, long stamp, int lockOffset, WrappedBytes k, int hashCode) {
+      MemoryAddressHash memoryLookup = lookupForLockOffset(lockOffset);
+      if (memoryLookup == null) {
+         // Either the map was closed or a resize completed concurrently
+         return -1;
+      }
+      // The shift must be derived from the lookup itself, as the shift fields may not match it without the lock
+      int memoryOffset = getOffset(hashCode, 31 - Integer.numberOfTrailingZeros(memoryLookup.getPointerCount()));
+      long address = memoryLookup.getMemoryAddressOffset(memoryOffset);
+      int steps = 0;
+      while (address != 0) {
+         if (offHeapEntryFactory.equalsKey(address, k, hashCode)) {
+            return address;
+         }
+         address = offHeapEntryFactory.getNext(address);
+         // Links can be rewritten by a concurrent write, so make sure to stop following them if that happens
+         if ((++steps & 15) == 0 && !stampedLock.validate(stamp)) {
+            return -1;
+         }
+      }
+      return 0;
+   }
+
    @GuardedBy("locks#readLock")
    private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(MemoryAddressHash memoryLookup,
          WrappedBytes k, int hashCode, boolean peek) {
@@ -700,6 +850,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> put(WrappedBytes key,
          returnedValue = performPut(address, 0, newAddress, key, memoryOffset, true, false);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
       // If we added a new entry, check the resize
       if (returnedValue == null) {
@@ -810,9 +961,27 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
          return performRemove(address, 0, (WrappedBytes) key, null, memoryOffset,true);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
    }
 
+   /**
+    * This method is designed to be called by an outside class. The write lock for the given key must
+    * be acquired via the lock returned from {@link #getStampedLock(int)} using the key's hash code.
+    * @param key the key to find
+    * @return the address of the entry for the key or 0 if it is not present
+    */
+   @GuardedBy("locks#writeLock")
+   long getAddress(WrappedBytes key) {
+      int hashCode = key.hashCode();
+      MemoryAddressHash memoryLookup = lookupForLockOffset(getLockOffset(hashCode));
+      if (memoryLookup == null) {
+         return 0;
+      }
+      long bucketAddress = memoryLookup.getMemoryAddressOffset(getMemoryOffset(memoryLookup, hashCode));
+      return bucketAddress == 0 ? 0 : performGet(bucketAddress, key, hashCode);
+   }
+
    /**
     * This method is designed to be called by an outside class. The write lock for the given key must
     * be acquired via the lock returned from {@link #getStampedLock(int)} using the key's hash code.
@@ -830,6 +999,8 @@ void remove(WrappedBytes key, long address) {
       long bucketAddress = memoryLookup.getMemoryAddressOffset(memoryOffset);
       assert bucketAddress != 0;
       performRemove(bucketAddress, address, key, null, memoryOffset, false);
+      // This never blocks, so it is fine to invoke while still holding the write lock
+      deallocator.tryReclaim();
    }
 
    /**
@@ -896,6 +1067,7 @@ public void clear() {
          actualClear();
       } finally {
          locks.unlockAll();
+         deallocator.tryReclaim();
       }
    }
 
@@ -914,7 +1086,7 @@ private void actualClear() {
       };
       int pointerCount = memoryLookup.getPointerCount();
       memoryLookup.removeAll().forEach(removeEntries);
-      memoryLookup.deallocate();
+      memoryLookup.retire(deallocator);
       memoryLookup = null;
       if (listener != null) {
          boolean resized = listener.resize(-pointerCount);
@@ -967,6 +1139,7 @@ public boolean remove(Object key, Object value) {
          return address != 0 && performRemove(address, 0, (WrappedBytes) key, (WrappedBytes) innerValue, memoryOffset, true) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
    }
 
@@ -986,6 +1159,7 @@ public boolean replace(WrappedBytes key, InternalCacheEntry<WrappedBytes, Wrappe
          return address != 0 && performReplace(address, key, hashCode, memoryOffset, oldValue, newValue) != null;
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
    }
 
@@ -1008,6 +1182,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> replace(WrappedBytes key,
          return performReplace(address, key, hashCode, memoryOffset, null, value);
       } finally {
          stampedLock.unlockWrite(writeStamp);
+         deallocator.tryReclaim();
       }
    }
 
@@ -1114,7 +1289,7 @@ private class ValueIterator implements Iterator<InternalCacheEntry<WrappedBytes,
       int bucketLockShift;
       int bucketLockStop;
 
-      Queue<InternalCacheEntry<WrappedBytes, WrappedBytes>> values = new ArrayDeque<>();
+      ArrayDeque<InternalCacheEntry<WrappedBytes, WrappedBytes>> values = new ArrayDeque<>();
 
       @Override
       public boolean hasNext() {
@@ -1150,55 +1325,96 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> next() {
        * @return whether a value has been read
        */
       boolean readNextBucket() {
-         boolean foundValue = false;
          int lockOffset = getLockOffset(bucketPosition);
          StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
-         long readStamp = stampedLock.readLock();
-         try {
-            checkDeallocation();
-            MemoryAddressHash memoryAddressHash;
-            if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
-               memoryAddressHash = oldMemoryLookup;
-            } else {
-               memoryAddressHash = memoryLookup;
-            }
-            int pointerCount = memoryAddressHash.getPointerCount();
-            if (bucketCount == -1) {
-               bucketCount = pointerCount;
-               bucketLockStop = getBucketRegionSize(bucketCount);
-               bucketLockShift = Integer.numberOfTrailingZeros(bucketLockStop);
-            } else if (bucketCount > pointerCount) {
-               // If bucket count is greater than pointer count - it means we had a clear in the middle of iterating
-               // Just return without adding anymore values
-               bucketPosition = bucketCount;
-               return false;
-            } else if (bucketCount < pointerCount) {
-               resizeIteration(pointerCount);
-            }
-            boolean completedLockBucket;
-            // Normal iteration just keep adding entries until either we complete the lock bucket region or
-            // we read bytes over the read threshold
-            while (!(completedLockBucket = bucketLockStop == bucketPosition)) {
-               long address = memoryAddressHash.getMemoryAddressOffsetNoTraceIfAbsent(bucketPosition++);
-               if (address != 0) {
-                  long nextAddress;
-                  do {
-                     nextAddress = offHeapEntryFactory.getNext(address);
-                     values.add(offHeapEntryFactory.fromMemory(address));
-                     foundValue = true;
-                  } while ((address = nextAddress) != 0);
-                  // We read a single bucket now return to get the value back
-                  break;
+         long stamp = stampedLock.tryOptimisticRead();
+         if (stamp != 0) {
+            int savedBucketPosition = bucketPosition;
+            int savedBucketCount = bucketCount;
+            int savedBucketLockShift = bucketLockShift;
+            int savedBucketLockStop = bucketLockStop;
+            int savedValuesSize = values.size();
+            int reader = deallocator.enter();
+            try {
+               MemoryAddressHash memoryAddressHash = lookupForLockOffset(lockOffset);
+               if (memoryAddressHash != null) {
+                  boolean foundValue = readBucket(memoryAddressHash, stampedLock, stamp);
+                  if (stampedLock.validate(stamp)) {
+                     return foundValue;
+                  }
                }
+            } catch (RuntimeException e) {
+               // Reading concurrently with a writer can see partially written entries - only report consistent reads
+               if (stampedLock.validate(stamp)) {
+                  throw e;
+               }
+            } finally {
+               deallocator.exit(reader);
             }
-            // If we completed the lock region and we haven't yet gone through the all buckets, we have to
-            // prepare for the next lock region worth of buckets
-            if (completedLockBucket && bucketPosition != bucketCount) {
-               bucketLockStop += getBucketRegionSize(bucketCount);
+            // A concurrent write interfered, so undo what we read and read it again while holding the lock
+            bucketPosition = savedBucketPosition;
+            bucketCount = savedBucketCount;
+            bucketLockShift = savedBucketLockShift;
+            bucketLockStop = savedBucketLockStop;
+            while (values.size() > savedValuesSize) {
+               values.pollLast();
             }
+         }
+         long readStamp = stampedLock.readLock();
+         try {
+            checkDeallocation();
+            return readBucket(lookupForLockOffset(lockOffset), null, 0);
          } finally {
             stampedLock.unlockRead(readStamp);
          }
+      }
+
+      /**
+       * Reads the next bucket from the given lookup. If a lock is provided the read is optimistic, in which case the
+       * caller must validate the stamp afterwards.
+       * @return whether a value has been read
+       */
+      private boolean readBucket(MemoryAddressHash memoryAddressHash, StampedLock optimisticLock, long stamp) {
+         boolean foundValue = false;
+         int pointerCount = memoryAddressHash.getPointerCount();
+         if (bucketCount == -1) {
+            bucketCount = pointerCount;
+            bucketLockStop = getBucketRegionSize(bucketCount);
+            bucketLockShift = Integer.numberOfTrailingZeros(bucketLockStop);
+         } else if (bucketCount > pointerCount) {
+            // If bucket count is greater than pointer count - it means we had a clear in the middle of iterating
+            // Just return without adding anymore values
+            bucketPosition = bucketCount;
+            return false;
+         } else if (bucketCount < pointerCount) {
+            resizeIteration(pointerCount);
+         }
+         boolean completedLockBucket;
+         // Normal iteration just keep adding entries until either we complete the lock bucket region or
+         // we read bytes over the read threshold
+         while (!(completedLockBucket = bucketLockStop == bucketPosition)) {
+            long address = memoryAddressHash.getMemoryAddressOffsetNoTraceIfAbsent(bucketPosition++);
+            if (address != 0) {
+               long nextAddress;
+               int steps = 0;
+               do {
+                  nextAddress = offHeapEntryFactory.getNext(address);
+                  values.add(offHeapEntryFactory.fromMemory(address));
+                  foundValue = true;
+                  // Links can be rewritten by a concurrent write, so stop following them if that happens
+                  if (optimisticLock != null && (++steps & 15) == 0 && !optimisticLock.validate(stamp)) {
+                     return foundValue;
+                  }
+               } while ((address = nextAddress) != 0);
+               // We read a single bucket now return to get the value back
+               break;
+            }
+         }
+         // If we completed the lock region and we haven't yet gone through the all buckets, we have to
+         // prepare for the next lock region worth of buckets
+         if (completedLockBucket && bucketPosition != bucketCount) {
+            bucketLockStop += getBucketRegionSize(bucketCount);
+         }
          return foundValue;
       }
 
@@ -1210,7 +1426,8 @@ boolean readNextBucket() {
        */
       @GuardedBy("locks#readLock")
       private void resizeIteration(int newBucketSize) {
-         int bucketIncreaseShift = 31 - Integer.numberOfTrailingZeros(bucketCount) - memoryShift;
+         // Derived from the new size instead of memoryShift, as this may be read optimistically
+         int bucketIncreaseShift = Integer.numberOfTrailingZeros(newBucketSize) - Integer.numberOfTrailingZeros(bucketCount);
 
          bucketPosition = bucketPosition << bucketIncreaseShift;
          bucketLockStop = bucketLockStop << bucketIncreaseShift;
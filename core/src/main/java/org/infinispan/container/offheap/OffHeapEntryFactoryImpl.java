@@ -225,7 +225,8 @@ public long getNext(long entryAddress) {
 
    @Override
    public void setNext(long entryAddress, long value) {
-      MEMORY.putLong(entryAddress, evictionEnabled ? 16 : 0, value);
+      // Ordered as the map can be traversed by optimistic readers
+      MEMORY.putLongOrdered(entryAddress, evictionEnabled ? 16 : 0, value);
    }
 
    @Override
@@ -613,7 +614,7 @@ public long updateMaxIdle(long address, long currentTimeMillis) {
       if (newMetadataSize != metadataSize) {
          // The new marshalled size is different then before, we have to rewrite the object!
          // Offset is still set to the end of the key bytes (before metadata)
-         long newPointer = MEMORY.allocate(newMetadataSize + offset + valueSize + internalMetadataSize);
+         long newPointer = allocator.allocate(newMetadataSize + offset + valueSize + internalMetadataSize);
          // This writes the next pointer, eviction pointers (if applicable),
          // type, hashCode, keyLength, metadataLength, valueLength and key bytes.
          MEMORY.copy(address, 0, newPointer, 0, offset);
@@ -109,6 +109,18 @@ void putLong(long destAddress, long offset, long value) {
       UNSAFE.putLong(destAddress + offset, value);
    }
 
+   /**
+    * Same as {@link #putLong(long, long, long)} except that all prior writes are guaranteed to be visible to another
+    * thread that reads the written value.
+    */
+   void putLongOrdered(long destAddress, long offset, long value) {
+      checkAddress(destAddress, offset + 8);
+      if (trace) {
+         log.tracef("Wrote ordered long value 0x%016x to address 0x%016x+%d", value, destAddress, offset);
+      }
+      UNSAFE.putOrderedLong(null, destAddress + offset, value);
+   }
+
    void getBytes(long srcAddress, long srcOffset, byte[] destArray, long destOffset, long length) {
       checkAddress(srcAddress, srcOffset + length);
       if (trace) {
@@ -0,0 +1,389 @@
+package org.infinispan.container.offheap;
+
+import static org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator.estimateSizeOverhead;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Memory allocator that carves allocations out of larger native slabs instead of asking the native allocator for
+ * every single entry.
+ * <p>
+ * Requests up to {@link #MAX_POOLED_SIZE} bytes are rounded up to one of {@link #SIZE_CLASS_COUNT} size classes.
+ * Each size class hands out chunks from its own slabs of {@link #SLAB_SIZE} bytes and keeps released chunks in an
+ * intrusive free list (the next pointer is stored in the first 8 bytes of the free chunk), so they can be reused
+ * without going back to the native allocator. Every thread also keeps a small cache of chunks per size class so that
+ * most allocations and deallocations don't have to acquire the size class lock. The thread caches are also kept in a
+ * registry, so that the chunks cached by threads that died are returned to the pool when a new thread starts using the
+ * allocator, and so that all of them are emptied when the allocator is stopped. Larger requests, such as the
+ * bucket arrays of {@link MemoryAddressHash}, are passed straight through to the native allocator.
+ * <p>
+ * Slabs are kept for reuse while the cache is running and are released in bulk when the cache is stopped, as long as
+ * all chunks have been returned by then. When trace logging is enabled pooling is bypassed, so that
+ * {@link OffHeapMemory} can still verify every memory access against its allocation.
+ * <p>
+ * The amount reported by {@link #getAllocatedAmount()} uses the same estimate as
+ * {@link UnpooledOffHeapMemoryAllocator}, so memory based eviction behaves the same with either allocator.
+ * @author agent
+ * @since 12.0
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Allocator that pools off-heap memory in slabs")
+@Scope(Scopes.NAMED_CACHE)
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   static final int SLAB_SIZE = 64 * 1024;
+   static final int MAX_POOLED_SIZE = 4096;
+   // Sizes up to 256 are split into 16 classes 16 bytes apart, each power of two after that is split into 4 classes
+   static final int SIZE_CLASS_COUNT = 32;
+
+   private final SizeClass[] sizeClasses = new SizeClass[SIZE_CLASS_COUNT];
+   // ThreadCache is static, so the thread local values don't keep the allocator reachable after the cache is gone
+   private final ThreadLocal<ThreadCache> threadCaches = new ThreadLocal<>();
+   @GuardedBy("registeredCaches")
+   private final List<ThreadCache> registeredCaches = new ArrayList<>();
+
+   private final LongAdder amountAllocated = new LongAdder();
+   private final LongAdder pooledBytesInUse = new LongAdder();
+   private final LongAdder unpooledBytesInUse = new LongAdder();
+
+   @GuardedBy("slabs")
+   private final Deque<Long> slabs = new ArrayDeque<>();
+   private volatile int slabCount;
+   // Incremented every time the slabs are released, so that thread caches know their chunks are no longer valid
+   private volatile int generation;
+
+   public PooledOffHeapMemoryAllocator() {
+      for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+         sizeClasses[i] = new SizeClass(chunkSize(i));
+      }
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      long estimatedMemoryLength = estimateSizeOverhead(memoryLength);
+      long memoryLocation;
+      if (trace || memoryLength > MAX_POOLED_SIZE) {
+         memoryLocation = MEMORY.allocate(memoryLength);
+         unpooledBytesInUse.add(memoryLength);
+      } else {
+         memoryLocation = allocateChunk(sizeClassIndex(memoryLength));
+      }
+      amountAllocated.add(estimatedMemoryLength);
+      if (trace) {
+         log.tracef("Allocated off heap memory at 0x%016x with %d bytes. Total size: %d", memoryLocation,
+               estimatedMemoryLength, amountAllocated.sum());
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      long estimatedMemoryLength = estimateSizeOverhead(size);
+      amountAllocated.add(-estimatedMemoryLength);
+      if (trace) {
+         log.tracef("Deallocating off heap memory at 0x%016x with %d bytes. Total size: %d", memoryAddress,
+               estimatedMemoryLength, amountAllocated.sum());
+      }
+      if (trace || size > MAX_POOLED_SIZE) {
+         unpooledBytesInUse.add(-size);
+         MEMORY.free(memoryAddress);
+      } else {
+         deallocateChunk(sizeClassIndex(size), memoryAddress);
+      }
+   }
+
+   @Override
+   public long getAllocatedAmount() {
+      return amountAllocated.sum();
+   }
+
+   private long allocateChunk(int index) {
+      SizeClass sizeClass = sizeClasses[index];
+      ThreadCache cache = threadCache();
+      long[] chunks = cache.chunks(index, sizeClass);
+      int count = cache.counts[index];
+      if (count == 0) {
+         count = sizeClass.take(chunks, sizeClass.batchSize);
+      }
+      cache.counts[index] = --count;
+      pooledBytesInUse.add(sizeClass.chunkSize);
+      return chunks[count];
+   }
+
+   private void deallocateChunk(int index, long address) {
+      SizeClass sizeClass = sizeClasses[index];
+      ThreadCache cache = threadCache();
+      long[] chunks = cache.chunks(index, sizeClass);
+      int count = cache.counts[index];
+      if (count == chunks.length) {
+         // Return the most recently cached half to the shared free list
+         count -= sizeClass.batchSize;
+         sizeClass.give(chunks, count, sizeClass.batchSize);
+      }
+      chunks[count] = address;
+      cache.counts[index] = count + 1;
+      pooledBytesInUse.add(-sizeClass.chunkSize);
+   }
+
+   private ThreadCache threadCache() {
+      ThreadCache cache = threadCaches.get();
+      int currentGeneration = generation;
+      if (cache == null) {
+         cache = new ThreadCache(Thread.currentThread(), currentGeneration);
+         threadCaches.set(cache);
+         register(cache);
+      } else if (cache.generation != currentGeneration) {
+         // The slabs the cached chunks were carved from have been released, just forget about them
+         // The registry was cleared at the same time, so the cache has to be registered again
+         cache.reset(currentGeneration);
+         register(cache);
+      }
+      return cache;
+   }
+
+   private void register(ThreadCache cache) {
+      synchronized (registeredCaches) {
+         // A new thread often replaces one that died, so this is a good time to reclaim the chunks of the dead threads
+         for (Iterator<ThreadCache> it = registeredCaches.iterator(); it.hasNext(); ) {
+            ThreadCache registered = it.next();
+            if (!registered.isOwnerAlive()) {
+               it.remove();
+               returnChunks(registered);
+            }
+         }
+         registeredCaches.add(cache);
+      }
+   }
+
+   /**
+    * Returns the chunks of a thread cache to the shared pool. The owner of the cache must no longer be using it.
+    */
+   private void returnChunks(ThreadCache cache) {
+      if (cache.generation == generation) {
+         for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+            int count = cache.counts[i];
+            if (count > 0) {
+               sizeClasses[i].give(cache.chunks[i], 0, count);
+            }
+         }
+      }
+      cache.reset(cache.generation);
+   }
+
+   private long newSlab() {
+      long slab = MEMORY.allocate(SLAB_SIZE);
+      synchronized (slabs) {
+         slabs.add(slab);
+         slabCount = slabs.size();
+      }
+      return slab;
+   }
+
+   /**
+    * Releases the slabs if all the chunks have been returned. The data containers depend on the allocator, so they are
+    * stopped and have released their entries before this runs.
+    */
+   @Stop
+   public void stop() {
+      long bytesInUse = pooledBytesInUse.sum();
+      if (bytesInUse != 0) {
+         log.debugf("Not releasing %d off-heap slabs as %d pooled bytes are still in use", slabCount, bytesInUse);
+         return;
+      }
+      // The threads that are still alive notice the new generation and empty their caches the next time they use them
+      generation++;
+      synchronized (registeredCaches) {
+         registeredCaches.clear();
+      }
+      for (SizeClass sizeClass : sizeClasses) {
+         sizeClass.reset();
+      }
+      synchronized (slabs) {
+         Long slab;
+         while ((slab = slabs.poll()) != null) {
+            MEMORY.free(slab);
+         }
+         slabCount = 0;
+      }
+   }
+
+   /**
+    * Returns the size class index to use for an allocation of the given size. The size must not be larger than
+    * {@link #MAX_POOLED_SIZE}.
+    * @param size the requested size
+    * @return the size class index
+    */
+   static int sizeClassIndex(long size) {
+      size = Math.max(size, 1);
+      if (size <= 256) {
+         return (int) ((size - 1) >>> 4);
+      }
+      // 2^shift < size <= 2^(shift + 1)
+      int shift = 63 - Long.numberOfLeadingZeros(size - 1);
+      int quarter = (int) ((size - 1 - (1L << shift)) >>> (shift - 2));
+      return 16 + ((shift - 8) << 2) + quarter;
+   }
+
+   /**
+    * Returns how large the chunks of the given size class are.
+    * @param index the size class index
+    * @return the chunk size in bytes
+    */
+   static int chunkSize(int index) {
+      if (index < 16) {
+         return (index + 1) << 4;
+      }
+      int shift = ((index - 16) >>> 2) + 8;
+      int quarter = (index - 16) & 3;
+      return (1 << shift) + ((quarter + 1) << (shift - 2));
+   }
+
+   @ManagedAttribute(
+         description = "Number of native slabs reserved by the allocator",
+         displayName = "Slab count"
+   )
+   public int getSlabCount() {
+      return slabCount;
+   }
+
+   @ManagedAttribute(
+         description = "Amount of native memory reserved in slabs (bytes)",
+         displayName = "Reserved slab memory"
+   )
+   public long getReservedSlabBytes() {
+      return (long) slabCount * SLAB_SIZE;
+   }
+
+   @ManagedAttribute(
+         description = "Amount of slab memory handed out to entries, including size class rounding (bytes)",
+         displayName = "Used slab memory"
+   )
+   public long getUsedSlabBytes() {
+      return pooledBytesInUse.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of native memory allocated outside of the slabs (bytes)",
+         displayName = "Unpooled memory"
+   )
+   public long getUnpooledBytes() {
+      return unpooledBytesInUse.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Fraction of reserved slab memory that is handed out to entries, from 0 to 1",
+         displayName = "Slab utilization"
+   )
+   public double getSlabUtilization() {
+      long reserved = getReservedSlabBytes();
+      if (reserved == 0) {
+         return 0;
+      }
+      return (double) pooledBytesInUse.sum() / reserved;
+   }
+
+   /**
+    * Shared pool of chunks for a given size. Free chunks are linked together through their first 8 bytes.
+    */
+   private final class SizeClass {
+      final int chunkSize;
+      // How many chunks are moved between a thread cache and this pool at once
+      final int batchSize;
+      final int chunksPerSlab;
+
+      @GuardedBy("this")
+      private long freeHead;
+      @GuardedBy("this")
+      private long bumpAddress;
+      @GuardedBy("this")
+      private long bumpLimit;
+
+      SizeClass(int chunkSize) {
+         this.chunkSize = chunkSize;
+         this.batchSize = Math.max(2, Math.min(32, MAX_POOLED_SIZE / chunkSize));
+         this.chunksPerSlab = SLAB_SIZE / chunkSize;
+      }
+
+      synchronized int take(long[] dest, int count) {
+         for (int i = 0; i < count; ++i) {
+            long address = freeHead;
+            if (address != 0) {
+               freeHead = MEMORY.getLong(address, 0);
+            } else {
+               if (bumpAddress == bumpLimit) {
+                  bumpAddress = newSlab();
+                  bumpLimit = bumpAddress + (long) chunksPerSlab * chunkSize;
+               }
+               address = bumpAddress;
+               bumpAddress += chunkSize;
+            }
+            dest[i] = address;
+         }
+         return count;
+      }
+
+      synchronized void give(long[] src, int offset, int count) {
+         for (int i = offset; i < offset + count; ++i) {
+            MEMORY.putLong(src[i], 0, freeHead);
+            freeHead = src[i];
+         }
+      }
+
+      synchronized void reset() {
+         freeHead = 0;
+         bumpAddress = 0;
+         bumpLimit = 0;
+      }
+   }
+
+   private static final class ThreadCache {
+      final long[][] chunks = new long[SIZE_CLASS_COUNT][];
+      final int[] counts = new int[SIZE_CLASS_COUNT];
+      final WeakReference<Thread> owner;
+      int generation;
+
+      ThreadCache(Thread owner, int generation) {
+         this.owner = new WeakReference<>(owner);
+         this.generation = generation;
+      }
+
+      boolean isOwnerAlive() {
+         Thread thread = owner.get();
+         return thread != null && thread.isAlive();
+      }
+
+      long[] chunks(int index, SizeClass sizeClass) {
+         long[] array = chunks[index];
+         if (array == null) {
+            array = new long[sizeClass.batchSize << 1];
+            chunks[index] = array;
+         }
+         return array;
+      }
+
+      void reset(int newGeneration) {
+         generation = newGeneration;
+         for (int i = 0; i < counts.length; ++i) {
+            counts[i] = 0;
+         }
+      }
+   }
+}
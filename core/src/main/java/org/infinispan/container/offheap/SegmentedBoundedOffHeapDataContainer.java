@@ -1,6 +1,7 @@
 package org.infinispan.container.offheap;
 
 import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.StampedLock;
@@ -14,6 +15,7 @@
 import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.container.impl.PeekableTouchableMap;
 import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.eviction.impl.PassivationManager;
 import org.infinispan.factories.ComponentRegistry;
@@ -23,6 +25,9 @@
 import org.infinispan.factories.impl.ComponentRef;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.util.concurrent.DataOperationOrderer;
@@ -30,15 +35,30 @@
 import org.infinispan.util.logging.LogFactory;
 
 /**
+ * Bounded off-heap data container that stores each segment in its own {@link OffHeapConcurrentMap}.
+ * <p>
+ * Every segment keeps its own LRU list and size, protected by a lock of its own, so that writes to different
+ * segments never contend on the eviction bookkeeping and removing a segment only has to touch the entries of that
+ * segment. The maximum size is still applied to the container as a whole: when it is exceeded the writer evicts the
+ * least recently used entries of the segment it wrote to, moving on to the other segments if that one has nothing
+ * left to evict.
+ * <p>
+ * With the {@link EvictionPolicy#TINY_LFU} policy every segment also keeps a {@link FrequencySketch} of the accesses
+ * to its entries. When an entry has to be evicted after a write, the written entry is only kept if it is estimated to be
+ * accessed more often than the head of the LRU list. Otherwise the written entry is evicted instead. The written entry
+ * is looked up by its key while holding its write lock, as concurrent writes and reads may have moved other entries
+ * behind it in the LRU list.
  * @author wburns
  * @since 9.4
  */
+@MBean(objectName = "SegmentedOffHeapDataContainer", description = "Bounded off-heap data container with a size per segment")
 @Scope(Scopes.NAMED_CACHE)
 public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInternalDataContainer<WrappedBytes, WrappedBytes> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
    private static final boolean trace = log.isTraceEnabled();
 
-   private final OffHeapListener offHeapListener;
+   private static final AtomicLongFieldUpdater<SegmentedBoundedOffHeapDataContainer> CURRENT_SIZE_UPDATER =
+         AtomicLongFieldUpdater.newUpdater(SegmentedBoundedOffHeapDataContainer.class, "currentSize");
 
    @Inject ComponentRegistry componentRegistry;
 
@@ -50,26 +70,27 @@ public class SegmentedBoundedOffHeapDataContainer extends AbstractDelegatingInte
    @Inject protected DataOperationOrderer orderer;
 
    protected final long maxSize;
-   protected final Lock lruLock;
    protected final boolean useCount;
    protected final int numSegments;
+   protected final EvictionPolicy evictionPolicy;
 
-   // Must be updated inside lruLock#writeLock - but can be read outside of lock
+   // Sum of the sizes of all segments, must only be updated through CURRENT_SIZE_UPDATER
    protected volatile long currentSize;
-   protected long firstAddress;
-   protected long lastAddress;
 
    protected DefaultSegmentedDataContainer dataContainer;
 
    public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, EvictionType type) {
+      this(numSegments, maxSize, type, EvictionPolicy.LRU);
+   }
+
+   public SegmentedBoundedOffHeapDataContainer(int numSegments, long maxSize, EvictionType type,
+         EvictionPolicy evictionPolicy) {
       this.numSegments = numSegments;
-      offHeapListener = new OffHeapListener();
+      this.evictionPolicy = evictionPolicy;
 
       this.maxSize = maxSize;
       this.useCount = type == EvictionType.COUNT;
       OffHeapMapSupplier offHeapMapSupplier = new OffHeapMapSupplier();
-      this.lruLock = new ReentrantLock();
-      firstAddress = 0;
 
       dataContainer = new DefaultSegmentedDataContainer<>(offHeapMapSupplier, numSegments);
    }
@@ -95,7 +116,7 @@ public void put(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       super.put(key, value, metadata);
       // The following is called outside of the write lock specifically - since we may not have to evict and even
       // if we did it would quite possibly need a different lock
-      ensureSize();
+      ensureSize(dataContainer.getSegmentForKey(key), key);
    }
 
    @Override
@@ -105,7 +126,7 @@ public void put(int segment, WrappedBytes key, WrappedBytes value, Metadata meta
       super.put(segment, key, value, metadata, internalMetadata, createdTimestamp, lastUseTimestamp);
       // The following is called outside of the write lock specifically - since we may not have to evict and even
       // if we did it would quite possibly need a different lock
-      ensureSize();
+      ensureSize(segment, key);
    }
 
    @Override
@@ -116,7 +137,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          // Means we had a put or replace called so we have to confirm sizes
          // The following is called outside of the write lock specifically - since we may not have to evict and even
          // if we did it would quite possibly need a different lock
-         ensureSize();
+         ensureSize(dataContainer.getSegmentForKey(key), key);
       }
       return result;
    }
@@ -128,23 +149,86 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(int segment, Wrapp
          // Means we had a put or replace called so we have to confirm sizes
          // The following is called outside of the write lock specifically - since we may not have to evict and even
          // if we did it would quite possibly need a different lock
-         ensureSize();
+         ensureSize(segment, key);
       }
       return result;
    }
 
-   protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
-      int segment = dataContainer.getSegmentForKey(key);
+   /**
+    * This method evicts entries until the current size is less than or equal to `maxSize`. Entries are evicted from
+    * the given segment first, as that is the one that was just written to, and only from the other segments if the
+    * given one has no entries left.
+    * @param segment the segment that was written to
+    * @param writtenKey the key that was written
+    */
+   private void ensureSize(int segment, WrappedBytes writtenKey) {
+      // Try reading outside of lock first to allow for less locking for insert that doesn't require eviction
+      if (currentSize <= maxSize) {
+         return;
+      }
+
+      if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+         // Only the entry that was just written has to compete with the LRU head for admission
+         OffHeapConcurrentMap map = (OffHeapConcurrentMap) dataContainer.getMapForSegment(segment);
+         if (map != null) {
+            rejectIfNotAdmitted(map, writtenKey);
+         }
+      }
 
-      // This can become null if we have a concurrent removal of segments
-      return (OffHeapConcurrentMap) dataContainer.getMapForSegment(segment);
+      int evictionSegment = segment;
+      int emptySegments = 0;
+      while (currentSize > maxSize) {
+         // This can become null if we have a concurrent removal of segments
+         OffHeapConcurrentMap map = (OffHeapConcurrentMap) dataContainer.getMapForSegment(evictionSegment);
+         boolean evicted = map != null && evictFromSegment(map);
+         if (!evicted) {
+            if (++emptySegments == numSegments) {
+               // Nothing left to evict, only the memory lookups themselves are left
+               return;
+            }
+            evictionSegment = (evictionSegment + 1) % numSegments;
+         }
+      }
    }
 
    /**
-    * This method repeatedly removes the head of the LRU list until there the current size is less than or equal to
-    * `maxSize`.
+    * Evicts the entry that was just written for the given key if the current size is larger than `maxSize` and the
+    * entry is estimated to be accessed less often than the head of the LRU list.
     * <p>
-    * We need to hold the LRU lock in order to check the current size and to read the head entry,
+    * The entry write lock is acquired first, so the address of the written entry can be looked up and it cannot be
+    * replaced or removed concurrently, and the LRU lock second, as is the correct acquisition order.
+    * @param map the map of the segment that was written to
+    * @param writtenKey the key that was written
+    */
+   private void rejectIfNotAdmitted(OffHeapConcurrentMap map, WrappedBytes writtenKey) {
+      OffHeapListener listener = (OffHeapListener) map.getListener();
+      StampedLock stampedLock = map.getStampedLock(writtenKey.hashCode());
+      long writeStamp = stampedLock.writeLock();
+      try {
+         long writtenAddress = map.getAddress(writtenKey);
+         if (writtenAddress == 0) {
+            // Removed or already evicted concurrently
+            return;
+         }
+         listener.lruLock.lock();
+         try {
+            if (currentSize <= maxSize || listener.admit(writtenAddress)) {
+               return;
+            }
+         } finally {
+            listener.lruLock.unlock();
+         }
+         evict(map, writtenAddress);
+      } finally {
+         stampedLock.unlockWrite(writeStamp);
+      }
+   }
+
+   /**
+    * Removes the head of the LRU list of the given segment map, unless the current size is already less than or equal
+    * to `maxSize`.
+    * <p>
+    * We need to hold the LRU lock of the segment in order to read the head entry,
     * and then we need to hold the head entry's write lock in order to remove it.
     * The problem is that the correct acquisition order is entry write lock first, LRU lock second,
     * and we need to hold the LRU lock so that we know which entry write lock to acquire.
@@ -153,108 +237,161 @@ protected OffHeapConcurrentMap getMapThatContainsKey(byte[] key) {
     * If that fails, we release the LRU lock and we acquire the locks in the correct order, hoping that
     * the LRU head doesn't change while we wait. Because the entry write locks are striped, we actually
     * tolerate a LRU head change as long as the new head entry is in the same lock stripe.
-    * If the LRU list head changes, we release both locks and try again.
+    * If the LRU list head changes, we release both locks and let the caller try again.
+    * @param map the map of the segment to evict from
+    * @return false if the segment has no entries that could be evicted
     */
-   private void ensureSize() {
-      // Try reading outside of lock first to allow for less locking for insert that doesn't require eviction
-      if (currentSize <= maxSize) {
-         return;
+   private boolean evictFromSegment(OffHeapConcurrentMap map) {
+      OffHeapListener listener = (OffHeapListener) map.getListener();
+      long addressToRemove;
+      StampedLock stampedLock;
+      long writeStamp;
+      listener.lruLock.lock();
+      try {
+         if (currentSize <= maxSize) {
+            return true;
+         }
+         long candidate = listener.evictionCandidate();
+         if (candidate == 0) {
+            return false;
+         }
+         int hashCode = offHeapEntryFactory.getHashCode(candidate);
+         // This is always non null
+         stampedLock = map.getStampedLock(hashCode);
+         if ((writeStamp = stampedLock.tryWriteLock()) != 0) {
+            addressToRemove = candidate;
+         } else {
+            addressToRemove = 0;
+         }
+      } finally {
+         listener.lruLock.unlock();
       }
 
-      while (true) {
-         long addressToRemove;
-         StampedLock stampedLock;
-         long writeStamp;
-         OffHeapConcurrentMap map;
-         lruLock.lock();
+      // If we got here it means we were unable to acquire the write lock, so we have to attempt a blocking
+      // write lock and then acquire the lruLock, since they have to be acquired in that order (exception using
+      // try lock as above)
+      if (addressToRemove == 0) {
+         writeStamp = stampedLock.writeLock();
          try {
-            if (currentSize <= maxSize) {
-               break;
-            }
-            // We shouldn't be able to get into this state
-            assert firstAddress > 0;
-            // We read the key before hashCode due to how off heap bytes are written (key requires reading metadata
-            // which comes before hashCode, which should keep hashCode bytes in memory register in most cases)
-            byte[] key = offHeapEntryFactory.getKey(firstAddress);
-
-            map = getMapThatContainsKey(key);
-            if (map != null) {
-               int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
-               // This is always non null
-               stampedLock = map.getStampedLock(hashCode);
-               if ((writeStamp = stampedLock.tryWriteLock()) != 0) {
-                  addressToRemove = firstAddress;
-               } else {
-                  addressToRemove = 0;
-               }
-            } else {
-               // We have to loop back around - more than likely the concurrent removal of a segment probably reduced
-               // the max size so we probably don't have to worry
-               continue;
-            }
-         } finally {
-            lruLock.unlock();
-         }
-
-         // If we got here it means we were unable to acquire the write lock, so we have to attempt a blocking
-         // write lock and then acquire the lruLock, since they have to be acquired in that order (exception using
-         // try lock as above)
-         if (addressToRemove == 0) {
-            writeStamp = stampedLock.writeLock();
+            listener.lruLock.lock();
             try {
-               lruLock.lock();
-               try {
-                  if (currentSize <= maxSize) {
-                     break;
-                  }
-                  // Now that we have locks we have to verify the first address is protected by the same lock still
-                  byte[] key = offHeapEntryFactory.getKey(firstAddress);
-
-                  OffHeapConcurrentMap protectedMap = getMapThatContainsKey(key);
-                  if (protectedMap == map) {
-                     int hashCode = offHeapEntryFactory.getHashCode(firstAddress);
-                     StampedLock innerLock = map.getStampedLock(hashCode);
-                     if (innerLock == stampedLock) {
-                        addressToRemove = firstAddress;
-                     }
-                  }
-               } finally {
-                  lruLock.unlock();
+               if (currentSize <= maxSize) {
+                  return true;
                }
-            } finally {
-               if (addressToRemove == 0) {
-                  stampedLock.unlockWrite(writeStamp);
+               long candidate = listener.evictionCandidate();
+               if (candidate == 0) {
+                  return false;
+               }
+               // Now that we have locks we have to verify the candidate is protected by the same lock still
+               int hashCode = offHeapEntryFactory.getHashCode(candidate);
+               if (map.getStampedLock(hashCode) == stampedLock) {
+                  addressToRemove = candidate;
                }
-            }
-         }
-
-         if (addressToRemove != 0) {
-            if (trace) {
-               log.tracef("Removing entry: 0x%016x due to eviction due to size %d being larger than maximum of %d",
-                     addressToRemove, currentSize, maxSize);
-            }
-            try {
-               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(addressToRemove);
-               map.remove(ice.getKey(), addressToRemove);
-               // Note this is non blocking now - this MUST be invoked after removing the entry from the
-               // underlying map
-               AbstractInternalDataContainer.handleEviction(ice, orderer, passivator.running(), evictionManager, this, null);
             } finally {
+               listener.lruLock.unlock();
+            }
+         } finally {
+            if (addressToRemove == 0) {
                stampedLock.unlockWrite(writeStamp);
             }
          }
+         if (addressToRemove == 0) {
+            // The head changed to an entry protected by a different lock
+            return true;
+         }
       }
+
+      try {
+         evict(map, addressToRemove);
+      } finally {
+         stampedLock.unlockWrite(writeStamp);
+      }
+      return true;
+   }
+
+   /**
+    * Removes the entry at the given address from the map and notifies the eviction. The write lock of the entry must be
+    * held when invoking this.
+    * @param map the map of the segment the entry belongs to
+    * @param addressToRemove the address of the entry
+    */
+   private void evict(OffHeapConcurrentMap map, long addressToRemove) {
+      if (trace) {
+         log.tracef("Removing entry: 0x%016x due to eviction due to size %d being larger than maximum of %d",
+               addressToRemove, currentSize, maxSize);
+      }
+      InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(addressToRemove);
+      map.remove(ice.getKey(), addressToRemove);
+      // Note this is non blocking now - this MUST be invoked after removing the entry from the
+      // underlying map
+      AbstractInternalDataContainer.handleEviction(ice, orderer, passivator.running(), evictionManager, this, null);
    }
 
    private class OffHeapMapSupplier implements Supplier<PeekableTouchableMap<WrappedBytes,
             WrappedBytes>> {
       @Override
       public PeekableTouchableMap<WrappedBytes, WrappedBytes> get() {
-         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, offHeapListener);
+         return new OffHeapConcurrentMap(allocator, offHeapEntryFactory, new OffHeapListener());
       }
    }
 
+   /**
+    * Listener for the map of a single segment, which keeps the LRU list and the size of that segment.
+    */
    private class OffHeapListener implements OffHeapConcurrentMap.EntryListener {
+      private final Lock lruLock = new ReentrantLock();
+      // Only present with the TINY_LFU policy, must only be used inside lruLock
+      private final FrequencySketch sketch;
+      // Must be updated inside lruLock - but can be read outside of lock
+      private volatile long segmentSize;
+      private long entryCount;
+      private long firstAddress;
+      private long lastAddress;
+
+      OffHeapListener() {
+         if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            sketch = new FrequencySketch();
+            if (useCount) {
+               sketch.ensureCapacity(maxSize / numSegments);
+            }
+         } else {
+            sketch = null;
+         }
+      }
+
+      /**
+       * Returns the entry that should be evicted next from this segment.
+       * This method should only be invoked after acquiring the lruLock
+       *
+       * @return the address of the entry to evict or 0 if the segment is empty
+       */
+      long evictionCandidate() {
+         return firstAddress;
+      }
+
+      /**
+       * Returns whether the entry that was just written should be kept instead of the head of the LRU list.
+       * This method should only be invoked after acquiring the lruLock
+       *
+       * @param writtenAddress the address of the written entry
+       * @return true if the written entry is the head itself or is estimated to be accessed more often than the head
+       */
+      boolean admit(long writtenAddress) {
+         if (sketch == null || writtenAddress == firstAddress) {
+            return true;
+         }
+         int candidateFrequency = sketch.frequency(offHeapEntryFactory.getHashCode(writtenAddress));
+         int victimFrequency = sketch.frequency(offHeapEntryFactory.getHashCode(firstAddress));
+         if (trace) {
+            log.tracef("Admission of entry 0x%016x with frequency %d against entry 0x%016x with frequency %d",
+                  writtenAddress, candidateFrequency, firstAddress, victimFrequency);
+         }
+         return candidateFrequency > victimFrequency;
+      }
+
+      private int hashCodeIfSketched(long address) {
+         return sketch == null ? 0 : offHeapEntryFactory.getHashCode(address);
+      }
 
       @Override
       public boolean resize(int pointerCount) {
@@ -275,11 +412,7 @@ public boolean resize(int pointerCount) {
                   return false;
                }
             }
-            if (isNegative) {
-               currentSize -= change;
-            } else {
-               currentSize += change;
-            }
+            updateSize(isNegative ? -change : change);
          } finally {
             lruLock.unlock();
          }
@@ -289,10 +422,15 @@ public boolean resize(int pointerCount) {
       @Override
       public void entryCreated(long newAddress) {
          long newSize = getSize(newAddress);
+         int hashCode = hashCodeIfSketched(newAddress);
          lruLock.lock();
          try {
-            currentSize += newSize;
+            updateSize(newSize);
             addEntryAddressToEnd(newAddress);
+            if (sketch != null) {
+               sketch.ensureCapacity(++entryCount);
+               sketch.increment(hashCode);
+            }
          } finally {
             lruLock.unlock();
          }
@@ -304,8 +442,11 @@ public void entryRemoved(long removedAddress) {
          lruLock.lock();
          try {
             // Current size has to be updated in the lock
-            currentSize -=  removedSize;
+            updateSize(-removedSize);
             removeNode(removedAddress);
+            if (sketch != null) {
+               entryCount--;
+            }
          } finally {
             lruLock.unlock();
          }
@@ -315,13 +456,16 @@ public void entryRemoved(long removedAddress) {
       public void entryReplaced(long newAddress, long oldAddress) {
          long oldSize = getSize(oldAddress);
          long newSize = getSize(newAddress);
+         int hashCode = hashCodeIfSketched(newAddress);
          lruLock.lock();
          try {
             removeNode(oldAddress);
             addEntryAddressToEnd(newAddress);
+            if (sketch != null) {
+               sketch.increment(hashCode);
+            }
 
-            currentSize += newSize;
-            currentSize -= oldSize;
+            updateSize(newSize - oldSize);
          } finally {
             lruLock.unlock();
          }
@@ -329,17 +473,32 @@ public void entryReplaced(long newAddress, long oldAddress) {
 
       @Override
       public void entryRetrieved(long entryAddress) {
+         int hashCode = hashCodeIfSketched(entryAddress);
          lruLock.lock();
          try {
             if (trace) {
                log.tracef("Moving entry 0x%016x to the end of the LRU list", entryAddress);
             }
             moveToEnd(entryAddress);
+            if (sketch != null) {
+               sketch.increment(hashCode);
+            }
          } finally {
             lruLock.unlock();
          }
       }
 
+      /**
+       * Updates the size of this segment and of the container as a whole.
+       * This method should only be invoked after acquiring the lruLock
+       *
+       * @param change the amount to add, negative if the size decreased
+       */
+      private void updateSize(long change) {
+         segmentSize += change;
+         CURRENT_SIZE_UPDATER.addAndGet(SegmentedBoundedOffHeapDataContainer.this, change);
+      }
+
       /**
        * Method to be invoked when adding a new entry address to the end of the lru nodes.  This occurs for newly created
        * entries.
@@ -371,7 +530,7 @@ private void addEntryAddressToEnd(long entryAddress) {
 
       /**
        * Removes the address node and updates previous and next lru node pointers properly
-       * The {@link BoundedOffHeapDataContainer#lruLock} <b>must</b> be held when invoking this
+       * The {@link #lruLock} <b>must</b> be held when invoking this
        * @param address
        */
       private void removeNode(long address) {
@@ -460,4 +619,21 @@ public long capacity() {
    public long evictionSize() {
       return currentSize;
    }
+
+   /**
+    * Returns the size of the given segment, in the same unit as {@link #evictionSize()}.
+    * @param segment the segment
+    * @return the size of the segment or 0 if the segment is not owned
+    */
+   @ManagedOperation(
+         description = "Returns the size of the given segment, in entries or bytes depending on the eviction type",
+         displayName = "Segment size"
+   )
+   public long evictionSize(@Parameter(name = "segment", description = "The segment") int segment) {
+      OffHeapConcurrentMap map = (OffHeapConcurrentMap) dataContainer.getMapForSegment(segment);
+      if (map == null) {
+         return 0;
+      }
+      return ((OffHeapListener) map.getListener()).segmentSize;
+   }
 }
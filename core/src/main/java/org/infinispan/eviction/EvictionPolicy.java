@@ -0,0 +1,20 @@
+package org.infinispan.eviction;
+
+/**
+ * Supported policies to choose which entries are removed when a bounded off-heap container is full. Heap based
+ * containers always use the W-TinyLFU policy provided by Caffeine.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public enum EvictionPolicy {
+   /**
+    * The least recently used entry is always removed.
+    */
+   LRU,
+   /**
+    * A new entry is only admitted if it has been accessed more frequently than the least recently used entry, as
+    * estimated by a compact frequency sketch. This keeps scans of rarely used entries from flushing the cache.
+    */
+   TINY_LFU
+}
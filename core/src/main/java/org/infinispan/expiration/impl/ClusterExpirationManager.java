@@ -93,23 +93,28 @@ public void start() {
    public void processExpiration() {
 
       if (!Thread.currentThread().isInterrupted()) {
+         long start = timeService.time();
+         IntSet slice = nextSegments();
          LocalizedCacheTopology topology;
          // Purge all contents until we know we did so with a stable topology
          do {
             topology = distributionManager.getCacheTopology();
-         } while (purgeInMemoryContents(topology));
+         } while (purgeInMemoryContents(topology, slice));
+         reaperRunCompleted(start);
       }
 
-      if (!Thread.currentThread().isInterrupted()) {
+      // The stores are purged once all the segments were checked
+      if (!Thread.currentThread().isInterrupted() && cycleCompleted()) {
          CompletionStages.join(persistenceManager.purgeExpired());
       }
    }
 
    /**
     * Purges in memory contents removing any expired entries.
+    * @param slice the segments to purge in this run, {@code null} for all the segments
     * @return true if there was a topology change
     */
-   private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
+   private boolean purgeInMemoryContents(LocalizedCacheTopology topology, IntSet slice) {
       long start = 0;
       int removedEntries = 0;
       AtomicInteger errors = new AtomicInteger();
@@ -130,8 +135,12 @@ private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
          } else {
             segments = IntSets.immutableEmptySet();
          }
+         if (slice != null) {
+            segments = IntSets.mutableCopyFrom(segments);
+            segments.retainAll(slice);
+         }
 
-         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired(segments);
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = expirationCandidates(segments, currentTimeMillis);
               purgeCandidates.hasNext();) {
             InternalCacheEntry<K, V> ice = purgeCandidates.next();
             if (ice.canExpire()) {
@@ -150,6 +159,7 @@ private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
                }
                if (expiredMortal || expiredTransient) {
                   // Any expirations over the max must check for another to finish before it can proceed
+                  entriesReaped(1);
                   if (++removedEntries > MAX_CONCURRENT_EXPIRATIONS && !pollForCompletion(expirationPermits, start, removedEntries, errors)) {
                      return false;
                   }
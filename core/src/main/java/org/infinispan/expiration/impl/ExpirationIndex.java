@@ -0,0 +1,137 @@
+package org.infinispan.expiration.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Index of the in-memory entries by expiration time, so that the reaper only checks the entries that are due to expire.
+ * <p>
+ * Each segment has a timer wheel of buckets of {@code granularity} milliseconds, and each key that can expire is in the
+ * bucket of its expiration time. The index is only updated when an entry is written or removed, and the expiration
+ * time of an entry with a max idle can be extended by reads afterwards, so the index may contain keys before their
+ * actual expiration time or keys that were already removed. The reaper checks the keys that are due against the data
+ * container, moving the entries that did not expire yet to their current bucket and removing the keys that are no
+ * longer in the data container.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class ExpirationIndex {
+   private final long granularity;
+   private final IndexSegment[] segments;
+
+   ExpirationIndex(int numSegments, long granularity) {
+      this.granularity = granularity;
+      this.segments = new IndexSegment[numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         segments[i] = new IndexSegment();
+      }
+   }
+
+   /**
+    * Adds the key to the index, or moves it if it was already indexed with another expiration time.
+    */
+   void add(int segment, Object key, long expiryTime) {
+      segments[segment].add(key, expiryTime / granularity);
+   }
+
+   void remove(int segment, Object key) {
+      segments[segment].remove(key, Long.MAX_VALUE);
+   }
+
+   /**
+    * Removes the key only if it is still due at {@code currentTimeMillis}, so that a key written again concurrently is
+    * kept.
+    */
+   void removeIfDue(int segment, Object key, long currentTimeMillis) {
+      segments[segment].remove(key, currentTimeMillis / granularity);
+   }
+
+   /**
+    * @return the keys of the segment that may have expired at {@code currentTimeMillis}
+    */
+   Collection<Object> dueKeys(int segment, long currentTimeMillis) {
+      return segments[segment].dueKeys(currentTimeMillis / granularity);
+   }
+
+   /**
+    * @return the number of keys in the index
+    */
+   long size() {
+      long size = 0;
+      for (IndexSegment segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   void clear() {
+      for (IndexSegment segment : segments) {
+         segment.clear();
+      }
+   }
+
+   private static class IndexSegment {
+      @GuardedBy("this")
+      private final Map<Object, Long> bucketOfKey = new HashMap<>();
+      @GuardedBy("this")
+      private final NavigableMap<Long, Set<Object>> buckets = new TreeMap<>();
+
+      synchronized void add(Object key, long bucket) {
+         Long previous = bucketOfKey.put(key, bucket);
+         if (previous != null) {
+            if (previous == bucket) {
+               return;
+            }
+            removeFromBucket(key, previous);
+         }
+         buckets.computeIfAbsent(bucket, b -> new HashSet<>()).add(key);
+      }
+
+      synchronized void remove(Object key, long maxBucket) {
+         Long bucket = bucketOfKey.get(key);
+         if (bucket != null && bucket <= maxBucket) {
+            bucketOfKey.remove(key);
+            removeFromBucket(key, bucket);
+         }
+      }
+
+      synchronized Collection<Object> dueKeys(long maxBucket) {
+         NavigableMap<Long, Set<Object>> due = buckets.headMap(maxBucket, true);
+         if (due.isEmpty()) {
+            return Collections.emptyList();
+         }
+         List<Object> keys = new ArrayList<>();
+         for (Set<Object> bucketKeys : due.values()) {
+            keys.addAll(bucketKeys);
+         }
+         return keys;
+      }
+
+      synchronized int size() {
+         return bucketOfKey.size();
+      }
+
+      synchronized void clear() {
+         bucketOfKey.clear();
+         buckets.clear();
+      }
+
+      private void removeFromBucket(Object key, long bucket) {
+         Set<Object> bucketKeys = buckets.get(bucket);
+         if (bucketKeys != null && bucketKeys.remove(key) && bucketKeys.isEmpty()) {
+            buckets.remove(bucket);
+         }
+      }
+   }
+}
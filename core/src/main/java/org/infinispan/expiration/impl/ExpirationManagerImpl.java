@@ -2,8 +2,10 @@
 
 import static org.infinispan.util.logging.Log.CONTAINER;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PrimitiveIterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,11 +14,16 @@
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.AbstractIterator;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.context.InvocationContextFactory;
@@ -31,6 +38,10 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
@@ -44,6 +55,7 @@
 import net.jcip.annotations.ThreadSafe;
 
 @ThreadSafe
+@MBean(objectName = "ExpirationManager", description = "Component that removes the expired entries in the background")
 @Scope(Scopes.NAMED_CACHE)
 public class ExpirationManagerImpl<K, V> implements InternalExpirationManager<K, V> {
    private static final Log log = LogFactory.getLog(ExpirationManagerImpl.class);
@@ -73,6 +85,18 @@
     */
    protected ConcurrentMap<K, CompletableFuture<Boolean>> expiring = new ConcurrentHashMap<>();
    protected ScheduledFuture<?> expirationTask;
+   // Index of the entries by expiration time, null if disabled
+   protected volatile ExpirationIndex index;
+
+   private int numSegments;
+   private int segmentsPerRun;
+   // Only accessed by the reaper task
+   private int nextSegment;
+   private boolean cycleCompleted;
+
+   private final LongAdder reapedEntries = new LongAdder();
+   private final LongAdder reaperRuns = new LongAdder();
+   private volatile long lastReaperRunDuration;
 
    private final List<ExpirationConsumer<K, V>> listeners = new CopyOnWriteArrayList<>();
 
@@ -95,27 +119,146 @@ public void start() {
             CONTAINER.notStartingEvictionThread();
             enabled = false;
          } else {
+            // Caches that don't need segments put all the entries in segment 0
+            numSegments = Configurations.needSegments(configuration) ? configuration.clustering().hash().numSegments() : 1;
+            int perRun = configuration.expiration().reaperSegmentsPerRun();
+            segmentsPerRun = perRun > 0 && perRun < numSegments ? perRun : numSegments;
+            if (configuration.expiration().reaperIndex()) {
+               buildIndex(expWakeUpInt);
+            }
             expirationTask = executor.scheduleWithFixedDelay(new ScheduledTask(),
                   expWakeUpInt, expWakeUpInt, TimeUnit.MILLISECONDS);
          }
       }
    }
 
+   /**
+    * Creates the expiration index with buckets of one wake up interval, indexing the entries that are already in
+    * memory, e.g. because they were preloaded.
+    */
+   private void buildIndex(long granularity) {
+      index = new ExpirationIndex(numSegments, granularity);
+      for (Iterator<InternalCacheEntry<K, V>> it = dataContainer.running().iteratorIncludingExpired(); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (entry.canExpire()) {
+            index.add(keyPartitioner.getSegment(entry.getKey()), entry.getKey(), entry.getExpiryTime());
+         }
+      }
+   }
+
+   /**
+    * @return the segments to check in this run, or {@code null} if all the segments are checked by every run
+    */
+   protected IntSet nextSegments() {
+      if (segmentsPerRun >= numSegments) {
+         cycleCompleted = true;
+         return null;
+      }
+      int start = nextSegment;
+      int end = Math.min(start + segmentsPerRun, numSegments);
+      nextSegment = end == numSegments ? 0 : end;
+      cycleCompleted = nextSegment == 0;
+      IntSet segments = IntSets.mutableEmptySet(numSegments);
+      for (int segment = start; segment < end; segment++) {
+         segments.set(segment);
+      }
+      return segments;
+   }
+
+   /**
+    * @return whether the last segments returned by {@link #nextSegments()} completed a pass over all the segments
+    */
+   protected boolean cycleCompleted() {
+      return cycleCompleted;
+   }
+
+   /**
+    * Returns the in-memory entries that may have expired in the given segments, all the entries of the segments if the
+    * index is disabled.
+    * @param segments the segments to check, {@code null} for all the segments
+    * @param currentTimeMillis the current wall clock time
+    */
+   protected Iterator<InternalCacheEntry<K, V>> expirationCandidates(IntSet segments, long currentTimeMillis) {
+      ExpirationIndex index = this.index;
+      if (index != null) {
+         IntSet indexSegments = segments != null ? segments : IntSets.immutableRangeSet(numSegments);
+         return new IndexedCandidates(index, indexSegments.iterator(), currentTimeMillis);
+      }
+      return segments != null ? dataContainer.running().iteratorIncludingExpired(segments) :
+            dataContainer.running().iteratorIncludingExpired();
+   }
+
+   protected void entriesReaped(long count) {
+      reapedEntries.add(count);
+   }
+
+   /**
+    * Records the completion of a run of the reaper.
+    * @param start the start of the run, as returned by {@link TimeService#time()}
+    */
+   protected void reaperRunCompleted(long start) {
+      reaperRuns.increment();
+      lastReaperRunDuration = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+   }
+
+   @Override
+   public void entryWrittenInMemory(int segment, InternalCacheEntry<K, V> entry) {
+      ExpirationIndex index = this.index;
+      if (index != null) {
+         index.add(segment, entry.getKey(), entry.getExpiryTime());
+      }
+   }
+
+   @Override
+   public void entryRemovedFromMemory(int segment, Object key) {
+      ExpirationIndex index = this.index;
+      if (index != null) {
+         index.remove(segment, key);
+      }
+   }
+
+   @ManagedAttribute(description = "Number of entries removed from memory by the expiration reaper",
+         displayName = "Number of reaped entries", measurementType = MeasurementType.TRENDSUP)
+   public long getReapedEntries() {
+      return reapedEntries.sum();
+   }
+
+   @ManagedAttribute(description = "Number of runs of the expiration reaper",
+         displayName = "Number of reaper runs", measurementType = MeasurementType.TRENDSUP)
+   public long getReaperRuns() {
+      return reaperRuns.sum();
+   }
+
+   @ManagedAttribute(description = "Duration of the last run of the expiration reaper, in milliseconds",
+         displayName = "Last reaper run duration", units = Units.MILLISECONDS)
+   public long getLastReaperRunDuration() {
+      return lastReaperRunDuration;
+   }
+
+   @ManagedAttribute(description = "Number of entries in the expiration index, -1 if the index is disabled",
+         displayName = "Expiration index size")
+   public long getExpirationIndexSize() {
+      ExpirationIndex index = this.index;
+      return index != null ? index.size() : -1;
+   }
+
    @Override
    public void processExpiration() {
-      long start = 0;
+      long start = timeService.time();
+      long reaped = 0;
       if (!Thread.currentThread().isInterrupted()) {
          try {
+            IntSet segments = nextSegments();
             if (trace) {
-               log.trace("Purging data container of expired entries");
-               start = timeService.time();
+               log.tracef("Purging data container of expired entries in segments %s", segments != null ? segments : "all");
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired();
+            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = expirationCandidates(segments, currentTimeMillis);
                  purgeCandidates.hasNext();) {
                InternalCacheEntry<K, V> e = purgeCandidates.next();
                if (e.isExpired(currentTimeMillis)) {
                   entryExpiredInMemory(e, currentTimeMillis, false);
+                  reaped++;
                }
             }
             if (trace) {
@@ -125,9 +268,12 @@ public void processExpiration() {
          } catch (Exception e) {
             CONTAINER.exceptionPurgingDataContainer(e);
          }
+         entriesReaped(reaped);
+         reaperRunCompleted(start);
       }
 
-      if (!Thread.currentThread().isInterrupted()) {
+      // The stores are purged once all the segments were checked
+      if (!Thread.currentThread().isInterrupted() && cycleCompleted()) {
          CompletionStages.join(persistenceManager.purgeExpired());
       }
    }
@@ -294,6 +440,46 @@ public void removeInternalListener(Object listener) {
       listeners.remove(listener);
    }
 
+   /**
+    * Iterates over the entries of the index that are due to expire, moving the entries that did not expire yet to
+    * their current expiration time and removing the keys that are no longer in memory.
+    */
+   private class IndexedCandidates extends AbstractIterator<InternalCacheEntry<K, V>> {
+      private final ExpirationIndex index;
+      private final PrimitiveIterator.OfInt segments;
+      private final long currentTimeMillis;
+      private int segment;
+      private Iterator<Object> keys = Collections.emptyIterator();
+
+      IndexedCandidates(ExpirationIndex index, PrimitiveIterator.OfInt segments, long currentTimeMillis) {
+         this.index = index;
+         this.segments = segments;
+         this.currentTimeMillis = currentTimeMillis;
+      }
+
+      @Override
+      protected InternalCacheEntry<K, V> getNext() {
+         while (true) {
+            while (keys.hasNext()) {
+               Object key = keys.next();
+               InternalCacheEntry<K, V> entry = dataContainer.running().peek(segment, key);
+               if (entry == null || !entry.canExpire()) {
+                  index.removeIfDue(segment, key, currentTimeMillis);
+               } else if (entry.isExpired(currentTimeMillis)) {
+                  return entry;
+               } else {
+                  index.add(segment, key, entry.getExpiryTime());
+               }
+            }
+            if (!segments.hasNext()) {
+               return null;
+            }
+            segment = segments.nextInt();
+            keys = index.dueKeys(segment, currentTimeMillis).iterator();
+         }
+      }
+   }
+
    class ScheduledTask implements Runnable {
       @Override
       public void run() {
@@ -85,6 +85,22 @@ default void handleInStoreExpiration(MarshallableEntry<K, V> marshalledEntry) {
     */
    CompletionStage<Boolean> handlePossibleExpiration(InternalCacheEntry<K, V> entry, int segment, boolean isWrite);
 
+   /**
+    * Invoked by the data container after an entry that can expire was written in memory.
+    * @param segment the segment of the entry
+    * @param entry the entry that was written
+    */
+   default void entryWrittenInMemory(int segment, InternalCacheEntry<K, V> entry) {
+   }
+
+   /**
+    * Invoked by the data container after an entry was removed from memory.
+    * @param segment the segment of the entry
+    * @param key the key of the entry that was removed
+    */
+   default void entryRemovedFromMemory(int segment, Object key) {
+   }
+
    /**
     * Adds an {@link ExpirationConsumer} to be invoked when an entry is expired.
     * <p>
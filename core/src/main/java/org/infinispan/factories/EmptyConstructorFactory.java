@@ -15,6 +15,7 @@
 import org.infinispan.marshall.protostream.impl.SerializationContextRegistryImpl;
 import org.infinispan.remoting.inboundhandler.GlobalInboundInvocationHandler;
 import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
+import org.infinispan.statetransfer.StateTransferThrottle;
 import org.infinispan.topology.PersistentUUIDManager;
 import org.infinispan.topology.PersistentUUIDManagerImpl;
 import org.infinispan.util.EmbeddedTimeService;
@@ -38,7 +39,8 @@
       InboundInvocationHandler.class, PersistentUUIDManager.class,
       RemoteCommandsFactory.class, TimeService.class, DataOperationOrderer.class,
       GlobalStateManager.class, GlobalConfigurationManager.class,
-      SerializationContextRegistry.class, BlockingManager.class, NonBlockingManager.class
+      SerializationContextRegistry.class, BlockingManager.class, NonBlockingManager.class,
+      StateTransferThrottle.class
 })
 @Scope(Scopes.GLOBAL)
 public class EmptyConstructorFactory extends AbstractComponentFactory implements AutoInstantiableFactory {
@@ -67,6 +69,8 @@ else if (componentName.equals(BlockingManager.class.getName()))
          return new BlockingManagerImpl();
       else if (componentName.equals(NonBlockingManager.class.getName()))
          return new NonBlockingManagerImpl();
+      else if (componentName.equals(StateTransferThrottle.class.getName()))
+         return new StateTransferThrottle();
 
       throw CONTAINER.factoryCannotConstructComponent(componentName);
    }
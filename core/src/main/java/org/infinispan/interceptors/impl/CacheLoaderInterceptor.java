@@ -5,9 +5,12 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.SHARED;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
@@ -157,7 +160,22 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx,
 
    @Override
    public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) {
-      return visitManyDataCommand(ctx, command, command.getKeys());
+      List<Object> keysToLoad = null;
+      for (Object key : command.getKeys()) {
+         if (!skipLoad(command, key, ctx)) {
+            if (keysToLoad == null) {
+               keysToLoad = new ArrayList<>();
+            }
+            keysToLoad.add(key);
+         }
+      }
+      if (keysToLoad == null) {
+         return invokeNext(ctx, command);
+      }
+      CompletionStage<Void> stage = keysToLoad.size() == 1 ?
+            loadInContext(ctx, keysToLoad.get(0), command) :
+            loadAllInContext(ctx, keysToLoad, command);
+      return asyncInvokeNext(ctx, command, stage);
    }
 
    @Override
@@ -353,15 +371,7 @@ protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key,
 
       CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
 
-      Consumer<? super InternalCacheEntry<K, V>> action = entry -> {
-         if (entry != null) {
-            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
-         }
-         CacheEntry contextEntry = ctx.lookupEntry(key);
-         if (contextEntry instanceof MVCCEntry) {
-            ((MVCCEntry) contextEntry).setLoaded(true);
-         }
-      };
+      Consumer<? super InternalCacheEntry<K, V>> action = wrapInContext(ctx, key, cmd);
 
       // If another thread is completing the request, then resume on a different CPU thread so we don't have to
       // wait until the other command completes
@@ -386,6 +396,83 @@ protected CompletionStage<Void> loadInContext(InvocationContext ctx, Object key,
       return cf.thenAccept(action);
    }
 
+   /**
+    * Same as {@link #loadInContext(InvocationContext, Object, FlagAffectedCommand)} except that the keys missing from
+    * the data container are loaded from the persistence store(s) in a single bulk operation per store.
+    * @param ctx context for this invocation
+    * @param keys keys to find the entries for
+    * @param cmd the command that initiated this load
+    * @return a stage that when complete will have the entries loaded into the provided context
+    */
+   protected CompletionStage<Void> loadAllInContext(InvocationContext ctx, Collection<?> keys, FlagAffectedCommand cmd) {
+      AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> keysToLoad = new HashMap<>();
+      for (Object key : keys) {
+         int segment = SegmentSpecificCommand.extractSegment(cmd, key, partitioner);
+         // Keys already being loaded or present in memory don't need the bulk load
+         if (pendingLoads.containsKey(key) || dataContainer.peek(segment, key) != null) {
+            stage.dependsOn(loadInContext(ctx, key, cmd));
+            continue;
+         }
+         CompletableFuture<InternalCacheEntry<K, V>> cf = new CompletableFuture<>();
+         CompletionStage<InternalCacheEntry<K, V>> otherCF = pendingLoads.putIfAbsent(key, cf);
+         if (otherCF != null) {
+            if (trace) {
+               log.tracef("Piggybacking on concurrent cache loader for key %s", key);
+            }
+            stage.dependsOn(otherCF.thenAcceptAsync(wrapInContext(ctx, key, cmd), nonBlockingExecutor));
+            continue;
+         }
+         keysToLoad.put(key, cf);
+         stage.dependsOn(cf.thenAccept(wrapInContext(ctx, key, cmd)));
+      }
+      if (keysToLoad.isEmpty()) {
+         return stage.freeze();
+      }
+
+      if (trace) {
+         log.tracef("Loading entries for keys %s", keysToLoad.keySet());
+      }
+      persistenceManager.<K, V>loadAllFromAllStores(keysToLoad.keySet(), ctx.isOriginLocal(), true)
+            .whenComplete((entries, throwable) -> keysToLoad.forEach((key, cf) -> {
+               CompletionStage<InternalCacheEntry<K, V>> result;
+               if (throwable != null) {
+                  result = CompletableFutures.completedExceptionFuture(throwable);
+               } else {
+                  try {
+                     int segment = SegmentSpecificCommand.extractSegment(cmd, key, partitioner);
+                     result = notifyLoaded(ctx, key, cmd,
+                           CompletableFuture.completedFuture(storeInDataContainer(key, segment, entries.get(key))));
+                  } catch (Throwable t) {
+                     result = CompletableFutures.completedExceptionFuture(t);
+                  }
+               }
+               result.whenComplete((value, t) -> {
+                  // Make sure we clean up our pendingLoads properly and before completing any responses
+                  pendingLoads.remove(key);
+                  if (t != null) {
+                     cf.completeExceptionally(t);
+                  } else {
+                     cf.complete(value);
+                  }
+               });
+            }));
+      return stage.freeze();
+   }
+
+   private Consumer<? super InternalCacheEntry<K, V>> wrapInContext(InvocationContext ctx, Object key,
+                                                                    FlagAffectedCommand cmd) {
+      return entry -> {
+         if (entry != null) {
+            entryFactory.wrapExternalEntry(ctx, key, entry, true, cmd instanceof WriteCommand);
+         }
+         CacheEntry contextEntry = ctx.lookupEntry(key);
+         if (contextEntry instanceof MVCCEntry) {
+            ((MVCCEntry) contextEntry).setLoaded(true);
+         }
+      };
+   }
+
    public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(InvocationContext ctx, Object key,
                                                                                 int segment, FlagAffectedCommand cmd) {
       InternalCacheEntry<K, V> entry = dataContainer.peek(segment, key);
@@ -401,38 +488,44 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
          log.tracef("Loading entry for key %s", key);
       }
       CompletionStage<InternalCacheEntry<K, V>> resultStage = persistenceManager.<K, V>loadFromAllStores(key, segment,
-            ctx.isOriginLocal(), includeStores).thenApply(me -> {
-         if (me != null) {
-            InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
-            if (getStatisticsEnabled()) {
-               cacheLoads.incrementAndGet();
-            }
-            if (trace) {
-               log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
-                     ice, key);
-            }
+            ctx.isOriginLocal(), includeStores).thenApply(me -> storeInDataContainer(key, segment, me));
+      return notifyLoaded(ctx, key, cmd, resultStage);
+   }
 
-            DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
-               if (oldEntry != null &&
-                     (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
-                  return oldEntry;
-               }
-               return ice;
-            };
+   private InternalCacheEntry<K, V> storeInDataContainer(Object key, int segment, MarshallableEntry<K, V> me) {
+      if (me != null) {
+         InternalCacheEntry<K, V> ice = PersistenceUtil.convert(me, iceFactory);
+         if (getStatisticsEnabled()) {
+            cacheLoads.incrementAndGet();
+         }
+         if (trace) {
+            log.tracef("Loaded entry: %s for key %s from store and attempting to insert into data container",
+                  ice, key);
+         }
 
-            dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
-            return ice;
-         } else {
-            if (trace) {
-               log.tracef("Missed entry load for key %s from store", key);
+         DataContainer.ComputeAction<K, V> putIfAbsentOrExpired = (k, oldEntry, factory) -> {
+            if (oldEntry != null &&
+                  (!oldEntry.canExpire() || !oldEntry.isExpired(timeService.wallClockTime()))) {
+               return oldEntry;
             }
-            if (getStatisticsEnabled()) {
-               cacheMisses.incrementAndGet();
-            }
-            return null;
+            return ice;
+         };
+
+         dataContainer.compute(segment, (K) key, putIfAbsentOrExpired);
+         return ice;
+      } else {
+         if (trace) {
+            log.tracef("Missed entry load for key %s from store", key);
          }
-      });
+         if (getStatisticsEnabled()) {
+            cacheMisses.incrementAndGet();
+         }
+         return null;
+      }
+   }
 
+   private CompletionStage<InternalCacheEntry<K, V>> notifyLoaded(InvocationContext ctx, Object key,
+         FlagAffectedCommand cmd, CompletionStage<InternalCacheEntry<K, V>> resultStage) {
       if (notifier.hasListener(CacheEntryLoaded.class) || notifier.hasListener(CacheEntryActivated.class)) {
          return resultStage.thenCompose(ice -> {
             if (ice != null) {
@@ -536,10 +629,30 @@ public long getCacheLoaderMisses() {
       return cacheMisses.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of loads that did not hit the cache store as the negative lookup filter does not contain the key",
+         displayName = "Number of loads saved by the negative lookup filter",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getNegativeLookupFilterSavedLoads() {
+      return persistenceManager.getNegativeLookupFilterSavedLoads();
+   }
+
+   @ManagedAttribute(
+         description = "Ratio of the cache store lookups of missing keys that were not prevented by the negative lookup filter",
+         displayName = "False positive rate of the negative lookup filter"
+   )
+   public double getNegativeLookupFilterFalsePositiveRate() {
+      long falsePositives = persistenceManager.getNegativeLookupFilterFalsePositives();
+      long negativeLookups = falsePositives + persistenceManager.getNegativeLookupFilterSavedLoads();
+      return negativeLookups == 0 ? 0 : (double) falsePositives / negativeLookups;
+   }
+
    @Override
    public void resetStatistics() {
       cacheLoads.set(0);
       cacheMisses.set(0);
+      persistenceManager.resetNegativeLookupFilterStatistics();
    }
 
    /**
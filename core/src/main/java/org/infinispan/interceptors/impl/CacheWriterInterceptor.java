@@ -51,6 +51,7 @@
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
@@ -451,6 +452,41 @@ public int getNumberOfPersistedEntries() {
       return (int) Math.min(size, Integer.MAX_VALUE);
    }
 
+   @ManagedAttribute(
+         description = "Number of modifications not yet written by the stores configured with write-behind",
+         displayName = "Number of pending write-behind modifications"
+   )
+   public int getWriteBehindPendingModifications() {
+      return persistenceManager.getWriteBehindPendingModifications();
+   }
+
+   @ManagedAttribute(
+         description = "Age of the oldest modification not yet written by the stores configured with write-behind",
+         displayName = "Age of the oldest pending write-behind modification",
+         units = Units.MILLISECONDS
+   )
+   public long getWriteBehindOldestPendingModificationAge() {
+      return persistenceManager.getWriteBehindOldestPendingModificationAge();
+   }
+
+   @ManagedAttribute(
+         description = "Number of files waiting to be compacted by the stores that compact their files",
+         displayName = "Number of files waiting for compaction"
+   )
+   public int getCompactionLag() {
+      return persistenceManager.getCompactionLag();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bytes released by compacting the files of the stores",
+         displayName = "Number of bytes reclaimed by compaction",
+         measurementType = MeasurementType.TRENDSUP,
+         units = Units.BYTES
+   )
+   public long getCompactionReclaimedBytes() {
+      return persistenceManager.getCompactionReclaimedBytes();
+   }
+
    CompletionStage<Void> storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return storeEntry(ctx, key, command, true);
    }
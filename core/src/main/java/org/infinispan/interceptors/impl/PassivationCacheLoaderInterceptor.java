@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.impl;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Supplier;
@@ -10,6 +11,8 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.eviction.impl.ActivationManager;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.concurrent.DataOperationOrderer;
 import org.infinispan.util.concurrent.DataOperationOrderer.Operation;
 import org.infinispan.util.logging.Log;
@@ -30,6 +33,16 @@ public CompletionStage<InternalCacheEntry<K, V>> loadAndStoreInDataContainer(Inv
       return handlePassivationLoad(key, segment, orderer, activationManager, supplier);
    }
 
+   @Override
+   protected CompletionStage<Void> loadAllInContext(InvocationContext ctx, Collection<?> keys, FlagAffectedCommand cmd) {
+      // Every key must be ordered with a concurrent passivation and activated on its own
+      AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+      for (Object key : keys) {
+         stage.dependsOn(loadInContext(ctx, key, cmd));
+      }
+      return stage.freeze();
+   }
+
    static <K, V> CompletionStage<InternalCacheEntry<K, V>> handlePassivationLoad(Object key, int segment,
                                                                                  DataOperationOrderer orderer,
                                                                                  ActivationManager activationManager,
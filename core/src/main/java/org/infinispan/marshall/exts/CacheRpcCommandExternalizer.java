@@ -24,6 +24,8 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -114,6 +116,7 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
             XSiteStateTransferFinishSendCommand.class, XSiteStateTransferRestartSendingCommand.class,
             XSiteStateTransferStartReceiveCommand.class, XSiteStateTransferStartSendCommand.class,
             XSiteStateTransferStatusRequestCommand.class, ConflictResolutionStartCommand.class,
+            ConflictDigestCommand.class, ConflictEntriesCommand.class,
             ScatteredStateGetKeysCommand.class, ScatteredStateConfirmRevokedCommand.class,
             StateTransferCancelCommand.class, StateTransferGetListenersCommand.class,
             StateTransferGetTransactionsCommand.class, StateTransferStartCommand.class,
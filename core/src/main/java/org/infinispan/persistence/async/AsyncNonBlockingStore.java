@@ -4,8 +4,10 @@
 import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -16,6 +18,7 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.IllegalLifecycleStateException;
 import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
@@ -27,6 +30,7 @@
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.support.DelegatingNonBlockingStore;
 import org.infinispan.persistence.support.SegmentPublisherWrapper;
+import org.infinispan.persistence.support.SingleSegmentPublisher;
 import org.infinispan.commons.reactive.RxJavaInterop;
 import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.concurrent.CompletionStages;
@@ -35,6 +39,7 @@
 import org.reactivestreams.Publisher;
 
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.flowables.ConnectableFlowable;
 import io.reactivex.rxjava3.functions.Consumer;
@@ -56,6 +61,12 @@
  * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch completes
  * in an attempt to provide some backpressure to slow writes.
  * <p>
+ * If a flush interval is configured, a batch is only started once the interval elapsed after the first pending write, or
+ * earlier if the modification queue is full, so that repeated writes to the same keys are coalesced. If spilling is
+ * enabled, a write to a key that is not enqueued while the modification queue is full is instead written directly to the
+ * delegate store, and the returned Stage completes when that write completes. This bounds the memory used by the queue
+ * without making the writers wait for the current batch.
+ * <p>
  * Read operations may be resolved by this store immediately if the given key is still being updated in the
  * delegate store or if it is enqueued for the next batch. If the key is in neither it will query the underlying store
  * to acquire it.
@@ -82,6 +93,9 @@
    private int modificationQueueSize;
    private PersistenceConfiguration persistenceConfiguration;
    private AsyncStoreConfiguration asyncConfiguration;
+   private long flushInterval;
+   private boolean spillWhenFull;
+   private TimeService timeService;
 
    // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures
    private ScheduledExecutorService scheduler;
@@ -104,6 +118,16 @@
    // If there is a pending clear this will be true
    @GuardedBy("this")
    private boolean hasPendingClear;
+   // The time, in nanoseconds, when the oldest pending modification or clear was enqueued
+   @GuardedBy("this")
+   private long pendingSince;
+   // True if a batch will be requested once the flush interval elapses
+   @GuardedBy("this")
+   private boolean flushScheduled;
+   // Modifications that are written directly to the delegate store as the queue was full - note that a key is never
+   // spilled while it is in any other map of modifications
+   @GuardedBy("this")
+   private final Map<Object, SpillableModification> spillingModifications = new HashMap<>();
    // The next two variables are held temporarily until a replication of the values is complete. We need to retain
    // these values until we are sure the entries are actually in the store - note these variables are only written to
    // via reference (thus the map is safe to read outside of this lock, but the reference must be read in synchronized)
@@ -113,6 +137,9 @@
    // True if there is an outstanding clear that is being ran on the delegating store
    @GuardedBy("this")
    private boolean isReplicatingClear;
+   // The time, in nanoseconds, when the oldest modification being replicated was enqueued
+   @GuardedBy("this")
+   private long replicatingSince;
 
    public AsyncNonBlockingStore(NonBlockingStore<K, V> actual) {
       this.actual = actual;
@@ -130,6 +157,9 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       segmentCount = storeConfiguration.segmented() ? cacheConfiguration.clustering().hash().numSegments() : 1;
       asyncConfiguration = storeConfiguration.async();
       modificationQueueSize = asyncConfiguration.modificationQueueSize();
+      flushInterval = asyncConfiguration.flushInterval();
+      spillWhenFull = asyncConfiguration.spillWhenFull();
+      timeService = ctx.getTimeService();
       // It is possible for multiple threads to write to this processor at the same time
       submissionFlowable = UnicastProcessor.<Modification>create(1).toSerialized();
       nonBlockingExecutor = ctx.getNonBlockingExecutor();
@@ -145,6 +175,8 @@ public CompletionStage<Void> stop() {
             log.tracef("Stopping async store containing store %s", actual);
          }
          submissionFlowable = null;
+         // Don't wait for the flush interval to elapse
+         flushScheduledBatch();
          asyncStage = awaitQuiescence().whenComplete((ignore, t) -> {
             // We can only dispose of the subscription after we are sure we are totally stopped
             if (startSub != null) {
@@ -181,17 +213,72 @@ private CompletionStage<Void> awaitQuiescence() {
       return stage.thenCompose(ignore -> awaitQuiescence());
    }
 
-   private synchronized void putModification(Object key, Modification modification) {
-      if (trace) {
-         log.tracef("Adding modification %s to %s", modification, System.identityHashCode(pendingModifications));
+   private void putModification(Object key, SpillableModification modification) {
+      boolean spill;
+      synchronized (this) {
+         spill = shouldSpill(key);
+         if (spill) {
+            if (trace) {
+               log.tracef("Modification queue is full, spilling modification %s to underlying store", modification);
+            }
+            modification.spilled = true;
+            spillingModifications.put(key, modification);
+         } else {
+            if (trace) {
+               log.tracef("Adding modification %s to %s", modification, System.identityHashCode(pendingModifications));
+            }
+            if (pendingModifications.isEmpty() && !hasPendingClear) {
+               pendingSince = timeService.time();
+            }
+            pendingModifications.put(key, modification);
+         }
+      }
+      if (spill) {
+         modification.writeTo(actual).whenComplete((ignore, t) -> spillCompleted(key, modification, t));
+      } else {
+         modification.appliedFuture.complete(null);
+      }
+   }
+
+   @GuardedBy("this")
+   private boolean shouldSpill(Object key) {
+      // The key must not be in any of the maps, otherwise the spilled write could be reordered with the queued one
+      return spillWhenFull && pendingModifications.size() >= modificationQueueSize && delegateAvailableFuture == null &&
+            !hasPendingClear && !isReplicatingClear && !pendingModifications.containsKey(key) &&
+            (replicatingModifications == null || !replicatingModifications.containsKey(key)) &&
+            !spillingModifications.containsKey(key);
+   }
+
+   private void spillCompleted(Object key, SpillableModification modification, Throwable t) {
+      boolean requeued = false;
+      synchronized (this) {
+         spillingModifications.remove(key);
+         // A failed write is retried with the next batch, unless it was already superseded
+         if (t != null && !hasPendingClear && !pendingModifications.containsKey(key) &&
+               (replicatingModifications == null || !replicatingModifications.containsKey(key))) {
+            if (pendingModifications.isEmpty()) {
+               pendingSince = timeService.time();
+            }
+            pendingModifications.put(key, modification);
+            requeued = true;
+         }
+      }
+      if (t != null) {
+         log.debugf(t, "Failed to spill modification %s to underlying store, requeued: %s", modification, requeued);
       }
-      pendingModifications.put(key, modification);
+      if (requeued) {
+         submitBatchIfNecessary();
+      }
+      modification.appliedFuture.complete(null);
    }
 
    private synchronized void putClearModification() {
       if (trace) {
          log.tracef("Clear modification encountered for %s", System.identityHashCode(pendingModifications));
       }
+      if (pendingModifications.isEmpty() && !hasPendingClear) {
+         pendingSince = timeService.time();
+      }
       pendingModifications.clear();
       hasPendingClear = true;
    }
@@ -212,6 +299,7 @@ public void accept(Flowable<Modification> modificationFlowable) {
                }
                boolean ourClearToReplicate;
                Map<Object, Modification> ourModificationsToReplicate;
+               CompletableFuture<?>[] spillsToAwait;
                synchronized (this) {
                   assert replicatingModifications == null || replicatingModifications.isEmpty();
                   replicatingModifications = pendingModifications;
@@ -220,21 +308,26 @@ public void accept(Flowable<Modification> modificationFlowable) {
                   isReplicatingClear = hasPendingClear;
                   ourClearToReplicate = hasPendingClear;
                   hasPendingClear = false;
+                  replicatingSince = pendingSince;
+                  spillsToAwait = spillingModifications.values().stream()
+                        .map(modification -> modification.appliedFuture)
+                        .toArray(CompletableFuture[]::new);
                }
 
-
-               CompletionStage<Void> asyncBatchStage;
+               // The spilled writes were issued before the modifications of this batch, so they must complete first
+               CompletionStage<Void> asyncBatchStage = spillsToAwait.length == 0 ? CompletableFutures.completedNull() :
+                     CompletableFuture.allOf(spillsToAwait);
                if (ourClearToReplicate) {
-                  if (trace) {
-                     log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
-                  }
-                  asyncBatchStage = retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
-                     synchronized (this) {
-                        isReplicatingClear = false;
+                  asyncBatchStage = asyncBatchStage.thenCompose(ignore -> {
+                     if (trace) {
+                        log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
                      }
+                     return retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore2, t) -> {
+                        synchronized (this) {
+                           isReplicatingClear = false;
+                        }
+                     });
                   });
-               } else {
-                  asyncBatchStage = CompletableFutures.completedNull();
                }
 
                if (!ourModificationsToReplicate.isEmpty()) {
@@ -414,21 +507,26 @@ private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> f
    }
 
    private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps() {
-      Map<Object, Modification> modificationCopy;
+      Map<Object, Modification> pendingCopy;
       Map<Object, Modification> modificationsToReplicate;
       boolean clearToReplicate;
       synchronized (this) {
-         modificationCopy = new HashMap<>(pendingModifications);
+         pendingCopy = new HashMap<>(pendingModifications);
          if (hasPendingClear) {
-            return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, modificationCopy);
+            return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, pendingCopy);
          }
+         // Spilled keys are never in the other maps
+         pendingCopy.putAll(spillingModifications);
          modificationsToReplicate = this.replicatingModifications;
          clearToReplicate = this.isReplicatingClear;
       }
 
-      if (modificationsToReplicate != null) {
-         modificationCopy.putAll(modificationsToReplicate);
+      if (modificationsToReplicate == null) {
+         return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, pendingCopy);
       }
+      // The pending modifications are more recent than the ones being replicated
+      Map<Object, Modification> modificationCopy = new HashMap<>(modificationsToReplicate);
+      modificationCopy.putAll(pendingCopy);
       return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, modificationCopy);
    }
 
@@ -442,6 +540,28 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return actual.load(segment, key);
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      assertNotStopped();
+      return Flowable.defer(() -> {
+         // Keys with a pending modification are answered from it, the others are loaded from the store at once
+         Queue<CompletionStage<MarshallableEntry<K, V>>> pendingStages = new ConcurrentLinkedQueue<>();
+         Flowable<SegmentedPublisher<Object>> keysToLoad = Flowable.fromPublisher(keyPublisher)
+               .map(sp -> SingleSegmentPublisher.singleSegment(sp.getSegment(), Flowable.fromPublisher(sp)
+                     .filter(key -> {
+                        CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(key);
+                        if (pendingStage != null) {
+                           pendingStages.add(pendingStage);
+                           return false;
+                        }
+                        return true;
+                     })));
+         return Flowable.fromPublisher(actual.loadAll(publisherCount, keysToLoad))
+               .concatWith(Flowable.defer(() -> Flowable.fromIterable(pendingStages)
+                     .concatMapMaybe(Maybe::fromCompletionStage)));
+      });
+   }
+
    private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key) {
       Object wrappedKey = wrapKeyIfNeeded(key);
       Map<Object, Modification> modificationsToReplicate;
@@ -455,6 +575,10 @@ private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key)
          if (hasPendingClear) {
             return CompletableFutures.completedNull();
          }
+         modification = spillingModifications.get(wrappedKey);
+         if (modification != null) {
+            return modification.asStage();
+         }
          // This map is never written to so just reading reference in synchronized block is sufficient
          modificationsToReplicate = this.replicatingModifications;
          clearToReplicate = this.isReplicatingClear;
@@ -491,30 +615,47 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
    @Override
    public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
       assertNotStopped();
-      submissionFlowable.onNext(new PutModification(segment, entry));
+      PutModification modification = new PutModification(segment, entry);
+      submissionFlowable.onNext(modification);
       submitBatchIfNecessary();
-      return asyncOrThrottledStage();
+      return asyncOrThrottledStage(modification);
    }
 
    @Override
    public CompletionStage<Boolean> delete(int segment, Object key) {
       assertNotStopped();
-      submissionFlowable.onNext(new RemoveModification(segment, key));
+      RemoveModification modification = new RemoveModification(segment, key);
+      submissionFlowable.onNext(modification);
       submitBatchIfNecessary();
-      return asyncOrThrottledStage()
+      return asyncOrThrottledStage(modification)
             // We always assume it was removed with async
             .thenCompose(ignore -> CompletableFutures.completedTrue());
    }
 
    private void submitBatchIfNecessary() {
       boolean startNewBatch;
+      boolean scheduleFlush = false;
       synchronized (this) {
-         if (startNewBatch = batchFuture == null) {
+         if (batchFuture == null) {
             batchFuture = new CompletableFuture<>();
+            // Wait for more modifications to coalesce, unless the queue is already full
+            scheduleFlush = flushInterval > 0 && pendingModifications.size() < modificationQueueSize;
+            flushScheduled = scheduleFlush;
+            startNewBatch = !scheduleFlush;
+         } else if (flushScheduled && pendingModifications.size() >= modificationQueueSize) {
+            flushScheduled = false;
+            startNewBatch = true;
+         } else {
+            startNewBatch = false;
          }
       }
 
-      if (startNewBatch) {
+      if (scheduleFlush) {
+         if (trace) {
+            log.tracef("Requesting a new async batch operation to be ran in %d ms", flushInterval);
+         }
+         scheduler.schedule(() -> nonBlockingExecutor.execute(this::flushScheduledBatch), flushInterval, TimeUnit.MILLISECONDS);
+      } else if (startNewBatch) {
          if (trace) {
             log.tracef("Requesting a new async batch operation to be ran!");
          }
@@ -523,6 +664,27 @@ private void submitBatchIfNecessary() {
       }
    }
 
+   private void flushScheduledBatch() {
+      synchronized (this) {
+         if (!flushScheduled) {
+            return;
+         }
+         flushScheduled = false;
+      }
+      if (trace) {
+         log.tracef("Flush interval elapsed, requesting a new async batch operation to be ran!");
+      }
+      requestFlowable.onNext(requestFlowable);
+   }
+
+   private CompletionStage<Void> asyncOrThrottledStage(SpillableModification modification) {
+      // The modification may still be applied by another thread after it was published, the decision to spill it is
+      // only known once the applied future completes.
+      // A spilled modification completes once it is written, which provides the backpressure instead of the batch
+      return modification.appliedFuture.thenCompose(ignore -> modification.spilled ?
+            CompletableFutures.completedNull() : asyncOrThrottledStage());
+   }
+
    private synchronized CompletionStage<Void> asyncOrThrottledStage() {
       if (pendingModifications.size() > modificationQueueSize) {
          if (trace) {
@@ -627,6 +789,35 @@ public NonBlockingStore<K, V> delegate() {
       return actual;
    }
 
+   /**
+    * @return the number of modifications that are enqueued, being replicated or spilled to the delegate store
+    */
+   public synchronized int getPendingModificationCount() {
+      int count = pendingModifications.size() + spillingModifications.size();
+      if (replicatingModifications != null) {
+         count += replicatingModifications.size();
+      }
+      return count;
+   }
+
+   /**
+    * @return how long, in milliseconds, the oldest modification that is not written to the delegate store yet has
+    * been waiting, or 0 if there is none
+    */
+   public long getOldestPendingModificationAge() {
+      long since;
+      synchronized (this) {
+         if ((replicatingModifications != null && !replicatingModifications.isEmpty()) || isReplicatingClear) {
+            since = replicatingSince;
+         } else if (!pendingModifications.isEmpty() || hasPendingClear) {
+            since = pendingSince;
+         } else {
+            return 0;
+         }
+      }
+      return timeService.timeDuration(since, TimeUnit.MILLISECONDS);
+   }
+
    private void assertNotStopped() throws CacheException {
       if (submissionFlowable == null)
          throw new IllegalLifecycleStateException("AsyncCacheWriter stopped; no longer accepting more entries.");
@@ -640,7 +831,19 @@ interface Modification {
       <K, V> CompletionStage<MarshallableEntry<K, V>> asStage();
    }
 
-   private static class RemoveModification implements AsyncNonBlockingStore.Modification {
+   /**
+    * A modification of a single key, which can be written directly to the delegate store when the queue is full
+    */
+   private abstract static class SpillableModification implements Modification {
+      // Created before the modification is published, as it can be applied by another thread. Completed when the
+      // modification is queued or, if it is spilled, when the write to the delegate completes
+      final CompletableFuture<Void> appliedFuture = new CompletableFuture<>();
+      volatile boolean spilled;
+
+      abstract <K, V> CompletionStage<Void> writeTo(NonBlockingStore<K, V> store);
+   }
+
+   private static class RemoveModification extends SpillableModification {
       private final int segment;
       private final Object key;
 
@@ -668,6 +871,11 @@ public Object getKey() {
          return key;
       }
 
+      @Override
+      <K, V> CompletionStage<Void> writeTo(NonBlockingStore<K, V> store) {
+         return store.delete(segment, key).thenApply(CompletableFutures.toNullFunction());
+      }
+
       @Override
       public String toString() {
          return "RemoveModification{" +
@@ -677,7 +885,7 @@ public String toString() {
       }
    }
 
-   private static class PutModification implements AsyncNonBlockingStore.Modification {
+   private static class PutModification extends SpillableModification {
       private final int segment;
       private final MarshallableEntry entry;
 
@@ -707,6 +915,12 @@ public <K, V> MarshallableEntry<K, V> getEntry() {
          return entry;
       }
 
+      @SuppressWarnings("unchecked")
+      @Override
+      <K, V> CompletionStage<Void> writeTo(NonBlockingStore<K, V> store) {
+         return store.write(segment, entry);
+      }
+
       @Override
       public String toString() {
          return "PutModification{" +
@@ -15,13 +15,17 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
@@ -68,6 +72,15 @@
  * <p/>
  * This class is fully thread safe, yet allows for concurrent load / store
  * of individual cache entries.
+ * <p/>
+ * When configured to be append-only, the space of replaced or removed entries
+ * is never reused: new entries are always appended to the end of the file and
+ * the in-memory index is a concurrent map, so writers don't have to wait for
+ * each other. Once the replaced and removed entries exceed the configured
+ * compaction threshold, the live entries are copied to a new file in the
+ * background, which then replaces the current one. Writers are only blocked
+ * while the entries written during the copy are moved over. Append-only stores
+ * use the same file format, so a file can be opened in either mode.
  *
  * @author Karsten Blees
  * @author Mircea Markus
@@ -103,6 +116,8 @@
    // bytes required by created and lastUsed timestamps
    private static final int TIMESTAMP_BYTES = 8 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // Append-only stores don't bother compacting files smaller than this
+   private static final long MIN_COMPACTION_SIZE = 64 * 1024;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -116,6 +131,15 @@
    private float fragmentationFactor = .75f;
    // Prevent clear() from truncating the file after a write() allocated the entry but before it wrote the data
    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+
+   // Append-only mode: the next file position and the bytes occupied by replaced or removed entries
+   private boolean appendOnly;
+   private float compactionThreshold;
+   private final AtomicLong appendPos = new AtomicLong(MAGIC_11_0.length);
+   private final AtomicLong deadBytes = new AtomicLong();
+   private final AtomicBoolean compacting = new AtomicBoolean();
+   // Incremented by clear() so that a compaction started before it knows its copy is obsolete
+   private volatile int clearCount;
    private TimeService timeService;
    private MarshallableEntryFactory<K, V> entryFactory;
 
@@ -143,12 +167,18 @@ public void start() {
             }
          }
          channel = new RandomAccessFile(file, "rw").getChannel();
+         appendOnly = configuration.appendOnly();
+         compactionThreshold = configuration.compactionThreshold();
 
          // initialize data structures. Only use LinkedHashMap (LRU) for entries when cache store is bounded
-         Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
-               new LinkedHashMap<>(16, 0.75f, true) :
-               new HashMap<>();
-         entries = Collections.synchronizedMap(entryMap);
+         if (appendOnly) {
+            entries = new ConcurrentHashMap<>();
+         } else {
+            Map<K, FileEntry> entryMap = configuration.maxEntries() > 0 ?
+                  new LinkedHashMap<>(16, 0.75f, true) :
+                  new HashMap<>();
+            entries = Collections.synchronizedMap(entryMap);
+         }
          freeList = Collections.synchronizedSortedSet(new TreeSet<>());
 
          // check file format and read persistent state if enabled for the cache
@@ -167,6 +197,17 @@ public void start() {
          else
             clear(); // otherwise (unknown file format or no preload) just reset the file
 
+         if (appendOnly) {
+            // Free entries are never reused, they are only reclaimed by compaction
+            long freeBytes = 0;
+            for (FileEntry fe : freeList) {
+               freeBytes += fe.size;
+            }
+            freeList.clear();
+            deadBytes.set(freeBytes);
+            appendPos.set(filePos);
+         }
+
          // Initialize the fragmentation factor
          fragmentationFactor = configuration.fragmentationFactor();
       } catch (PersistenceException e) {
@@ -178,6 +219,8 @@ public void start() {
 
    @Override
    public void stop() {
+      // Wait for a running compaction to finish with the file
+      resizeLock.writeLock().lock();
       try {
          if (channel != null) {
             log.tracef("Stopping store %s, size = %d, file size = %d", ctx.getCache().getName(), entries.size(), channel.size());
@@ -188,9 +231,13 @@ public void stop() {
             entries = null;
             freeList = null;
             filePos = MAGIC_11_0.length;
+            appendPos.set(MAGIC_11_0.length);
+            deadBytes.set(0);
          }
       } catch (Exception e) {
          throw new PersistenceException(e);
+      } finally {
+         resizeLock.writeLock().unlock();
       }
    }
 
@@ -392,6 +439,11 @@ public boolean contains(Object key) {
     * @return allocated file position and length as FileEntry object
     */
    private FileEntry allocate(int len) {
+      if (appendOnly) {
+         FileEntry fe = new FileEntry(appendPos.getAndAdd(len), len);
+         if (trace) log.tracef("New entry appended at %d:%d", fe.offset, fe.size);
+         return fe;
+      }
       synchronized (freeList) {
          // lookup a free entry of sufficient size
          SortedSet<FileEntry> candidates = freeList.tailSet(new FileEntry(0, len));
@@ -471,6 +523,15 @@ private void free(FileEntry fe) throws IOException {
          // No need to wait for readers to unlock here, the FileEntry instance is not modified,
          // and allocate() won't return an entry as long as it has a reader.
          channel.write(ByteBuffer.wrap(ZERO_INT), fe.offset + KEYLEN_POS);
+         if (appendOnly) {
+            long dead = deadBytes.addAndGet(fe.size);
+            if (trace) log.tracef("Deleted entry at %d:%d, there are now %d dead bytes", fe.offset, fe.size, dead);
+            long fileSize = appendPos.get();
+            if (fileSize >= MIN_COMPACTION_SIZE && dead >= fileSize * compactionThreshold) {
+               scheduleCompaction();
+            }
+            return;
+         }
          if (!freeList.add(fe)) {
             throw new IllegalStateException(String.format("Trying to free an entry that was not allocated: %s", fe));
          }
@@ -577,6 +638,9 @@ public void clear() {
                channel.truncate(0);
                channel.write(ByteBuffer.wrap(MAGIC_11_0), 0);
                filePos = MAGIC_11_0.length;
+               appendPos.set(MAGIC_11_0.length);
+               deadBytes.set(0);
+               clearCount++;
             }
          }
       } catch (Exception e) {
@@ -606,6 +670,9 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
    }
 
    private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loadMetadata) {
+      if (appendOnly) {
+         return loadAppendOnly(key, loadValue, loadMetadata);
+      }
       final FileEntry fe;
       resizeLock.readLock().lock();
       try {
@@ -627,8 +694,6 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
          resizeLock.readLock().unlock();
       }
 
-      org.infinispan.commons.io.ByteBuffer valueBb = null;
-
       // If we only require the key, then no need to read disk
       if (!loadValue && !loadMetadata) {
          try {
@@ -640,19 +705,55 @@ private MarshallableEntry<K, V> _load(Object key, boolean loadValue, boolean loa
 
       final byte[] data;
       try {
-         // load serialized data from disk
-         data = new byte[fe.keyLen + fe.dataLen + (loadMetadata ? fe.metadataLen + fe.internalMetadataLen : 0)];
          // The entry lock will prevent clear() from truncating the file at this point
-         channel.read(ByteBuffer.wrap(data), fe.offset + KEY_POS_11_0);
-      } catch (Exception e) {
-         throw new PersistenceException(e);
+         data = readData(fe, loadMetadata);
       } finally {
          // No need to keep the lock for deserialization.
          // FileEntry is immutable, so its members can't be changed by another thread.
          fe.unlock();
       }
+      return createEntry(key, fe, data, loadValue, loadMetadata);
+   }
 
+   /**
+    * Append-only stores never reuse the space of an entry while it is in the index, and the file is only replaced or
+    * truncated while holding the {@code resizeLock} exclusively, so readers only need the shared lock.
+    */
+   private MarshallableEntry<K, V> loadAppendOnly(Object key, boolean loadValue, boolean loadMetadata) {
+      final FileEntry fe;
+      final byte[] data;
+      resizeLock.readLock().lock();
+      try {
+         fe = entries.get(key);
+         // Entries are removed due to expiration from {@link SingleFileStore#purge}
+         if (fe == null || fe.isExpired(timeService.wallClockTime()))
+            return null;
+
+         // If we only require the key, then no need to read disk
+         if (!loadValue && !loadMetadata)
+            return entryFactory.create(key);
+
+         data = readData(fe, loadMetadata);
+      } finally {
+         resizeLock.readLock().unlock();
+      }
+      return createEntry(key, fe, data, loadValue, loadMetadata);
+   }
+
+   private byte[] readData(FileEntry fe, boolean loadMetadata) {
+      try {
+         // load serialized data from disk
+         byte[] data = new byte[fe.keyLen + fe.dataLen + (loadMetadata ? fe.metadataLen + fe.internalMetadataLen : 0)];
+         channel.read(ByteBuffer.wrap(data), fe.offset + KEY_POS_11_0);
+         return data;
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private MarshallableEntry<K, V> createEntry(Object key, FileEntry fe, byte[] data, boolean loadValue, boolean loadMetadata) {
       if (trace) log.tracef("Read entry %s at %d:%d", key, fe.offset, fe.actualSize());
+      org.infinispan.commons.io.ByteBuffer valueBb = null;
       ByteBufferFactory factory = ctx.getByteBufferFactory();
       org.infinispan.commons.io.ByteBuffer keyBb = factory.newByteBuffer(data, 0, fe.keyLen);
 
@@ -846,19 +947,29 @@ private void mergeAndLogEntry(FileEntry entry, int mergeCounter) {
    public void purge(Executor threadPool, final PurgeListener task) {
       long now = timeService.wallClockTime();
       List<KeyValuePair<Object, FileEntry>> entriesToPurge = new ArrayList<>();
-      synchronized (entries) {
-         for (Iterator<Map.Entry<K, FileEntry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
-            Map.Entry<K, FileEntry> next = it.next();
-            FileEntry fe = next.getValue();
-            if (fe.isExpired(now)) {
-               it.remove();
-               entriesToPurge.add(new KeyValuePair<>(next.getKey(), fe));
+      // Hold the lock while removing from the index, a compaction must not relocate the entries in the meantime
+      resizeLock.readLock().lock();
+      try {
+         if (appendOnly) {
+            // Only remove the entries that were not replaced concurrently
+            entries.forEach((key, fe) -> {
+               if (fe.isExpired(now) && entries.remove(key, fe)) {
+                  entriesToPurge.add(new KeyValuePair<>(key, fe));
+               }
+            });
+         } else {
+            synchronized (entries) {
+               for (Iterator<Map.Entry<K, FileEntry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+                  Map.Entry<K, FileEntry> next = it.next();
+                  FileEntry fe = next.getValue();
+                  if (fe.isExpired(now)) {
+                     it.remove();
+                     entriesToPurge.add(new KeyValuePair<>(next.getKey(), fe));
+                  }
+               }
             }
          }
-      }
 
-      resizeLock.readLock().lock();
-      try {
          for (Iterator<KeyValuePair<Object, FileEntry>> it = entriesToPurge.iterator(); it.hasNext(); ) {
             KeyValuePair<Object, FileEntry> next = it.next();
             FileEntry fe = next.getValue();
@@ -873,15 +984,126 @@ public void purge(Executor threadPool, final PurgeListener task) {
             }
          }
 
-         // Disk space optimizations
-         synchronized (freeList) {
-           processFreeEntries();
+         // Disk space optimizations, append-only stores compact the file from free() instead
+         if (!appendOnly) {
+            synchronized (freeList) {
+               processFreeEntries();
+            }
          }
       } finally {
          resizeLock.readLock().unlock();
       }
    }
 
+   private void scheduleCompaction() {
+      if (compacting.compareAndSet(false, true)) {
+         // runBlocking() would run the compaction in the invoking thread if it is already a blocking thread,
+         // but the caller holds the resizeLock in shared mode
+         ctx.getNonBlockingExecutor().execute(() -> ctx.getBlockingManager().runBlocking(() -> {
+            try {
+               compact();
+            } catch (Throwable t) {
+               log.debugf(t, "Error compacting file %s", file);
+            } finally {
+               compacting.set(false);
+            }
+         }, "sfs-compact"));
+      }
+   }
+
+   /**
+    * Copies the live entries of an append-only store to a new file and replaces the current file with it.
+    * <p/>
+    * The entries that are in the index when the compaction starts are copied while holding the {@code resizeLock} in
+    * shared mode, so reads and writes can continue. The lock is then acquired exclusively to copy the entries written
+    * in the meantime, to invalidate the copies of the entries that were replaced or removed in the meantime, and to
+    * switch the index and the channel to the new file.
+    */
+   void compact() throws IOException {
+      File newFile = new File(file.getParentFile(), ctx.getCache().getName() + "_compact.dat");
+      Map<FileEntry, FileEntry> relocated = new IdentityHashMap<>();
+      FileChannel newChannel = null;
+      long newFilePos = MAGIC_11_0.length;
+      int startClearCount;
+      long startTime = 0;
+      if (trace) startTime = timeService.wallClockTime();
+      try {
+         resizeLock.readLock().lock();
+         try {
+            if (channel == null)
+               return;
+            startClearCount = clearCount;
+            List<FileEntry> live = new ArrayList<>(entries.values());
+            // Copy in file order to read the current file sequentially
+            live.sort(Comparator.comparingLong(fe -> fe.offset));
+
+            newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+            newChannel.truncate(0);
+            newChannel.write(ByteBuffer.wrap(MAGIC_11_0), 0);
+            for (FileEntry fe : live) {
+               FileEntry copy = relocate(fe, newChannel, newFilePos);
+               relocated.put(fe, copy);
+               newFilePos += copy.size;
+            }
+         } finally {
+            resizeLock.readLock().unlock();
+         }
+
+         resizeLock.writeLock().lock();
+         try {
+            if (channel == null || clearCount != startClearCount)
+               return;
+            for (Map.Entry<K, FileEntry> e : entries.entrySet()) {
+               FileEntry fe = e.getValue();
+               FileEntry copy = relocated.remove(fe);
+               if (copy == null) {
+                  // Written after the copy started
+                  copy = relocate(fe, newChannel, newFilePos);
+                  newFilePos += copy.size;
+               }
+               entries.put(e.getKey(), copy);
+            }
+            // Whatever is left was replaced or removed after being copied
+            long staleBytes = 0;
+            for (FileEntry stale : relocated.values()) {
+               newChannel.write(ByteBuffer.wrap(ZERO_INT), stale.offset + KEYLEN_POS);
+               staleBytes += stale.size;
+            }
+            newChannel.force(false);
+            Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            if (trace) log.tracef("Compacted file %s from %d to %d bytes in %d (ms)", file, appendPos.get(), newFilePos,
+                  timeService.wallClockTime() - startTime);
+            channel.close();
+            channel = newChannel;
+            newChannel = null;
+            appendPos.set(newFilePos);
+            deadBytes.set(staleBytes);
+         } finally {
+            resizeLock.writeLock().unlock();
+         }
+      } finally {
+         if (newChannel != null) {
+            newChannel.close();
+            newFile.delete();
+         }
+      }
+   }
+
+   /**
+    * Copies the given entry to the target channel, without any padding.
+    */
+   private FileEntry relocate(FileEntry fe, FileChannel target, long position) throws IOException {
+      int size = fe.actualSize();
+      FileEntry newEntry = new FileEntry(position, size, fe.keyLen, fe.dataLen, fe.metadataLen, fe.internalMetadataLen, fe.expiryTime);
+      ByteBuffer buf = ByteBuffer.allocate(size);
+      newEntry.writeToBuf(buf);
+      channel.read(buf, fe.offset + KEY_POS_11_0);
+      buf.flip();
+      target.write(buf, position);
+      return newEntry;
+   }
+
    @Override
    public int size() {
       return entries.size();
@@ -896,7 +1118,11 @@ SortedSet<FileEntry> getFreeList() {
    }
 
    long getFileSize() {
-      return filePos;
+      return appendOnly ? appendPos.get() : filePos;
+   }
+
+   long getDeadBytes() {
+      return deadBytes.get();
    }
 
    public SingleFileStoreConfiguration getConfiguration() {
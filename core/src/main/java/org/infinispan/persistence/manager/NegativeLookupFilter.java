@@ -0,0 +1,283 @@
+package org.infinispan.persistence.manager;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Keeps a Bloom filter of the keys contained in the stores for each segment, so that loads of keys that are certainly
+ * not stored do not have to hit the stores.
+ * <p>
+ * The filters are built from the keys published by the stores. A segment whose filter is not built yet lets all the
+ * keys pass. Keys are added to the filter before and after they are written to the stores, so that a concurrent
+ * rebuild of the segment cannot miss them. Bits cannot be removed from a Bloom filter, thus removals are only counted
+ * and the filter of a segment is rebuilt from the stores once the number of insertions and removals exceeds the
+ * capacity it was sized for.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class NegativeLookupFilter {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+
+   static final double FALSE_POSITIVE_RATE = 0.01;
+   static final long MIN_EXPECTED_KEYS = 512;
+
+   private final PersistenceManager persistenceManager;
+   private final KeyPartitioner keyPartitioner;
+   private final int segmentCount;
+   // null until the filter of the segment is built
+   private final AtomicReferenceArray<BloomFilter> filters;
+   // the filters being rebuilt, which receive the writes in addition to the current filters
+   private final AtomicReferenceArray<BloomFilter> building;
+   private final IntSet rebuilding;
+   private final LongAdder savedLoads = new LongAdder();
+   private final LongAdder falsePositives = new LongAdder();
+   private volatile boolean stopped;
+
+   NegativeLookupFilter(PersistenceManager persistenceManager, KeyPartitioner keyPartitioner, int segmentCount) {
+      this.persistenceManager = persistenceManager;
+      this.keyPartitioner = keyPartitioner;
+      this.segmentCount = segmentCount;
+      this.filters = new AtomicReferenceArray<>(segmentCount);
+      this.building = new AtomicReferenceArray<>(segmentCount);
+      this.rebuilding = IntSets.concurrentSet(segmentCount);
+   }
+
+   /**
+    * Builds the filters of all segments in the background.
+    */
+   void start() {
+      scheduleRebuild(IntSets.immutableRangeSet(segmentCount));
+   }
+
+   /**
+    * Stops the rebuilds in progress, which release the stores as soon as they observe it.
+    */
+   void stop() {
+      stopped = true;
+   }
+
+   /**
+    * @return false if the key is certainly not contained in any store, true if it may be
+    */
+   boolean mightContain(Object key, int segment) {
+      BloomFilter filter = filters.get(segment);
+      if (filter == null || filter.mightContain(key.hashCode())) {
+         return true;
+      }
+      savedLoads.increment();
+      return false;
+   }
+
+   /**
+    * Records that a key which passed the filter was not found in any store.
+    */
+   void recordMiss(int segment) {
+      if (filters.get(segment) != null) {
+         falsePositives.increment();
+      }
+   }
+
+   /**
+    * Adds a key which is written to the stores. Must be invoked both before the write is issued and after it
+    * completed.
+    */
+   void add(Object key, int segment) {
+      int hash = key.hashCode();
+      BloomFilter buildingFilter = building.get(segment);
+      if (buildingFilter != null) {
+         buildingFilter.add(hash);
+      }
+      BloomFilter filter = filters.get(segment);
+      if (filter != null && filter.add(hash) && filter.isSaturated()) {
+         scheduleRebuild(IntSets.immutableSet(segment));
+      }
+   }
+
+   void add(Object key) {
+      add(key, keyPartitioner.getSegment(key));
+   }
+
+   /**
+    * Records that a key was removed from the stores.
+    */
+   void recordRemove(int segment) {
+      BloomFilter filter = filters.get(segment);
+      if (filter != null && filter.remove()) {
+         scheduleRebuild(IntSets.immutableSet(segment));
+      }
+   }
+
+   /**
+    * Rebuilds the filters of all segments, for example after the stores were cleared. The current filters are used
+    * until the new ones are built.
+    */
+   void rebuildAll() {
+      scheduleRebuild(IntSets.immutableRangeSet(segmentCount));
+   }
+
+   long getSavedLoads() {
+      return savedLoads.sum();
+   }
+
+   long getFalsePositives() {
+      return falsePositives.sum();
+   }
+
+   void resetStatistics() {
+      savedLoads.reset();
+      falsePositives.reset();
+   }
+
+   boolean isBuilt(int segment) {
+      return filters.get(segment) != null;
+   }
+
+   private void scheduleRebuild(IntSet segments) {
+      if (stopped) {
+         return;
+      }
+      IntSet segmentsToBuild = IntSets.mutableEmptySet(segmentCount);
+      segments.forEach((int segment) -> {
+         if (rebuilding.add(segment)) {
+            segmentsToBuild.set(segment);
+         }
+      });
+      if (segmentsToBuild.isEmpty()) {
+         return;
+      }
+      rebuild(segmentsToBuild)
+            .subscribe(() -> log.tracef("Negative lookup filter built for segments %s", segmentsToBuild),
+                  t -> log.debugf(t, "Could not build negative lookup filter for segments %s", segmentsToBuild));
+   }
+
+   private Completable rebuild(IntSet segments) {
+      return Single.fromCompletionStage(persistenceManager.size(segments))
+            .flatMapCompletable(size -> {
+               // Leave room for the segments to grow before they have to be rebuilt
+               long expectedKeys = Math.max(MIN_EXPECTED_KEYS, (size + size / 2) / segments.size());
+               segments.forEach((int segment) -> building.set(segment, new BloomFilter(expectedKeys)));
+               // The building filters have to be in place before the keys are published, so that the keys written
+               // afterwards are added to them by the writers
+               return Flowable.fromPublisher(persistenceManager.publishKeys(segments, null, PersistenceManager.AccessMode.BOTH))
+                     .doOnNext(key -> {
+                        BloomFilter filter = building.get(keyPartitioner.getSegment(key));
+                        if (filter != null) {
+                           filter.add(key.hashCode());
+                        }
+                     })
+                     .takeWhile(ignore -> !stopped)
+                     .ignoreElements();
+            })
+            .doOnComplete(() -> {
+               if (!stopped) {
+                  segments.forEach((int segment) -> filters.set(segment, building.get(segment)));
+               }
+            })
+            .doFinally(() -> segments.forEach((int segment) -> {
+               building.set(segment, null);
+               rebuilding.remove(segment);
+            }));
+   }
+
+   /**
+    * A thread safe Bloom filter of key hashes, sized for the expected number of keys and {@link #FALSE_POSITIVE_RATE}.
+    */
+   static class BloomFilter {
+      private final AtomicLongArray words;
+      private final long bitCount;
+      private final int hashCount;
+      private final long capacity;
+      // insertions that set a bit plus removals
+      private final AtomicLong changes = new AtomicLong();
+
+      BloomFilter(long expectedKeys) {
+         double ln2 = Math.log(2);
+         long bits = (long) Math.ceil(-expectedKeys * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+         int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + Long.SIZE - 1) / Long.SIZE);
+         this.words = new AtomicLongArray(wordCount);
+         this.bitCount = (long) wordCount * Long.SIZE;
+         this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * ln2));
+         this.capacity = expectedKeys;
+      }
+
+      /**
+       * @return true if the filter changed
+       */
+      boolean add(int hash) {
+         long mixed = mix(hash);
+         int hash1 = (int) mixed;
+         int hash2 = (int) (mixed >>> 32);
+         boolean changed = false;
+         for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1, hash2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+               if (words.compareAndSet(word, current, current | mask)) {
+                  changed = true;
+                  break;
+               }
+            }
+         }
+         if (changed) {
+            changes.incrementAndGet();
+         }
+         return changed;
+      }
+
+      boolean mightContain(int hash) {
+         long mixed = mix(hash);
+         int hash1 = (int) mixed;
+         int hash2 = (int) (mixed >>> 32);
+         for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash1, hash2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      /**
+       * @return true if the filter has to be rebuilt
+       */
+      boolean remove() {
+         return changes.incrementAndGet() > capacity;
+      }
+
+      boolean isSaturated() {
+         return changes.get() > capacity;
+      }
+
+      private long index(int hash1, int hash2, int i) {
+         long combined = hash1 + (long) i * hash2;
+         return (combined & Long.MAX_VALUE) % bitCount;
+      }
+
+      private static long mix(int hash) {
+         // finalizer of MurmurHash3, so that the two derived hashes are independent
+         long h = hash;
+         h ^= h >>> 33;
+         h *= 0xff51afd7ed558ccdL;
+         h ^= h >>> 33;
+         h *= 0xc4ceb9fe1a85ec53L;
+         h ^= h >>> 33;
+         return h;
+      }
+   }
+}
@@ -1,8 +1,10 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
@@ -17,7 +19,9 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.reactivestreams.Publisher;
 
 /**
@@ -35,6 +39,17 @@ public interface PersistenceManager extends Lifecycle {
     * Returns whether the manager is enabled and has at least one store
     */
    boolean hasWriter();
+
+   /**
+    * Returns whether every store that is written with the {@link AccessMode#PRIVATE} access mode has the
+    * {@link org.infinispan.persistence.spi.NonBlockingStore.Characteristic#BULK_WRITE} characteristic, so that bulk
+    * loads should be written with a single batch.
+    * @return true if there is at least one such store and all of them write batches in bulk
+    */
+   default boolean isBulkWriteSupported() {
+      return false;
+   }
+
    /**
     * @return true if all entries from the store have been inserted to the cache. If the persistence/preload
     * is disabled or eviction limit was reached when preloading, returns false.
@@ -165,6 +180,31 @@ default <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return loadFromAllStores(key, localInvocation, includeStores);
    }
 
+   /**
+    * Loads the entries for the given keys from the persistence stores. Each store is asked in a single bulk operation
+    * for the keys that were not found in the previous stores. Keys that are not found in any store are not present in
+    * the returned map. The entries are guaranteed to not be expired when they were returned.
+    * @param keys keys to read the entries from
+    * @param localInvocation whether this invocation is a local invocation. Some loaders may be ignored if it is not local
+    * @param includeStores if a loader that is also a store can be loaded from
+    * @return map of the keys to the entries that were found
+    * @implSpec default implementation invokes {@link #loadFromAllStores(Object, boolean, boolean)} for each key
+    */
+   default <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(Collection<?> keys,
+         boolean localInvocation, boolean includeStores) {
+      Map<Object, MarshallableEntry<K, V>> entries = new ConcurrentHashMap<>();
+      AggregateCompletionStage<Map<Object, MarshallableEntry<K, V>>> stage =
+            CompletionStages.aggregateCompletionStage(entries);
+      for (Object key : keys) {
+         stage.dependsOn(this.<K, V>loadFromAllStores(key, localInvocation, includeStores).thenAccept(me -> {
+            if (me != null) {
+               entries.put(key, me);
+            }
+         }));
+      }
+      return stage.freeze();
+   }
+
    default CompletionStage<Long> size() {
        return size(AccessMode.BOTH);
    }
@@ -363,4 +403,62 @@ default CompletionStage<Boolean> removeSegments(IntSet segments) {
     * @return true if no {@link org.infinispan.persistence.spi.CacheWriter} instances have been configured.
     */
    boolean isReadOnly();
+
+   /**
+    * Returns how many loads did not have to hit the stores, as the negative lookup filter determined that the key is
+    * not contained in any store.
+    * @return the number of loads saved by the negative lookup filter, 0 if it is not enabled
+    * @see org.infinispan.configuration.cache.PersistenceConfiguration#negativeLookupFilter()
+    */
+   default long getNegativeLookupFilterSavedLoads() {
+      return 0;
+   }
+
+   /**
+    * Returns how many loads hit the stores without finding the key, even though the negative lookup filter was
+    * consulted.
+    * @return the number of false positives of the negative lookup filter, 0 if it is not enabled
+    * @see org.infinispan.configuration.cache.PersistenceConfiguration#negativeLookupFilter()
+    */
+   default long getNegativeLookupFilterFalsePositives() {
+      return 0;
+   }
+
+   /**
+    * Resets the number of saved loads and false positives of the negative lookup filter.
+    * @see org.infinispan.configuration.cache.PersistenceConfiguration#negativeLookupFilter()
+    */
+   default void resetNegativeLookupFilterStatistics() {
+   }
+
+   /**
+    * @return the number of modifications that are not yet written by the stores configured with write-behind
+    */
+   default int getWriteBehindPendingModifications() {
+      return 0;
+   }
+
+   /**
+    * @return how long, in milliseconds, the oldest modification that is not yet written by a store configured with
+    * write-behind has been waiting, or 0 if there is none
+    */
+   default long getWriteBehindOldestPendingModificationAge() {
+      return 0;
+   }
+
+   /**
+    * @return the number of files waiting to be compacted by the stores that compact their files
+    * @see org.infinispan.persistence.spi.CompactingStore
+    */
+   default int getCompactionLag() {
+      return 0;
+   }
+
+   /**
+    * @return the number of bytes released by compaction in the stores that compact their files
+    * @see org.infinispan.persistence.spi.CompactingStore
+    */
+   default long getCompactionReclaimedBytes() {
+      return 0;
+   }
 }
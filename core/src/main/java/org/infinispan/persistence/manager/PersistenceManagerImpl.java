@@ -6,17 +6,25 @@
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.transaction.InvalidTransactionException;
 import javax.transaction.NotSupportedException;
@@ -39,13 +47,14 @@
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
-import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.configuration.cache.AbstractSegmentedStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.container.entries.InternalCacheValue;
 import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.container.impl.InternalEntryFactory;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.FlagBitSets;
@@ -68,11 +77,15 @@
 import org.infinispan.interceptors.impl.CacheWriterInterceptor;
 import org.infinispan.interceptors.impl.TransactionalStoreInterceptor;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
 import org.infinispan.persistence.InitializationContextImpl;
 import org.infinispan.persistence.async.AsyncNonBlockingStore;
 import org.infinispan.persistence.internal.PersistenceUtil;
+import org.infinispan.persistence.spi.CompactingStore;
 import org.infinispan.persistence.spi.LocalOnlyCacheLoader;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
@@ -85,6 +98,7 @@
 import org.infinispan.persistence.support.NonBlockingStoreAdapter;
 import org.infinispan.persistence.support.SegmentPublisherWrapper;
 import org.infinispan.persistence.support.SingleSegmentPublisher;
+import org.infinispan.persistence.tiered.TieredNonBlockingStore;
 import org.infinispan.transaction.impl.AbstractCacheTransaction;
 import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.BlockingManager;
@@ -128,6 +142,7 @@ public class PersistenceManagerImpl implements PersistenceManager {
    @Inject ComponentRef<InvocationHelper> invocationHelper;
    @Inject ComponentRef<InternalExpirationManager<Object, Object>> expirationManager;
    @Inject DistributionManager distributionManager;
+   @Inject ComponentRef<InternalDataContainer<Object, Object>> dataContainer;
 
    // We use stamped lock since we require releasing locks in threads that may be the same that acquired it
    private final StampedLock lock = new StampedLock();
@@ -144,6 +159,9 @@ public class PersistenceManagerImpl implements PersistenceManager {
 
    private int segmentCount;
 
+   // Only present if enabled and supported by all the stores
+   private volatile NegativeLookupFilter negativeLookupFilter;
+
    @GuardedBy("lock")
    private final List<StoreStatus> stores = new ArrayList<>(4);
 
@@ -228,13 +246,59 @@ public void start() {
 
          // Blocks here waiting for stores and availability task to start if needed
          storeStartup.blockingAwait();
+         if (configuration.persistence().tiered()) {
+            composeTiers();
+         }
          allSegmentedOrShared = allStoresSegmentedOrShared();
+         if (configuration.persistence().negativeLookupFilter()) {
+            if (getStoreLocked(storeStatus -> !supportsNegativeLookupFilter(storeStatus)) == null) {
+               negativeLookupFilter = new NegativeLookupFilter(this, keyPartitioner, segmentCount);
+            } else {
+               PERSISTENCE.negativeLookupFilterNotSupported(cache.wired().getName());
+            }
+         }
       } catch (Throwable t) {
          log.debug("PersistenceManagerImpl encountered an exception during startup of stores", t);
          throw t;
       } finally {
          lock.unlockWrite(stamp);
       }
+      // The filter reads the keys from the stores, which requires the read lock
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         filter.start();
+      }
+   }
+
+   /**
+    * Replaces the two started stores with a single store that uses the first one as the fast tier and the second one
+    * as the cold tier. The composed store has the configuration of the fast tier and the characteristics of both.
+    */
+   @GuardedBy("lock")
+   private void composeTiers() {
+      StoreStatus hot = stores.get(0);
+      StoreStatus cold = stores.get(1);
+      TieredNonBlockingStore<Object, Object> tieredStore = new TieredNonBlockingStore<>(hot.store(), cold.store(),
+            nonBlockingManager, configuration.persistence().tierDemotionIdleTime());
+      Set<Characteristic> characteristics = EnumSet.noneOf(Characteristic.class);
+      characteristics.addAll(hot.characteristics);
+      characteristics.retainAll(cold.characteristics);
+      InitializationContextImpl ctx =
+            new InitializationContextImpl(hot.config, cache.wired(), keyPartitioner, persistenceMarshaller,
+                  timeService, byteBufferFactory, marshallableEntryFactory, nonBlockingExecutor, globalConfiguration, blockingManager);
+      CompletionStages.join(tieredStore.start(ctx));
+      stores.clear();
+      stores.add(new StoreStatus(tieredStore, hot.config, characteristics));
+   }
+
+   /**
+    * The negative lookup filter must see every write and removal of the keys in the store, which is not the case for
+    * shared stores that are also written by other nodes, nor for read only stores
+    */
+   private static boolean supportsNegativeLookupFilter(StoreStatus storeStatus) {
+      Set<Characteristic> characteristics = storeStatus.characteristics;
+      return !storeStatus.config.shared() && !storeStatus.config.ignoreModifications() &&
+            !characteristics.contains(Characteristic.READ_ONLY) && characteristics.contains(Characteristic.BULK_READ);
    }
 
    @GuardedBy("lock")
@@ -343,6 +407,12 @@ protected CompletionStage<Void> pollStoreAvailability() {
    @Override
    @Stop
    public void stop() {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         // Let a running build of the filter release the read lock
+         filter.stop();
+         negativeLookupFilter = null;
+      }
       long stamp = lock.writeLock();
       try {
          stopAvailabilityTask();
@@ -398,6 +468,26 @@ public boolean hasWriter() {
       return getStore(storeStatus -> !storeStatus.characteristics.contains(Characteristic.READ_ONLY)) != null;
    }
 
+   @Override
+   public boolean isBulkWriteSupported() {
+      long stamp = acquireReadLock();
+      try {
+         boolean found = false;
+         for (StoreStatus storeStatus : stores) {
+            if (storeStatus.characteristics.contains(Characteristic.READ_ONLY) || storeStatus.config.shared()) {
+               continue;
+            }
+            if (!storeStatus.characteristics.contains(Characteristic.BULK_WRITE)) {
+               return false;
+            }
+            found = true;
+         }
+         return found;
+      } finally {
+         releaseReadLock(stamp);
+      }
+   }
+
    @Override
    public boolean isPreloaded() {
       return preloaded;
@@ -406,15 +496,18 @@ public boolean isPreloaded() {
    @Override
    public CompletionStage<Void> preload() {
       long stamp = acquireReadLock();
-      NonBlockingStore<Object, Object> nonBlockingStore = getStoreLocked(status -> status.config.preload());
-      if (nonBlockingStore == null) {
+      StoreStatus preloadStatus = null;
+      for (StoreStatus storeStatus : stores) {
+         if (storeStatus.config.preload()) {
+            preloadStatus = storeStatus;
+            break;
+         }
+      }
+      if (preloadStatus == null) {
          releaseReadLock(stamp);
          return CompletableFutures.completedNull();
       }
-      Publisher<MarshallableEntry<Object, Object>> publisher = nonBlockingStore.publishEntries(
-            IntSets.immutableRangeSet(segmentCount), null, true);
-
-      long start = timeService.time();
+      NonBlockingStore<Object, Object> nonBlockingStore = preloadStatus.store();
 
       final long maxEntries = getMaxEntries();
       final long flags = getFlagsForStateInsertion();
@@ -422,18 +515,91 @@ public CompletionStage<Void> preload() {
       DataConversion keyDataConversion = tmpCache.getKeyDataConversion();
       DataConversion valueDataConversion = tmpCache.getValueDataConversion();
 
-      return Flowable.fromPublisher(publisher)
+      Function<MarshallableEntry<Object, Object>, Single<Object>> insertFunction;
+      if (canPreloadIntoDataContainer(flags)) {
+         InternalDataContainer<Object, Object> container = dataContainer.running();
+         insertFunction = me -> Single.fromCallable(() -> preloadIntoDataContainer(container, me, keyDataConversion, valueDataConversion));
+      } else {
+         insertFunction = me -> preloadEntry(flags, me, keyDataConversion, valueDataConversion);
+      }
+
+      // Transactions are associated with the invoking thread, so they can only be preloaded one at a time
+      int parallelism = configuration.transaction().transactionMode().isTransactional() ? 1 : getPreloadParallelism();
+      List<IntSet> segmentGroups;
+      if (parallelism > 1 && preloadStatus.characteristics.contains(Characteristic.SEGMENTABLE)) {
+         segmentGroups = splitSegments(parallelism);
+      } else {
+         // A store that is not segmented would have to iterate over all its entries for each group
+         segmentGroups = Collections.singletonList(IntSets.immutableRangeSet(segmentCount));
+      }
+      if (trace) {
+         log.tracef("Preloading from %d groups of segments", segmentGroups.size());
+      }
+
+      PreloadProgress progress = new PreloadProgress(cache.wired().getName(), timeService);
+      // Reserved before an entry is inserted, so that no more than maxEntries are inserted across all the groups
+      AtomicLong reserved = new AtomicLong();
+      return Flowable.fromIterable(segmentGroups)
+            .flatMapCompletable(segments -> Flowable.fromPublisher(nonBlockingStore.publishEntries(segments, null, true))
+                  .takeWhile(ignore -> reserved.getAndIncrement() < maxEntries)
+                  .concatMapSingle(insertFunction)
+                  .doOnNext(ignore -> progress.entryInserted())
+                  .ignoreElements(), false, segmentGroups.size())
             .doFinally(() -> releaseReadLock(stamp))
-            .take(maxEntries)
-            .concatMapSingle(me -> preloadEntry(flags, me, keyDataConversion, valueDataConversion))
-            .count()
-            .toCompletionStage()
-            .thenAccept(insertAmount -> {
-               this.preloaded = insertAmount < maxEntries;
-               log.debugf("Preloaded %d keys in %s", insertAmount, Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+            .toCompletionStage(null)
+            .thenRun(() -> {
+               this.preloaded = progress.entries() < maxEntries;
+               progress.completed();
             });
    }
 
+   private int getPreloadParallelism() {
+      int parallelism = configuration.persistence().preloadParallelism();
+      return parallelism > 0 ? parallelism : ProcessorInfo.availableProcessors();
+   }
+
+   private List<IntSet> splitSegments(int groupCount) {
+      groupCount = Math.min(groupCount, segmentCount);
+      List<IntSet> groups = new ArrayList<>(groupCount);
+      for (int i = 0; i < groupCount; ++i) {
+         groups.add(IntSets.mutableEmptySet(segmentCount));
+      }
+      for (int segment = 0; segment < segmentCount; ++segment) {
+         groups.get(segment % groupCount).set(segment);
+      }
+      return groups;
+   }
+
+   /**
+    * Entries can be inserted directly into the data container when the interceptor chain would do nothing else than
+    * committing them: there is no transaction, no listener to notify, no index to update, no site to back up to, no
+    * version to generate and no custom interceptor.
+    */
+   private boolean canPreloadIntoDataContainer(long flags) {
+      return !configuration.transaction().transactionMode().isTransactional() &&
+            !configuration.clustering().cacheMode().isScattered() &&
+            !configuration.sites().hasEnabledBackups() &&
+            configuration.customInterceptors().interceptors().isEmpty() &&
+            EnumUtil.containsAll(flags, FlagBitSets.SKIP_INDEXING) &&
+            !cacheNotifier.hasListener(CacheEntryCreated.class) &&
+            !cacheNotifier.hasListener(CacheEntryModified.class);
+   }
+
+   private Object preloadIntoDataContainer(InternalDataContainer<Object, Object> container, MarshallableEntry<Object, Object> me,
+         DataConversion keyDataConversion, DataConversion valueDataConversion) {
+      Object key = keyDataConversion.toStorage(me.getKey());
+      Object value = valueDataConversion.toStorage(me.getValue());
+      Metadata metadata = me.getMetadata();
+      if (metadata == null) {
+         // Without metadata the entry is immortal, and the data container ignores the timestamps
+         container.put(keyPartitioner.getSegment(key), key, value, null, me.getInternalMetadata(), -1, -1);
+      } else {
+         container.put(keyPartitioner.getSegment(key), key, value, metadata, me.getInternalMetadata(), me.created(),
+               me.lastUsed());
+      }
+      return me;
+   }
+
    private Single<Object> preloadEntry(long flags, MarshallableEntry<Object, Object> me, DataConversion keyDataConversion, DataConversion valueDataConversion) {
       // CallInterceptor will preserve the timestamps if the metadata is an InternalMetadataImpl instance
       InternalMetadataImpl metadata = new InternalMetadataImpl(me.getMetadata(), me.created(), me.lastUsed());
@@ -616,6 +782,14 @@ private <K, V> NonBlockingStore<K, V> unwrapStore(NonBlockingStore<K, V> store)
       return store;
    }
 
+   private Stream<NonBlockingStore<Object, Object>> unwrapTiers(NonBlockingStore<Object, Object> store) {
+      if (store instanceof TieredNonBlockingStore) {
+         TieredNonBlockingStore<Object, Object> tieredStore = (TieredNonBlockingStore<Object, Object>) store;
+         return Stream.of(tieredStore.hotTier(), tieredStore.coldTier());
+      }
+      return Stream.of(store);
+   }
+
    private Object unwrapOldSPI(NonBlockingStore<?, ?> store) {
       if (store instanceof NonBlockingStoreAdapter) {
          return ((NonBlockingStoreAdapter<?, ?>) store).getActualStore();
@@ -634,6 +808,7 @@ public <T> Set<T> getStores(Class<T> storeClass) {
       try {
          return stores.stream()
                .map(StoreStatus::store)
+               .flatMap(this::unwrapTiers)
                .map(this::unwrapStore)
                .map(this::unwrapOldSPI)
                .filter(storeClass::isInstance)
@@ -668,6 +843,10 @@ public CompletionStage<Void> purgeExpired() {
          for (StoreStatus storeStatus : stores) {
             if (storeStatus.characteristics.contains(Characteristic.EXPIRATION)) {
                Flowable<MarshallableEntry<Object, Object>> flowable = Flowable.fromPublisher(storeStatus.store().purgeExpired());
+               NegativeLookupFilter filter = negativeLookupFilter;
+               if (filter != null) {
+                  flowable = flowable.doOnNext(me -> filter.recordRemove(keyPartitioner.getSegment(me.getKey())));
+               }
                Completable completable = flowable.concatMapCompletable(me -> Completable.fromCompletionStage(
                         expirationManager.running().handleInStoreExpirationInternal(me)));
                aggregateCompletionStage.dependsOn(completable.toCompletionStage(null));
@@ -699,7 +878,13 @@ public CompletionStage<Void> clearAllStores(Predicate<? super StoreConfiguration
                            storeStatus.store.clear()));
             },
             this::releaseReadLock
-      ).toCompletionStage(null);
+      ).doOnComplete(() -> {
+         NegativeLookupFilter filter = negativeLookupFilter;
+         if (filter != null) {
+            // The filters still contain the cleared keys, which is only costly if they are loaded
+            filter.rebuildAll();
+         }
+      }).toCompletionStage(null);
    }
 
    @Override
@@ -722,7 +907,12 @@ public CompletionStage<Boolean> deleteFromAllStores(Object key, int segment, Pre
                      .reduce(Boolean.FALSE, (removed1, removed2) -> removed1 || removed2);
             },
             this::releaseReadLock
-      ).toCompletionStage();
+      ).doOnSuccess(removed -> {
+         NegativeLookupFilter filter = negativeLookupFilter;
+         if (removed && filter != null) {
+            filter.recordRemove(segment);
+         }
+      }).toCompletionStage();
    }
 
    @Override
@@ -801,6 +991,25 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
    @Override
    public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object key, int segment,
          boolean localInvocation, boolean includeStores) {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         if (!filter.mightContain(key, segment)) {
+            if (trace) {
+               log.tracef("Skipping load of key %s as the negative lookup filter does not contain it", key);
+            }
+            return CompletableFutures.completedNull();
+         }
+         return this.<K, V>loadFromStores(key, segment, localInvocation, includeStores).whenComplete((me, t) -> {
+            if (me == null && t == null) {
+               filter.recordMiss(segment);
+            }
+         });
+      }
+      return loadFromStores(key, segment, localInvocation, includeStores);
+   }
+
+   private <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromStores(Object key, int segment,
+         boolean localInvocation, boolean includeStores) {
       return Maybe.using(
             this::acquireReadLock,
             ignore -> {
@@ -819,6 +1028,69 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       ).toCompletionStage(null);
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(Collection<?> keys,
+         boolean localInvocation, boolean includeStores) {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         List<Object> keysToLoad = keys.stream()
+               .filter(key -> filter.mightContain(key, keyPartitioner.getSegment(key)))
+               .collect(Collectors.toList());
+         if (keysToLoad.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+         }
+         return this.<K, V>loadAllFromStores(keysToLoad, localInvocation, includeStores).whenComplete((entries, t) -> {
+            if (t == null) {
+               for (Object key : keysToLoad) {
+                  if (!entries.containsKey(key)) {
+                     filter.recordMiss(keyPartitioner.getSegment(key));
+                  }
+               }
+            }
+         });
+      }
+      return loadAllFromStores(keys, localInvocation, includeStores);
+   }
+
+   private <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromStores(Collection<?> keys,
+         boolean localInvocation, boolean includeStores) {
+      return Single.using(
+            this::acquireReadLock,
+            ignore -> {
+               checkStoreAvailability();
+               if (trace) {
+                  log.tracef("Loading entries for keys %s", keys);
+               }
+               Map<Object, MarshallableEntry<K, V>> entries = new HashMap<>();
+               return Flowable.fromIterable(stores)
+                     .filter(storeStatus -> allowLoad(storeStatus, localInvocation, includeStores))
+                     // Only do 1 store at a time, which is only asked for the keys not found in the previous stores
+                     .concatMapCompletable(storeStatus -> {
+                        List<Object> missingKeys = keys.stream()
+                              .filter(key -> !entries.containsKey(key))
+                              .collect(Collectors.toList());
+                        if (missingKeys.isEmpty()) {
+                           return Completable.complete();
+                        }
+                        boolean segmented = storeStatus.characteristics.contains(Characteristic.SEGMENTABLE);
+                        Flowable<NonBlockingStore.SegmentedPublisher<Object>> flowable;
+                        if (segmented) {
+                           flowable = Flowable.fromIterable(missingKeys)
+                                 .groupBy(keyPartitioner::getSegment)
+                                 .map(SegmentPublisherWrapper::wrap);
+                        } else {
+                           flowable = Flowable.just(SingleSegmentPublisher.singleSegment(Flowable.fromIterable(missingKeys)));
+                        }
+                        return Flowable.fromPublisher(storeStatus.<K, V>store().loadAll(segmentCount(segmented), flowable))
+                              .doOnNext(me -> entries.putIfAbsent(me.getKey(), me))
+                              .ignoreElements();
+                     }, 1)
+                     .toSingleDefault(entries);
+            },
+            this::releaseReadLock
+      ).toCompletionStage();
+   }
+
    private boolean allowLoad(StoreStatus storeStatus, boolean localInvocation, boolean includeStores) {
       return !storeStatus.characteristics.contains(Characteristic.WRITE_ONLY) && (localInvocation || !isLocalOnlyLoader(storeStatus.store)) &&
             (includeStores || storeStatus.characteristics.contains(Characteristic.READ_ONLY) || storeStatus.config.ignoreModifications());
@@ -893,6 +1165,18 @@ public void setClearOnStop(boolean clearOnStop) {
    @Override
    public CompletionStage<Void> writeToAllNonTxStores(MarshallableEntry marshalledEntry, int segment,
          Predicate<? super StoreConfiguration> predicate, long flags) {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         Object key = marshalledEntry.getKey();
+         filter.add(key, segment);
+         return writeToStores(marshalledEntry, segment, predicate, flags)
+               .whenComplete((ignore, t) -> filter.add(key, segment));
+      }
+      return writeToStores(marshalledEntry, segment, predicate, flags);
+   }
+
+   private CompletionStage<Void> writeToStores(MarshallableEntry marshalledEntry, int segment,
+         Predicate<? super StoreConfiguration> predicate, long flags) {
       return Completable.using(
             this::acquireReadLock,
             ignore -> {
@@ -979,6 +1263,17 @@ private boolean shouldPerformTransactionOperation(StoreStatus storeStatus, Predi
    @Override
    public <K, V> CompletionStage<Void> writeEntries(Iterable<MarshallableEntry<K, V>> iterable,
          Predicate<? super StoreConfiguration> predicate) {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         iterable.forEach(me -> filter.add(me.getKey()));
+         return writeEntriesToStores(iterable, predicate)
+               .whenComplete((ignore, t) -> iterable.forEach(me -> filter.add(me.getKey())));
+      }
+      return writeEntriesToStores(iterable, predicate);
+   }
+
+   private <K, V> CompletionStage<Void> writeEntriesToStores(Iterable<MarshallableEntry<K, V>> iterable,
+         Predicate<? super StoreConfiguration> predicate) {
       return Completable.using(
             this::acquireReadLock,
             ignore -> {
@@ -1036,6 +1331,30 @@ public CompletionStage<Long> performBatch(TxInvocationContext<AbstractCacheTrans
     */
    private <K, V> CompletionStage<Long> batchOperation(Flowable<MVCCEntry<K, V>> mvccEntryFlowable, InvocationContext ctx,
          HandleFlowables<K, V> flowableHandler) {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         // Each store subscribes to the entries, so they are tracked once and then replayed to the other stores.
+         // The entries are already held by the context, so caching them only costs the references.
+         // The written keys are added again once all stores completed
+         Queue<Object> writtenKeys = new ConcurrentLinkedQueue<>();
+         Flowable<MVCCEntry<K, V>> trackedFlowable = mvccEntryFlowable.doOnNext(mvccEntry -> {
+            K key = mvccEntry.getKey();
+            int segment = keyPartitioner.getSegment(key);
+            if (mvccEntry.isRemoved()) {
+               filter.recordRemove(segment);
+            } else {
+               filter.add(key, segment);
+               writtenKeys.add(key);
+            }
+         }).cache();
+         return batchOperationOnStores(trackedFlowable, ctx, flowableHandler)
+               .whenComplete((ignore, t) -> writtenKeys.forEach(filter::add));
+      }
+      return batchOperationOnStores(mvccEntryFlowable, ctx, flowableHandler);
+   }
+
+   private <K, V> CompletionStage<Long> batchOperationOnStores(Flowable<MVCCEntry<K, V>> mvccEntryFlowable,
+         InvocationContext ctx, HandleFlowables<K, V> flowableHandler) {
       return Single.using(
             this::acquireReadLock,
             ignore -> {
@@ -1305,6 +1624,80 @@ private static boolean shouldInvokeSegmentMethods(StoreStatus storeStatus) {
             !storeStatus.characteristics.contains(Characteristic.SHAREABLE);
    }
 
+   @Override
+   public long getNegativeLookupFilterSavedLoads() {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      return filter == null ? 0 : filter.getSavedLoads();
+   }
+
+   @Override
+   public long getNegativeLookupFilterFalsePositives() {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      return filter == null ? 0 : filter.getFalsePositives();
+   }
+
+   @Override
+   public void resetNegativeLookupFilterStatistics() {
+      NegativeLookupFilter filter = negativeLookupFilter;
+      if (filter != null) {
+         filter.resetStatistics();
+      }
+   }
+
+   @Override
+   public int getWriteBehindPendingModifications() {
+      long stamp = acquireReadLock();
+      try {
+         int count = 0;
+         for (StoreStatus storeStatus : stores) {
+            if (storeStatus.store instanceof AsyncNonBlockingStore) {
+               count += ((AsyncNonBlockingStore<?, ?>) storeStatus.store).getPendingModificationCount();
+            }
+         }
+         return count;
+      } finally {
+         releaseReadLock(stamp);
+      }
+   }
+
+   @Override
+   public long getWriteBehindOldestPendingModificationAge() {
+      long stamp = acquireReadLock();
+      try {
+         long age = 0;
+         for (StoreStatus storeStatus : stores) {
+            if (storeStatus.store instanceof AsyncNonBlockingStore) {
+               age = Math.max(age, ((AsyncNonBlockingStore<?, ?>) storeStatus.store).getOldestPendingModificationAge());
+            }
+         }
+         return age;
+      } finally {
+         releaseReadLock(stamp);
+      }
+   }
+
+   @Override
+   public int getCompactionLag() {
+      int lag = 0;
+      for (CompactingStore store : getStores(CompactingStore.class)) {
+         lag += store.getCompactionLag();
+      }
+      return lag;
+   }
+
+   @Override
+   public long getCompactionReclaimedBytes() {
+      long bytes = 0;
+      for (CompactingStore store : getStores(CompactingStore.class)) {
+         bytes += store.getCompactionReclaimedBytes();
+      }
+      return bytes;
+   }
+
+   NegativeLookupFilter getNegativeLookupFilter() {
+      return negativeLookupFilter;
+   }
+
    public <K, V> List<NonBlockingStore<K, V>> getAllStores(Predicate<Set<Characteristic>> predicate) {
       long stamp = acquireReadLock();
       try {
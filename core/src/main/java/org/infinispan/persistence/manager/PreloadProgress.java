@@ -0,0 +1,63 @@
+package org.infinispan.persistence.manager;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.infinispan.util.logging.Log.PERSISTENCE;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.Util;
+
+/**
+ * Counts the entries inserted by a preload, which may run on several threads, and periodically logs the progress and
+ * the throughput of the preload.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class PreloadProgress {
+   static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+   // the clock is only read once every this many entries
+   private static final int CHECK_MASK = 1023;
+
+   private final String cacheName;
+   private final TimeService timeService;
+   private final long start;
+   private final AtomicLong entries = new AtomicLong();
+   private final AtomicLong nextReport;
+
+   PreloadProgress(String cacheName, TimeService timeService) {
+      this.cacheName = cacheName;
+      this.timeService = timeService;
+      this.start = timeService.time();
+      this.nextReport = new AtomicLong(start + REPORT_INTERVAL_NANOS);
+   }
+
+   void entryInserted() {
+      long count = entries.incrementAndGet();
+      if ((count & CHECK_MASK) == 0) {
+         long now = timeService.time();
+         long report = nextReport.get();
+         // Only one of the threads reaching the interval logs
+         if (now >= report && nextReport.compareAndSet(report, now + REPORT_INTERVAL_NANOS)) {
+            long elapsed = timeService.timeDuration(start, now, MILLISECONDS);
+            PERSISTENCE.preloadProgress(cacheName, count, Util.prettyPrintTime(elapsed), throughput(count, elapsed));
+         }
+      }
+   }
+
+   long entries() {
+      return entries.get();
+   }
+
+   void completed() {
+      long count = entries.get();
+      long elapsed = timeService.timeDuration(start, MILLISECONDS);
+      PERSISTENCE.preloadCompleted(count, cacheName, Util.prettyPrintTime(elapsed), throughput(count, elapsed));
+   }
+
+   private static long throughput(long count, long elapsedMillis) {
+      return count * 1000 / Math.max(1, elapsedMillis);
+   }
+}
@@ -1,5 +1,10 @@
 package org.infinispan.persistence.spi;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 import org.infinispan.commons.api.Lifecycle;
 
 import net.jcip.annotations.ThreadSafe;
@@ -34,6 +39,25 @@
     */
    MarshallableEntry<K, V> loadEntry(Object key);
 
+   /**
+    * Fetches the entries for the given keys from the storage. Keys that do not exist in the storage are omitted from
+    * the result.
+    *
+    * @implSpec The default implementation invokes {@link #loadEntry(Object)} for each key.
+    * @return the entries found in the storage
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   default Collection<MarshallableEntry<K, V>> loadAllEntries(Set<Object> keys) {
+      List<MarshallableEntry<K, V>> entries = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         MarshallableEntry<K, V> entry = loadEntry(key);
+         if (entry != null) {
+            entries.add(entry);
+         }
+      }
+      return entries;
+   }
+
    /**
     * Returns true if the storage contains an entry associated with the given key.
     *
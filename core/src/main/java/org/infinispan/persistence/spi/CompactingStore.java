@@ -0,0 +1,21 @@
+package org.infinispan.persistence.spi;
+
+/**
+ * Implemented by stores that reclaim the space of overwritten and removed entries by compacting their files in the
+ * background, so that the progress of the compaction can be exposed with the store statistics.
+ *
+ * @author agent
+ * @since 12.0
+ */
+public interface CompactingStore {
+
+   /**
+    * @return the number of files that are waiting to be compacted
+    */
+   int getCompactionLag();
+
+   /**
+    * @return the number of bytes released by compaction since the store was started
+    */
+   long getCompactionReclaimedBytes();
+}
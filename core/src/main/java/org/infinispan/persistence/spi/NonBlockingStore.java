@@ -21,6 +21,7 @@
 
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 
 /**
  * The contract for defining how caches interface with external sources of data, such as databases or filesystems.
@@ -155,7 +156,15 @@ enum Characteristic {
        * <p>
        * Stores that have this characteristic must override the {@link #purgeExpired()} method.
        */
-      EXPIRATION
+      EXPIRATION,
+      /**
+       * If this store writes a large {@link #batch(int, Publisher, Publisher)} much more efficiently than the same
+       * entries written one at a time, for example by ingesting them as a sorted file. Bulk loads, such as the chunks
+       * received by state transfer, are then written to this store with a single batch instead of a write per entry.
+       * <p>
+       * No optional methods map to this characteristic.
+       */
+      BULK_WRITE
    }
 
    /**
@@ -259,6 +268,52 @@ default CompletionStage<Boolean> isAvailable() {
     */
    CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key);
 
+   /**
+    * Publishes the entries stored for the given keys. Keys that are not present in the store are omitted. Stores that
+    * can retrieve several keys in a single operation should override this method, as it is used to load the keys
+    * of a bulk read, such as {@link org.infinispan.Cache#getAll(Set)}, that were not found in memory.
+    * If a {@link MarshallableEntry} needs to be created here, {@link InitializationContext#getMarshallableEntryFactory()}
+    * and {@link InitializationContext#getByteBufferFactory()} should be used.
+    * <p>
+    * <h4>Summary of Characteristics Effects</h4>
+    * <table border="1" cellpadding="1" cellspacing="1" summary="Summary of Characteristics Effects">
+    *    <tr>
+    *       <th bgcolor="#CCCCFF" align="left">Characteristic</th>
+    *       <th bgcolor="#CCCCFF" align="left">Effect</th>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#WRITE_ONLY}</td>
+    *       <td valign="top">This method will never be invoked.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#EXPIRATION}</td>
+    *       <td valign="top">When set this method must not publish expired entries.</td>
+    *    </tr>
+    *    <tr>
+    *       <td valign="top">{@link Characteristic#SEGMENTABLE}</td>
+    *       <td valign="top">If not set, the provided {@code publisherCount} parameter has a value of 1,
+    *          which means there is only one {@code SegmentedPublisher} to subscribe to.</td>
+    *    </tr>
+    * </table>
+    * <p>
+    * If a problem is encountered, it is recommended to wrap any created/caught Throwable in a
+    * {@link PersistenceException} and the Publisher is completed exceptionally.
+    * <p>
+    * @implSpec
+    * The default implementation subscribes to the key Publisher and invokes {@link #load(int, Object)} for each of the
+    * keys in a non overlapping sequential fashion.
+    * @param publisherCount the maximum number of {@code SegmentPublisher}s the key publisher will publish
+    * @param keyPublisher publishes what keys should be loaded from the store
+    * @return a Publisher of the entries found in the store
+    */
+   default Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return Flowable.fromPublisher(keyPublisher)
+            .concatMapEager(sp ->
+                        Flowable.fromPublisher(sp)
+                              .concatMapMaybe(key -> Maybe.fromCompletionStage(load(sp.getSegment(), key)))
+                  , publisherCount, publisherCount);
+   }
+
    /**
     * Returns a stage that will contain whether the value can be found in the store.
     * <p>
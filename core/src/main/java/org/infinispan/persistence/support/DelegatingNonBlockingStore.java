@@ -40,6 +40,12 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return delegate().load(segment, key);
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount,
+         Publisher<NonBlockingStore.SegmentedPublisher<Object>> keyPublisher) {
+      return delegate().loadAll(publisherCount, keyPublisher);
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return delegate().containsKey(segment, key);
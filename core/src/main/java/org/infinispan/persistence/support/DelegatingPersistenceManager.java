@@ -1,6 +1,7 @@
 package org.infinispan.persistence.support;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.function.BiPredicate;
@@ -64,6 +65,11 @@ public boolean hasWriter() {
       return persistenceManager.hasWriter();
    }
 
+   @Override
+   public boolean isBulkWriteSupported() {
+      return persistenceManager.isBulkWriteSupported();
+   }
+
    @Override
    public boolean isPreloaded() {
       return persistenceManager.isPreloaded();
@@ -213,6 +219,12 @@ public <K, V> CompletionStage<MarshallableEntry<K, V>> loadFromAllStores(Object
       return persistenceManager.loadFromAllStores(key, segment, localInvocation, includeStores);
    }
 
+   @Override
+   public <K, V> CompletionStage<Map<Object, MarshallableEntry<K, V>>> loadAllFromAllStores(Collection<?> keys,
+         boolean localInvocation, boolean includeStores) {
+      return persistenceManager.loadAllFromAllStores(keys, localInvocation, includeStores);
+   }
+
    @Override
    public CompletionStage<Long> size() {
       return persistenceManager.size();
@@ -233,4 +245,39 @@ public CompletionStage<Boolean> addSegments(IntSet segments) {
    public CompletionStage<Boolean> removeSegments(IntSet segments) {
       return persistenceManager.removeSegments(segments);
    }
+
+   @Override
+   public long getNegativeLookupFilterSavedLoads() {
+      return persistenceManager.getNegativeLookupFilterSavedLoads();
+   }
+
+   @Override
+   public long getNegativeLookupFilterFalsePositives() {
+      return persistenceManager.getNegativeLookupFilterFalsePositives();
+   }
+
+   @Override
+   public void resetNegativeLookupFilterStatistics() {
+      persistenceManager.resetNegativeLookupFilterStatistics();
+   }
+
+   @Override
+   public int getWriteBehindPendingModifications() {
+      return persistenceManager.getWriteBehindPendingModifications();
+   }
+
+   @Override
+   public long getWriteBehindOldestPendingModificationAge() {
+      return persistenceManager.getWriteBehindOldestPendingModificationAge();
+   }
+
+   @Override
+   public int getCompactionLag() {
+      return persistenceManager.getCompactionLag();
+   }
+
+   @Override
+   public long getCompactionReclaimedBytes() {
+      return persistenceManager.getCompactionReclaimedBytes();
+   }
 }
@@ -205,6 +205,22 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
             isSegmented() ? segmentedStore().get(segment, key) : loader().loadEntry(key), nextTraceId("load"));
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      Single<Set<Object>> keySingle = Flowable.fromPublisher(keyPublisher)
+            .flatMap(RxJavaInterop.identityFunction(), false, publisherCount)
+            .collect(Collectors.toSet());
+      // The old SPI loads all the keys at once, regardless of their segment
+      return keySingle.flatMapPublisher(keys -> {
+         if (keys.isEmpty()) {
+            return Flowable.empty();
+         }
+         return Flowable.fromCompletionStage(blockingManager.supplyBlocking(() -> loader().loadAllEntries(keys),
+               nextTraceId("loadAll")))
+               .concatMapIterable(RxJavaInterop.identityFunction());
+      });
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return blockingManager.supplyBlocking(() ->
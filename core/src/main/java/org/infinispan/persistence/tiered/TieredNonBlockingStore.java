@@ -0,0 +1,507 @@
+package org.infinispan.persistence.tiered;
+
+import java.lang.invoke.MethodHandles;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.Util;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.NonBlockingStore;
+import org.infinispan.persistence.support.SingleSegmentPublisher;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.util.concurrent.NonBlockingManager;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * A NonBlockingStore that composes a fast store, the hot tier, with a cheaper store, the cold tier, so that the
+ * entries that are used are served by the fast store while the capacity is provided by the cold store.
+ * <p>
+ * Writes land in the hot tier. The time each key was last written or read in the hot tier is tracked in memory, and
+ * the entries that were not accessed for the demotion idle time are periodically moved to the cold tier in the
+ * background. A load that misses the hot tier reads the cold tier and, if found, promotes the entry back to the hot
+ * tier. A key is thus normally contained in a single tier: a write also removes the key from the cold tier, so that a
+ * previous value can never resurface once the entry is removed or expires in the hot tier.
+ * <p>
+ * The writes, removals, promotions and demotions of a key are applied to the tiers one after the other, and a value
+ * read from the cold tier is only promoted if the key was not written or removed since the load started.
+ * <p>
+ * Keys that are found in the hot tier after a restart are considered to be accessed at the first demotion after the
+ * restart. As the demotion runs every demotion idle time, an entry is demoted between one and two times the idle
+ * time after it was last accessed.
+ * <p>
+ * The tiers are started and configured individually by the persistence manager, which composes them once started.
+ * Stopping this store stops both tiers.
+ * @author agent
+ * @since 12.0
+ * @param <K> key type for the store
+ * @param <V> value type for the store
+ */
+public class TieredNonBlockingStore<K, V> implements NonBlockingStore<K, V> {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final NonBlockingStore<K, V> hot;
+   private final NonBlockingStore<K, V> cold;
+   private final NonBlockingManager nonBlockingManager;
+   private final long demotionIdleTime;
+   // The wall clock time, in milliseconds, when each key of the hot tier was last written or read
+   private final ConcurrentMap<Object, Long> lastAccess = new ConcurrentHashMap<>();
+   private final LongAdder demotions = new LongAdder();
+   private final LongAdder promotions = new LongAdder();
+   // The guards of the keys that are being loaded or modified
+   private final ConcurrentMap<Object, KeyGuard> guards = new ConcurrentHashMap<>();
+   private final Object batchLock = new Object();
+
+   private String cacheName;
+   private TimeService timeService;
+   private KeyPartitioner keyPartitioner;
+   private IntSet allSegments;
+   private volatile AutoCloseable demotionTask;
+
+   public TieredNonBlockingStore(NonBlockingStore<K, V> hot, NonBlockingStore<K, V> cold,
+         NonBlockingManager nonBlockingManager, long demotionIdleTime) {
+      this.hot = hot;
+      this.cold = cold;
+      this.nonBlockingManager = nonBlockingManager;
+      this.demotionIdleTime = demotionIdleTime;
+   }
+
+   public NonBlockingStore<K, V> hotTier() {
+      return hot;
+   }
+
+   public NonBlockingStore<K, V> coldTier() {
+      return cold;
+   }
+
+   /**
+    * @return how many entries were moved from the hot tier to the cold tier
+    */
+   public long getDemotions() {
+      return demotions.sum();
+   }
+
+   /**
+    * @return how many entries were moved back from the cold tier to the hot tier when they were read
+    */
+   public long getPromotions() {
+      return promotions.sum();
+   }
+
+   /**
+    * Schedules the demotion of the idle entries. The tiers must already be started.
+    */
+   @Override
+   public CompletionStage<Void> start(InitializationContext ctx) {
+      this.cacheName = ctx.getCache().getName();
+      this.timeService = ctx.getTimeService();
+      this.keyPartitioner = ctx.getKeyPartitioner();
+      this.allSegments = IntSets.immutableRangeSet(ctx.getCache().getCacheConfiguration().clustering().hash().numSegments());
+      demotionTask = nonBlockingManager.scheduleWithFixedDelay(this::demoteIdleEntries, demotionIdleTime,
+            demotionIdleTime, TimeUnit.MILLISECONDS);
+      return CompletableFutures.completedNull();
+   }
+
+   @Override
+   public CompletionStage<Void> stop() {
+      AutoCloseable task = demotionTask;
+      if (task != null) {
+         Util.close(task);
+         demotionTask = null;
+      }
+      return CompletionStages.allOf(hot.stop(), cold.stop());
+   }
+
+   /**
+    * The characteristics shared by both tiers, without {@link Characteristic#TRANSACTIONAL} as the tiers are not
+    * updated atomically.
+    */
+   @Override
+   public Set<Characteristic> characteristics() {
+      Set<Characteristic> characteristics = EnumSet.noneOf(Characteristic.class);
+      characteristics.addAll(hot.characteristics());
+      characteristics.retainAll(cold.characteristics());
+      characteristics.remove(Characteristic.TRANSACTIONAL);
+      return characteristics;
+   }
+
+   @Override
+   public CompletionStage<Boolean> isAvailable() {
+      return hot.isAvailable().thenCombine(cold.isAvailable(), (hotAvailable, coldAvailable) -> hotAvailable && coldAvailable);
+   }
+
+   @Override
+   public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
+      // Any write or removal of the key from now on prevents the promotion of the value read from the cold tier
+      KeyGuard guard = retainGuard(key);
+      long modifications = guard.modifications();
+      return hot.load(segment, key).thenCompose(entry -> {
+         if (entry != null) {
+            lastAccess.put(key, timeService.wallClockTime());
+            return CompletableFuture.completedFuture(entry);
+         }
+         return cold.load(segment, key).thenCompose(coldEntry -> coldEntry == null ?
+               CompletableFutures.completedNull() : promote(segment, key, coldEntry, modifications));
+      }).whenComplete((ignore, t) -> releaseGuard(key));
+   }
+
+   /**
+    * Loads the keys from the hot tier and the keys it did not contain from the cold tier, which are then promoted.
+    */
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return collectBySegment(keyPublisher).flatMapPublisher(keysBySegment -> {
+         Map<Object, Long> modifications = new HashMap<>();
+         for (List<Object> keys : keysBySegment.values()) {
+            for (Object key : keys) {
+               modifications.computeIfAbsent(key, k -> retainGuard(k).modifications());
+            }
+         }
+         Set<Object> hotKeys = ConcurrentHashMap.newKeySet();
+         Flowable<MarshallableEntry<K, V>> hotEntries = Flowable.fromPublisher(hot.loadAll(publisherCount, bySegment(keysBySegment)))
+               .doOnNext(entry -> {
+                  hotKeys.add(entry.getKey());
+                  lastAccess.put(entry.getKey(), timeService.wallClockTime());
+               });
+         Flowable<MarshallableEntry<K, V>> coldEntries = Flowable.defer(() ->
+               cold.loadAll(publisherCount, bySegment(missingKeys(keysBySegment, hotKeys))))
+               .flatMapSingle(entry -> {
+                  Object key = entry.getKey();
+                  return Single.fromCompletionStage(promote(keyPartitioner.getSegment(key), key, entry, modifications.get(key)));
+               });
+         return hotEntries.concatWith(coldEntries)
+               .doFinally(() -> modifications.keySet().forEach(this::releaseGuard));
+      });
+   }
+
+   private static Map<Integer, List<Object>> missingKeys(Map<Integer, List<Object>> keysBySegment, Set<Object> foundKeys) {
+      Map<Integer, List<Object>> missingKeys = new HashMap<>();
+      keysBySegment.forEach((segment, keys) -> {
+         for (Object key : keys) {
+            if (!foundKeys.contains(key)) {
+               missingKeys.computeIfAbsent(segment, s -> new ArrayList<>()).add(key);
+            }
+         }
+      });
+      return missingKeys;
+   }
+
+   /**
+    * Moves an entry read from the cold tier to the hot tier, unless the key was written or removed since it was read,
+    * as given by the modifications of its guard when the load started. The entry is returned even if it could not be
+    * moved, as it is then still contained in the cold tier.
+    */
+   private CompletionStage<MarshallableEntry<K, V>> promote(int segment, Object key, MarshallableEntry<K, V> entry,
+         long modifications) {
+      return guarded(key, false, guard -> {
+         if (guard.modifications() != modifications) {
+            return CompletableFuture.completedFuture(entry);
+         }
+         lastAccess.put(key, timeService.wallClockTime());
+         return hot.write(segment, entry)
+               .thenCompose(ignore -> cold.delete(segment, key))
+               .handle((ignore, t) -> {
+                  if (t != null) {
+                     log.debugf(t, "Could not promote key %s to the hot tier", key);
+                  } else {
+                     promotions.increment();
+                     if (trace) {
+                        log.tracef("Promoted key %s to the hot tier", key);
+                     }
+                  }
+                  return entry;
+               });
+      });
+   }
+
+   @Override
+   public CompletionStage<Boolean> containsKey(int segment, Object key) {
+      return hot.containsKey(segment, key).thenCompose(contained -> contained ?
+            CompletableFutures.completedTrue() : cold.containsKey(segment, key));
+   }
+
+   @Override
+   public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
+      Object key = entry.getKey();
+      return guarded(key, true, guard -> {
+         lastAccess.put(key, timeService.wallClockTime());
+         // The cold copy is only removed once the hot tier holds the new value, so a failed write does not lose it
+         return hot.write(segment, entry)
+               .thenCompose(ignore -> cold.delete(segment, key))
+               .thenApply(CompletableFutures.toNullFunction());
+      });
+   }
+
+   @Override
+   public CompletionStage<Boolean> delete(int segment, Object key) {
+      return guarded(key, true, guard -> {
+         lastAccess.remove(key);
+         return hot.delete(segment, key).thenCombine(cold.delete(segment, key),
+               (hotDeleted, coldDeleted) -> hotDeleted || coldDeleted);
+      });
+   }
+
+   /**
+    * Writes the entries to the hot tier and removes their keys from the cold tier, with a single batch per tier.
+    */
+   @Override
+   public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
+         Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
+      return collectBySegment(removePublisher)
+            .flatMapCompletable(removedKeys -> collectBySegment(writePublisher)
+                  .flatMapCompletable(writtenEntries ->
+                        Completable.fromCompletionStage(batch(publisherCount, removedKeys, writtenEntries))))
+            .toCompletionStage(null);
+   }
+
+   private CompletionStage<Void> batch(int publisherCount, Map<Integer, List<Object>> removedKeys,
+         Map<Integer, List<MarshallableEntry<K, V>>> writtenEntries) {
+      Set<Object> keys = new HashSet<>();
+      Map<Integer, List<Object>> coldRemovedKeys = new HashMap<>();
+      removedKeys.forEach((segment, segmentKeys) -> {
+         keys.addAll(segmentKeys);
+         coldRemovedKeys.put(segment, new ArrayList<>(segmentKeys));
+      });
+      List<Object> writtenKeys = new ArrayList<>();
+      writtenEntries.forEach((segment, entries) -> {
+         List<Object> segmentKeys = coldRemovedKeys.computeIfAbsent(segment, s -> new ArrayList<>());
+         for (MarshallableEntry<K, V> entry : entries) {
+            writtenKeys.add(entry.getKey());
+            segmentKeys.add(entry.getKey());
+         }
+      });
+      keys.addAll(writtenKeys);
+      return guarded(keys, () -> {
+         removedKeys.values().forEach(segmentKeys -> segmentKeys.forEach(lastAccess::remove));
+         long now = timeService.wallClockTime();
+         writtenKeys.forEach(key -> lastAccess.put(key, now));
+         return hot.batch(publisherCount, bySegment(removedKeys), bySegment(writtenEntries))
+               .thenCompose(ignore -> cold.batch(publisherCount, bySegment(coldRemovedKeys), Flowable.empty()));
+      });
+   }
+
+   @Override
+   public CompletionStage<Void> addSegments(IntSet segments) {
+      return CompletionStages.allOf(hot.addSegments(segments), cold.addSegments(segments));
+   }
+
+   @Override
+   public CompletionStage<Void> removeSegments(IntSet segments) {
+      lastAccess.keySet().removeIf(key -> segments.contains(keyPartitioner.getSegment(key)));
+      return CompletionStages.allOf(hot.removeSegments(segments), cold.removeSegments(segments));
+   }
+
+   @Override
+   public CompletionStage<Void> clear() {
+      lastAccess.clear();
+      return CompletionStages.allOf(hot.clear(), cold.clear());
+   }
+
+   @Override
+   public CompletionStage<Long> size(IntSet segments) {
+      return Flowable.fromPublisher(publishKeys(segments, null))
+            .count()
+            .toCompletionStage();
+   }
+
+   @Override
+   public CompletionStage<Long> approximateSize(IntSet segments) {
+      return hot.approximateSize(segments).thenCombine(cold.approximateSize(segments), Long::sum);
+   }
+
+   /**
+    * Publishes the entries of the hot tier followed by the entries of the cold tier whose key was not published by the
+    * hot tier.
+    */
+   @Override
+   public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predicate<? super K> filter, boolean includeValues) {
+      return Flowable.defer(() -> {
+         Set<Object> hotKeys = ConcurrentHashMap.newKeySet();
+         Flowable<MarshallableEntry<K, V>> hotEntries = Flowable.fromPublisher(hot.publishEntries(segments, filter, includeValues))
+               .doOnNext(entry -> hotKeys.add(entry.getKey()));
+         Flowable<MarshallableEntry<K, V>> coldEntries = Flowable.fromPublisher(cold.publishEntries(segments, filter, includeValues))
+               .filter(entry -> !hotKeys.contains(entry.getKey()));
+         return hotEntries.concatWith(coldEntries);
+      });
+   }
+
+   @Override
+   public Publisher<MarshallableEntry<K, V>> purgeExpired() {
+      return Flowable.merge(
+            Flowable.fromPublisher(hot.purgeExpired())
+                  .doOnNext(entry -> lastAccess.remove(entry.getKey())),
+            cold.purgeExpired());
+   }
+
+   @Override
+   public boolean ignoreCommandWithFlags(long commandFlags) {
+      return hot.ignoreCommandWithFlags(commandFlags);
+   }
+
+   /**
+    * Moves the entries of the hot tier that were not accessed for the demotion idle time to the cold tier.
+    */
+   CompletionStage<Void> demoteIdleEntries() {
+      long now = timeService.wallClockTime();
+      return Flowable.fromPublisher(hot.publishEntries(allSegments, key -> isIdle(key, now), true))
+            .concatMapCompletable(entry -> demote(entry, now))
+            .onErrorComplete(t -> {
+               log.failedToDemoteEntries(cacheName, t);
+               return true;
+            })
+            .toCompletionStage(null);
+   }
+
+   private boolean isIdle(Object key, long now) {
+      Long lastAccessTime = lastAccess.putIfAbsent(key, now);
+      return lastAccessTime != null && now - lastAccessTime >= demotionIdleTime;
+   }
+
+   private Completable demote(MarshallableEntry<K, V> entry, long now) {
+      Object key = entry.getKey();
+      int segment = keyPartitioner.getSegment(key);
+      return Completable.fromCompletionStage(guarded(key, false, guard -> {
+         // The key may have been written or removed since it was found idle
+         Long lastAccessTime = lastAccess.get(key);
+         if (lastAccessTime == null || now - lastAccessTime < demotionIdleTime) {
+            return CompletableFutures.completedFalse();
+         }
+         return cold.write(segment, entry)
+               .thenCompose(ignore -> {
+                  // The entry is kept in the hot tier if it was read while it was copied to the cold tier
+                  if (!lastAccess.remove(key, lastAccessTime)) {
+                     return cold.delete(segment, key);
+                  }
+                  demotions.increment();
+                  if (trace) {
+                     log.tracef("Demoting key %s to the cold tier", key);
+                  }
+                  return hot.delete(segment, key);
+               });
+      }));
+   }
+
+   private KeyGuard retainGuard(Object key) {
+      return guards.compute(key, (k, guard) -> {
+         if (guard == null) {
+            guard = new KeyGuard();
+         }
+         guard.references++;
+         return guard;
+      });
+   }
+
+   private void releaseGuard(Object key) {
+      guards.computeIfPresent(key, (k, guard) -> --guard.references == 0 ? null : guard);
+   }
+
+   /**
+    * Runs the operation once the operations previously enqueued for the key are done.
+    */
+   private <T> CompletionStage<T> guarded(Object key, boolean modification,
+         Function<KeyGuard, CompletionStage<T>> operation) {
+      KeyGuard guard = retainGuard(key);
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      return guard.enqueue(done)
+            .thenCompose(ignore -> operation.apply(guard))
+            .whenComplete((ignore, t) -> {
+               if (modification) {
+                  guard.modified();
+               }
+               done.complete(null);
+               releaseGuard(key);
+            });
+   }
+
+   /**
+    * Runs the modification of several keys once the operations previously enqueued for any of the keys are done.
+    */
+   private CompletionStage<Void> guarded(Set<Object> keys, Supplier<CompletionStage<Void>> modification) {
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      List<KeyGuard> keyGuards = new ArrayList<>(keys.size());
+      AggregateCompletionStage<Void> previous = CompletionStages.aggregateCompletionStage();
+      // The keys are enqueued at once, so that two batches sharing some keys cannot wait for each other
+      synchronized (batchLock) {
+         for (Object key : keys) {
+            KeyGuard guard = retainGuard(key);
+            keyGuards.add(guard);
+            previous.dependsOn(guard.enqueue(done));
+         }
+      }
+      return previous.freeze()
+            .thenCompose(ignore -> modification.get())
+            .whenComplete((ignore, t) -> {
+               keyGuards.forEach(KeyGuard::modified);
+               done.complete(null);
+               keys.forEach(this::releaseGuard);
+            });
+   }
+
+   private static <E> Single<Map<Integer, List<E>>> collectBySegment(Publisher<SegmentedPublisher<E>> publisher) {
+      return Flowable.fromPublisher(publisher)
+            .flatMapSingle(sp -> Flowable.fromPublisher(sp).toList()
+                  .map(elements -> new AbstractMap.SimpleImmutableEntry<>(sp.getSegment(), elements)))
+            .<Map<Integer, List<E>>>collect(HashMap::new, (map, segmentElements) ->
+                  map.computeIfAbsent(segmentElements.getKey(), s -> new ArrayList<>()).addAll(segmentElements.getValue()));
+   }
+
+   private static <E> Flowable<SegmentedPublisher<E>> bySegment(Map<Integer, List<E>> elementsBySegment) {
+      return Flowable.fromIterable(elementsBySegment.entrySet())
+            .map(segmentElements -> SingleSegmentPublisher.singleSegment(segmentElements.getKey(),
+                  Flowable.fromIterable(segmentElements.getValue())));
+   }
+
+   /**
+    * Orders the operations that update a key in the tiers. A guard is kept while an operation or a load retains it.
+    */
+   private static class KeyGuard {
+      // Only updated by the guards map
+      int references;
+      // Completed once the last enqueued operation is done
+      private CompletionStage<Void> tail = CompletableFutures.completedNull();
+      // The writes and removals of the key since the guard was created
+      private long modifications;
+
+      synchronized CompletionStage<Void> enqueue(CompletableFuture<Void> done) {
+         CompletionStage<Void> previous = tail;
+         tail = done;
+         return previous;
+      }
+
+      synchronized long modifications() {
+         return modifications;
+      }
+
+      synchronized void modified() {
+         modifications++;
+      }
+   }
+}
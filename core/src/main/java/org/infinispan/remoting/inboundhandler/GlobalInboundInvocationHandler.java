@@ -15,6 +15,7 @@
 import org.infinispan.commands.GlobalRpcCommand;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.CoalescedCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.IllegalLifecycleStateException;
 import org.infinispan.configuration.ConfigurationManager;
@@ -109,6 +110,8 @@ public void handleFromCluster(Address origin, ReplicableCommand command, Reply r
       try {
          if (command.getCommandId() == HeartBeatCommand.COMMAND_ID) {
             reply.reply(null);
+         } else if (command.getCommandId() == CoalescedCommand.COMMAND_ID) {
+            handleCoalescedCommand(origin, (CoalescedCommand) command, order);
          } else if (command instanceof CacheRpcCommand) {
             handleCacheRpcCommand(origin, (CacheRpcCommand) command, reply, order);
          } else {
@@ -135,6 +138,16 @@ public void handleFromRemoteSite(String origin, XSiteReplicateCommand command, R
       command.performInLocalSite(receiver, order.preserveOrder()).whenComplete(new ResponseConsumer(command, reply));
    }
 
+   private void handleCoalescedCommand(Address origin, CoalescedCommand command, DeliverOrder order) {
+      if (trace) {
+         log.tracef("Handling %d coalesced commands from %s", command.getCommands().size(), origin);
+      }
+      // The coalesced commands don't expect a response
+      for (ReplicableCommand coalesced : command.getCommands()) {
+         handleFromCluster(origin, coalesced, Reply.NO_OP, order);
+      }
+   }
+
    private void handleCacheRpcCommand(Address origin, CacheRpcCommand command, Reply reply, DeliverOrder mode) {
       if (trace) {
          log.tracef("Attempting to execute CacheRpcCommand: %s [sender=%s]", command, origin);
@@ -5,6 +5,8 @@
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -74,6 +76,8 @@ public void handle(CacheRpcCommand command, Reply reply, DeliverOrder order) {
                            createReadyAction(commandTopologyId, (SingleRpcCommand) command)) :
                      createDefaultRunnable(command, reply, commandTopologyId, TopologyMode.WAIT_TX_DATA, sync);
                break;
+            case ConflictDigestCommand.COMMAND_ID:
+            case ConflictEntriesCommand.COMMAND_ID:
             case ConflictResolutionStartCommand.COMMAND_ID:
             case ScatteredStateConfirmRevokedCommand.COMMAND_ID:
             case ScatteredStateGetKeysCommand.COMMAND_ID:
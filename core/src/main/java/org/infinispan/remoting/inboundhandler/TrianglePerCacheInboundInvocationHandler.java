@@ -10,6 +10,8 @@
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -96,6 +98,8 @@ public void handle(CacheRpcCommand command, Reply reply, DeliverOrder order) {
             case ExceptionAckCommand.COMMAND_ID:
                handleBackupAckCommand((BackupAckCommand) command);
                return;
+            case ConflictDigestCommand.COMMAND_ID:
+            case ConflictEntriesCommand.COMMAND_ID:
             case ConflictResolutionStartCommand.COMMAND_ID:
             case ScatteredStateConfirmRevokedCommand.COMMAND_ID:
             case ScatteredStateGetKeysCommand.COMMAND_ID:
@@ -0,0 +1,137 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.infinispan.util.logging.Log.CLUSTER;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.CoalescedCommand;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.impl.Request;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Coalesces the one-way commands sent to the same member within a short window in a single message.
+ * <p>
+ * The first command queued for a member schedules the message to be sent after the window, and the commands queued
+ * for the same member in the meantime are sent in the same message. A message is sent as soon as it has
+ * {@link #MAX_COMMANDS} commands. Only the commands without a response and with {@link DeliverOrder#NONE} are
+ * coalesced, so the receiver can handle them in any order.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class CommandCoalescer {
+   private static final Log log = LogFactory.getLog(CommandCoalescer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   static final int MAX_COMMANDS = 64;
+
+   private final JGroupsTransport transport;
+   private final long windowNanos;
+   private final ConcurrentMap<Address, Batch> batches = new ConcurrentHashMap<>();
+   private final LongAdder messages = new LongAdder();
+   private final LongAdder commands = new LongAdder();
+
+   CommandCoalescer(JGroupsTransport transport, long windowNanos) {
+      this.transport = transport;
+      this.windowNanos = windowNanos;
+   }
+
+   void send(Address target, ReplicableCommand command) {
+      Batch batch = batches.computeIfAbsent(target, Batch::new);
+      List<ReplicableCommand> full = null;
+      boolean schedule = false;
+      synchronized (batch) {
+         batch.commands.add(command);
+         if (batch.commands.size() >= MAX_COMMANDS) {
+            full = batch.take();
+         } else if (!batch.scheduled) {
+            batch.scheduled = true;
+            schedule = true;
+         }
+      }
+      if (full != null) {
+         send(target, full);
+      } else if (schedule) {
+         transport.getTimeoutExecutor().schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   private void flush(Batch batch) {
+      List<ReplicableCommand> queued;
+      synchronized (batch) {
+         batch.scheduled = false;
+         queued = batch.take();
+      }
+      if (!queued.isEmpty()) {
+         send(batch.target, queued);
+      }
+   }
+
+   private void send(Address target, List<ReplicableCommand> queued) {
+      try {
+         ReplicableCommand command = queued.size() == 1 ? queued.get(0) : new CoalescedCommand(queued);
+         if (trace)
+            log.tracef("Sending %d coalesced commands to %s", queued.size(), target);
+         transport.sendCommand(target, command, Request.NO_REQUEST_ID, DeliverOrder.NONE, true, true);
+         messages.increment();
+         commands.add(queued.size());
+      } catch (Throwable t) {
+         CLUSTER.failedToSendCoalescedCommands(queued.size(), target, t);
+      }
+   }
+
+   /**
+    * Sends the queued commands immediately.
+    */
+   void flushAll() {
+      batches.values().forEach(this::flush);
+   }
+
+   /**
+    * Discards the commands queued for the members that left the cluster.
+    */
+   void retainMembers(Set<Address> members) {
+      batches.keySet().retainAll(members);
+   }
+
+   long getMessages() {
+      return messages.sum();
+   }
+
+   long getCommands() {
+      return commands.sum();
+   }
+
+   private static class Batch {
+      final Address target;
+      @GuardedBy("this")
+      List<ReplicableCommand> commands = new ArrayList<>();
+      @GuardedBy("this")
+      boolean scheduled;
+
+      Batch(Address target) {
+         this.target = target;
+      }
+
+      List<ReplicableCommand> take() {
+         if (commands.isEmpty())
+            return Collections.emptyList();
+         List<ReplicableCommand> taken = commands;
+         commands = new ArrayList<>();
+         return taken;
+      }
+   }
+}
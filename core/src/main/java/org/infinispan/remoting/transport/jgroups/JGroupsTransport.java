@@ -59,6 +59,11 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.CacheManagerJmxRegistration;
 import org.infinispan.jmx.ObjectNameKeys;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.notifications.cachemanagerlistener.CacheManagerNotifier;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
@@ -119,6 +124,9 @@
  * <li><tt>channelLookup</tt> - Fully qualified class name of a
  * {@link JGroupsChannelLookup} instance</li>
  * </ul>
+ * The <tt>coalescingWindow</tt> property enables the coalescing of the one-way commands sent to the same member within
+ * the given number of microseconds in a single message, see {@link CommandCoalescer}. All the members of the cluster
+ * must support coalesced commands.
  * These are normally passed in as Properties in
  * {@link TransportConfigurationBuilder#withProperties(Properties)} or
  * in the Infinispan XML configuration file.
@@ -127,6 +135,7 @@
  * @author Galder Zamarreño
  * @since 4.0
  */
+@MBean(objectName = "Transport", description = "Transport of the commands to the other members of the cluster")
 @Scope(Scopes.GLOBAL)
 public class JGroupsTransport implements Transport {
    public static final String CONFIGURATION_STRING = "configurationString";
@@ -134,6 +143,7 @@ public class JGroupsTransport implements Transport {
    public static final String CONFIGURATION_FILE = "configurationFile";
    public static final String CHANNEL_LOOKUP = "channelLookup";
    public static final String CHANNEL_CONFIGURATOR = "channelConfigurator";
+   public static final String COALESCING_WINDOW = "coalescingWindow";
    public static final short REPLY_FLAGS =
          (short) (Message.Flag.NO_FC.value() | Message.Flag.OOB.value() | Message.Flag.NO_TOTAL_ORDER.value());
    protected static final String DEFAULT_JGROUPS_CONFIGURATION_FILE = "default-configs/default-jgroups-udp.xml";
@@ -175,6 +185,8 @@ public class JGroupsTransport implements Transport {
    private volatile Set<String>  sitesView = Collections.emptySet();
    private CompletableFuture<Void> nextViewFuture = new CompletableFuture<>();
    private RequestRepository requests;
+   private MemberLatencyTracker latencyTracker;
+   private CommandCoalescer coalescer;
 
    // ------------------------------------------------------------------------------------------------------------------
    // Lifecycle and setup stuff
@@ -262,6 +274,10 @@ public void sendTo(Address destination, ReplicableCommand command, DeliverOrder
          return;
       }
       logCommand(command, destination);
+      if (coalescer != null && deliverOrder == DeliverOrder.NONE) {
+         coalescer.send(destination, command);
+         return;
+      }
       sendCommand(destination, command, Request.NO_REQUEST_ID, deliverOrder, true, true);
    }
 
@@ -272,6 +288,14 @@ public void sendToMany(Collection<Address> targets, ReplicableCommand command, D
          sendCommandToAll(command, Request.NO_REQUEST_ID, deliverOrder);
       } else {
          logCommand(command, targets);
+         if (coalescer != null && deliverOrder == DeliverOrder.NONE) {
+            for (Address target : targets) {
+               if (!target.equals(address)) {
+                  coalescer.send(target, command);
+               }
+            }
+            return;
+         }
          sendCommand(targets, command, Request.NO_REQUEST_ID, deliverOrder, true);
       }
    }
@@ -440,6 +464,11 @@ public void start() {
       probeHandler.updateThreadPool(nonBlockingExecutor);
       props = TypedProperties.toTypedProperties(configuration.transport().properties());
       requests = new RequestRepository();
+      latencyTracker = new MemberLatencyTracker(timeService);
+      long coalescingWindow = props.getLongProperty(COALESCING_WINDOW, 0);
+      if (coalescingWindow > 0) {
+         coalescer = new CommandCoalescer(this, TimeUnit.MICROSECONDS.toNanos(coalescingWindow));
+      }
 
       String stack = configuration.transport().stack();
       if (stack != null) {
@@ -707,6 +736,10 @@ protected void receiveClusterView(View newView) {
          }
 
          this.clusterView = new ClusterView((int) viewId, members, address);
+         latencyTracker.retainMembers(this.clusterView.getMembersSet());
+         if (coalescer != null) {
+            coalescer.retainMembers(this.clusterView.getMembersSet());
+         }
 
          // Create a completable future for the new view
          oldFuture = nextViewFuture;
@@ -756,6 +789,9 @@ private static List<Address> fromJGroupsAddressList(List<org.jgroups.Address> li
    @Stop
    @Override
    public void stop() {
+      if (coalescer != null) {
+         coalescer.flushAll();
+      }
       running = false;
 
       if (channel != null) {
@@ -980,8 +1016,10 @@ public <T> CompletionStage<T> invokeCommandStaggered(Collection<Address> targets
                                                         long timeout, TimeUnit unit) {
       long requestId = requests.newRequestId();
       logRequest(requestId, command, targets, "staggered");
+      // Ask the members that are usually slow to reply last
+      Collection<Address> orderedTargets = latencyTracker.orderByLatency(targets);
       StaggeredRequest<T> request =
-            new StaggeredRequest<>(collector, requestId, requests, targets, getAddress(), command, deliverOrder,
+            new StaggeredRequest<>(collector, requestId, requests, orderedTargets, getAddress(), command, deliverOrder,
                                    timeout, unit, this);
       try {
          addRequest(request);
@@ -1271,6 +1309,39 @@ TimeService getTimeService() {
       return timeService;
    }
 
+   MemberLatencyTracker getLatencyTracker() {
+      return latencyTracker;
+   }
+
+   @ManagedAttribute(description = "The average response time of each member to the staggered requests, e.g. remote reads",
+                     displayName = "Member response times", dataType = DataType.TRAIT)
+   public String getMemberResponseTimes() {
+      return latencyTracker.printLatencies();
+   }
+
+   @ManagedAttribute(description = "Number of staggered requests sent to another member because a member did not reply in time",
+                     displayName = "Number of hedged requests", measurementType = MeasurementType.TRENDSUP)
+   public long getHedgedRequests() {
+      return latencyTracker.getHedgedRequests();
+   }
+
+   @ManagedOperation(description = "Forgets the response times of the members", displayName = "Reset member response times")
+   public void resetMemberResponseTimes() {
+      latencyTracker.reset();
+   }
+
+   @ManagedAttribute(description = "Number of one-way commands sent in coalesced messages, 0 if coalescing is disabled",
+                     displayName = "Number of coalesced commands", measurementType = MeasurementType.TRENDSUP)
+   public long getCoalescedCommands() {
+      return coalescer != null ? coalescer.getCommands() : 0;
+   }
+
+   @ManagedAttribute(description = "Number of coalesced messages sent, 0 if coalescing is disabled",
+                     displayName = "Number of coalesced messages", measurementType = MeasurementType.TRENDSUP)
+   public long getCoalescedMessages() {
+      return coalescer != null ? coalescer.getMessages() : 0;
+   }
+
    ScheduledExecutorService getTimeoutExecutor() {
       return timeoutExecutor;
    }
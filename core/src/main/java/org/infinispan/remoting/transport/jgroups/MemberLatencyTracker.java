@@ -0,0 +1,185 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.remoting.transport.Address;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Keeps an exponentially weighted moving average of the response time of each member of the cluster, as observed by
+ * the staggered requests, and uses it to order the targets of a staggered request and to decide when the request
+ * should be sent to the next target.
+ * <p>
+ * The average and the mean deviation are updated like TCP's smoothed round-trip time. A member whose average is more
+ * than {@link #SLOW_FACTOR} times the average of the fastest target is considered slow and is only asked after the
+ * other targets. The averages of a member are forgotten when the member did not reply for {@link #STALE_NANOS}, so
+ * that a member that was slow for a while is eventually asked first again.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class MemberLatencyTracker {
+   // Weight of a new sample in the average and in the deviation, same as RFC 6298
+   static final double AVERAGE_WEIGHT = 0.125;
+   static final double DEVIATION_WEIGHT = 0.25;
+   // With normally distributed response times, average + 2 * mean deviation is roughly the 95th percentile
+   static final double HEDGE_DEVIATIONS = 2;
+   static final long MIN_HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+   static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(30);
+   static final int SLOW_FACTOR = 2;
+
+   private final TimeService timeService;
+   private final ConcurrentMap<Address, MemberLatency> latencies = new ConcurrentHashMap<>();
+   private final LongAdder hedgedRequests = new LongAdder();
+
+   MemberLatencyTracker(TimeService timeService) {
+      this.timeService = timeService;
+   }
+
+   /**
+    * Records the time it took {@code member} to reply to a request.
+    */
+   void recordResponse(Address member, long responseTimeNanos) {
+      latencies.computeIfAbsent(member, k -> new MemberLatency()).record(responseTimeNanos, timeService.time());
+   }
+
+   /**
+    * Records that {@code member} did not reply in {@code elapsedNanos} and the request was sent to the next target.
+    * The elapsed time is recorded as a response time, so that a member that stops replying is quickly considered slow.
+    */
+   void recordHedge(Address member, long elapsedNanos) {
+      hedgedRequests.increment();
+      recordResponse(member, elapsedNanos);
+   }
+
+   /**
+    * @return the average response time of {@code member} in nanoseconds, or {@code -1} if unknown
+    */
+   long averageNanos(Address member) {
+      MemberLatency latency = latencies.get(member);
+      return latency != null ? latency.average(timeService.time()) : -1;
+   }
+
+   /**
+    * @return the delay after which a request to {@code member} should also be sent to the next target, in
+    *    nanoseconds, or {@code -1} if the response time of {@code member} is unknown
+    */
+   long hedgeDelayNanos(Address member) {
+      MemberLatency latency = latencies.get(member);
+      return latency != null ? latency.hedgeDelay(timeService.time()) : -1;
+   }
+
+   /**
+    * Moves the slow members after the other targets, the least slow first. The order of the other targets is
+    * preserved, so that reads still go to the primary owner first when the owners are about as fast.
+    */
+   Collection<Address> orderByLatency(Collection<Address> targets) {
+      if (targets.size() < 2 || latencies.isEmpty())
+         return targets;
+
+      long now = timeService.time();
+      Map<Address, Long> averages = new HashMap<>();
+      long fastest = Long.MAX_VALUE;
+      for (Address target : targets) {
+         MemberLatency latency = latencies.get(target);
+         long average = latency != null ? latency.average(now) : -1;
+         if (average >= 0) {
+            averages.put(target, average);
+            fastest = Math.min(fastest, average);
+         }
+      }
+      long slowThreshold = fastest * SLOW_FACTOR;
+      if (averages.values().stream().noneMatch(average -> average > slowThreshold))
+         return targets;
+
+      List<Address> ordered = new ArrayList<>(targets);
+      // The sort is stable, so the members that are not slow keep their order
+      ordered.sort(Comparator.comparingLong(target -> {
+         long average = averages.getOrDefault(target, -1L);
+         return average > slowThreshold ? average : 0;
+      }));
+      return ordered;
+   }
+
+   /**
+    * Forgets the response times of the members that left the cluster.
+    */
+   void retainMembers(Set<Address> members) {
+      latencies.keySet().retainAll(members);
+   }
+
+   void reset() {
+      latencies.clear();
+      hedgedRequests.reset();
+   }
+
+   long getHedgedRequests() {
+      return hedgedRequests.sum();
+   }
+
+   /**
+    * @return the average response time, the mean deviation and the number of samples of each member
+    */
+   String printLatencies() {
+      long now = timeService.time();
+      return latencies.entrySet().stream()
+                      .map(e -> e.getKey() + "=" + e.getValue().print(now))
+                      .collect(Collectors.joining(", ", "{", "}"));
+   }
+
+   private static class MemberLatency {
+      @GuardedBy("this")
+      private double average;
+      @GuardedBy("this")
+      private double deviation;
+      @GuardedBy("this")
+      private long samples;
+      @GuardedBy("this")
+      private long lastSample;
+
+      synchronized void record(long responseTimeNanos, long now) {
+         if (samples == 0 || now - lastSample > STALE_NANOS) {
+            average = responseTimeNanos;
+            deviation = responseTimeNanos / 2.0;
+            samples = 0;
+         } else {
+            double error = responseTimeNanos - average;
+            average += AVERAGE_WEIGHT * error;
+            deviation += DEVIATION_WEIGHT * (Math.abs(error) - deviation);
+         }
+         samples++;
+         lastSample = now;
+      }
+
+      synchronized long average(long now) {
+         if (now - lastSample > STALE_NANOS)
+            return -1;
+         return (long) average;
+      }
+
+      synchronized long hedgeDelay(long now) {
+         if (now - lastSample > STALE_NANOS)
+            return -1;
+         return Math.max(MIN_HEDGE_DELAY_NANOS, (long) (average + HEDGE_DEVIATIONS * deviation));
+      }
+
+      synchronized String print(long now) {
+         if (now - lastSample > STALE_NANOS)
+            return "N/A";
+         return String.format("%.3fms +/- %.3fms (%d samples)", average / 1_000_000, deviation / 1_000_000, samples);
+      }
+   }
+}
@@ -27,6 +27,11 @@
    private long deadline;
    @GuardedBy("responseCollector")
    private int targetIndex;
+   // The index and the time of the last message sent, and the time each target was sent a message
+   @GuardedBy("responseCollector")
+   private int lastSentIndex = -1;
+   @GuardedBy("responseCollector")
+   private final long[] sendTimes;
 
    StaggeredRequest(ResponseCollector<T> responseCollector, long requestId, RequestRepository repository,
                     Collection<Address> targets, Address excludedTarget, ReplicableCommand command,
@@ -38,6 +43,7 @@
       this.transport = transport;
 
       this.deadline = transport.timeService.expectedEndTime(timeout, unit);
+      this.sendTimes = new long[getTargetsSize()];
    }
 
    @Override
@@ -47,6 +53,22 @@ public void setTimeout(ScheduledExecutorService timeoutExecutor, long timeout, T
 
    @Override
    public synchronized void onResponse(Address sender, Response response) {
+      boolean sent = false;
+      long sendTime = 0;
+      synchronized (responseCollector) {
+         for (int i = 0; i <= lastSentIndex; i++) {
+            if (sender.equals(getTarget(i))) {
+               sent = true;
+               sendTime = sendTimes[i];
+               break;
+            }
+         }
+      }
+      if (sent) {
+         long responseTime = transport.getTimeService().timeDuration(sendTime, TimeUnit.NANOSECONDS);
+         transport.getLatencyTracker().recordResponse(sender, responseTime);
+      }
+
       super.onResponse(sender, response);
 
       sendNextMessage();
@@ -56,13 +78,24 @@ public synchronized void onResponse(Address sender, Response response) {
    protected void onTimeout() {
       // Don't call super.onTimeout() if it's just a stagger timeout
       boolean isFinalTimeout;
+      Address slowTarget = null;
+      long sendTime = 0;
       synchronized (responseCollector) {
          isFinalTimeout = targetIndex >= getTargetsSize();
+         if (!isFinalTimeout && lastSentIndex >= 0) {
+            // The last target did not reply in time, null if it replied or left the cluster
+            slowTarget = getTarget(lastSentIndex);
+            sendTime = sendTimes[lastSentIndex];
+         }
       }
 
       if (isFinalTimeout) {
          super.onTimeout();
       } else {
+         if (slowTarget != null) {
+            long elapsed = transport.getTimeService().timeDuration(sendTime, TimeUnit.NANOSECONDS);
+            transport.getLatencyTracker().recordHedge(slowTarget, elapsed);
+         }
          sendNextMessage();
       }
    }
@@ -93,6 +126,8 @@ void sendNextMessage() {
             }
 
             isFinalTarget = targetIndex >= getTargetsSize();
+            lastSentIndex = targetIndex - 1;
+            sendTimes[lastSentIndex] = transport.getTimeService().time();
          }
 
          // Sending may block in flow-control or even in TCP, so we must do it outside the critical section
@@ -104,6 +139,11 @@ void sendNextMessage() {
          long delayNanos = transport.getTimeService().remainingTime(deadline, TimeUnit.NANOSECONDS);
          if (!isFinalTarget) {
             delayNanos = delayNanos / 10 / getTargetsSize();
+            // Hedge: don't wait for a target to reply much longer than it usually takes
+            long hedgeDelayNanos = transport.getLatencyTracker().hedgeDelayNanos(target);
+            if (hedgeDelayNanos >= 0) {
+               delayNanos = Math.min(delayNanos, hedgeDelayNanos);
+            }
          }
          super.setTimeout(transport.getTimeoutExecutor(), delayNanos, TimeUnit.NANOSECONDS);
       } catch (Exception e) {
@@ -1,5 +1,6 @@
 package org.infinispan.statetransfer;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -12,10 +13,12 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.statetransfer.StateResponseCommand;
 import org.infinispan.commons.IllegalLifecycleStateException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -39,6 +42,10 @@
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p>
+ * The entries are sent in batches of at most {@code chunkSize} entries and, if {@code chunkBytes} is positive, of at
+ * most {@code chunkBytes} estimated bytes. The size of the entries is estimated by marshalling a sample of them. The
+ * batches can be compressed, and they can be throttled by a {@link StateTransferThrottle} shared by all the caches.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -59,6 +66,18 @@ public class OutboundTransferTask {
 
    private final int chunkSize;
 
+   private final long chunkBytes;
+
+   private final boolean compress;
+
+   private final boolean sizeEntries;
+
+   private final StreamingMarshaller marshaller;
+
+   private final StateTransferThrottle throttle;
+
+   private final IntPredicate prioritySegments;
+
    private final KeyPartitioner keyPartitioner;
 
    private final RpcManager rpcManager;
@@ -84,6 +103,26 @@ public OutboundTransferTask(Address destination, IntSet segments, int segmentCou
                                RpcManager rpcManager,
                                CommandsFactory commandsFactory, long timeout, String cacheName,
                                boolean applyState, boolean pushTransfer) {
+      this(destination, segments, segmentCount, chunkSize, 0, false, topologyId, keyPartitioner, onChunkReplicated,
+           rpcManager, commandsFactory, timeout, cacheName, applyState, pushTransfer, null, null, null);
+   }
+
+   /**
+    * @param chunkBytes the maximum estimated size of a batch in bytes, or {@code 0} to only limit the number of entries
+    * @param compress whether the batches are compressed
+    * @param marshaller the marshaller used to estimate the size of the entries and to compress the batches, can be
+    *                   {@code null} if {@code chunkBytes} is {@code 0} and {@code compress} is {@code false}
+    * @param throttle the throttle of the node, or {@code null} to send the batches without waiting
+    * @param prioritySegments the segments whose batches are sent before the others when they are throttled, or
+    *                         {@code null}
+    */
+   public OutboundTransferTask(Address destination, IntSet segments, int segmentCount, int chunkSize,
+                               long chunkBytes, boolean compress, int topologyId, KeyPartitioner keyPartitioner,
+                               Consumer<Collection<StateChunk>> onChunkReplicated,
+                               RpcManager rpcManager,
+                               CommandsFactory commandsFactory, long timeout, String cacheName,
+                               boolean applyState, boolean pushTransfer, StreamingMarshaller marshaller,
+                               StateTransferThrottle throttle, IntPredicate prioritySegments) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -93,10 +132,20 @@ public OutboundTransferTask(Address destination, IntSet segments, int segmentCou
       if (chunkSize <= 0) {
          throw new IllegalArgumentException("chunkSize must be greater than 0");
       }
+      if (marshaller == null && (chunkBytes > 0 || compress)) {
+         throw new IllegalArgumentException("A marshaller is required to limit the size of the batches or to compress them");
+      }
       this.onChunkReplicated = onChunkReplicated;
       this.destination = destination;
       this.segments = IntSets.concurrentCopyFrom(segments, segmentCount);
       this.chunkSize = chunkSize;
+      this.chunkBytes = chunkBytes;
+      this.compress = compress;
+      this.marshaller = marshaller;
+      this.throttle = throttle != null && throttle.isEnabled() ? throttle : null;
+      this.prioritySegments = prioritySegments;
+      // The throttle needs the size of the uncompressed batches
+      this.sizeEntries = chunkBytes > 0 || (this.throttle != null && !compress);
       this.topologyId = topologyId;
       this.keyPartitioner = keyPartitioner;
       this.rpcManager = rpcManager;
@@ -131,16 +180,17 @@ public int getTopologyId() {
    public CompletionStage<Void> execute(Flowable<InternalCacheEntry<Object, Object>> entries) {
       CompletableFuture<Void> taskFuture = new CompletableFuture<>();
       try {
-         AtomicReference<List<InternalCacheEntry<Object, Object>>> batchRef =
-            new AtomicReference<>(Collections.emptyList());
-         entries.buffer(chunkSize)
+         AtomicReference<Batch> batchRef = new AtomicReference<>(new Batch(Collections.emptyList(), 0));
+         Batcher batcher = new Batcher();
+         entries.concatMapIterable(batcher::add)
+                .concatWith(Flowable.defer(() -> Flowable.fromIterable(batcher.flush())))
                 .takeUntil(batch -> cancelled)
                 .concatMapCompletable(batch -> {
                    // Send the previous batch, not the current one
                    // This allows us to mark all the segments as finished in the same RPC with the
                    // last batch
-                   List<InternalCacheEntry<Object, Object>> previousBatch = batchRef.getAndSet(batch);
-                   if (previousBatch.isEmpty())
+                   Batch previousBatch = batchRef.getAndSet(batch);
+                   if (previousBatch.entries.isEmpty())
                       return Completable.complete();
 
                    return Completable.fromCompletionStage(sendEntries(previousBatch, false));
@@ -153,7 +203,7 @@ public void onSubscribe(Disposable d) {
                    @Override
                    public void onComplete() {
                       // Send the remaining entries and mark all the segments as finished
-                      List<InternalCacheEntry<Object, Object>> previousBatch = batchRef.get();
+                      Batch previousBatch = batchRef.get();
                       sendEntries(previousBatch, true)
                          .whenComplete((ignored, throwable) -> {
                             if (throwable == null) {
@@ -175,7 +225,8 @@ public void onError(Throwable e) {
       return taskFuture;
    }
 
-   private CompletionStage<Void> sendEntries(List<InternalCacheEntry<Object, Object>> entries, boolean isLast) {
+   private CompletionStage<Void> sendEntries(Batch batch, boolean isLast) {
+      List<InternalCacheEntry<Object, Object>> entries = batch.entries;
       Map<Integer, StateChunk> chunks = new HashMap<>();
       for (InternalCacheEntry<Object, Object> ice : entries) {
          int segmentId = keyPartitioner.getSegment(ice.getKey());
@@ -209,11 +260,44 @@ private CompletionStage<Void> sendEntries(List<InternalCacheEntry<Object, Object
 
       StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(topologyId,
                                                                            chunks.values(), applyState, pushTransfer);
+      long bytes = batch.bytes;
+      if (compress) {
+         try {
+            bytes = cmd.compress(marshaller);
+         } catch (IOException e) {
+            log.debugf(e, "Failed to compress the entries for node %s, sending them uncompressed", destination);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debugf(e, "Interrupted while compressing the entries for node %s, sending them uncompressed", destination);
+         }
+      }
+      CompletionStage<Void> permit = throttle != null ? throttle.acquire(bytes, hasPrioritySegment(chunks)) : null;
+      if (permit == null)
+         return invokeCommand(cmd, chunks.values());
+
+      return permit.thenCompose(ignored -> {
+         if (cancelled)
+            return CompletableFutures.completedNull();
+         return invokeCommand(cmd, chunks.values());
+      });
+   }
+
+   private boolean hasPrioritySegment(Map<Integer, StateChunk> chunks) {
+      if (prioritySegments == null)
+         return false;
+      for (StateChunk chunk : chunks.values()) {
+         if (!chunk.getCacheEntries().isEmpty() && prioritySegments.test(chunk.getSegmentId()))
+            return true;
+      }
+      return false;
+   }
+
+   private CompletionStage<Void> invokeCommand(StateResponseCommand cmd, Collection<StateChunk> chunks) {
       try {
          return rpcManager.invokeCommand(destination, cmd, SingleResponseCollector.validOnly(), rpcOptions)
                           .handle((response, throwable) -> {
                              if (throwable == null) {
-                                onChunkReplicated.accept(chunks.values());
+                                onChunkReplicated.accept(chunks);
                                 return null;
                              }
 
@@ -274,6 +358,71 @@ public boolean isCancelled() {
       return cancelled;
    }
 
+   private static class Batch {
+      final List<InternalCacheEntry<Object, Object>> entries;
+      final long bytes;
+
+      Batch(List<InternalCacheEntry<Object, Object>> entries, long bytes) {
+         this.entries = entries;
+         this.bytes = bytes;
+      }
+   }
+
+   /**
+    * Splits the entries in batches of at most {@code chunkSize} entries and {@code chunkBytes} estimated bytes.
+    * <p>
+    * The size of an entry is estimated with a moving average of the marshalled size of the first
+    * {@link #SAMPLED_ENTRIES} entries and of one entry in {@link #SAMPLED_ENTRIES} afterwards, so the batches adapt to
+    * the size of the values without marshalling all the entries twice.
+    */
+   private class Batcher {
+      private static final int SAMPLED_ENTRIES = 16;
+
+      private List<InternalCacheEntry<Object, Object>> entries = new ArrayList<>();
+      private long bytes;
+      private long count;
+      private double averageSize;
+
+      Iterable<Batch> add(InternalCacheEntry<Object, Object> ice) {
+         entries.add(ice);
+         if (sizeEntries) {
+            bytes += estimateSize(ice);
+         }
+         if (entries.size() >= chunkSize || (chunkBytes > 0 && bytes >= chunkBytes))
+            return Collections.singletonList(take());
+         return Collections.emptyList();
+      }
+
+      Iterable<Batch> flush() {
+         if (entries.isEmpty())
+            return Collections.emptyList();
+         return Collections.singletonList(take());
+      }
+
+      private Batch take() {
+         Batch batch = new Batch(entries, bytes);
+         entries = new ArrayList<>();
+         bytes = 0;
+         return batch;
+      }
+
+      private long estimateSize(InternalCacheEntry<Object, Object> ice) {
+         count++;
+         if (count <= SAMPLED_ENTRIES || count % SAMPLED_ENTRIES == 0) {
+            try {
+               int size = marshaller.objectToBuffer(ice).getLength();
+               averageSize = count == 1 ? size : averageSize + (size - averageSize) / 8;
+            } catch (IOException e) {
+               if (trace)
+                  log.tracef(e, "Could not estimate the size of entry %s", ice);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+         return (long) averageSize;
+      }
+   }
+
    @Override
    public String toString() {
       return "OutboundTransferTask{" +
@@ -281,6 +430,8 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", chunkSize=" + chunkSize +
+            ", chunkBytes=" + chunkBytes +
+            ", compress=" + compress +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
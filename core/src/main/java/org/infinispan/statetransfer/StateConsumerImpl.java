@@ -24,10 +24,12 @@
 import java.util.List;
 import java.util.Map;
 import java.util.PrimitiveIterator;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -60,6 +62,7 @@
 import org.infinispan.container.impl.InternalDataContainer;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
+import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.distribution.DistributionInfo;
 import org.infinispan.distribution.DistributionManager;
@@ -80,6 +83,8 @@
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
 import org.infinispan.notifications.cachelistener.cluster.ClusterListenerReplicateCallable;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.MarshallableEntryFactory;
 import org.infinispan.reactive.publisher.impl.LocalPublisherManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.inboundhandler.PerCacheInboundInvocationHandler;
@@ -103,6 +108,7 @@
 import org.infinispan.util.concurrent.CommandAckCollector;
 import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.util.concurrent.locks.LockManager;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
@@ -126,6 +132,8 @@ public class StateConsumerImpl implements StateConsumer {
                                                                         IGNORE_RETURN_VALUES, SKIP_REMOTE_LOOKUP,
                                                                         SKIP_SHARED_CACHE_STORE, SKIP_OWNERSHIP_CHECK,
                                                                         SKIP_XSITE_BACKUP, SKIP_LOCKING, IRAC_STATE);
+   // The store writes are performed for the whole chunk at once, see doApplyState
+   private static final long STATE_TRANSFER_BULK_STORE_FLAGS = STATE_TRANSFER_FLAGS | FlagBitSets.SKIP_CACHE_STORE;
    public static final String NO_KEY = "N/A";
 
    @Inject protected ComponentRef<Cache<Object, Object>> cache;
@@ -137,11 +145,13 @@ public class StateConsumerImpl implements StateConsumer {
    @Inject protected TransactionTable transactionTable;       // optional
    @Inject protected InternalDataContainer<Object, Object> dataContainer;
    @Inject protected PersistenceManager persistenceManager;
+   @Inject protected MarshallableEntryFactory<Object, Object> marshallableEntryFactory;
    @Inject protected AsyncInterceptorChain interceptorChain;
    @Inject protected InvocationContextFactory icf;
    @Inject protected StateTransferLock stateTransferLock;
    @Inject protected CacheNotifier<?, ?> cacheNotifier;
    @Inject protected CommitManager commitManager;
+   @Inject protected LockManager lockManager;
    @Inject @ComponentName(NON_BLOCKING_EXECUTOR)
    protected Executor nonBlockingExecutor;
    @Inject protected CommandAckCollector commandAckCollector;
@@ -157,6 +167,7 @@ public class StateConsumerImpl implements StateConsumer {
    protected boolean isFetchEnabled;
    protected boolean isTransactional;
    protected boolean isInvalidationMode;
+   protected boolean isBulkStoreWrite;
    protected volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
 
    protected volatile CacheTopology cacheTopology;
@@ -673,7 +684,7 @@ private CompletionStage<?> doApplyState(Address sender, int segmentId,
             for (InternalCacheEntry<?, ?> e : cacheEntries) {
                // CallInterceptor will preserve the timestamps if the metadata is an InternalMetadataImpl instance
                key = e.getKey();
-               CompletableFuture<?> future = invokePut(segmentId, ctx, e);
+               CompletableFuture<?> future = invokePut(segmentId, ctx, e, STATE_TRANSFER_FLAGS);
                if (!future.isDone()) {
                   throw new IllegalStateException("State transfer in-tx put should always be synchronous");
                }
@@ -697,10 +708,13 @@ private CompletionStage<?> doApplyState(Address sender, int segmentId,
          });
       } else {
          // non-tx cache
+         if (isBulkStoreWrite) {
+            return applyStateWithBulkStoreWrite(segmentId, cacheEntries);
+         }
          AggregateCompletionStage<Void> aggregateStage = CompletionStages.aggregateCompletionStage();
          for (InternalCacheEntry<?, ?> e : cacheEntries) {
             InvocationContext ctx = icf.createSingleKeyNonTxInvocationContext();
-            CompletionStage<?> putStage = invokePut(segmentId, ctx, e);
+            CompletionStage<?> putStage = invokePut(segmentId, ctx, e, STATE_TRANSFER_FLAGS);
             aggregateStage.dependsOn(putStage.exceptionally(t -> {
                logApplyException(t, e.getKey());
                return null;
@@ -710,6 +724,66 @@ private CompletionStage<?> doApplyState(Address sender, int segmentId,
       }
    }
 
+   /**
+    * Applies the entries to the data container and then writes all of them to the private stores with a single batch,
+    * instead of a store write per entry. This lets the stores write the chunk in bulk, for example the segmented
+    * RocksDB store ingests it as an SST file.
+    */
+   private CompletionStage<?> applyStateWithBulkStoreWrite(int segmentId,
+                                                           Collection<InternalCacheEntry<?, ?>> cacheEntries) {
+      Queue<InternalCacheEntry<?, ?>> appliedEntries = new ConcurrentLinkedQueue<>();
+      AggregateCompletionStage<Void> aggregateStage = CompletionStages.aggregateCompletionStage();
+      for (InternalCacheEntry<?, ?> e : cacheEntries) {
+         InvocationContext ctx = icf.createSingleKeyNonTxInvocationContext();
+         CompletionStage<?> putStage = invokePut(segmentId, ctx, e, STATE_TRANSFER_BULK_STORE_FLAGS);
+         aggregateStage.dependsOn(putStage.handle((ignore, t) -> {
+            if (t != null) {
+               logApplyException(t, e.getKey());
+            } else {
+               appliedEntries.add(e);
+            }
+            return null;
+         }));
+      }
+      return aggregateStage.freeze()
+            .thenCompose(ignore -> writeAppliedEntries(segmentId, appliedEntries))
+            .exceptionally(t -> {
+               logApplyException(t, NO_KEY);
+               return null;
+            });
+   }
+
+   /**
+    * Writes the entries applied by state transfer to the private stores while holding their key locks, so that a
+    * write of the same key either finishes its own store write before the batch, or starts after it.
+    * <p>
+    * Only the entries whose value is still in the data container are written: the others were overwritten or removed
+    * after they were applied (or the put was discarded), and the operation that did it has updated the stores.
+    */
+   private CompletionStage<?> writeAppliedEntries(int segmentId, Collection<InternalCacheEntry<?, ?>> appliedEntries) {
+      if (appliedEntries.isEmpty()) {
+         return CompletableFutures.completedNull();
+      }
+      List<Object> keys = new ArrayList<>(appliedEntries.size());
+      for (InternalCacheEntry<?, ?> e : appliedEntries) {
+         keys.add(e.getKey());
+      }
+      Object lockOwner = new Object();
+      return lockManager.lockAll(keys, lockOwner, configuration.locking().lockAcquisitionTimeout(), TimeUnit.MILLISECONDS)
+            .toInvocationStage().toCompletableFuture()
+            .thenCompose(ignore -> {
+               List<MarshallableEntry<Object, Object>> storeEntries = new ArrayList<>(appliedEntries.size());
+               for (InternalCacheEntry<?, ?> e : appliedEntries) {
+                  InternalCacheEntry<Object, Object> current = dataContainer.peek(segmentId, e.getKey());
+                  if (current != null && current.getValue() == e.getValue()) {
+                     storeEntries.add(marshallableEntryFactory.create(current));
+                  }
+               }
+               return persistenceManager.writeEntries(storeEntries, PRIVATE);
+            })
+            .whenComplete((ignore, t) -> lockManager.unlockAll(keys, lockOwner));
+   }
+
    private CompletionStage<?> invoke1PCPrepare(LocalTransaction localTransaction) {
       PrepareCommand prepareCommand;
       if (Configurations.isTxVersioned(configuration)) {
@@ -729,11 +803,11 @@ private CompletionStage<?> invokeRollback(LocalTransaction localTransaction) {
       return interceptorChain.invokeAsync(ctx, prepareCommand);
    }
 
-   private CompletableFuture<?> invokePut(int segmentId, InvocationContext ctx, InternalCacheEntry<?, ?> e) {
+   private CompletableFuture<?> invokePut(int segmentId, InvocationContext ctx, InternalCacheEntry<?, ?> e, long flags) {
       // CallInterceptor will preserve the timestamps if the metadata is an InternalMetadataImpl instance
       InternalMetadataImpl metadata = new InternalMetadataImpl(e);
       PutKeyValueCommand put = commandsFactory.buildPutKeyValueCommand(e.getKey(), e.getValue(), segmentId,
-                                                                       metadata, STATE_TRANSFER_FLAGS);
+                                                                       metadata, flags);
       put.setInternalMetadata(e.getInternalMetadata());
       ctx.setLockOwner(put.getKeyLockOwner());
       return interceptorChain.invokeAsync(ctx, put);
@@ -791,6 +865,13 @@ public void start() {
       isFetchEnabled = mode.needsStateTransfer() &&
               (configuration.clustering().stateTransfer().fetchInMemoryState() || configuration.persistence().fetchPersistentState());
 
+      // Only worth it when the stores write batches in bulk. The CacheWriterInterceptor is replaced by the passivation
+      // interceptors, scattered caches have to order the store writes by version, and an entry evicted before the
+      // batch is written would be lost
+      isBulkStoreWrite = configuration.persistence().usingStores() && !configuration.persistence().passivation() &&
+            !mode.isScattered() && !configuration.memory().isEvictionEnabled() &&
+            persistenceManager.isBulkWriteSupported();
+
       rpcOptions = new RpcOptions(DeliverOrder.NONE, timeout, TimeUnit.MILLISECONDS);
 
       stateRequestExecutor = new LimitedExecutor("StateRequest-" + cacheName, nonBlockingExecutor, 1);
@@ -68,6 +68,16 @@ public interface StateProvider {
     */
    void cancelOutboundTransfer(Address destination, int topologyId, IntSet segments);
 
+   /**
+    * Invoked when another node reads a key of the given segment from this node, so that the outbound transfers can
+    * send the segments that clients are reading before the others. The reads are ignored unless the state transfer
+    * is throttled.
+    *
+    * @param segment the segment of the key
+    */
+   default void onRemoteRead(int segment) {
+   }
+
    void start();
 
    /**
@@ -15,10 +15,13 @@
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.configuration.cache.Configuration;
@@ -83,9 +86,25 @@ public class StateProviderImpl implements StateProvider {
    @Inject protected TransactionOriginatorChecker transactionOriginatorChecker;
    @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR)
    @Inject ScheduledExecutorService timeoutExecutor;
+   @ComponentName(KnownComponentNames.INTERNAL_MARSHALLER)
+   @Inject protected StreamingMarshaller marshaller;
+   @Inject protected StateTransferThrottle throttle;
+   @Inject TimeService timeService;
+
+   /**
+    * A segment has priority in the throttled transfers for this long after it was last read by another node.
+    */
+   static final long PRIORITY_READ_MILLIS = 5000;
 
    protected long timeout;
    protected int chunkSize;
+   protected long chunkBytes;
+   protected boolean compression;
+
+   /**
+    * The time of the last remote read of each segment, or {@code 0} if the segment was not read.
+    */
+   private volatile AtomicLongArray segmentReads;
 
    /**
     * A map that keeps track of current outbound state transfers by destination address. There could be multiple transfers
@@ -129,6 +148,9 @@ public CompletableFuture<Void> onTopologyUpdate(CacheTopology cacheTopology, boo
    public void start() {
       timeout = configuration.clustering().stateTransfer().timeout();
       chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      chunkBytes = configuration.clustering().stateTransfer().chunkBytes();
+      compression = configuration.clustering().stateTransfer().compression();
+      segmentReads = new AtomicLongArray(configuration.clustering().hash().numSegments());
    }
 
    @Stop(priority = 0)
@@ -284,8 +306,9 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
       // the destination node must already have an InboundTransferTask waiting for these segments
       OutboundTransferTask outboundTransfer =
          new OutboundTransferTask(destination, segments, this.configuration.clustering().hash().numSegments(),
-                                  chunkSize, requestTopologyId, keyPartitioner, chunks -> {}, rpcManager,
-                                  commandsFactory, timeout, cacheName, applyState, false);
+                                  chunkSize, chunkBytes, compression, requestTopologyId, keyPartitioner, chunks -> {},
+                                  rpcManager, commandsFactory, timeout, cacheName, applyState, false, marshaller,
+                                  throttle, this::isRecentlyRead);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(Flowable.concat(publishDataContainerEntries(segments), publishStoreEntries(segments)))
                       .whenComplete((ignored, throwable) -> {
@@ -296,6 +319,20 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
                       });
    }
 
+   @Override
+   public void onRemoteRead(int segment) {
+      // The reads only decide the order of the throttled transfers
+      AtomicLongArray reads = segmentReads;
+      if (throttle != null && throttle.isEnabled() && reads != null && segment < reads.length()) {
+         reads.lazySet(segment, timeService.time());
+      }
+   }
+
+   private boolean isRecentlyRead(int segment) {
+      long lastRead = segmentReads.get(segment);
+      return lastRead != 0 && timeService.timeDuration(lastRead, TimeUnit.MILLISECONDS) <= PRIORITY_READ_MILLIS;
+   }
+
    protected Flowable<InternalCacheEntry<Object, Object>> publishDataContainerEntries(IntSet segments) {
       return Flowable.fromIterable(() -> dataContainer.iterator(segments))
                      // TODO Investigate removing the filter, we clear L1 entries before becoming an owner
@@ -0,0 +1,168 @@
+package org.infinispan.statetransfer;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Limits the bandwidth used by the outbound state transfers of all the caches of a node.
+ * <p>
+ * The limit is configured in bytes per second with the {@link #MAX_BANDWIDTH} transport property, and {@code 0} (the
+ * default) disables it. Permits are handed out from a token bucket that holds at most one second worth of bytes. A
+ * request may take the bucket below zero, so a batch larger than the bucket does not wait forever, and the following
+ * requests wait until the bucket is refilled. Requests with priority, i.e. batches of segments that clients are
+ * reading, are served before the others.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Scope(Scopes.GLOBAL)
+public class StateTransferThrottle {
+   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
+   private static final boolean trace = log.isTraceEnabled();
+
+   public static final String MAX_BANDWIDTH = "stateTransferMaxBandwidth";
+
+   @Inject GlobalConfiguration globalConfiguration;
+   @Inject TimeService timeService;
+   @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR)
+   @Inject ScheduledExecutorService scheduler;
+
+   private volatile long bytesPerSecond;
+
+   @GuardedBy("this")
+   private long available;
+   @GuardedBy("this")
+   private long lastRefill;
+   @GuardedBy("this")
+   private final Deque<Waiter> priorityWaiters = new ArrayDeque<>();
+   @GuardedBy("this")
+   private final Deque<Waiter> waiters = new ArrayDeque<>();
+   @GuardedBy("this")
+   private boolean scheduled;
+
+   @Start
+   public void start() {
+      TypedProperties props = TypedProperties.toTypedProperties(globalConfiguration.transport().properties());
+      setMaxBandwidth(props.getLongProperty(MAX_BANDWIDTH, 0));
+   }
+
+   synchronized void setMaxBandwidth(long bytesPerSecond) {
+      this.bytesPerSecond = bytesPerSecond;
+      this.available = bytesPerSecond;
+      this.lastRefill = timeService.time();
+   }
+
+   public boolean isEnabled() {
+      return bytesPerSecond > 0;
+   }
+
+   /**
+    * Acquires the permits to send {@code bytes} bytes.
+    *
+    * @param bytes the size of the batch
+    * @param priority whether the batch contains segments that clients are reading
+    * @return a stage that completes when the batch can be sent, or {@code null} if it can be sent immediately
+    */
+   public CompletionStage<Void> acquire(long bytes, boolean priority) {
+      if (bytesPerSecond <= 0)
+         return null;
+
+      Waiter waiter;
+      synchronized (this) {
+         refill();
+         if (available > 0 && priorityWaiters.isEmpty() && (priority || waiters.isEmpty())) {
+            available -= bytes;
+            return null;
+         }
+         waiter = new Waiter(bytes);
+         (priority ? priorityWaiters : waiters).add(waiter);
+         if (scheduled)
+            return waiter.future;
+
+         scheduled = true;
+      }
+      if (trace)
+         log.tracef("Waiting for the bandwidth to send %d bytes, priority=%s", bytes, priority);
+      scheduleDrain();
+      return waiter.future;
+   }
+
+   private void drain() {
+      List<Waiter> ready = new ArrayList<>();
+      boolean reschedule;
+      synchronized (this) {
+         refill();
+         while (available > 0) {
+            Waiter waiter = priorityWaiters.poll();
+            if (waiter == null) {
+               waiter = waiters.poll();
+               if (waiter == null)
+                  break;
+            }
+            available -= waiter.bytes;
+            ready.add(waiter);
+         }
+         reschedule = !priorityWaiters.isEmpty() || !waiters.isEmpty();
+         scheduled = reschedule;
+      }
+      if (reschedule) {
+         scheduleDrain();
+      }
+      for (Waiter waiter : ready) {
+         waiter.future.complete(null);
+      }
+   }
+
+   private void scheduleDrain() {
+      long delayNanos;
+      synchronized (this) {
+         long rate = Math.max(bytesPerSecond, 1);
+         // Wait until the bucket is above zero again, but at least 1 millisecond
+         delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+               (long) ((double) TimeUnit.SECONDS.toNanos(1) * (1 - available) / rate));
+      }
+      scheduler.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+   }
+
+   @GuardedBy("this")
+   private void refill() {
+      long now = timeService.time();
+      // The bucket is full after one second, which also keeps the multiplication from overflowing
+      long elapsedNanos = Math.min(now - lastRefill, TimeUnit.SECONDS.toNanos(1));
+      long refill = elapsedNanos * bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+      if (refill > 0) {
+         available = Math.min(bytesPerSecond, available + refill);
+         lastRefill = now;
+      }
+   }
+
+   private static class Waiter {
+      final long bytes;
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+
+      Waiter(long bytes) {
+         this.bytes = bytes;
+      }
+   }
+}
@@ -34,9 +34,11 @@
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.StorageType;
 import org.infinispan.configuration.parsing.Element;
 import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.interceptors.impl.ContainerFullException;
 import org.infinispan.jmx.JmxDomainConflictException;
 import org.infinispan.partitionhandling.AvailabilityException;
@@ -2041,4 +2043,55 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
 
    @Message(value = "Store %s cannot be configured to be shared as it does not contain the SHARED characteristic", id = 600)
    CacheConfigurationException storeConfiguredSharedButCharacteristicNotPresent(String storeClassName);
+
+   @Message(value = "The off-heap allocator '%s' can only be used with the OFF_HEAP storage", id = 601)
+   CacheConfigurationException offHeapAllocatorRequiresOffHeapStorage(OffHeapAllocatorType allocator);
+
+   @Message(value = "The eviction policy '%s' can only be used with the OFF_HEAP storage", id = 602)
+   CacheConfigurationException evictionPolicyRequiresOffHeapStorage(EvictionPolicy evictionPolicy);
+
+   @Message(value = "The append-only single file store cannot be bounded with max-entries", id = 603)
+   CacheConfigurationException appendOnlyFileStoreCannotBeBounded();
+
+   @Message(value = "The single file store compaction threshold must be greater than 0 and less than or equal to 1, was %s", id = 604)
+   CacheConfigurationException invalidFileStoreCompactionThreshold(float threshold);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The negative lookup filter of cache '%s' is disabled, as it requires all stores to be not shared, " +
+         "writable and to support bulk reads", id = 605)
+   void negativeLookupFilterNotSupported(String cacheName);
+
+   @Message(value = "The async store flush interval must not be negative, was %d", id = 606)
+   CacheConfigurationException invalidAsyncStoreFlushInterval(long flushInterval);
+
+   @Message(value = "The preload parallelism must not be negative, was %d", id = 607)
+   CacheConfigurationException invalidPreloadParallelism(int parallelism);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Preloading cache '%s': %d entries loaded in %s (%d entries/s)", id = 608)
+   void preloadProgress(String cacheName, long entries, String elapsed, long throughput);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Preloaded %d entries of cache '%s' in %s (%d entries/s)", id = 609)
+   void preloadCompleted(long entries, String cacheName, String elapsed, long throughput);
+
+   @Message(value = "Tiered persistence requires exactly two stores, the fast tier followed by the cold tier, but %d are configured", id = 610)
+   CacheConfigurationException tieredPersistenceRequiresTwoStores(int stores);
+
+   @Message(value = "Store '%s' cannot be transactional when the stores are tiered", id = 611)
+   CacheConfigurationException tieredStoreCannotBeTransactional(String storeType);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to demote the idle entries of cache '%s' to the cold tier", id = 612)
+   void failedToDemoteEntries(String cacheName, @Cause Throwable t);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Failed to send %d coalesced commands to %s", id = 613)
+   void failedToSendCoalescedCommands(int commands, Address target, @Cause Throwable t);
+
+   @Message(value = "The reaper segments per run must be positive or -1, was %d", id = 614)
+   CacheConfigurationException invalidReaperSegmentsPerRun(int segmentsPerRun);
+
+   @Message(value = "Chunk bytes must not be negative, got %d", id = 615)
+   CacheConfigurationException invalidChunkBytes(long chunkBytes);
 }
@@ -35,6 +35,7 @@
 import org.infinispan.configuration.cache.EncodingConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.MemoryConfiguration;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
@@ -46,6 +47,7 @@
 import org.infinispan.configuration.global.TransportConfiguration;
 import org.infinispan.conflict.MergePolicy;
 import org.infinispan.distribution.ch.impl.SyncConsistentHashFactory;
+import org.infinispan.eviction.EvictionPolicy;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.threads.AbstractThreadPoolExecutorFactory;
@@ -123,6 +125,18 @@ public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schema
             TransportConfiguration tc = getGlobalConfiguration(holder).transport();
             assertTrue(tc.properties().size() >= 1);
             assertEquals("value", tc.properties().getProperty("key"));
+
+            Configuration pooledOffHeap = getConfiguration(holder, "off_heap_pooled");
+            assertEquals(StorageType.OFF_HEAP, pooledOffHeap.memory().storage());
+            assertEquals(OffHeapAllocatorType.POOLED, pooledOffHeap.memory().allocator());
+
+            Configuration tinyLfuOffHeap = getConfiguration(holder, "off_heap_tiny_lfu");
+            assertEquals(EvictionPolicy.TINY_LFU, tinyLfuOffHeap.memory().evictionPolicy());
+
+            Configuration appendOnlyFileStore = getConfiguration(holder, "file_store_append_only");
+            SingleFileStoreConfiguration appendOnlyStore = getStoreConfiguration(appendOnlyFileStore, SingleFileStoreConfiguration.class);
+            assertTrue(appendOnlyStore.appendOnly());
+            assertEquals(0.25f, appendOnlyStore.compactionThreshold());
          }
       },
       INFINISPAN_110(11, 0) {
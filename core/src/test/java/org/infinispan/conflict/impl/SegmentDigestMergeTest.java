@@ -0,0 +1,133 @@
+package org.infinispan.conflict.impl;
+
+import static org.infinispan.test.TestingUtil.wrapInboundInvocationHandler;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.conflict.ConflictManagerFactory;
+import org.infinispan.conflict.MergePolicy;
+import org.infinispan.partitionhandling.BasePartitionHandlingTest;
+import org.infinispan.partitionhandling.PartitionHandling;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.remoting.inboundhandler.AbstractDelegatingHandler;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.inboundhandler.PerCacheInboundInvocationHandler;
+import org.infinispan.remoting.inboundhandler.Reply;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the conflict resolution after a merge compares the digests of the segments and only transfers the
+ * entries whose digests differ, including the entries that are only contained in the stores.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "conflict.impl.SegmentDigestMergeTest")
+public class SegmentDigestMergeTest extends BasePartitionHandlingTest {
+   private static final int ENTRIES = 100;
+   // The keys below this index are modified during the split
+   private static final int DIVERGING_ENTRIES = 3;
+
+   private final AtomicInteger digestRequests = new AtomicInteger();
+   private final AtomicInteger entriesRequests = new AtomicInteger();
+
+   public SegmentDigestMergeTest() {
+      this.numMembersInCluster = 2;
+      this.partitionHandling = PartitionHandling.ALLOW_READ_WRITES;
+      this.mergePolicy = MergePolicy.PREFERRED_ALWAYS;
+   }
+
+   @Override
+   protected ConfigurationBuilder cacheConfiguration() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      // Every node has its own store
+      builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      return builder;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      super.createCacheManagers();
+      digestRequests.set(0);
+      entriesRequests.set(0);
+      for (Cache<?, ?> cache : caches()) {
+         wrapInboundInvocationHandler(cache, CountingHandler::new);
+      }
+   }
+
+   public void testMergeWithDivergingKeys() throws Exception {
+      splitWithDivergingKeys();
+
+      partition(0).merge(partition(1));
+
+      assertEntriesRequested();
+      assertEntriesAfterMerge();
+   }
+
+   public void testMergeWithStoreOnlyEntries() throws Exception {
+      splitWithDivergingKeys();
+      // Each node keeps a different half of the other entries only in its store
+      for (int i = DIVERGING_ENTRIES; i < ENTRIES; i++) {
+         cache(i % 2).evict("k" + i);
+      }
+
+      partition(0).merge(partition(1));
+
+      assertEntriesRequested();
+      assertEntriesAfterMerge();
+   }
+
+   private void splitWithDivergingKeys() {
+      for (int i = 0; i < ENTRIES; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      splitCluster(new int[]{0}, new int[]{1});
+      TestingUtil.waitForNoRebalance(cache(0));
+      TestingUtil.waitForNoRebalance(cache(1));
+
+      cache(0).put("k0", "p0");
+      cache(0).put("k1", "p0");
+      cache(1).put("k1", "p1");
+      cache(1).remove("k2");
+   }
+
+   private void assertEntriesRequested() {
+      assertTrue(digestRequests.get() > 0);
+      assertTrue(entriesRequests.get() > 0);
+   }
+
+   private void assertEntriesAfterMerge() {
+      assertEquals(0, ConflictManagerFactory.get(advancedCache(0)).getConflicts().count());
+      for (int i = DIVERGING_ENTRIES; i < ENTRIES; i++) {
+         assertEquals("v" + i, cache(0).get("k" + i));
+         assertEquals("v" + i, cache(1).get("k" + i));
+      }
+      for (int i = 0; i < DIVERGING_ENTRIES; i++) {
+         assertEquals(cache(0).get("k" + i), cache(1).get("k" + i));
+      }
+   }
+
+   private class CountingHandler extends AbstractDelegatingHandler {
+      CountingHandler(PerCacheInboundInvocationHandler delegate) {
+         super(delegate);
+      }
+
+      @Override
+      public void handle(CacheRpcCommand command, Reply reply, DeliverOrder order) {
+         if (command instanceof ConflictDigestCommand) {
+            digestRequests.incrementAndGet();
+         } else if (command instanceof ConflictEntriesCommand) {
+            entriesRequests.incrementAndGet();
+         }
+         delegate.handle(command, reply, order);
+      }
+   }
+}
@@ -0,0 +1,71 @@
+package org.infinispan.conflict.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "conflict.impl.SegmentDigestTest")
+public class SegmentDigestTest extends AbstractInfinispanTest {
+   private static final int ENTRIES = 1000;
+
+   private static SegmentDigest digest(long... overrides) {
+      SegmentDigest.Builder builder = new SegmentDigest.Builder();
+      // Add the entries in reverse order, the digest must not depend on the iteration order
+      for (int i = ENTRIES - 1; i >= 0; i--) {
+         long valueHash = i;
+         for (int j = 0; j < overrides.length; j += 2) {
+            if (overrides[j] == i) {
+               valueHash = overrides[j + 1];
+            }
+         }
+         if (valueHash >= 0) {
+            builder.add(i * 0x9E3779B97F4A7C15L, valueHash);
+         }
+      }
+      return builder.build();
+   }
+
+   public void testSameEntries() {
+      SegmentDigest.Builder builder = new SegmentDigest.Builder();
+      for (int i = 0; i < ENTRIES; i++) {
+         builder.add(i * 0x9E3779B97F4A7C15L, i);
+      }
+      SegmentDigest digest = builder.build();
+      assertEquals(digest.root(), digest().root());
+      assertTrue(SegmentDigest.differingLeaves(Arrays.asList(digest, digest(), digest())).isEmpty());
+   }
+
+   public void testDifferentValue() {
+      IntSet leaves = SegmentDigest.differingLeaves(Arrays.asList(digest(), digest(10, 1234)));
+      assertEquals(1, leaves.size());
+      assertTrue(leaves.contains(SegmentDigest.leafOf(10 * 0x9E3779B97F4A7C15L)));
+   }
+
+   public void testMissingEntries() {
+      // Entry 20 is missing in the second replica and entry 30 in the third
+      IntSet leaves = SegmentDigest.differingLeaves(Arrays.asList(digest(), digest(20, -1), digest(30, -1)));
+      assertTrue(leaves.contains(SegmentDigest.leafOf(20 * 0x9E3779B97F4A7C15L)));
+      assertTrue(leaves.contains(SegmentDigest.leafOf(30 * 0x9E3779B97F4A7C15L)));
+      assertTrue(leaves.size() <= 2);
+   }
+
+   public void testEmptySegments() {
+      SegmentDigest empty = new SegmentDigest.Builder().build();
+      assertTrue(SegmentDigest.differingLeaves(Arrays.asList(empty, new SegmentDigest.Builder().build())).isEmpty());
+      assertEquals(SegmentDigest.LEAVES, SegmentDigest.differingLeaves(Arrays.asList(empty, digest())).size());
+   }
+
+   public void testSerializedTree() {
+      SegmentDigest digest = digest();
+      assertEquals(digest.root(), SegmentDigest.fromArray(digest.toArray()).root());
+   }
+}
@@ -155,6 +155,9 @@ private void createAndInitStateReceiver() {
       stateReceiver.onDataRehash(createEventImpl(2, 4, Event.Type.DATA_REHASHED));
       this.localizedCacheTopology = createLocalizedCacheTopology(4);
       this.stateReceiver = spy(stateReceiver);
+      // Without digests the whole segment is transferred from every replica
+      doReturn(CompletableFuture.completedFuture(null)).when(this.stateReceiver)
+            .requestDigests(any(Integer.class), any(LocalizedCacheTopology.class), any(List.class));
    }
 
    @AfterClass(alwaysRun = true)
@@ -0,0 +1,52 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.EpochDeallocatorTest")
+public class EpochDeallocatorTest {
+
+   public void testReclaimWithoutReaders() {
+      UnpooledOffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      EpochDeallocator deallocator = new EpochDeallocator(allocator);
+      deallocator.retire(allocator.allocate(64), 64);
+      deallocator.retire(allocator.allocate(64), 64);
+
+      deallocator.tryReclaim();
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+
+   public void testReaderDelaysReclaim() {
+      UnpooledOffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      EpochDeallocator deallocator = new EpochDeallocator(allocator);
+      long size = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(64);
+
+      int reader = deallocator.enter();
+      deallocator.retire(allocator.allocate(64), 64);
+      deallocator.tryReclaim();
+      // The reader entered before the memory was retired, so it could still be reading it
+      assertEquals(size, allocator.getAllocatedAmount());
+
+      // A reader that enters afterwards can't see the memory, so it must not block reclamation
+      int laterReader = deallocator.enter();
+      deallocator.exit(reader);
+      deallocator.tryReclaim();
+      assertEquals(0, allocator.getAllocatedAmount());
+      deallocator.exit(laterReader);
+   }
+
+   public void testReclaimAll() {
+      UnpooledOffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+      EpochDeallocator deallocator = new EpochDeallocator(allocator);
+      for (int i = 0; i < 100; ++i) {
+         deallocator.retire(allocator.allocate(32), 32);
+      }
+      deallocator.reclaimAll();
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+}
@@ -0,0 +1,53 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.FrequencySketchTest")
+public class FrequencySketchTest {
+
+   public void testIncrement() {
+      FrequencySketch sketch = new FrequencySketch();
+      sketch.ensureCapacity(512);
+      assertEquals(0, sketch.frequency(42));
+      sketch.increment(42);
+      assertEquals(1, sketch.frequency(42));
+      for (int i = 0; i < 20; ++i) {
+         sketch.increment(42);
+      }
+      // Counters saturate at 4 bits
+      assertEquals(15, sketch.frequency(42));
+   }
+
+   public void testFrequentEntriesStandOut() {
+      FrequencySketch sketch = new FrequencySketch();
+      sketch.ensureCapacity(1024);
+      for (int i = 0; i < 1000; ++i) {
+         sketch.increment(i);
+         if ((i & 7) == 0) {
+            sketch.increment(-1);
+         }
+      }
+      assertTrue(sketch.frequency(-1) > sketch.frequency(500));
+   }
+
+   public void testAging() {
+      FrequencySketch sketch = new FrequencySketch();
+      sketch.ensureCapacity(16);
+      for (int i = 0; i < 10; ++i) {
+         sketch.increment(7);
+      }
+      int before = sketch.frequency(7);
+      // Enough distinct accesses to trigger the counters to be halved
+      for (int i = 100; i < 100 + 16 * 10; ++i) {
+         sketch.increment(i);
+      }
+      assertTrue(sketch.frequency(7) < before);
+   }
+}
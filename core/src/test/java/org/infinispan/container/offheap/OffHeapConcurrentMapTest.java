@@ -4,10 +4,17 @@
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -132,6 +139,88 @@ public void testIterationCreatedButNotUsedUntilAfterAResize() {
       assertEquals(RESIZE_LIMITATION, entriesFound);
    }
 
+   public void testEntriesPresentDuringIncrementalResize() {
+      Set<WrappedBytes> keys = insertUpToResizeLimitation();
+
+      // Starts a resize, which only transfers some of the lock regions right away
+      assertTrue(keys.add(putInMap(map, valueByteArray)));
+      for (WrappedBytes key : keys) {
+         assertNotNull(map.get(key));
+      }
+
+      // Subsequent writes transfer the remaining regions
+      for (int i = 0; i < RESIZE_LIMITATION; ++i) {
+         assertTrue(keys.add(putInMap(map, valueByteArray)));
+      }
+      for (WrappedBytes key : keys) {
+         assertNotNull(map.get(key));
+      }
+      assertEquals(keys.size(), map.size());
+   }
+
+   public void testOptimisticReadsDuringWritesRemovesAndResizes() throws Exception {
+      // The value of a stable key is always equal to the key, so a reader can tell when it read a torn entry
+      List<WrappedBytes> stableKeys = new ArrayList<>();
+      for (int i = 0; i < 100; ++i) {
+         WrappedBytes key = randomBytes();
+         map.put(key, new ImmortalCacheEntry(key, key));
+         stableKeys.add(key);
+      }
+
+      int readers = 4;
+      int writers = 4;
+      AtomicBoolean running = new AtomicBoolean(true);
+      ExecutorService executor = Executors.newFixedThreadPool(readers + writers);
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         for (int i = 0; i < readers; ++i) {
+            futures.add(executor.submit(() -> {
+               while (running.get()) {
+                  for (WrappedBytes key : stableKeys) {
+                     InternalCacheEntry<WrappedBytes, WrappedBytes> ice = map.get(key);
+                     assertNotNull("Missing " + key, ice);
+                     assertEquals(key, ice.getKey());
+                     assertEquals(key, ice.getValue());
+                  }
+               }
+               return null;
+            }));
+         }
+         for (int i = 0; i < writers; ++i) {
+            futures.add(executor.submit(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               // Every writer adds more keys than it removes, so the map is resized several times
+               for (int j = 0; j < 20_000; ++j) {
+                  WrappedBytes key = randomBytes();
+                  map.put(key, new ImmortalCacheEntry(key, valueByteArray));
+                  if (j % 3 == 0) {
+                     map.remove(key);
+                  }
+                  // Replacing a stable key retires the memory of the previous entry while readers may be reading it
+                  WrappedBytes stableKey = stableKeys.get(random.nextInt(stableKeys.size()));
+                  map.put(stableKey, new ImmortalCacheEntry(stableKey, stableKey));
+               }
+               return null;
+            }));
+         }
+         for (Future<?> future : futures.subList(readers, futures.size())) {
+            future.get(1, TimeUnit.MINUTES);
+         }
+         running.set(false);
+         for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+         }
+      } finally {
+         running.set(false);
+         executor.shutdownNow();
+      }
+
+      for (WrappedBytes key : stableKeys) {
+         assertEquals(key, map.get(key).getValue());
+      }
+      assertTrue(map.size() > RESIZE_LIMITATION * 4);
+   }
+
    WrappedBytes putInMap(OffHeapConcurrentMap map, WrappedBytes value) {
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
       WrappedBytes key;
@@ -0,0 +1,134 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest {
+
+   @DataProvider(name = "sizeClasses")
+   Object[][] sizeClasses() {
+      return new Object[][] {
+            { 1, 0, 16 },
+            { 16, 0, 16 },
+            { 17, 1, 32 },
+            { 256, 15, 256 },
+            { 257, 16, 320 },
+            { 512, 19, 512 },
+            { 513, 20, 640 },
+            { 3000, 29, 3072 },
+            { 4096, 31, 4096 },
+      };
+   }
+
+   @Test(dataProvider = "sizeClasses")
+   public void testSizeClasses(long size, int expectedIndex, int expectedChunkSize) {
+      int index = PooledOffHeapMemoryAllocator.sizeClassIndex(size);
+      assertEquals(expectedIndex, index);
+      assertEquals(expectedChunkSize, PooledOffHeapMemoryAllocator.chunkSize(index));
+   }
+
+   public void testChunkSizesAreAscending() {
+      int previous = 0;
+      for (int i = 0; i < PooledOffHeapMemoryAllocator.SIZE_CLASS_COUNT; ++i) {
+         int chunkSize = PooledOffHeapMemoryAllocator.chunkSize(i);
+         assertTrue(chunkSize > previous);
+         assertEquals(0, chunkSize & 15);
+         assertEquals(i, PooledOffHeapMemoryAllocator.sizeClassIndex(chunkSize));
+         previous = chunkSize;
+      }
+      assertEquals(PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE, previous);
+   }
+
+   public void testChunksAreReused() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      try {
+         Set<Long> addresses = new HashSet<>();
+         for (int i = 0; i < 1000; ++i) {
+            assertTrue(addresses.add(allocator.allocate(100)));
+         }
+         int slabCount = allocator.getSlabCount();
+         assertTrue(slabCount > 0);
+         assertEquals(1000 * UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(100), allocator.getAllocatedAmount());
+
+         for (Long address : addresses) {
+            allocator.deallocate(address, 100);
+         }
+         assertEquals(0, allocator.getAllocatedAmount());
+         assertEquals(0, allocator.getUsedSlabBytes());
+
+         // Allocating the same amount again must not require any new slabs
+         for (int i = 0; i < 1000; ++i) {
+            addresses.add(allocator.allocate(100));
+         }
+         assertEquals(slabCount, allocator.getSlabCount());
+         assertEquals(1000, addresses.size());
+         for (Long address : addresses) {
+            allocator.deallocate(address, 100);
+         }
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getSlabCount());
+   }
+
+   public void testChunksOfDeadThreadsAreReclaimed() throws InterruptedException {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      // 128 byte chunks fill a slab exactly, in whole batches
+      int chunksPerSlab = PooledOffHeapMemoryAllocator.SLAB_SIZE / 128;
+      try {
+         Thread thread = new Thread(() -> {
+            List<Long> addresses = new ArrayList<>();
+            for (int i = 0; i < chunksPerSlab; ++i) {
+               addresses.add(allocator.allocate(128));
+            }
+            // Some of the chunks stay in the cache of this thread
+            for (Long address : addresses) {
+               allocator.deallocate(address, 128);
+            }
+         });
+         thread.start();
+         thread.join();
+         assertEquals(1, allocator.getSlabCount());
+
+         // The first allocation of this thread returns the chunks cached by the dead thread to the pool
+         List<Long> addresses = new ArrayList<>();
+         for (int i = 0; i < chunksPerSlab; ++i) {
+            addresses.add(allocator.allocate(128));
+         }
+         assertEquals(1, allocator.getSlabCount());
+         for (Long address : addresses) {
+            allocator.deallocate(address, 128);
+         }
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getSlabCount());
+   }
+
+   public void testLargeAllocationsAreNotPooled() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      try {
+         long size = PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + 1;
+         long address = allocator.allocate(size);
+         assertEquals(0, allocator.getSlabCount());
+         assertEquals(size, allocator.getUnpooledBytes());
+         allocator.deallocate(address, size);
+         assertEquals(0, allocator.getUnpooledBytes());
+      } finally {
+         allocator.stop();
+      }
+   }
+}
@@ -0,0 +1,198 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.container.impl.InternalDataContainer;
+import org.infinispan.eviction.EvictionPolicy;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the eviction of the segmented bounded off-heap container, which is used by the clustered caches.
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.SegmentedBoundedOffHeapDataContainerTest")
+public class SegmentedBoundedOffHeapDataContainerTest extends MultipleCacheManagersTest {
+   private static final int COUNT = 50;
+   private static final int HOT_READS = 5;
+   private static final String LRU_CACHE = "lru";
+   private static final String TINY_LFU_CACHE = "tinylfu";
+   private static final String SEGMENTS_CACHE = "segments";
+   private static final String MEMORY_CACHE = "memory";
+   private static final int SEGMENTS = 4;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      addClusterEnabledCacheManager();
+      manager(0).defineConfiguration(LRU_CACHE, configuration(EvictionPolicy.LRU).build());
+      manager(0).defineConfiguration(TINY_LFU_CACHE, configuration(EvictionPolicy.TINY_LFU).build());
+
+      ConfigurationBuilder segments = configuration(EvictionPolicy.LRU);
+      segments.clustering().hash().numSegments(SEGMENTS);
+      manager(0).defineConfiguration(SEGMENTS_CACHE, segments.build());
+
+      ConfigurationBuilder memory = configuration(EvictionPolicy.LRU);
+      memory.clustering().hash().numSegments(SEGMENTS);
+      memory.memory().size(1_000_000).evictionType(EvictionType.MEMORY);
+      manager(0).defineConfiguration(MEMORY_CACHE, memory.build());
+   }
+
+   private ConfigurationBuilder configuration(EvictionPolicy evictionPolicy) {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      // A single segment, so that every write competes with the same LRU list
+      builder.clustering().hash().numSegments(1);
+      builder.memory().storageType(StorageType.OFF_HEAP).size(COUNT).evictionType(EvictionType.COUNT)
+            .evictionPolicy(evictionPolicy);
+      return builder;
+   }
+
+   public void testLruEvictsFrequentEntriesOnScan() {
+      Cache<String, String> cache = manager(0).getCache(LRU_CACHE);
+      writeHotKeys(cache);
+
+      scan(cache, COUNT * 10);
+
+      assertEquals(COUNT, cache.size());
+      assertEquals(0, presentHotKeys(cache));
+   }
+
+   public void testTinyLfuIsScanResistant() {
+      Cache<String, String> cache = manager(0).getCache(TINY_LFU_CACHE);
+      writeHotKeys(cache);
+
+      scan(cache, COUNT * 10);
+
+      assertEquals(COUNT, cache.size());
+      // The sketch only estimates the frequencies, so a few scanned keys may win against a hot key
+      int present = presentHotKeys(cache);
+      assertTrue("Only " + present + " hot keys survived the scan", present >= COUNT * 4 / 5);
+   }
+
+   public void testTinyLfuAdmitsFrequentNewEntry() {
+      Cache<String, String> cache = manager(0).getCache(TINY_LFU_CACHE);
+      writeHotKeys(cache);
+
+      // The first writes are rejected, but every write is recorded and eventually the key is more frequent than the head
+      for (int i = 0; i < 15 && !keys(cache).contains("newcomer"); ++i) {
+         cache.put("newcomer", "value");
+      }
+      assertTrue(keys(cache).contains("newcomer"));
+      assertEquals(COUNT, cache.size());
+   }
+
+   public void testSegmentSizes() {
+      Cache<String, String> cache = manager(0).getCache(SEGMENTS_CACHE);
+      SegmentedBoundedOffHeapDataContainer container = container(cache);
+      for (int i = 0; i < COUNT / 2; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+
+      long total = 0;
+      for (int segment = 0; segment < SEGMENTS; ++segment) {
+         long segmentSize = container.evictionSize(segment);
+         assertEquals(container.sizeIncludingExpired(IntSets.immutableSet(segment)), segmentSize);
+         total += segmentSize;
+      }
+      assertEquals(COUNT / 2, total);
+      assertEquals(total, container.evictionSize());
+   }
+
+   public void testSegmentSizesInMemory() {
+      Cache<String, String> cache = manager(0).getCache(MEMORY_CACHE);
+      SegmentedBoundedOffHeapDataContainer container = container(cache);
+      long emptySize = container.evictionSize();
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+
+      // The address tables are accounted to their segment as well
+      long total = segmentSizes(container);
+      assertEquals(container.evictionSize(), total);
+      assertTrue(total > emptySize);
+
+      cache.clear();
+      assertEquals(container.evictionSize(), segmentSizes(container));
+      assertTrue(container.evictionSize() < total);
+   }
+
+   private long segmentSizes(SegmentedBoundedOffHeapDataContainer container) {
+      long total = 0;
+      for (int segment = 0; segment < SEGMENTS; ++segment) {
+         total += container.evictionSize(segment);
+      }
+      return total;
+   }
+
+   public void testEvictionFromWrittenSegment() {
+      Cache<String, String> cache = manager(0).getCache(SEGMENTS_CACHE);
+      SegmentedBoundedOffHeapDataContainer container = container(cache);
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      assertEquals(COUNT, container.evictionSize());
+
+      long[] segmentSizes = new long[SEGMENTS];
+      for (int segment = 0; segment < SEGMENTS; ++segment) {
+         segmentSizes[segment] = container.evictionSize(segment);
+      }
+      // The least recently used entries of the other segments are older, but every write evicts from its own segment
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("new" + i, "value" + i);
+         for (int segment = 0; segment < SEGMENTS; ++segment) {
+            assertEquals(segmentSizes[segment], container.evictionSize(segment));
+         }
+      }
+      assertEquals(COUNT, container.evictionSize());
+   }
+
+   private SegmentedBoundedOffHeapDataContainer container(Cache<String, String> cache) {
+      cache.clear();
+      return (SegmentedBoundedOffHeapDataContainer) TestingUtil.extractComponent(cache, InternalDataContainer.class);
+   }
+
+   private void writeHotKeys(Cache<String, String> cache) {
+      cache.clear();
+      for (int i = 0; i < COUNT; ++i) {
+         cache.put("hot" + i, "value" + i);
+      }
+      for (int j = 0; j < HOT_READS; ++j) {
+         for (int i = 0; i < COUNT; ++i) {
+            assertEquals("value" + i, cache.get("hot" + i));
+         }
+      }
+   }
+
+   private void scan(Cache<String, String> cache, int count) {
+      for (int i = 0; i < count; ++i) {
+         cache.put("scan" + i, "value" + i);
+      }
+   }
+
+   private Set<String> keys(Cache<String, String> cache) {
+      // Iterating does not count as an access, unlike get
+      return new HashSet<>(cache.keySet());
+   }
+
+   private int presentHotKeys(Cache<String, String> cache) {
+      Set<String> keys = keys(cache);
+      int present = 0;
+      for (int i = 0; i < COUNT; ++i) {
+         if (keys.contains("hot" + i)) {
+            present++;
+         }
+      }
+      return present;
+   }
+}
@@ -0,0 +1,126 @@
+package org.infinispan.expiration.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.test.fwk.TransportFlags;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the reaper processes a slice of the segments per run, with and without the expiration index.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "expiration.impl.ExpirationReaperSliceTest")
+@CleanupAfterMethod
+public class ExpirationReaperSliceTest extends SingleCacheManagerTest {
+   private static final int SIZE = 20;
+   private static final int NUM_SEGMENTS = 4;
+   private static final int SEGMENTS_PER_RUN = 2;
+   private static final long LIFESPAN = 10_000;
+
+   private final ControlledTimeService timeService = new ControlledTimeService();
+   private CacheMode cacheMode;
+   private boolean index;
+
+   @Factory
+   public Object[] factory() {
+      return new Object[]{
+            new ExpirationReaperSliceTest().cacheMode(CacheMode.LOCAL).index(false),
+            new ExpirationReaperSliceTest().cacheMode(CacheMode.LOCAL).index(true),
+            new ExpirationReaperSliceTest().cacheMode(CacheMode.DIST_SYNC).index(false),
+            new ExpirationReaperSliceTest().cacheMode(CacheMode.DIST_SYNC).index(true),
+      };
+   }
+
+   private ExpirationReaperSliceTest cacheMode(CacheMode cacheMode) {
+      this.cacheMode = cacheMode;
+      return this;
+   }
+
+   private ExpirationReaperSliceTest index(boolean index) {
+      this.index = index;
+      return this;
+   }
+
+   @Override
+   protected String parameters() {
+      return "[" + cacheMode + ", index=" + index + "]";
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      // The reaper is run manually
+      builder.clustering().cacheMode(cacheMode).hash().numSegments(NUM_SEGMENTS)
+            .expiration().wakeUpInterval(1, TimeUnit.DAYS).reaperSegmentsPerRun(SEGMENTS_PER_RUN).reaperIndex(index);
+      EmbeddedCacheManager cm;
+      if (cacheMode.isClustered()) {
+         cm = TestCacheManagerFactory.createClusteredCacheManager(false, GlobalConfigurationBuilder.defaultClusteredBuilder(),
+               builder, new TransportFlags());
+      } else {
+         cm = TestCacheManagerFactory.createCacheManager(new GlobalConfigurationBuilder().nonClusteredDefault(), builder, false);
+      }
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      cache = cm.getCache();
+      return cm;
+   }
+
+   private ExpirationManagerImpl<Object, Object> expirationManager() {
+      return (ExpirationManagerImpl<Object, Object>) TestingUtil.extractComponent(cache, InternalExpirationManager.class);
+   }
+
+   private int sizeIncludingExpired() {
+      return cache.getAdvancedCache().getDataContainer().sizeIncludingExpired();
+   }
+
+   public void testFullCycleReapsAllSegments() {
+      ExpirationManagerImpl<Object, Object> manager = expirationManager();
+      for (int i = 0; i < SIZE; i++) {
+         cache.put("k" + i, "v" + i, LIFESPAN, TimeUnit.MILLISECONDS);
+      }
+      timeService.advance(LIFESPAN + 1);
+
+      int runs = cacheMode.isClustered() ? NUM_SEGMENTS / SEGMENTS_PER_RUN : 1;
+      for (int i = 0; i < runs; i++) {
+         assertEquals(SIZE, manager.getReapedEntries() + sizeIncludingExpired());
+         manager.processExpiration();
+      }
+
+      assertEquals(0, sizeIncludingExpired());
+      assertEquals(SIZE, manager.getReapedEntries());
+      assertEquals(runs, manager.getReaperRuns());
+   }
+
+   public void testIndexTracksExpiringEntries() {
+      ExpirationManagerImpl<Object, Object> manager = expirationManager();
+      cache.put("immortal", "v");
+      cache.put("mortal", "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.put("later", "v", LIFESPAN * 10, TimeUnit.MILLISECONDS);
+      cache.put("removed", "v", LIFESPAN, TimeUnit.MILLISECONDS);
+      cache.remove("removed");
+      assertEquals(index ? 2 : -1, manager.getExpirationIndexSize());
+
+      timeService.advance(LIFESPAN + 1);
+      for (int i = 0; i < NUM_SEGMENTS / SEGMENTS_PER_RUN; i++) {
+         manager.processExpiration();
+      }
+
+      assertEquals(2, sizeIncludingExpired());
+      assertEquals(1, manager.getReapedEntries());
+      assertEquals(index ? 1 : -1, manager.getExpirationIndexSize());
+   }
+}
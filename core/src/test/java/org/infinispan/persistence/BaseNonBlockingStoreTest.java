@@ -11,8 +11,10 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
@@ -534,6 +536,29 @@ public void testLoadAll() throws PersistenceException {
       }
    }
 
+   public void testLoadAllKeys() throws Exception {
+      assertIsEmpty();
+
+      store.write(marshalledEntry("k1", "v1"));
+      store.write(marshalledEntry("k2", "v2"));
+      store.write(marshalledEntry("k3", "v3"));
+      InternalCacheEntry ice = internalCacheEntry("k4", "v4", 100);
+      store.write(marshalledEntry(ice));
+      timeService.advance(101);
+
+      List<Object> keys = Arrays.asList("k1", "k3", "k4", "k5");
+      List<MarshallableEntry<Object, Object>> entries = store.loadAllWait(segmentCount,
+            TestingUtil.multipleSegmentPublisher(Flowable.fromIterable(keys), Function.identity(), keyPartitioner));
+      // k4 has expired and k5 was never written
+      assertEquals(2, entries.size());
+      Map<Object, Object> values = new HashMap<>();
+      for (MarshallableEntry<Object, Object> me : entries) {
+         values.put(me.getKey(), unwrap(me.getValue()));
+      }
+      assertEquals("v1", values.get("k1"));
+      assertEquals("v3", values.get("k3"));
+   }
+
    public void testReplaceEntry() {
       assertIsEmpty();
       InternalCacheEntry ice = internalCacheEntry("k1", "v1", -1);
@@ -0,0 +1,130 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.PersistenceMockUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for single-file cache store when configured to be append-only.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.file.AppendOnlySingleFileStoreTest")
+public class AppendOnlySingleFileStoreTest extends AbstractInfinispanTest {
+
+   SingleFileStore store;
+   String tmpDirectory;
+   private TestObjectStreamMarshaller marshaller;
+   private ConfigurationBuilder builder;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(this.getClass());
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @BeforeMethod
+   public void setUp() throws Exception {
+      clearTempDir();
+      builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder
+            .persistence()
+               .addStore(SingleFileStoreConfigurationBuilder.class)
+                  .location(this.tmpDirectory)
+                  .appendOnly(true);
+
+      marshaller = new TestObjectStreamMarshaller();
+      store = startStore();
+   }
+
+   @AfterMethod
+   public void tearDown() throws PersistenceException {
+      try {
+         if (store != null) {
+            store.clear();
+            store.stop();
+         }
+         marshaller.stop();
+      } finally {
+         store = null;
+      }
+   }
+
+   private SingleFileStore startStore() {
+      SingleFileStore newStore = new SingleFileStore();
+      newStore.init(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller));
+      newStore.start();
+      return newStore;
+   }
+
+   public void testReplacedEntriesAreAppended() {
+      store.write(MarshalledEntryUtil.create(1, "v1", marshaller));
+      long sizeAfterFirstWrite = store.getFileSize();
+      store.write(MarshalledEntryUtil.create(1, "v2", marshaller));
+
+      assertEquals(1, store.getEntries().size());
+      assertEquals(0, store.getFreeList().size());
+      assertTrue(store.getFileSize() > sizeAfterFirstWrite);
+      assertEquals(sizeAfterFirstWrite - SingleFileStore.MAGIC_11_0.length, store.getDeadBytes());
+      assertEquals("v2", store.loadEntry(1).getValue());
+   }
+
+   public void testCompactionKeepsLiveEntries() throws Exception {
+      for (int i = 0; i < 100; i++) {
+         store.write(MarshalledEntryUtil.create(i, "v" + i, marshaller));
+      }
+      for (int i = 0; i < 100; i++) {
+         if (i % 2 == 0) {
+            store.delete(i);
+         } else {
+            store.write(MarshalledEntryUtil.create(i, "new-v" + i, marshaller));
+         }
+      }
+      long sizeBeforeCompaction = store.getFileSize();
+
+      store.compact();
+
+      assertEquals(0, store.getDeadBytes());
+      assertTrue(store.getFileSize() < sizeBeforeCompaction);
+      assertEquals(50, store.getEntries().size());
+      assertCompactedEntries(store);
+
+      // The compacted file must be readable after a restart
+      store.stop();
+      store = startStore();
+      assertEquals(50, store.getEntries().size());
+      assertEquals(0, store.getDeadBytes());
+      assertCompactedEntries(store);
+   }
+
+   private void assertCompactedEntries(SingleFileStore store) {
+      for (int i = 0; i < 100; i++) {
+         if (i % 2 == 0) {
+            assertNull(store.loadEntry(i));
+         } else {
+            assertEquals("new-v" + i, store.loadEntry(i).getValue());
+         }
+      }
+   }
+}
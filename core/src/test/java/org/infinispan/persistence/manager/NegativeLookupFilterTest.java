@@ -0,0 +1,98 @@
+package org.infinispan.persistence.manager;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the {@link NegativeLookupFilter} prevents loads of missing keys from hitting the store.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "persistence.manager.NegativeLookupFilterTest")
+@CleanupAfterMethod
+public class NegativeLookupFilterTest extends SingleCacheManagerTest {
+   private static final int SEGMENTS = 16;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.clustering().hash().numSegments(SEGMENTS);
+      cfg.persistence().negativeLookupFilter(true)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testMissingKeysDoNotHitStore() {
+      PersistenceManagerImpl persistenceManager = (PersistenceManagerImpl) extractComponent(cache, PersistenceManager.class);
+      DummyInMemoryStore store = TestingUtil.getFirstStore(cache);
+      NegativeLookupFilter filter = persistenceManager.getNegativeLookupFilter();
+      assertNotNull(filter);
+      eventually(() -> IntStream.range(0, SEGMENTS).allMatch(filter::isBuilt));
+
+      // written after the filters are built
+      cache.put("k1", "v1");
+      store.clearStats();
+
+      assertNotNull(CompletionStages.join(persistenceManager.loadFromAllStores("k1", true, true)));
+      for (int i = 0; i < 100; i++) {
+         assertNull(CompletionStages.join(persistenceManager.loadFromAllStores("missing" + i, true, true)));
+      }
+
+      long savedLoads = persistenceManager.getNegativeLookupFilterSavedLoads();
+      long falsePositives = persistenceManager.getNegativeLookupFilterFalsePositives();
+      assertTrue(savedLoads > 90);
+      assertEquals(1 + falsePositives, (long) store.stats().get("load"));
+      assertEquals(100, savedLoads + falsePositives);
+   }
+
+   public void testStatisticsReset() {
+      PersistenceManagerImpl persistenceManager = (PersistenceManagerImpl) extractComponent(cache, PersistenceManager.class);
+      NegativeLookupFilter filter = persistenceManager.getNegativeLookupFilter();
+      eventually(() -> IntStream.range(0, SEGMENTS).allMatch(filter::isBuilt));
+      for (int i = 0; i < 10; i++) {
+         assertNull(CompletionStages.join(persistenceManager.loadFromAllStores("missing" + i, true, true)));
+      }
+      assertEquals(10, persistenceManager.getNegativeLookupFilterSavedLoads()
+            + persistenceManager.getNegativeLookupFilterFalsePositives());
+
+      CacheLoaderInterceptor<?, ?> interceptor = cache.getAdvancedCache().getAsyncInterceptorChain()
+            .findInterceptorWithClass(CacheLoaderInterceptor.class);
+      interceptor.resetStatistics();
+
+      assertEquals(0, persistenceManager.getNegativeLookupFilterSavedLoads());
+      assertEquals(0, persistenceManager.getNegativeLookupFilterFalsePositives());
+   }
+
+   public void testFilterRebuiltAfterClear() {
+      PersistenceManagerImpl persistenceManager = (PersistenceManagerImpl) extractComponent(cache, PersistenceManager.class);
+      NegativeLookupFilter filter = persistenceManager.getNegativeLookupFilter();
+      for (int i = 0; i < 10; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      cache.clear();
+      eventually(() -> IntStream.range(0, SEGMENTS).allMatch(filter::isBuilt));
+
+      cache.put("k0", "v0");
+      cache.getAdvancedCache().getDataContainer().clear();
+      assertEquals("v0", cache.get("k0"));
+      assertNull(cache.get("k1"));
+   }
+}
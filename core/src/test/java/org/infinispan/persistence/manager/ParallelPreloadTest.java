@@ -0,0 +1,97 @@
+package org.infinispan.persistence.manager;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that a segmented store is preloaded concurrently by groups of segments.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "persistence.manager.ParallelPreloadTest")
+@CleanupAfterMethod
+public class ParallelPreloadTest extends SingleCacheManagerTest {
+   private static final int SEGMENTS = 16;
+   private static final int PARALLELISM = 4;
+   private static final int ENTRIES = 1000;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() {
+      return TestCacheManagerFactory.createCacheManager(true);
+   }
+
+   private ConfigurationBuilder preloadConfiguration(String storeName) {
+      ConfigurationBuilder cfg = new ConfigurationBuilder();
+      cfg.clustering().hash().numSegments(SEGMENTS);
+      cfg.persistence().preloadParallelism(PARALLELISM)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .storeName(storeName)
+            .segmented(true)
+            .preload(true);
+      return cfg;
+   }
+
+   public void testParallelPreload() {
+      cacheManager.defineConfiguration("parallel", preloadConfiguration(getClass().getName() + "-parallel").build());
+      Cache<String, String> preloadCache = cacheManager.getCache("parallel");
+      for (int i = 0; i < ENTRIES; i++) {
+         if (i % 2 == 0) {
+            preloadCache.put("k" + i, "v" + i);
+         } else {
+            preloadCache.put("k" + i, "v" + i, 10, TimeUnit.MINUTES);
+         }
+      }
+      DummyInMemoryStore store = TestingUtil.getFirstStore(preloadCache);
+      store.clearStats();
+      preloadCache.stop();
+      preloadCache.start();
+
+      store = TestingUtil.getFirstStore(preloadCache);
+      assertEquals(PARALLELISM, (int) store.stats().get("publishEntries"));
+      assertEquals(0, (int) store.stats().get("load"));
+      assertTrue(extractComponent(preloadCache, PersistenceManager.class).isPreloaded());
+
+      DataContainer<String, String> dataContainer = preloadCache.getAdvancedCache().getDataContainer();
+      assertEquals(ENTRIES, dataContainer.size());
+      for (int i = 0; i < ENTRIES; i++) {
+         InternalCacheEntry<String, String> entry = dataContainer.peek("k" + i);
+         assertNotNull(entry);
+         assertEquals("v" + i, entry.getValue());
+         assertEquals(i % 2 == 0 ? -1 : TimeUnit.MINUTES.toMillis(10), entry.getLifespan());
+      }
+   }
+
+   public void testParallelPreloadWithEviction() {
+      ConfigurationBuilder cfg = preloadConfiguration(getClass().getName() + "-eviction");
+      cfg.memory().maxCount(100);
+      cacheManager.defineConfiguration("eviction", cfg.build());
+      Cache<String, String> preloadCache = cacheManager.getCache("eviction");
+      for (int i = 0; i < ENTRIES; i++) {
+         preloadCache.put("k" + i, "v" + i);
+      }
+      preloadCache.stop();
+      preloadCache.start();
+
+      assertEquals(100, preloadCache.getAdvancedCache().getDataContainer().size());
+      assertFalse(extractComponent(preloadCache, PersistenceManager.class).isPreloaded());
+   }
+}
@@ -362,6 +362,73 @@ public void testModificationQueueSize(final Method m) {
       }
    }
 
+   public void testFlushIntervalCoalescesWrites(final Method m) {
+      DummyInMemoryStore underlying = new DummyInMemoryStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(m.getName())
+               .segmented(false)
+            .async()
+               .flushInterval(1, TimeUnit.HOURS);
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      CompletionStages.join(store.start(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller)));
+      for (int i = 0; i < 100; i++) {
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m), v(m, i), marshaller)));
+      }
+      // The batch is only written once the interval elapses
+      assertEquals(1, store.getPendingModificationCount());
+      assertEquals(0, underlying.size());
+      assertEquals(v(m, 99), CompletionStages.join(store.load(0, k(m))).getValue());
+
+      // Stopping flushes the pending modifications without waiting for the interval
+      CompletionStages.join(store.stop());
+      store = null;
+      assertEquals(1, (int) underlying.stats().get("write"));
+   }
+
+   public void testSpillWhenFull(final Method m) {
+      int queueSize = 10;
+      DelayableStore underlying = new DelayableStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+
+      LockableStoreConfigurationBuilder lcscsBuilder = (LockableStoreConfigurationBuilder) builder
+            .persistence()
+            .addStore(new LockableStoreConfigurationBuilder(builder.persistence()));
+      lcscsBuilder.async()
+            .modificationQueueSize(queueSize)
+            .spillWhenFull(true);
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      CompletionStages.join(store.start(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller)));
+      // Delay all the underlying store completions until we complete this future
+      underlying.delayedFuture = new CompletableFuture<>();
+      try {
+         // The first is replicating and the others fill the queue, but none of them waits for the batch
+         for (int i = 0; i < queueSize + 1; i++) {
+            CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, i), v(m, i), marshaller)));
+         }
+         assertEquals(1, underlying.size());
+
+         // The queue is full, so this one is written directly to the underlying store
+         CompletionStage<Void> spilledStage = store.write(0, MarshalledEntryUtil.create(k(m, queueSize + 1),
+               v(m, queueSize + 1), marshaller));
+         assertEquals(2, underlying.size());
+         assertEquals(queueSize + 2, store.getPendingModificationCount());
+         assertEquals(v(m, queueSize + 1), CompletionStages.join(store.load(0, k(m, queueSize + 1))).getValue());
+
+         underlying.delayedFuture.complete(null);
+         CompletionStages.join(spilledStage);
+         eventuallyEquals(0, () -> store.getPendingModificationCount());
+         assertEquals(queueSize + 2, underlying.size());
+      } finally {
+         underlying.delayedFuture.complete(null);
+         CompletionStages.join(store.stop());
+         store = null;
+      }
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final DelayableStore store;
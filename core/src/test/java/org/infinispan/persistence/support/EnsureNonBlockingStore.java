@@ -36,6 +36,14 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return BlockHoundHelper.ensureNonBlocking(() -> delegate().load(segment, key));
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return BlockHoundHelper.ensureNonBlocking(() ->
+            Flowable.fromPublisher(delegate().loadAll(publisherCount, keyPublisher))
+                  .subscribeOn(Schedulers.from(BlockHoundHelper.ensureNonBlockingExecutor()))
+      );
+   }
+
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
       return BlockHoundHelper.ensureNonBlocking(() -> delegate().containsKey(segment, key));
@@ -33,6 +33,12 @@ default MarshallableEntry<K, V> loadEntry(Object key) {
       return join(load(segment, key));
    }
 
+   default List<MarshallableEntry<K, V>> loadAllWait(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return join(Flowable.fromPublisher(loadAll(publisherCount, keyPublisher))
+            .collect(Collectors.toList())
+            .toCompletionStage());
+   }
+
    default void write(MarshallableEntry<K, V> entry) {
       int segment = getKeyPartitioner().getSegment(entry.getKey());
       join(write(segment, entry));
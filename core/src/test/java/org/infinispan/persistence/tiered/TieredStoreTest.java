@@ -0,0 +1,189 @@
+package org.infinispan.persistence.tiered;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PersistenceManagerImpl;
+import org.infinispan.persistence.spi.MarshallableEntryFactory;
+import org.infinispan.persistence.support.SingleSegmentPublisher;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ControlledTimeService;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Tests that the stores are composed as a fast tier and a cold tier when a tier demotion idle time is configured.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "persistence.tiered.TieredStoreTest")
+@CleanupAfterMethod
+public class TieredStoreTest extends SingleCacheManagerTest {
+   private static final long IDLE_TIME = TimeUnit.MINUTES.toMillis(10);
+   private static final int ENTRIES = 10;
+
+   private final ControlledTimeService timeService = new ControlledTimeService();
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.persistence().tierDemotionIdleTime(IDLE_TIME)
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(getClass().getName() + "-hot")
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+               .storeName(getClass().getName() + "-cold");
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(cfg);
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      return cm;
+   }
+
+   private TieredNonBlockingStore<Object, Object> tieredStore() {
+      PersistenceManagerImpl persistenceManager = (PersistenceManagerImpl) extractComponent(cache, PersistenceManager.class);
+      return (TieredNonBlockingStore<Object, Object>) persistenceManager.getAllStores(c -> true).get(0);
+   }
+
+   private void demote() {
+      CompletionStages.join(tieredStore().demoteIdleEntries());
+   }
+
+   private void clearMemory() {
+      cache.getAdvancedCache().getDataContainer().clear();
+   }
+
+   public void testIdleEntriesDemoted() {
+      TieredNonBlockingStore<Object, Object> tieredStore = tieredStore();
+      DummyInMemoryStore hot = (DummyInMemoryStore) tieredStore.hotTier();
+      DummyInMemoryStore cold = (DummyInMemoryStore) tieredStore.coldTier();
+      for (int i = 0; i < ENTRIES; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      assertEquals(ENTRIES, hot.size());
+      assertEquals(0, cold.size());
+
+      timeService.advance(IDLE_TIME / 2);
+      demote();
+      assertEquals(0, tieredStore.getDemotions());
+
+      timeService.advance(IDLE_TIME);
+      // Reading k0 from the store marks it as accessed
+      clearMemory();
+      assertEquals("v0", cache.get("k0"));
+      demote();
+
+      assertEquals(ENTRIES - 1, tieredStore.getDemotions());
+      assertTrue(hot.contains("k0"));
+      assertFalse(cold.contains("k0"));
+      for (int i = 1; i < ENTRIES; i++) {
+         assertFalse(hot.contains("k" + i));
+         assertTrue(cold.contains("k" + i));
+      }
+      // Entries of both tiers are published once
+      assertEquals(ENTRIES, cache.size());
+   }
+
+   public void testReadPromotesEntry() {
+      TieredNonBlockingStore<Object, Object> tieredStore = tieredStore();
+      DummyInMemoryStore hot = (DummyInMemoryStore) tieredStore.hotTier();
+      DummyInMemoryStore cold = (DummyInMemoryStore) tieredStore.coldTier();
+      cache.put("k1", "v1");
+      timeService.advance(IDLE_TIME + 1);
+      demote();
+      assertTrue(cold.contains("k1"));
+
+      clearMemory();
+      assertEquals("v1", cache.get("k1"));
+      assertEquals(1, tieredStore.getPromotions());
+      assertTrue(hot.contains("k1"));
+      assertFalse(cold.contains("k1"));
+   }
+
+   public void testWriteAndRemoveOfDemotedEntry() {
+      TieredNonBlockingStore<Object, Object> tieredStore = tieredStore();
+      DummyInMemoryStore hot = (DummyInMemoryStore) tieredStore.hotTier();
+      DummyInMemoryStore cold = (DummyInMemoryStore) tieredStore.coldTier();
+      cache.put("k1", "v1");
+      cache.put("k2", "v2");
+      timeService.advance(IDLE_TIME + 1);
+      demote();
+
+      cache.put("k1", "v1-new");
+      assertTrue(hot.contains("k1"));
+      assertFalse(cold.contains("k1"));
+
+      cache.remove("k2");
+      assertFalse(hot.contains("k2"));
+      assertFalse(cold.contains("k2"));
+      clearMemory();
+      assertNull(cache.get("k2"));
+      assertEquals("v1-new", cache.get("k1"));
+   }
+
+   public void testReadAllPromotesEntries() {
+      TieredNonBlockingStore<Object, Object> tieredStore = tieredStore();
+      DummyInMemoryStore hot = (DummyInMemoryStore) tieredStore.hotTier();
+      DummyInMemoryStore cold = (DummyInMemoryStore) tieredStore.coldTier();
+      Set<Object> keys = new HashSet<>();
+      for (int i = 0; i < ENTRIES; i++) {
+         cache.put("k" + i, "v" + i);
+         keys.add("k" + i);
+      }
+      timeService.advance(IDLE_TIME + 1);
+      demote();
+      // Only k0 is read from the hot tier
+      cache.put("k0", "v0");
+      clearMemory();
+
+      Map<Object, Object> entries = cache.getAdvancedCache().getAll(keys);
+      assertEquals(ENTRIES, entries.size());
+      for (int i = 0; i < ENTRIES; i++) {
+         assertEquals("v" + i, entries.get("k" + i));
+         assertTrue(hot.contains("k" + i));
+         assertFalse(cold.contains("k" + i));
+      }
+      assertEquals(ENTRIES - 1, tieredStore.getPromotions());
+   }
+
+   public void testBatch() {
+      TieredNonBlockingStore<Object, Object> tieredStore = tieredStore();
+      DummyInMemoryStore hot = (DummyInMemoryStore) tieredStore.hotTier();
+      DummyInMemoryStore cold = (DummyInMemoryStore) tieredStore.coldTier();
+      MarshallableEntryFactory<Object, Object> entryFactory = extractComponent(cache, MarshallableEntryFactory.class);
+      KeyPartitioner keyPartitioner = extractComponent(cache, KeyPartitioner.class);
+      cache.put("k1", "v1");
+      cache.put("k2", "v2");
+      timeService.advance(IDLE_TIME + 1);
+      demote();
+
+      int segment1 = keyPartitioner.getSegment("k1");
+      CompletionStages.join(tieredStore.batch(1,
+            Flowable.just(SingleSegmentPublisher.singleSegment(keyPartitioner.getSegment("k2"), Flowable.just("k2"))),
+            Flowable.just(SingleSegmentPublisher.singleSegment(segment1, Flowable.just(entryFactory.create("k1", "v1-new"))))));
+
+      assertTrue(hot.contains("k1"));
+      assertFalse(cold.contains("k1"));
+      assertFalse(hot.contains("k2"));
+      assertFalse(cold.contains("k2"));
+      assertEquals("v1-new", CompletionStages.join(tieredStore.load(segment1, "k1")).getValue());
+   }
+}
@@ -0,0 +1,66 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.fwk.TransportFlags;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the triangle commands are coalesced when the coalescing window is configured.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "remoting.transport.jgroups.CommandCoalescingTest")
+public class CommandCoalescingTest extends MultipleCacheManagersTest {
+   private static final int NUM_KEYS = 200;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC);
+      builder.clustering().hash().numOwners(2);
+      for (int i = 0; i < 3; i++) {
+         GlobalConfigurationBuilder globalBuilder = GlobalConfigurationBuilder.defaultClusteredBuilder();
+         // A long window, so that the puts started together are sent in a few messages
+         globalBuilder.transport().addProperty(JGroupsTransport.COALESCING_WINDOW,
+                                               String.valueOf(TimeUnit.MILLISECONDS.toMicros(10)));
+         addClusterEnabledCacheManager(globalBuilder, builder, new TransportFlags());
+      }
+      waitForClusterToForm();
+   }
+
+   public void testCoalescedTriangleCommands() {
+      List<CompletableFuture<Object>> futures = new ArrayList<>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         futures.add(cache(0).putAsync("k" + i, "v" + i));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+      for (Cache<Object, Object> cache : caches()) {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals("v" + i, cache.get("k" + i));
+         }
+      }
+
+      long commands = 0;
+      long messages = 0;
+      for (int i = 0; i < 3; i++) {
+         JGroupsTransport transport = (JGroupsTransport) manager(i).getTransport();
+         commands += transport.getCoalescedCommands();
+         messages += transport.getCoalescedMessages();
+      }
+      assertTrue("Expected fewer messages than commands, but " + commands + " commands were sent in " + messages +
+            " messages", messages < commands);
+   }
+}
@@ -0,0 +1,89 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link MemberLatencyTracker}.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "remoting.transport.jgroups.MemberLatencyTrackerTest")
+public class MemberLatencyTrackerTest extends AbstractInfinispanTest {
+   private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private final Address a = new TestAddress(0, "A");
+   private final Address b = new TestAddress(1, "B");
+   private final Address c = new TestAddress(2, "C");
+
+   public void testAverage() {
+      MemberLatencyTracker tracker = new MemberLatencyTracker(new ControlledTimeService());
+      assertEquals(-1, tracker.averageNanos(a));
+      assertEquals(-1, tracker.hedgeDelayNanos(a));
+
+      tracker.recordResponse(a, 8 * MILLIS);
+      assertEquals(8 * MILLIS, tracker.averageNanos(a));
+      // The first deviation is half the first response time
+      assertEquals(16 * MILLIS, tracker.hedgeDelayNanos(a));
+
+      tracker.recordResponse(a, 16 * MILLIS);
+      assertEquals(9 * MILLIS, tracker.averageNanos(a));
+
+      for (int i = 0; i < 100; i++) {
+         tracker.recordResponse(a, 2 * MILLIS);
+      }
+      // The deviation decreases as the response times become stable
+      assertEquals(2 * MILLIS, tracker.averageNanos(a), MILLIS / 100);
+      assertEquals(2 * MILLIS, tracker.hedgeDelayNanos(a), MILLIS / 100);
+
+      tracker.recordResponse(b, MILLIS / 10);
+      assertEquals(MemberLatencyTracker.MIN_HEDGE_DELAY_NANOS, tracker.hedgeDelayNanos(b));
+   }
+
+   public void testSlowMembersOrderedLast() {
+      ControlledTimeService timeService = new ControlledTimeService();
+      MemberLatencyTracker tracker = new MemberLatencyTracker(timeService);
+      List<Address> targets = Arrays.asList(a, b, c);
+      assertSame(targets, tracker.orderByLatency(targets));
+
+      // Members about as fast keep their order
+      tracker.recordResponse(a, 3 * MILLIS);
+      tracker.recordResponse(b, 2 * MILLIS);
+      tracker.recordResponse(c, 4 * MILLIS);
+      assertSame(targets, tracker.orderByLatency(targets));
+
+      // A member that did not reply in time is asked last
+      tracker.recordHedge(a, 100 * MILLIS);
+      assertEquals(1, tracker.getHedgedRequests());
+      Collection<Address> ordered = tracker.orderByLatency(targets);
+      assertEquals(Arrays.asList(b, c, a), ordered);
+
+      // Its response time is forgotten after a while, so it is asked first again
+      timeService.advance(TimeUnit.NANOSECONDS.toMillis(MemberLatencyTracker.STALE_NANOS) + 1);
+      tracker.recordResponse(b, 2 * MILLIS);
+      assertEquals(-1, tracker.averageNanos(a));
+      assertSame(targets, tracker.orderByLatency(targets));
+   }
+
+   public void testMembersThatLeft() {
+      MemberLatencyTracker tracker = new MemberLatencyTracker(new ControlledTimeService());
+      tracker.recordResponse(a, MILLIS);
+      tracker.recordResponse(b, MILLIS);
+      tracker.retainMembers(new HashSet<>(Arrays.asList(b, c)));
+      assertEquals(-1, tracker.averageNanos(a));
+      assertEquals(MILLIS, tracker.averageNanos(b));
+   }
+}
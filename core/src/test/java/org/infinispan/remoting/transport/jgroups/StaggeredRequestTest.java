@@ -0,0 +1,165 @@
+package org.infinispan.remoting.transport.jgroups;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.inboundhandler.InboundInvocationHandler;
+import org.infinispan.remoting.inboundhandler.Reply;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.ResponseCollector;
+import org.infinispan.remoting.transport.impl.RequestRepository;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.ByteString;
+import org.infinispan.xsite.XSiteReplicateCommand;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the staggered requests ask the members in the order of their response times, and ask the next member
+ * when a member does not reply within its usual response time.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "remoting.transport.jgroups.StaggeredRequestTest")
+public class StaggeredRequestTest extends MultipleCacheManagersTest {
+   private static final String KEY = "key";
+   private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+   // The stagger delay with 2 targets is a twentieth of the timeout, 3 seconds
+   private static final long TIMEOUT_SECONDS = 60;
+   private static final long STAGGER_DELAY_NANOS = TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS) / 10 / 2;
+
+   // The members that received the remote gets, in order
+   private final Queue<Address> receivers = new ConcurrentLinkedQueue<>();
+   private volatile CompletableFuture<Void> slowMemberBlocker = CompletableFuture.completedFuture(null);
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false), 3);
+      waitForClusterToForm();
+      interceptRemoteGets(1, true);
+      interceptRemoteGets(2, false);
+   }
+
+   @BeforeMethod
+   public void resetLatencies() {
+      receivers.clear();
+      transport().getLatencyTracker().reset();
+      cache(0).put(KEY, "value");
+   }
+
+   public void testTargetsOrderedByLatency() throws Exception {
+      MemberLatencyTracker tracker = transport().getLatencyTracker();
+      // The first owner usually replies much slower than the second one
+      tracker.recordResponse(address(1), 500 * MILLIS);
+      tracker.recordResponse(address(2), 50 * MILLIS);
+
+      Address responder = invokeStaggered(address(1), address(2)).toCompletableFuture()
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+      assertEquals(address(2), responder);
+      assertEquals(address(2), receivers.peek());
+   }
+
+   public void testHedgedRequestCompletesFromFasterMember() throws Exception {
+      MemberLatencyTracker tracker = transport().getLatencyTracker();
+      // Both owners usually reply in 10ms, so the second owner is asked about 30ms after the first one
+      tracker.recordResponse(address(1), 10 * MILLIS);
+      tracker.recordResponse(address(2), 10 * MILLIS);
+
+      CompletableFuture<Void> blocker = new CompletableFuture<>();
+      slowMemberBlocker = blocker;
+      CompletionStage<Address> request;
+      try {
+         long start = System.nanoTime();
+         request = invokeStaggered(address(1), address(2));
+         Address responder = request.toCompletableFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+         long elapsed = System.nanoTime() - start;
+
+         assertEquals(address(2), responder);
+         assertEquals(Arrays.asList(address(1), address(2)), new ArrayList<>(receivers));
+         assertTrue("The request took " + elapsed + "ns", elapsed < STAGGER_DELAY_NANOS);
+         assertEquals(1, tracker.getHedgedRequests());
+         // The slow member was charged the time it was waited for
+         assertTrue(tracker.averageNanos(address(1)) > 10 * MILLIS);
+      } finally {
+         blocker.complete(null);
+         slowMemberBlocker = CompletableFuture.completedFuture(null);
+      }
+
+      // The request is no longer registered, so the late response of the slow member is ignored
+      RequestRepository requests = (RequestRepository) TestingUtil.extractField(JGroupsTransport.class, transport(), "requests");
+      List<Object> pending = new ArrayList<>();
+      requests.forEach(pending::add);
+      assertFalse(pending.contains(request));
+   }
+
+   private CompletionStage<Address> invokeStaggered(Address... targets) {
+      ClusteredGetCommand command = new ClusteredGetCommand(KEY, ByteString.fromString(cache(0).getName()),
+            TestingUtil.getSegmentForKey(KEY, cache(0)), 0);
+      command.setTopologyId(cache(0).getAdvancedCache().getDistributionManager().getCacheTopology().getTopologyId());
+      return transport().invokeCommandStaggered(Arrays.asList(targets), command, new FirstResponderCollector(),
+            DeliverOrder.NONE, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+   }
+
+   private JGroupsTransport transport() {
+      return (JGroupsTransport) manager(0).getTransport();
+   }
+
+   private void interceptRemoteGets(int index, boolean slow) {
+      Address address = address(index);
+      InboundInvocationHandler oldInvocationHandler =
+            TestingUtil.extractGlobalComponent(manager(index), InboundInvocationHandler.class);
+      InboundInvocationHandler interceptingInvocationHandler = new InboundInvocationHandler() {
+         @Override
+         public void handleFromCluster(Address origin, ReplicableCommand command, Reply reply, DeliverOrder order) {
+            if (command instanceof ClusteredGetCommand) {
+               receivers.add(address);
+               if (slow) {
+                  slowMemberBlocker.thenRun(() -> oldInvocationHandler.handleFromCluster(origin, command, reply, order));
+                  return;
+               }
+            }
+            oldInvocationHandler.handleFromCluster(origin, command, reply, order);
+         }
+
+         @Override
+         public void handleFromRemoteSite(String origin, XSiteReplicateCommand command, Reply reply,
+                                          DeliverOrder order) {
+            oldInvocationHandler.handleFromRemoteSite(origin, command, reply, order);
+         }
+      };
+      TestingUtil.replaceComponent(manager(index), InboundInvocationHandler.class, interceptingInvocationHandler, true);
+   }
+
+   /**
+    * Completes the request with the first member that replied successfully.
+    */
+   private static class FirstResponderCollector implements ResponseCollector<Address> {
+      @Override
+      public Address addResponse(Address sender, Response response) {
+         return response.isSuccessful() ? sender : null;
+      }
+
+      @Override
+      public Address finish() {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,144 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.configuration.cache.AsyncStoreConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.interceptors.impl.InvocationContextInterceptor;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfiguration;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that a non transactional state transfer writes its chunks to the stores that write in bulk with a single
+ * batch, and that the entries are not written to the store when a user operation updated the same key.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "statetransfer.BulkStoreWriteDuringStateTransferTest")
+@CleanupAfterMethod
+public class BulkStoreWriteDuringStateTransferTest extends MultipleCacheManagersTest {
+   private static final String KEY = "key";
+
+   private ConfigurationBuilder cacheConfigBuilder;
+
+   @Override
+   protected void createCacheManagers() {
+      cacheConfigBuilder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cacheConfigBuilder.clustering().hash().numOwners(2)
+            .stateTransfer().fetchInMemoryState(true).awaitInitialTransfer(false);
+      cacheConfigBuilder.persistence().addStore(BulkWriteStoreConfigurationBuilder.class);
+
+      addClusterEnabledCacheManager(cacheConfigBuilder);
+      waitForClusterToForm();
+   }
+
+   public void testStateWrittenToStore() {
+      for (int i = 0; i < 100; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      addClusterEnabledCacheManager(cacheConfigBuilder);
+      Cache<Object, Object> joiner = cache(1);
+      TestingUtil.waitForNoRebalance(cache(0), joiner);
+
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, store(joiner).loadEntry("k" + i).getValue());
+      }
+   }
+
+   public void testPutDuringStateTransfer() throws Exception {
+      Cache<Object, Object> joiner = joinAndWrite(() -> cache(0).put(KEY, "newValue"));
+
+      assertEquals("newValue", joiner.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(KEY));
+      MarshallableEntry<Object, Object> entry = store(joiner).loadEntry(KEY);
+      assertEquals("newValue", entry.getValue());
+   }
+
+   public void testRemoveDuringStateTransfer() throws Exception {
+      Cache<Object, Object> joiner = joinAndWrite(() -> cache(0).remove(KEY));
+
+      assertNull(joiner.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(KEY));
+      assertNull(store(joiner).loadEntry(KEY));
+   }
+
+   /**
+    * Starts a new node, blocks its state transfer right before the old value is applied and runs the user operation
+    * in the meantime, so the state transfer put is discarded.
+    */
+   private Cache<Object, Object> joinAndWrite(Runnable operation) throws Exception {
+      cache(0).put(KEY, "oldValue");
+
+      CountDownLatch applyStateStartedLatch = new CountDownLatch(1);
+      CountDownLatch applyStateProceedLatch = new CountDownLatch(1);
+      cacheConfigBuilder.customInterceptors().addInterceptor().before(InvocationContextInterceptor.class)
+            .interceptor(new OperationsDuringStateTransferTest.StateTransferLatchInterceptor(applyStateStartedLatch,
+                  applyStateProceedLatch));
+      addClusterEnabledCacheManager(cacheConfigBuilder);
+      Cache<Object, Object> joiner = cache(1);
+
+      if (!applyStateStartedLatch.await(10, TimeUnit.SECONDS)) {
+         throw new TimeoutException();
+      }
+      // The joiner is already a write owner, so the user operation is committed and written to its store first
+      operation.run();
+      applyStateProceedLatch.countDown();
+
+      TestingUtil.waitForNoRebalance(cache(0), joiner);
+      return joiner;
+   }
+
+   private DummyInMemoryStore store(Cache<Object, Object> cache) {
+      return TestingUtil.getFirstStore(cache);
+   }
+
+   public static class BulkWriteStoreConfigurationBuilder extends DummyInMemoryStoreConfigurationBuilder {
+      public BulkWriteStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+         super(builder);
+      }
+
+      @Override
+      public BulkWriteStoreConfiguration create() {
+         return new BulkWriteStoreConfiguration(attributes.protect(), async.create());
+      }
+   }
+
+   @ConfigurationFor(BulkWriteStore.class)
+   @BuiltBy(BulkWriteStoreConfigurationBuilder.class)
+   public static class BulkWriteStoreConfiguration extends DummyInMemoryStoreConfiguration {
+      public BulkWriteStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
+         super(attributes, async);
+      }
+   }
+
+   /**
+    * The state transfer chunks are only written with a single batch to the stores that write batches in bulk.
+    */
+   public static class BulkWriteStore extends DummyInMemoryStore {
+      @Override
+      public Set<Characteristic> characteristics() {
+         Set<Characteristic> characteristics = EnumSet.copyOf(super.characteristics());
+         characteristics.add(Characteristic.BULK_WRITE);
+         return characteristics;
+      }
+   }
+}
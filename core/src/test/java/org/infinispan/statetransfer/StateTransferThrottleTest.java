@@ -0,0 +1,67 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "statetransfer.StateTransferThrottleTest")
+public class StateTransferThrottleTest extends AbstractInfinispanTest {
+   private static final long BANDWIDTH = 1000;
+
+   private final ControlledTimeService timeService = new ControlledTimeService();
+   private ScheduledExecutorService executor;
+   private StateTransferThrottle throttle;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = Executors.newSingleThreadScheduledExecutor(getTestThreadFactory("Throttle"));
+      throttle = new StateTransferThrottle();
+      TestingUtil.inject(throttle, timeService, TestingUtil.named(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR, executor));
+      throttle.setMaxBandwidth(BANDWIDTH);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   public void testDisabled() {
+      throttle.setMaxBandwidth(0);
+      assertFalse(throttle.isEnabled());
+      assertNull(throttle.acquire(BANDWIDTH * 1000, false));
+   }
+
+   public void testPriorityBatchesFirst() {
+      // A batch may take the bucket below zero
+      assertTrue(throttle.isEnabled());
+      assertNull(throttle.acquire(BANDWIDTH, false));
+      CompletableFuture<Void> normal = throttle.acquire(BANDWIDTH / 2, false).toCompletableFuture();
+      CompletableFuture<Void> priority = throttle.acquire(BANDWIDTH / 2, true).toCompletableFuture();
+      assertFalse(normal.isDone());
+      assertFalse(priority.isDone());
+
+      // After 300ms the bucket has 300 bytes, only the priority batch can be sent
+      timeService.advance(300);
+      eventually(priority::isDone);
+      assertFalse(normal.isDone());
+
+      timeService.advance(300);
+      eventually(normal::isDone);
+   }
+}
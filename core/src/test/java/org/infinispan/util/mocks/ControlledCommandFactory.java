@@ -56,6 +56,8 @@
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
 import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.statetransfer.ConflictDigestCommand;
+import org.infinispan.commands.statetransfer.ConflictEntriesCommand;
 import org.infinispan.commands.statetransfer.ConflictResolutionStartCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateConfirmRevokedCommand;
 import org.infinispan.commands.statetransfer.ScatteredStateGetKeysCommand;
@@ -346,6 +348,16 @@ public ConflictResolutionStartCommand buildConflictResolutionStartCommand(int to
       return actual.buildConflictResolutionStartCommand(topologyId, segments);
    }
 
+   @Override
+   public ConflictDigestCommand buildConflictDigestCommand(int topologyId, int segmentId) {
+      return actual.buildConflictDigestCommand(topologyId, segmentId);
+   }
+
+   @Override
+   public ConflictEntriesCommand buildConflictEntriesCommand(int topologyId, int segmentId, IntSet leaves) {
+      return actual.buildConflictEntriesCommand(topologyId, segmentId, leaves);
+   }
+
    @Override
    public StateTransferCancelCommand buildStateTransferCancelCommand(int topologyId, IntSet segments) {
       return actual.buildStateTransferCancelCommand(topologyId, segments);
@@ -40,4 +40,11 @@ public abstract void start(ConnectionFactoryConfiguration factoryConfiguration,
     * Destroys a connection. Important: null might be passed in, as an valid argument.
     */
    public abstract void releaseConnection(Connection conn);
+
+   /**
+    * Returns the maximum number of connections that can be in use at the same time, or -1 if it is not known.
+    */
+   public int getMaxConnections() {
+      return -1;
+   }
 }
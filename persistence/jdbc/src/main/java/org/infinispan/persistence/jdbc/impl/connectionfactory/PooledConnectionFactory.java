@@ -104,6 +104,11 @@ public int getMaxPoolSize() {
       return dataSource.getConfiguration().connectionPoolConfiguration().maxSize();
    }
 
+   @Override
+   public int getMaxConnections() {
+      return getMaxPoolSize();
+   }
+
 
    public long getActiveConnections() {
       return dataSource.getMetrics().activeCount();
@@ -290,6 +290,36 @@ public String getSelectRowSql() {
       return selectRowSql;
    }
 
+   @Override
+   public String getSelectMultipleRowSql(int numArgs) {
+      StringBuilder stringBuilder = new StringBuilder("SELECT ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(", ");
+      stringBuilder.append(config.dataColumnName());
+      stringBuilder.append(" FROM ");
+      stringBuilder.append(tableName);
+      stringBuilder.append(" WHERE ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" IN (");
+      String idParameter = getIdParameterSql();
+      stringBuilder.append(idParameter);
+
+      for (int i = 1; i < numArgs; ++i) {
+         stringBuilder.append(",");
+         stringBuilder.append(idParameter);
+      }
+      stringBuilder.append(")");
+
+      return stringBuilder.toString();
+   }
+
+   /**
+    * @return the parameter used to compare a key against the id column, for databases that need to convert it
+    */
+   protected String getIdParameterSql() {
+      return "?";
+   }
+
    protected String initSelectIdRowSql() {
       return String.format("SELECT %s FROM %s WHERE %s = ?", config.idColumnName(), tableName, config.idColumnName());
    }
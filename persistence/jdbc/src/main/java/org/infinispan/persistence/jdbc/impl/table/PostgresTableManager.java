@@ -39,6 +39,11 @@ public String initSelectRowSql() {
                                    config.idColumnName(), config.idColumnType());
    }
 
+   @Override
+   public String getIdParameterSql() {
+      return String.format("cast(? as %s)", config.idColumnType());
+   }
+
    @Override
    public String initSelectIdRowSql() {
       return String.format("SELECT %s FROM %s WHERE %s = cast(? as %s)",
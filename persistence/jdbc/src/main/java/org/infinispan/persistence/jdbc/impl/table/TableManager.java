@@ -43,6 +43,8 @@ public interface TableManager {
 
    String getSelectIdRowSql();
 
+   String getSelectMultipleRowSql(int numArgs);
+
    String getCountNonExpiredRowsSql();
 
    String getCountNonExpiredRowsSqlForSegments(int numSegments);
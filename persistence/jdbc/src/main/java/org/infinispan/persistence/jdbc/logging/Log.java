@@ -175,4 +175,7 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Error whilst removing keys in batch from the database. Keys: %s", id = 8038)
    PersistenceException sqlFailureDeletingBatch(Iterable<Object> keys, @Cause Exception e);
+
+   @Message(value = "Error whilst loading keys in batch from the database. Keys: %s", id = 8039)
+   PersistenceException sqlFailureLoadingBatch(Iterable<Object> keys, @Cause Exception e);
 }
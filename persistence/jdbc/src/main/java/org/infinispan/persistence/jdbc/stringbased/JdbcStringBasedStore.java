@@ -9,15 +9,18 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PrimitiveIterator;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import javax.transaction.Transaction;
 
@@ -30,7 +33,6 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.global.GlobalConfiguration;
-import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
 import org.infinispan.persistence.jdbc.JdbcUtil;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration;
@@ -45,19 +47,19 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
 import org.infinispan.persistence.spi.MarshalledValue;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
-import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
-import org.infinispan.persistence.spi.TransactionalCacheWriter;
-import org.infinispan.persistence.support.BatchModification;
-import org.infinispan.commons.reactive.RxJavaInterop;
 import org.infinispan.util.KeyValuePair;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
 
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
 
 /**
- * {@link org.infinispan.persistence.spi.AdvancedCacheLoader} implementation that stores the entries in a database.
+ * {@link NonBlockingStore} implementation that stores the entries in a database.
  * This cache store will store each entry within a row in the table. This assures a finer grained granularity for all
  * operation, and better performance. In order to be able to store non-string keys, it relies on an {@link
  * org.infinispan.persistence.keymappers.Key2StringMapper}.
@@ -78,6 +80,10 @@
  * <b>Rehashing</b>. When a node leaves/joins, Infinispan moves around persistent state as part of rehashing process.
  * For this it needs access to the underlaying key objects, so if distribution is used, the mapper needs to be an
  * {@link org.infinispan.persistence.keymappers.TwoWayKey2StringMapper} otherwise the cache won't start (same constraint as with preloading).
+ * <p/>
+ * <b>Concurrency</b>. The statements are executed on blocking threads, but no more of them run at the same time than
+ * the connection factory can provide connections for. The modifications of a batch are sent to the database as JDBC
+ * batches within a single local transaction.
  *
  * @author Mircea.Markus@jboss.com
  * @see org.infinispan.persistence.keymappers.Key2StringMapper
@@ -85,10 +91,12 @@
  */
 @Store(shared = true)
 @ConfiguredBy(JdbcStringBasedStoreConfiguration.class)
-public class JdbcStringBasedStore<K,V> implements SegmentedAdvancedLoadWriteStore<K,V>, TransactionalCacheWriter<K,V> {
+public class JdbcStringBasedStore<K,V> implements NonBlockingStore<K,V> {
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
+   // Stays below the limit of elements in an IN list of the most restrictive databases
+   private static final int MAX_KEYS_PER_SELECT = 1000;
 
    private final Map<Transaction, Connection> transactionConnectionMap = new ConcurrentHashMap<>();
    private JdbcStringBasedStoreConfiguration configuration;
@@ -101,131 +109,148 @@
    private PersistenceMarshaller marshaller;
    private TableManager tableManager;
    private TimeService timeService;
-   private KeyPartitioner keyPartitioner;
+   private BlockingManager blockingManager;
+   private BlockingManager.BlockingExecutor statementExecutor;
    private boolean isDistributedCache;
 
    @Override
-   public void init(InitializationContext ctx) {
+   public CompletionStage<Void> start(InitializationContext ctx) {
       this.configuration = ctx.getConfiguration();
       this.cacheName = ctx.getCache().getName();
       this.globalConfiguration = ctx.getCache().getCacheManager().getCacheManagerConfiguration();
       this.marshalledEntryFactory = ctx.getMarshallableEntryFactory();
       this.marshaller = ctx.getPersistenceMarshaller();
       this.timeService = ctx.getTimeService();
-      this.keyPartitioner = configuration.segmented() ? ctx.getKeyPartitioner() : null;
+      this.blockingManager = ctx.getBlockingManager();
       this.isDistributedCache = ctx.getCache().getCacheConfiguration() != null && ctx.getCache().getCacheConfiguration().clustering().cacheMode().isDistributed();
-   }
 
-   @Override
-   public void start() {
-      if (configuration.manageConnectionFactory()) {
-         ConnectionFactory factory = ConnectionFactory.getConnectionFactory(configuration.connectionFactory().connectionFactoryClass());
-         factory.start(configuration.connectionFactory(), factory.getClass().getClassLoader());
-         initializeConnectionFactory(factory);
-      }
+      return blockingManager.runBlocking(() -> {
+         if (configuration.manageConnectionFactory()) {
+            ConnectionFactory factory = ConnectionFactory.getConnectionFactory(configuration.connectionFactory().connectionFactoryClass());
+            factory.start(configuration.connectionFactory(), factory.getClass().getClassLoader());
+            initializeConnectionFactory(factory);
+         }
 
-      try {
-         Object mapper = Util.loadClassStrict(configuration.key2StringMapper(),
-                                              globalConfiguration.classLoader()).newInstance();
-         if (mapper instanceof Key2StringMapper) key2StringMapper = (Key2StringMapper) mapper;
-      } catch (Exception e) {
-         log.errorf("Trying to instantiate %s, however it failed due to %s", configuration.key2StringMapper(),
-                    e.getClass().getName());
-         throw new IllegalStateException("This should not happen.", e);
-      }
-      if (trace) {
-         log.tracef("Using key2StringMapper: %s", key2StringMapper.getClass().getName());
-      }
-      if (configuration.preload()) {
-         enforceTwoWayMapper("preload");
-      }
-      if (isDistributedCache) {
-         enforceTwoWayMapper("distribution/rehashing");
-      }
+         try {
+            Object mapper = Util.loadClassStrict(configuration.key2StringMapper(),
+                                                 globalConfiguration.classLoader()).newInstance();
+            if (mapper instanceof Key2StringMapper) key2StringMapper = (Key2StringMapper) mapper;
+         } catch (Exception e) {
+            log.errorf("Trying to instantiate %s, however it failed due to %s", configuration.key2StringMapper(),
+                       e.getClass().getName());
+            throw new IllegalStateException("This should not happen.", e);
+         }
+         if (trace) {
+            log.tracef("Using key2StringMapper: %s", key2StringMapper.getClass().getName());
+         }
+         if (configuration.preload()) {
+            enforceTwoWayMapper("preload");
+         }
+         if (isDistributedCache) {
+            enforceTwoWayMapper("distribution/rehashing");
+         }
+      }, "jdbcstore-start");
    }
 
    @Override
-   public void stop() {
-      Throwable cause = null;
-      try {
-         if (tableManager != null) {
-            tableManager.stop();
-            tableManager = null;
+   public CompletionStage<Void> stop() {
+      return blockingManager.runBlocking(() -> {
+         try {
+            if (tableManager != null) {
+               tableManager.stop();
+               tableManager = null;
+            }
+         } catch (Throwable t) {
+            log.debug("Exception while stopping", t);
          }
-      } catch (Throwable t) {
-         log.debug("Exception while stopping", t);
-      }
 
-      try {
-         log.tracef("Stopping connection factory: %s", connectionFactory);
-         if (connectionFactory != null) {
-            connectionFactory.stop();
+         try {
+            log.tracef("Stopping connection factory: %s", connectionFactory);
+            if (connectionFactory != null) {
+               connectionFactory.stop();
+            }
+         } catch (Throwable t) {
+            log.debug("Exception while stopping", t);
          }
-      } catch (Throwable t) {
-         log.debug("Exception while stopping", t);
-      }
+      }, "jdbcstore-stop");
    }
 
    @Override
-   public boolean isAvailable() {
+   public Set<Characteristic> characteristics() {
+      return EnumSet.of(Characteristic.BULK_READ, Characteristic.EXPIRATION, Characteristic.SEGMENTABLE,
+            Characteristic.SHAREABLE, Characteristic.TRANSACTIONAL);
+   }
+
+   @Override
+   public CompletionStage<Boolean> isAvailable() {
       if (tableManager == null || connectionFactory == null)
-         return false;
+         return CompletableFutures.completedFalse();
 
-      Connection connection = null;
-      try {
-         connection = connectionFactory.getConnection();
-         return connection != null && connection.isValid(10);
-      } catch (SQLException e) {
-         return false;
-      } finally {
-         connectionFactory.releaseConnection(connection);
-      }
+      return statementExecutor.supply(() -> {
+         Connection connection = null;
+         try {
+            connection = connectionFactory.getConnection();
+            return connection != null && connection.isValid(10);
+         } catch (SQLException e) {
+            return false;
+         } finally {
+            connectionFactory.releaseConnection(connection);
+         }
+      }, "jdbcstore-isAvailable");
    }
 
    void initializeConnectionFactory(ConnectionFactory connectionFactory) throws PersistenceException {
       this.connectionFactory = connectionFactory;
       tableManager = getTableManager(cacheName);
       tableManager.start();
+      // Every statement holds a connection, so running more of them at once than the pool provides would only park
+      // the additional blocking threads while they wait for a connection to be released
+      int maxConnections = connectionFactory.getMaxConnections();
+      if (maxConnections > 0) {
+         statementExecutor = blockingManager.limitedBlockingExecutor("jdbcstore-" + cacheName, maxConnections);
+      } else {
+         statementExecutor = new BlockingManager.BlockingExecutor() {
+            @Override
+            public CompletionStage<Void> execute(Runnable runnable, Object traceId) {
+               return blockingManager.runBlocking(runnable, traceId);
+            }
+
+            @Override
+            public <V1> CompletionStage<V1> supply(Supplier<V1> supplier, Object traceId) {
+               return blockingManager.supplyBlocking(supplier, traceId);
+            }
+         };
+      }
    }
 
    public ConnectionFactory getConnectionFactory() {
       return connectionFactory;
    }
 
-   private int getSegment(MarshallableEntry entry) {
-      if (keyPartitioner == null) {
-         return -1;
-      }
-      return keyPartitioner.getSegment(entry.getKey());
-   }
-
-   @Override
-   public void write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
-      write(entry);
+   private int segmentColumn(int segment) {
+      return configuration.segmented() ? segment : -1;
    }
 
    @Override
-   public void write(MarshallableEntry<? extends K, ? extends V> entry) {
-      Connection connection = null;
-      String keyStr = key2Str(entry.getKey());
-      try {
-         connection = connectionFactory.getConnection();
-         write(entry, connection, keyStr, getSegment(entry));
-      } catch (SQLException ex) {
-         PERSISTENCE.sqlFailureStoringKey(keyStr, ex);
-         throw new PersistenceException(String.format("Error while storing string key to database; key: '%s'", keyStr), ex);
-      } catch (InterruptedException e) {
-         if (trace) {
-            log.trace("Interrupted while marshalling to store");
+   public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
+      return statementExecutor.execute(() -> {
+         Connection connection = null;
+         String keyStr = key2Str(entry.getKey());
+         try {
+            connection = connectionFactory.getConnection();
+            write(entry, connection, keyStr, segmentColumn(segment));
+         } catch (SQLException ex) {
+            PERSISTENCE.sqlFailureStoringKey(keyStr, ex);
+            throw new PersistenceException(String.format("Error while storing string key to database; key: '%s'", keyStr), ex);
+         } catch (InterruptedException e) {
+            if (trace) {
+               log.trace("Interrupted while marshalling to store");
+            }
+            Thread.currentThread().interrupt();
+         } finally {
+            connectionFactory.releaseConnection(connection);
          }
-         Thread.currentThread().interrupt();
-      } finally {
-         connectionFactory.releaseConnection(connection);
-      }
-   }
-
-   private void write(MarshallableEntry entry, Connection connection, int segment) throws SQLException, InterruptedException {
-      write(entry, connection, key2Str(entry.getKey()), segment);
+      }, "jdbcstore-write");
    }
 
    private void write(MarshallableEntry entry, Connection connection, String keyStr, int segment) throws SQLException, InterruptedException {
@@ -282,86 +307,112 @@ private void executeLegacyUpdate(Connection connection, MarshallableEntry entry,
    }
 
    @Override
-   public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
-      // If upsert is not supported, then we must execute the legacy write for each entry; i.e. read then update/insert
-      if (!tableManager.isUpsertSupported()) {
-         CompletableFuture<Void> future = new CompletableFuture<>();
-         Flowable.fromPublisher(publisher)
-               .doOnNext(this::write)
-               .subscribe(RxJavaInterop.emptyConsumer(), future::completeExceptionally, () -> future.complete(null));
-         return future;
-      }
-
-      CompletableFuture<Void> future = new CompletableFuture<>();
-      Flowable
-            .using(() -> {
-                     Connection connection = connectionFactory.getConnection();
-                     PreparedStatement upsertBatch = connection.prepareStatement(tableManager.getUpsertRowSql());
-                     return new KeyValuePair<>(connection, upsertBatch);
-                  },
-                  kvp -> createBatchFlowable(kvp.getValue(), publisher),
-                  kvp -> {
-                     JdbcUtil.safeClose(kvp.getValue());
-                     connectionFactory.releaseConnection(kvp.getKey());
-                  })
-            .subscribe(RxJavaInterop.emptyConsumer(), future::completeExceptionally, () -> future.complete(null));
-      return future;
-   }
-
-   private Flowable<List<MarshallableEntry<? extends K, ? extends V>>> createBatchFlowable(PreparedStatement upsertBatch, Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
-      return Flowable.fromPublisher(publisher)
-            .buffer(configuration.maxBatchSize())
-            .doOnNext(entries -> {
-               for (MarshallableEntry<? extends K, ? extends V> entry : entries) {
-                  String keyStr = key2Str(entry.getKey());
-                  prepareUpsertStatement(entry, keyStr, getSegment(entry), upsertBatch);
-                  upsertBatch.addBatch();
+   public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
+         Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
+      return statementExecutor.execute(() -> {
+         Connection connection = null;
+         boolean localTransaction = false;
+         try {
+            connection = connectionFactory.getConnection();
+            // The whole batch is applied in a single local transaction, unless the connection is already part of a
+            // managed transaction
+            localTransaction = connection.getAutoCommit();
+            if (localTransaction)
+               connection.setAutoCommit(false);
+
+            applyModifications(connection, publisherCount, removePublisher, writePublisher);
+
+            if (localTransaction)
+               connection.commit();
+         } catch (SQLException | InterruptedException e) {
+            rollbackLocalTransaction(connection, localTransaction);
+            throw PERSISTENCE.sqlFailureWritingBatch(e);
+         } catch (RuntimeException e) {
+            rollbackLocalTransaction(connection, localTransaction);
+            throw e;
+         } finally {
+            if (localTransaction) {
+               try {
+                  connection.setAutoCommit(true);
+               } catch (SQLException e) {
+                  log.debug("Exception while restoring auto commit", e);
                }
-               upsertBatch.executeBatch();
-               upsertBatch.clearBatch();
-            })
-            .doOnError(e -> {
-               throw PERSISTENCE.sqlFailureWritingBatch(e);
-            });
+            }
+            connectionFactory.releaseConnection(connection);
+         }
+      }, "jdbcstore-batch");
    }
 
-   @Override
-   public void deleteBatch(Iterable<Object> keys) {
-      Connection connection = null;
-      try {
-         connection = connectionFactory.getConnection();
-         try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-            int batchSize = 0;
-            for (Object key : keys) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
-               deleteBatch.addBatch();
-               batchSize++;
-
-               if (batchSize == configuration.maxBatchSize()) {
-                  batchSize = 0;
-                  deleteBatch.executeBatch();
-                  deleteBatch.clearBatch();
-               }
-            }
+   private void rollbackLocalTransaction(Connection connection, boolean localTransaction) {
+      if (localTransaction) {
+         try {
+            connection.rollback();
+         } catch (SQLException e) {
+            PERSISTENCE.sqlFailureTxRollback(e);
+         }
+      }
+   }
 
-            if (batchSize != 0)
+   /**
+    * Applies the removals and then the writes with the given connection. The modifications of all segments are added
+    * to a single JDBC batch per statement, which is flushed every {@code maxBatchSize} rows.
+    */
+   private void applyModifications(Connection connection, int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
+         Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) throws SQLException, InterruptedException {
+      int maxBatchSize = configuration.maxBatchSize();
+      // All the segment publishers must be subscribed at once, as they may be the groups of a single source
+      Iterable<Object> removedKeys = Flowable.fromPublisher(removePublisher)
+            .flatMap(sp -> sp, Math.max(1, publisherCount))
+            .blockingIterable();
+      try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
+         int batchSize = 0;
+         for (Object key : removedKeys) {
+            deleteBatch.setString(1, key2Str(key));
+            deleteBatch.addBatch();
+            if (++batchSize == maxBatchSize) {
+               batchSize = 0;
                deleteBatch.executeBatch();
+               deleteBatch.clearBatch();
+            }
          }
-      } catch (SQLException e) {
-         throw PERSISTENCE.sqlFailureDeletingBatch(keys, e);
-      } finally {
-         connectionFactory.releaseConnection(connection);
+         if (batchSize != 0)
+            deleteBatch.executeBatch();
+      }
+
+      Iterable<KeyValuePair<Integer, MarshallableEntry<K, V>>> writtenEntries = Flowable.fromPublisher(writePublisher)
+            .flatMap(sp -> Flowable.fromPublisher(sp).map(me -> new KeyValuePair<>(sp.getSegment(), me)), Math.max(1, publisherCount))
+            .blockingIterable();
+      boolean upsertSupported = tableManager.isUpsertSupported();
+      try (PreparedStatement upsertBatch = upsertSupported ? connection.prepareStatement(tableManager.getUpsertRowSql()) : null) {
+         int batchSize = 0;
+         for (KeyValuePair<Integer, MarshallableEntry<K, V>> kvp : writtenEntries) {
+            MarshallableEntry<K, V> entry = kvp.getValue();
+            String keyStr = key2Str(entry.getKey());
+            int segment = segmentColumn(kvp.getKey());
+            if (!upsertSupported) {
+               // Without upsert we must execute the legacy write for each entry; i.e. read then update/insert
+               executeLegacyUpdate(connection, entry, keyStr, segment);
+               continue;
+            }
+            prepareUpsertStatement(entry, keyStr, segment, upsertBatch);
+            upsertBatch.addBatch();
+            if (++batchSize == maxBatchSize) {
+               batchSize = 0;
+               upsertBatch.executeBatch();
+               upsertBatch.clearBatch();
+            }
+         }
+         if (batchSize != 0)
+            upsertBatch.executeBatch();
       }
    }
 
    @Override
-   public MarshallableEntry<K, V> get(int segment, Object key) {
-      return loadEntry(key);
+   public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
+      return statementExecutor.supply(() -> loadEntry(key), "jdbcstore-load");
    }
 
-   @Override
-   public MarshallableEntry<K, V> loadEntry(Object key) {
+   private MarshallableEntry<K, V> loadEntry(Object key) {
       String lockingKey = key2Str(key);
       Connection conn = null;
       PreparedStatement ps = null;
@@ -395,81 +446,134 @@ public MarshallableEntry<K, V> loadEntry(Object key) {
    }
 
    @Override
-   public void clear() {
-      Connection conn = null;
-      Statement statement = null;
-      try {
-         String sql = tableManager.getDeleteAllRowsSql();
-         conn = connectionFactory.getConnection();
-         statement = conn.createStatement();
-         int result = statement.executeUpdate(sql);
-         if (log.isTraceEnabled()) {
-            log.tracef("Successfully removed %d rows.", result);
-         }
-      } catch (SQLException ex) {
-         PERSISTENCE.failedClearingJdbcCacheStore(ex);
-         throw new PersistenceException("Failed clearing cache store", ex);
-      } finally {
-         JdbcUtil.safeClose(statement);
-         connectionFactory.releaseConnection(conn);
-      }
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      // The rows do not depend on the segment, so the keys of all segments are loaded with as few selects as possible
+      return Flowable.fromPublisher(keyPublisher)
+            .flatMap(sp -> sp, Math.max(1, publisherCount))
+            .buffer(MAX_KEYS_PER_SELECT)
+            .concatMapEager(keys -> Single.fromCompletionStage(statementExecutor.supply(() -> loadBatch(keys), "jdbcstore-loadAll"))
+                  .flattenAsFlowable(entries -> entries));
    }
 
-   @Override
-   public void clear(IntSet segments) {
+   private List<MarshallableEntry<K, V>> loadBatch(List<Object> keys) {
+      Map<String, Object> keysByLockingKey = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         keysByLockingKey.put(key2Str(key), key);
+      }
+      List<MarshallableEntry<K, V>> entries = new ArrayList<>(keys.size());
       Connection conn = null;
       PreparedStatement ps = null;
+      ResultSet rs = null;
       try {
-         String sql = tableManager.getDeleteRowsSqlForSegments(segments.size());
+         String sql = tableManager.getSelectMultipleRowSql(keysByLockingKey.size());
          conn = connectionFactory.getConnection();
          ps = conn.prepareStatement(sql);
-         int offset = 0;
-         for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
-            ps.setInt(++offset, segIter.nextInt());
+         int i = 1;
+         for (String lockingKey : keysByLockingKey.keySet()) {
+            ps.setString(i++, lockingKey);
          }
-         int result = ps.executeUpdate();
-         if (log.isTraceEnabled()) {
-            log.tracef("Successfully removed %d rows.", result);
+         rs = ps.executeQuery();
+         long now = timeService.wallClockTime();
+         while (rs.next()) {
+            Object key = keysByLockingKey.get(rs.getString(1));
+            InputStream inputStream = rs.getBinaryStream(2);
+            MarshallableEntry<K, V> entry = marshalledEntryFactory.create(key, unmarshall(inputStream));
+            if (entry.getMetadata() == null || !entry.isExpired(now)) {
+               entries.add(entry);
+            }
          }
-      } catch (SQLException ex) {
-         PERSISTENCE.failedClearingJdbcCacheStore(ex);
-         throw new PersistenceException("Failed clearing cache store when using segments " + segments, ex);
+      } catch (SQLException e) {
+         throw PERSISTENCE.sqlFailureLoadingBatch(keys, e);
       } finally {
+         JdbcUtil.safeClose(rs);
          JdbcUtil.safeClose(ps);
          connectionFactory.releaseConnection(conn);
       }
+      return entries;
+   }
+
+   @Override
+   public CompletionStage<Void> clear() {
+      return statementExecutor.execute(() -> {
+         Connection conn = null;
+         Statement statement = null;
+         try {
+            String sql = tableManager.getDeleteAllRowsSql();
+            conn = connectionFactory.getConnection();
+            statement = conn.createStatement();
+            int result = statement.executeUpdate(sql);
+            if (log.isTraceEnabled()) {
+               log.tracef("Successfully removed %d rows.", result);
+            }
+         } catch (SQLException ex) {
+            PERSISTENCE.failedClearingJdbcCacheStore(ex);
+            throw new PersistenceException("Failed clearing cache store", ex);
+         } finally {
+            JdbcUtil.safeClose(statement);
+            connectionFactory.releaseConnection(conn);
+         }
+      }, "jdbcstore-clear");
    }
 
    @Override
-   public boolean delete(int segment, Object key) {
-      return delete(key);
+   public CompletionStage<Void> removeSegments(IntSet segments) {
+      return statementExecutor.execute(() -> {
+         Connection conn = null;
+         PreparedStatement ps = null;
+         try {
+            String sql = tableManager.getDeleteRowsSqlForSegments(segments.size());
+            conn = connectionFactory.getConnection();
+            ps = conn.prepareStatement(sql);
+            int offset = 0;
+            for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
+               ps.setInt(++offset, segIter.nextInt());
+            }
+            int result = ps.executeUpdate();
+            if (log.isTraceEnabled()) {
+               log.tracef("Successfully removed %d rows.", result);
+            }
+         } catch (SQLException ex) {
+            PERSISTENCE.failedClearingJdbcCacheStore(ex);
+            throw new PersistenceException("Failed clearing cache store when using segments " + segments, ex);
+         } finally {
+            JdbcUtil.safeClose(ps);
+            connectionFactory.releaseConnection(conn);
+         }
+      }, "jdbcstore-removeSegments");
    }
 
    @Override
-   public boolean delete(Object key) {
-      Connection connection = null;
-      PreparedStatement ps = null;
-      String keyStr = key2Str(key);
-      try {
-         String sql = tableManager.getDeleteRowSql();
-         if (trace) {
-            log.tracef("Running sql '%s' on %s", sql, keyStr);
+   public CompletionStage<Boolean> delete(int segment, Object key) {
+      return statementExecutor.supply(() -> {
+         Connection connection = null;
+         PreparedStatement ps = null;
+         String keyStr = key2Str(key);
+         try {
+            String sql = tableManager.getDeleteRowSql();
+            if (trace) {
+               log.tracef("Running sql '%s' on %s", sql, keyStr);
+            }
+            connection = connectionFactory.getConnection();
+            ps = connection.prepareStatement(sql);
+            ps.setString(1, keyStr);
+            return ps.executeUpdate() == 1;
+         } catch (SQLException ex) {
+            PERSISTENCE.sqlFailureRemovingKeys(ex);
+            throw new PersistenceException("Error while removing string keys from database", ex);
+         } finally {
+            JdbcUtil.safeClose(ps);
+            connectionFactory.releaseConnection(connection);
          }
-         connection = connectionFactory.getConnection();
-         ps = connection.prepareStatement(sql);
-         ps.setString(1, keyStr);
-         return ps.executeUpdate() == 1;
-      } catch (SQLException ex) {
-         PERSISTENCE.sqlFailureRemovingKeys(ex);
-         throw new PersistenceException("Error while removing string keys from database", ex);
-      } finally {
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(connection);
-      }
+      }, "jdbcstore-delete");
    }
 
    @Override
-   public void purge(Executor executor, PurgeListener purgeListener) {
+   public Publisher<MarshallableEntry<K, V>> purgeExpired() {
+      return Single.fromCompletionStage(statementExecutor.supply(this::purge, "jdbcstore-purgeExpired"))
+            .flattenAsFlowable(entries -> entries);
+   }
+
+   private List<MarshallableEntry<K, V>> purge() {
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
@@ -481,6 +585,7 @@ public void purge(Executor executor, PurgeListener purgeListener) {
          ps.setLong(1, timeService.wallClockTime());
          rs = ps.executeQuery();
 
+         List<MarshallableEntry<K, V>> purged = new ArrayList<>();
          try (PreparedStatement batchDelete = conn.prepareStatement(tableManager.getDeleteRowSql())) {
             int affectedRows = 0;
             boolean twoWayMapperExists = key2StringMapper instanceof TwoWayKey2StringMapper;
@@ -490,9 +595,10 @@ public void purge(Executor executor, PurgeListener purgeListener) {
                batchDelete.setString(1, keyStr);
                batchDelete.addBatch();
 
-               if (twoWayMapperExists && purgeListener != null) {
-                  Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
-                  purgeListener.entryPurged(key);
+               if (twoWayMapperExists) {
+                  //noinspection unchecked
+                  K key = (K) ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
+                  purged.add(marshalledEntryFactory.create(key));
                }
             }
 
@@ -507,6 +613,7 @@ public void purge(Executor executor, PurgeListener purgeListener) {
             }
             conn.commit();
          }
+         return purged;
       } catch (SQLException e) {
          log.failedClearingJdbcCacheStore(e);
          try {
@@ -522,22 +629,13 @@ public void purge(Executor executor, PurgeListener purgeListener) {
       }
    }
 
-   @Override
-   public boolean contains(int segment, Object key) {
-      return contains(key);
-   }
-
-   @Override
-   public boolean contains(Object key) {
-      //we can do better if needed...
-      return loadEntry(key) != null;
-   }
-
    private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>> function) {
-      return Flowable.using(() -> {
+      // A store that is not segmented stores -1 in the segment column, so it has to read the whole table
+      IntSet segmentsToRead = configuration.segmented() ? segments : null;
+      Flowable<P> flowable = Flowable.using(() -> {
          String sql;
-         if (segments != null) {
-            sql = tableManager.getLoadNonExpiredRowsSqlForSegments(segments.size());
+         if (segmentsToRead != null) {
+            sql = tableManager.getLoadNonExpiredRowsSqlForSegments(segmentsToRead.size());
          } else {
             sql = tableManager.getLoadNonExpiredAllRowsSql();
          }
@@ -549,8 +647,8 @@ private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>
          PreparedStatement ps = fc.statement;
          int offset = 1;
          ps.setLong(offset, timeService.wallClockTime());
-         if (segments != null) {
-            for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
+         if (segmentsToRead != null) {
+            for (PrimitiveIterator.OfInt segIter = segmentsToRead.iterator(); segIter.hasNext(); ) {
                ps.setInt(++offset, segIter.nextInt());
             }
          }
@@ -558,6 +656,11 @@ private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>
          ResultSet rs = ps.executeQuery();
          return function.apply(rs).doOnComplete(() -> JdbcUtil.safeClose(rs));
       }, FlowableConnection::close);
+      // The cursor is read on a blocking thread and the rows are handed over in chunks of the fetch size, so the non
+      // blocking thread is not woken up for every row while the driver retrieves the next page
+      int chunkSize = Math.max(1, tableManager.getFetchSize());
+      return Flowable.fromPublisher(blockingManager.blockingPublisher(flowable.buffer(chunkSize)))
+            .concatMapIterable(chunk -> chunk);
    }
 
    static class FlowableConnection {
@@ -592,92 +695,63 @@ void close() {
       }
    }
 
-   @Override
-   public Flowable<K> publishKeys(Predicate<? super K> filter) {
-      return publish(null, rs -> Flowable.fromIterable(() -> new ResultSetKeyIterator(rs, filter)));
-   }
-
    @Override
    public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
       return publish(segments, rs -> Flowable.fromIterable(() -> new ResultSetKeyIterator(rs, filter)));
    }
 
    @Override
-   public Flowable<MarshallableEntry<K, V>> entryPublisher(Predicate<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
-      return publish(null, rs -> Flowable.fromIterable(() -> new ResultSetEntryIterator(rs, filter, fetchValue, fetchMetadata)));
+   public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predicate<? super K> filter, boolean includeValues) {
+      return publish(segments, rs -> Flowable.fromIterable(() -> new ResultSetEntryIterator(rs, filter, includeValues, true)));
    }
 
    @Override
-   public Publisher<MarshallableEntry<K, V>> entryPublisher(IntSet segments, Predicate<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
-      return publish(segments, rs -> Flowable.fromIterable(() -> new ResultSetEntryIterator(rs, filter, fetchValue, fetchMetadata)));
-   }
-
-   @Override
-   public void prepareWithModifications(Transaction transaction, BatchModification batchModification) throws PersistenceException {
-      try {
-         Connection connection = getTxConnection(transaction);
-         connection.setAutoCommit(false);
-
-         boolean upsertSupported = tableManager.isUpsertSupported();
-         try (PreparedStatement upsertBatch = upsertSupported ? connection.prepareStatement(tableManager.getUpsertRowSql()) : null;
-              PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-
-            for (MarshallableEntry entry : batchModification.getMarshallableEntries()) {
-               int segment = getSegment(entry);
-               if (upsertSupported) {
-                  String keyStr = key2Str(entry.getKey());
-                  prepareUpsertStatement(entry, keyStr, segment, upsertBatch);
-                  upsertBatch.addBatch();
-               } else {
-                  write(entry, connection, segment);
-               }
-            }
-
-            for (Object key : batchModification.getKeysToRemove()) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
-               deleteBatch.addBatch();
-            }
-
-            if (upsertSupported && !batchModification.getMarshallableEntries().isEmpty())
-               upsertBatch.executeBatch();
-
-            if (!batchModification.getKeysToRemove().isEmpty())
-               deleteBatch.executeUpdate();
+   public CompletionStage<Void> prepareWithModifications(Transaction transaction, int publisherCount,
+         Publisher<SegmentedPublisher<Object>> removePublisher,
+         Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
+      return statementExecutor.execute(() -> {
+         try {
+            Connection connection = getTxConnection(transaction);
+            connection.setAutoCommit(false);
+            applyModifications(connection, publisherCount, removePublisher, writePublisher);
+            // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
+            // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
+         } catch (SQLException | InterruptedException e) {
+            throw PERSISTENCE.prepareTxFailure(e);
          }
-         // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
-         // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
-      } catch (SQLException | InterruptedException e) {
-         throw PERSISTENCE.prepareTxFailure(e);
-      }
+      }, "jdbcstore-prepare");
    }
 
    @Override
-   public void commit(Transaction tx) {
-      Connection connection;
-      try {
-         connection = getTxConnection(tx);
-         connection.commit();
-      } catch (SQLException e) {
-         PERSISTENCE.sqlFailureTxCommit(e);
-         throw new PersistenceException(String.format("Error during commit of JDBC transaction (%s)", tx), e);
-      } finally {
-         destroyTxConnection(tx);
-      }
+   public CompletionStage<Void> commit(Transaction tx) {
+      return statementExecutor.execute(() -> {
+         Connection connection;
+         try {
+            connection = getTxConnection(tx);
+            connection.commit();
+         } catch (SQLException e) {
+            PERSISTENCE.sqlFailureTxCommit(e);
+            throw new PersistenceException(String.format("Error during commit of JDBC transaction (%s)", tx), e);
+         } finally {
+            destroyTxConnection(tx);
+         }
+      }, "jdbcstore-commit");
    }
 
    @Override
-   public void rollback(Transaction tx) {
-      Connection connection;
-      try {
-         connection = getTxConnection(tx);
-         connection.rollback();
-      } catch (SQLException e) {
-         PERSISTENCE.sqlFailureTxRollback(e);
-         throw new PersistenceException(String.format("Error during rollback of JDBC transaction (%s)", tx), e);
-      } finally {
-         destroyTxConnection(tx);
-      }
+   public CompletionStage<Void> rollback(Transaction tx) {
+      return statementExecutor.execute(() -> {
+         Connection connection;
+         try {
+            connection = getTxConnection(tx);
+            connection.rollback();
+         } catch (SQLException e) {
+            PERSISTENCE.sqlFailureTxRollback(e);
+            throw new PersistenceException(String.format("Error during rollback of JDBC transaction (%s)", tx), e);
+         } finally {
+            destroyTxConnection(tx);
+         }
+      }, "jdbcstore-rollback");
    }
 
    private Connection getTxConnection(Transaction tx) {
@@ -696,53 +770,36 @@ private void destroyTxConnection(Transaction tx) {
    }
 
    @Override
-   public int size() {
-      Connection conn = null;
-      PreparedStatement ps = null;
-      ResultSet rs = null;
-      try {
-         conn = connectionFactory.getConnection();
-         String sql = tableManager.getCountNonExpiredRowsSql();
-         ps = conn.prepareStatement(sql);
-         ps.setLong(1, timeService.wallClockTime());
-         rs = ps.executeQuery();
-         rs.next();
-         return rs.getInt(1);
-      } catch (SQLException e) {
-         PERSISTENCE.sqlFailureIntegratingState(e);
-         throw new PersistenceException("SQL failure while integrating state into store", e);
-      } finally {
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(conn);
-      }
-   }
-
-   @Override
-   public int size(IntSet segments) {
-      Connection conn = null;
-      PreparedStatement ps = null;
-      ResultSet rs = null;
-      try {
-         conn = connectionFactory.getConnection();
-         String sql = tableManager.getCountNonExpiredRowsSqlForSegments(segments.size());
-         ps = conn.prepareStatement(sql);
-         int offset = 1;
-         ps.setLong(offset, timeService.wallClockTime());
-         for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
-            ps.setInt(++offset, segIter.nextInt());
+   public CompletionStage<Long> size(IntSet segments) {
+      return statementExecutor.supply(() -> {
+         Connection conn = null;
+         PreparedStatement ps = null;
+         ResultSet rs = null;
+         try {
+            conn = connectionFactory.getConnection();
+            int offset = 1;
+            if (configuration.segmented()) {
+               ps = conn.prepareStatement(tableManager.getCountNonExpiredRowsSqlForSegments(segments.size()));
+               ps.setLong(offset, timeService.wallClockTime());
+               for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
+                  ps.setInt(++offset, segIter.nextInt());
+               }
+            } else {
+               ps = conn.prepareStatement(tableManager.getCountNonExpiredRowsSql());
+               ps.setLong(offset, timeService.wallClockTime());
+            }
+            rs = ps.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+         } catch (SQLException e) {
+            PERSISTENCE.sqlFailureIntegratingState(e);
+            throw new PersistenceException("SQL failure while integrating state into store", e);
+         } finally {
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
+            connectionFactory.releaseConnection(conn);
          }
-         rs = ps.executeQuery();
-         rs.next();
-         return rs.getInt(1);
-      } catch (SQLException e) {
-         PERSISTENCE.sqlFailureIntegratingState(e);
-         throw new PersistenceException("SQL failure while integrating state into store", e);
-      } finally {
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
-         connectionFactory.releaseConnection(conn);
-      }
+      }, "jdbcstore-size");
    }
 
    private void prepareUpsertStatement(MarshallableEntry entry, String key, int segment, PreparedStatement ps) throws InterruptedException, SQLException {
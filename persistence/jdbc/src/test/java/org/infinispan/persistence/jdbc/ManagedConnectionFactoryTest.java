@@ -10,7 +10,7 @@
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 
-import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.impl.connectionfactory.SimpleConnectionFactory;
 import org.infinispan.persistence.spi.PersistenceException;
@@ -24,7 +24,7 @@
  * @author Mircea.Markus@jboss.com
  */
 @Test(groups = "functional")
-public abstract class ManagedConnectionFactoryTest extends BaseStoreTest {
+public abstract class ManagedConnectionFactoryTest extends BaseNonBlockingStoreTest {
 
    private DummyDataSource ds;
 
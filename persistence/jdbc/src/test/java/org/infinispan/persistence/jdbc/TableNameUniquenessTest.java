@@ -11,8 +11,9 @@
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration;
 import org.infinispan.persistence.jdbc.stringbased.JdbcStringBasedStore;
 import org.infinispan.persistence.jdbc.impl.table.TableName;
-import org.infinispan.persistence.spi.CacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
+import org.infinispan.persistence.support.WaitNonBlockingStore;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -38,13 +39,14 @@ public void testForJdbcStringBasedCacheStore() throws Exception {
          assertEquals(JdbcStringBasedStoreConfiguration.class, firstCacheLoaderConfig.getClass());
          assertEquals(JdbcStringBasedStoreConfiguration.class, secondCacheLoaderConfig.getClass());
 
-         JdbcStringBasedStore firstCs = (JdbcStringBasedStore) TestingUtil.getFirstLoader(first);
-         JdbcStringBasedStore secondCs = (JdbcStringBasedStore) TestingUtil.getFirstLoader(second);
+         WaitDelegatingNonBlockingStore<String, String> firstStore = TestingUtil.getFirstStore(first);
+         WaitDelegatingNonBlockingStore<String, String> secondStore = TestingUtil.getFirstStore(second);
+         JdbcStringBasedStore firstCs = (JdbcStringBasedStore) firstStore.delegate();
 
          assertTableExistence(firstCs.getConnectionFactory().getConnection(), firstCs.getTableManager(first.getName()).getIdentifierQuoteString(),
                               "second", "first", "ISPN_STRING_TABLE");
 
-         assertNoOverlapingState(first, second, firstCs, secondCs);
+         assertNoOverlapingState(first, second, firstStore, secondStore);
       } finally {
          TestingUtil.killCacheManagers(cm);
       }
@@ -88,7 +90,7 @@ private void assertTableExistence(Connection connection, String identifierQuote,
       connection.close();
    }
 
-   private void assertNoOverlapingState(Cache first, Cache second, CacheLoader firstCs, CacheLoader secondCs) throws PersistenceException {
+   private void assertNoOverlapingState(Cache first, Cache second, WaitNonBlockingStore firstCs, WaitNonBlockingStore secondCs) throws PersistenceException {
       first.put("k", "v");
       assert firstCs.contains("k");
       assert !secondCs.contains("k");
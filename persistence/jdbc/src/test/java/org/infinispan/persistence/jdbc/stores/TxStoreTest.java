@@ -26,6 +26,7 @@
 import org.infinispan.persistence.jdbc.stringbased.JdbcStringBasedStore;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.commons.test.Exceptions;
 import org.infinispan.test.TestingUtil;
@@ -51,7 +52,8 @@ public class TxStoreTest extends AbstractInfinispanTest {
 
    private EmbeddedCacheManager cacheManager;
    private Cache<String, String> cache;
-   private JdbcStringBasedStore store;
+   private WaitDelegatingNonBlockingStore<String, String> store;
+   private JdbcStringBasedStore jdbcStore;
 
    @BeforeMethod
    public void beforeClass() {
@@ -69,13 +71,14 @@ public void beforeClass() {
 
       cacheManager = TestCacheManagerFactory.createClusteredCacheManager(cc);
       cache = cacheManager.getCache();
-      store = TestingUtil.getFirstTxWriter(cache);
+      store = TestingUtil.getFirstStore(cache);
+      jdbcStore = (JdbcStringBasedStore) store.delegate();
    }
 
    @AfterMethod(alwaysRun = true)
    public void tearDown() throws PersistenceException {
       if (store != null) {
-         store.clear();
+         store.clearAndWait();
          assertRowCount(0);
       }
       TestingUtil.killCacheManagers(cacheManager);
@@ -140,8 +143,8 @@ public void testTxRollbackOnStoreException() throws Exception {
    }
 
    private void assertRowCount(int rowCount) {
-      ConnectionFactory connectionFactory = store.getConnectionFactory();
-      TableName tableName = store.getTableManager(cache.getName()).getTableName();
+      ConnectionFactory connectionFactory = jdbcStore.getConnectionFactory();
+      TableName tableName = jdbcStore.getTableManager(cache.getName()).getTableName();
       int value = UnitTestDatabaseManager.rowCount(connectionFactory, tableName);
       assert value == rowCount : "Expected " + rowCount + " rows, actual value is " + value;
    }
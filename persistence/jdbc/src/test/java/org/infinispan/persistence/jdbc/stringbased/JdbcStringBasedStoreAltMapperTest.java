@@ -4,8 +4,10 @@
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
-import static org.testng.AssertJUnit.fail;
 
+import java.util.concurrent.CompletionException;
+
+import org.infinispan.commons.test.Exceptions;
 import org.infinispan.commons.util.ReflectionUtil;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -17,8 +19,9 @@
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
 import org.infinispan.persistence.jdbc.impl.table.TableName;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestDataSCI;
 import org.infinispan.test.data.Person;
@@ -26,7 +29,6 @@
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
 import org.infinispan.util.PersistenceMockUtil;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -40,7 +42,7 @@
 @Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedStoreAltMapperTest")
 public class JdbcStringBasedStoreAltMapperTest extends AbstractInfinispanTest {
 
-   protected AdvancedLoadWriteStore cacheStore;
+   protected WaitDelegatingNonBlockingStore<Object, Object> cacheStore;
    protected TableManager tableManager;
    protected static final Person MIRCEA = new Person("Mircea");
    protected static final Person MANIK = new Person("Manik");
@@ -61,22 +63,22 @@ public void createCacheStore() throws PersistenceException {
 
       UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
       UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
-      cacheStore = new JdbcStringBasedStore();
       marshaller = new TestObjectStreamMarshaller(TestDataSCI.INSTANCE);
-      cacheStore.init(PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller));
-      cacheStore.start();
-      tableManager = (TableManager) ReflectionUtil.getValue(cacheStore, "tableManager");
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      cacheStore = new WaitDelegatingNonBlockingStore<>(new JdbcStringBasedStore<>(), ctx.getKeyPartitioner());
+      cacheStore.startAndWait(ctx);
+      tableManager = (TableManager) ReflectionUtil.getValue(cacheStore.delegate(), "tableManager");
    }
 
    @AfterMethod
    public void clearStore() {
-      cacheStore.clear();
+      cacheStore.clearAndWait();
       assertRowCount(0);
    }
 
    @AfterClass
    public void destroyStore() throws PersistenceException {
-      cacheStore.stop();
+      cacheStore.stopAndWait();
       marshaller.stop();
    }
 
@@ -84,12 +86,9 @@ public void destroyStore() throws PersistenceException {
     * When trying to persist an unsupported object an exception is expected.
     */
    public void persistUnsupportedObject() throws Exception {
-      try {
-         cacheStore.write(MarshalledEntryUtil.create("key", "value", marshaller));
-         fail("exception is expected as PersonKey2StringMapper does not support strings");
-      } catch (UnsupportedKeyTypeException e) {
-         //expected
-      }
+      // PersonKey2StringMapper does not support strings
+      Exceptions.expectException(CompletionException.class, UnsupportedKeyTypeException.class,
+            () -> cacheStore.write(MarshalledEntryUtil.create("key", "value", marshaller)));
       //just check that an person object will be persisted okay
       cacheStore.write(MarshalledEntryUtil.create(MIRCEA, "Cluj Napoca", marshaller));
    }
@@ -115,7 +114,7 @@ public void testClear() throws Exception {
       cacheStore.write(MarshalledEntryUtil.create(MIRCEA, "value", marshaller));
       cacheStore.write(MarshalledEntryUtil.create(MANIK, "value", marshaller));
       assertRowCount(2);
-      cacheStore.clear();
+      cacheStore.clearAndWait();
       assertRowCount(0);
    }
 
@@ -126,7 +125,7 @@ public void testPurgeExpired() throws Exception {
       cacheStore.write(MarshalledEntryUtil.create(second, marshaller));
       assertRowCount(2);
       Thread.sleep(1100);
-      cacheStore.purge(new WithinThreadExecutor(), null);
+      cacheStore.purge();
       assertRowCount(1);
       assertEquals("val2", cacheStore.loadEntry(MANIK).getValue());
    }
@@ -138,7 +137,7 @@ protected int rowCount() {
    }
 
    protected ConnectionFactory getConnection() {
-      JdbcStringBasedStore store = (JdbcStringBasedStore) cacheStore;
+      JdbcStringBasedStore store = (JdbcStringBasedStore) cacheStore.delegate();
       return store.getConnectionFactory();
    }
 
@@ -4,15 +4,18 @@
 import static org.mockito.Mockito.reset;
 import static org.testng.AssertJUnit.assertNull;
 
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
-import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.jdbc.DatabaseType;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfiguration;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
-import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.persistence.spi.NonBlockingStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
@@ -22,9 +25,10 @@
  * @author Mircea.Markus@jboss.com
  */
 @Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedStoreTest")
-public class JdbcStringBasedStoreTest extends BaseStoreTest {
+public class JdbcStringBasedStoreTest extends BaseNonBlockingStoreTest {
 
    boolean segmented;
+   private JdbcStringBasedStoreConfiguration storeConfiguration;
 
    public JdbcStringBasedStoreTest segmented(boolean segmented) {
       this.segmented = segmented;
@@ -45,17 +49,27 @@ protected String parameters() {
    }
 
    @Override
-   protected AdvancedLoadWriteStore createStore() throws Exception {
-      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+   protected Configuration buildConfig(ConfigurationBuilder builder) {
       JdbcStringBasedStoreConfigurationBuilder storeBuilder = builder
             .persistence()
                .addStore(JdbcStringBasedStoreConfigurationBuilder.class);
-      storeBuilder.segmented(segmented);
-      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
-      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
-      JdbcStringBasedStore stringBasedCacheStore = new JdbcStringBasedStore();
-      stringBasedCacheStore.init(createContext(builder.build()));
-      return stringBasedCacheStore;
+      if (storeConfiguration != null) {
+         // A restarted store has to connect to the same database
+         storeBuilder.read(storeConfiguration);
+      } else {
+         storeBuilder.segmented(segmented);
+         UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+         UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
+      }
+      Configuration configuration = builder.build();
+      storeConfiguration = (JdbcStringBasedStoreConfiguration) configuration.persistence().stores().get(0);
+      return configuration;
+   }
+
+   @Override
+   protected NonBlockingStore createStore() {
+      storeConfiguration = null;
+      return new JdbcStringBasedStore();
    }
 
    public void testNotCreateConnectionFactory() throws Exception {
@@ -74,8 +88,7 @@ public void testNotCreateConnectionFactory() throws Exception {
             .createOnStart(false);
 
       JdbcStringBasedStore stringBasedCacheStore = new JdbcStringBasedStore();
-      stringBasedCacheStore.init(createContext(builder.build()));
-      stringBasedCacheStore.start();
+      CompletionStages.join(stringBasedCacheStore.start(createContext(builder.build())));
       assertNull(stringBasedCacheStore.getConnectionFactory());
 
       // this will make sure that if a method like stop is called on the connection then it will barf an exception
@@ -90,7 +103,7 @@ public void testNotCreateConnectionFactory() throws Exception {
       reset(tableManager, connectionFactory);
       tableManager.stop();
 
-      stringBasedCacheStore.stop();
+      CompletionStages.join(stringBasedCacheStore.stop());
    }
 
    @Override
@@ -1,11 +1,17 @@
 package org.infinispan.persistence.remote;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
@@ -24,6 +30,7 @@
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.impl.InternalEntryFactory;
 import org.infinispan.container.versioning.NumericVersion;
@@ -31,7 +38,6 @@
 import org.infinispan.jboss.marshalling.commons.GenericJBossMarshaller;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
-import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.remote.configuration.AuthenticationConfiguration;
 import org.infinispan.persistence.remote.configuration.ConnectionPoolConfiguration;
 import org.infinispan.persistence.remote.configuration.RemoteServerConfiguration;
@@ -39,18 +45,22 @@
 import org.infinispan.persistence.remote.configuration.SslConfiguration;
 import org.infinispan.persistence.remote.logging.Log;
 import org.infinispan.persistence.remote.wrapper.HotRodEntryMarshaller;
-import org.infinispan.persistence.spi.FlagAffectedStore;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
 import org.infinispan.persistence.spi.MarshalledValue;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
-import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
-import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.LogFactory;
 import org.reactivestreams.Publisher;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import net.jcip.annotations.ThreadSafe;
 
 /**
@@ -59,6 +69,12 @@
  * the nodes that have the highest chance of containing the given key. This cache store supports both preloading
  * and <b>fetchPersistentState</b>.
  * <p/>
+ * All the operations are performed with the asynchronous API of the HotRod client, so no thread is blocked while
+ * waiting for the remote cluster. Bulk loads and writes are sent as {@code getAll}/{@code putAll} requests of up to
+ * {@link RemoteStoreConfiguration#maxBatchSize()} entries and several of those batches are sent concurrently over
+ * the connections of the pool. Iteration uses the segment aware remote iteration, which reads the requested segments
+ * from their primary owners in parallel.
+ * <p/>
  * Purging elements is not possible, as HotRod does not support the fetching of all remote keys (this would be a
  * very costly operation as well). Purging takes place at the remote end (infinispan cluster).
  * <p/>
@@ -71,11 +87,15 @@
 @Store(shared = true)
 @ThreadSafe
 @ConfiguredBy(RemoteStoreConfiguration.class)
-public class RemoteStore<K, V> implements SegmentedAdvancedLoadWriteStore<K, V>, FlagAffectedStore<K, V> {
+public class RemoteStore<K, V> implements NonBlockingStore<K, V> {
 
    private static final Log log = LogFactory.getLog(RemoteStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   // The converter used by the HotRod client to iterate over the keys only
+   private static final String KEY_ONLY_CONVERTER = "org.infinispan.server.hotrod.HotRodServer$ToEmptyBytesKeyValueFilterConverter";
+   private static final int ITERATION_BATCH_SIZE = 512;
+
    private RemoteStoreConfiguration configuration;
 
    private volatile RemoteCacheManager remoteCacheManager;
@@ -86,179 +106,186 @@
    private static final String MAXIDLE = "maxidle";
    protected InitializationContext ctx;
    private MarshallableEntryFactory<K, V> entryFactory;
+   private BlockingManager blockingManager;
+   private Scheduler nonBlockingScheduler;
+   // How many bulk requests may be in flight at the same time
+   private int pipelineDepth;
 
    @Override
-   public void init(InitializationContext ctx) {
+   public CompletionStage<Void> start(InitializationContext ctx) {
       this.ctx = ctx;
       this.configuration = ctx.getConfiguration();
       this.entryFactory = ctx.getMarshallableEntryFactory();
+      this.blockingManager = ctx.getBlockingManager();
+      this.nonBlockingScheduler = Schedulers.from(ctx.getNonBlockingExecutor());
+      int maxActive = configuration.connectionPool().maxActive();
+      this.pipelineDepth = maxActive > 0 ? maxActive : ProcessorInfo.availableProcessors();
+
+      return blockingManager.runBlocking(() -> {
+         final Marshaller marshaller;
+         if (configuration.marshaller() != null) {
+            marshaller = Util.getInstance(configuration.marshaller(), ctx.getCache().getAdvancedCache().getClassLoader());
+         } else if (configuration.hotRodWrapping()) {
+            marshaller = new HotRodEntryMarshaller(ctx.getByteBufferFactory());
+         } else if (configuration.rawValues()) {
+            ClassAllowList allowList = ctx.getCache().getCacheManager().getClassAllowList();
+            marshaller = new GenericJBossMarshaller(Thread.currentThread().getContextClassLoader(), allowList);
+         } else {
+            marshaller = ctx.getPersistenceMarshaller();
+         }
+         ConfigurationBuilder builder = buildRemoteConfiguration(configuration, marshaller);
+         remoteCacheManager = new RemoteCacheManager(builder.build());
+
+         if (configuration.remoteCacheName().isEmpty())
+            remoteCache = remoteCacheManager.getCache();
+         else
+            remoteCache = remoteCacheManager.getCache(configuration.remoteCacheName());
+         if (configuration.rawValues() && iceFactory == null) {
+            iceFactory = ctx.getCache().getAdvancedCache().getComponentRegistry().getComponent(InternalEntryFactory.class);
+         }
+      }, "remotestore-start");
    }
 
    @Override
-   public void start() throws PersistenceException {
-      final Marshaller marshaller;
-      if (configuration.marshaller() != null) {
-         marshaller = Util.getInstance(configuration.marshaller(), ctx.getCache().getAdvancedCache().getClassLoader());
-      } else if (configuration.hotRodWrapping()) {
-         marshaller = new HotRodEntryMarshaller(ctx.getByteBufferFactory());
-      } else if (configuration.rawValues()) {
-         ClassAllowList allowList = ctx.getCache().getCacheManager().getClassAllowList();
-         marshaller = new GenericJBossMarshaller(Thread.currentThread().getContextClassLoader(), allowList);
-      } else {
-         marshaller = ctx.getPersistenceMarshaller();
-      }
-      ConfigurationBuilder builder = buildRemoteConfiguration(configuration, marshaller);
-      remoteCacheManager = new RemoteCacheManager(builder.build());
-
-      if (configuration.remoteCacheName().isEmpty())
-         remoteCache = remoteCacheManager.getCache();
-      else
-         remoteCache = remoteCacheManager.getCache(configuration.remoteCacheName());
-      if (configuration.rawValues() && iceFactory == null) {
-         iceFactory = ctx.getCache().getAdvancedCache().getComponentRegistry().getComponent(InternalEntryFactory.class);
-      }
-   }
-
-   @Override
-   public void stop() throws PersistenceException {
-      remoteCacheManager.stop();
+   public CompletionStage<Void> stop() {
+      return blockingManager.runBlocking(() -> remoteCacheManager.stop(), "remotestore-stop");
    }
 
    @Override
-   public boolean isAvailable() {
-      try {
-         PingResponse pr = ((RemoteCacheImpl) remoteCache).ping();
-         return pr.isSuccess();
-      } catch (Exception e) {
-         return false;
-      }
+   public Set<Characteristic> characteristics() {
+      return EnumSet.of(Characteristic.BULK_READ, Characteristic.EXPIRATION, Characteristic.SEGMENTABLE,
+            Characteristic.SHAREABLE);
    }
 
    @Override
-   public MarshallableEntry<K, V> get(int segment, Object key) {
-      return loadEntry(key);
+   public CompletionStage<Boolean> isAvailable() {
+      return blockingManager.supplyBlocking(() -> {
+         try {
+            PingResponse pr = ((RemoteCacheImpl) remoteCache).ping();
+            return pr.isSuccess();
+         } catch (Exception e) {
+            return false;
+         }
+      }, "remotestore-isAvailable");
    }
 
    @Override
-   public MarshallableEntry<K, V> loadEntry(Object key) throws PersistenceException {
+   public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
+      CompletionStage<MarshallableEntry<K, V>> stage;
       if (configuration.rawValues()) {
-         Object unwrappedKey;
-         if (key instanceof WrappedByteArray) {
-            unwrappedKey = ((WrappedByteArray) key).getBytes();
-         } else {
-            unwrappedKey = key;
-         }
-         MetadataValue<?> value = remoteCache.getWithMetadata(unwrappedKey);
-         if (value != null) {
-            Metadata metadata = new EmbeddedMetadata.Builder()
-                  .version(new NumericVersion(value.getVersion()))
-                  .lifespan(value.getLifespan(), TimeUnit.SECONDS)
-                  .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
-            long created = value.getCreated();
-            long lastUsed = value.getLastUsed();
-            Object realValue = value.getValue();
-            if (realValue instanceof byte[]) {
-               realValue = new WrappedByteArray((byte[]) realValue);
-            }
-            return entryFactory.create(key, realValue, metadata, null, created, lastUsed);
-         } else {
-            return null;
-         }
+         stage = remoteCache.getWithMetadataAsync(unwrap(key))
+               .thenApply(value -> toEntry(key, value));
       } else {
-         Object unwrappedKey;
-         if (key instanceof WrappedByteArray) {
-            unwrappedKey = ((WrappedByteArray) key).getBytes();
-         } else {
-            unwrappedKey = key;
-         }
-         MarshalledValue value = (MarshalledValue) remoteCache.get(unwrappedKey);
-         return value == null ? null : entryFactory.create(key, value);
+         stage = remoteCache.getAsync(unwrap(key))
+               .thenApply(value -> value == null ? null : entryFactory.create(key, (MarshalledValue) value));
       }
+      return continueOnNonBlockingThread(stage, "remotestore-load");
    }
 
    @Override
-   public boolean contains(int segment, Object key) {
-      return contains(key);
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      Flowable<Object> keys = Flowable.fromPublisher(keyPublisher)
+            .flatMap(sp -> sp, publisherCount);
+      Flowable<MarshallableEntry<K, V>> entries;
+      if (configuration.rawValues()) {
+         // There is no bulk operation returning the metadata, so the keys are requested concurrently instead
+         entries = keys.flatMapMaybe(key -> Maybe.fromCompletionStage(remoteCache.getWithMetadataAsync(unwrap(key)))
+               .map(value -> toEntry(key, value)), false, pipelineDepth * configuration.maxBatchSize());
+      } else {
+         entries = keys.buffer(configuration.maxBatchSize())
+               .flatMap(batch -> {
+                  Set<Object> unwrappedKeys = new HashSet<>(batch.size());
+                  for (Object key : batch) {
+                     unwrappedKeys.add(unwrap(key));
+                  }
+                  return Flowable.fromCompletionStage(remoteCache.getAllAsync(unwrappedKeys))
+                        .flatMapIterable(Map::entrySet)
+                        .map(e -> entryFactory.create(wrap(e.getKey()), (MarshalledValue) e.getValue()));
+               }, pipelineDepth);
+      }
+      return entries
+            .onErrorResumeNext(t -> Flowable.error(new PersistenceException(t)))
+            .observeOn(nonBlockingScheduler);
    }
 
-   @Override
-   public boolean contains(Object key) throws PersistenceException {
-      if (key instanceof WrappedByteArray) {
-         key = ((WrappedByteArray) key).getBytes();
+   private MarshallableEntry<K, V> toEntry(Object key, MetadataValue<?> value) {
+      if (value == null) {
+         return null;
       }
-      return remoteCache.containsKey(key);
+      Metadata metadata = new EmbeddedMetadata.Builder()
+            .version(new NumericVersion(value.getVersion()))
+            .lifespan(value.getLifespan(), TimeUnit.SECONDS)
+            .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
+      long created = value.getCreated();
+      long lastUsed = value.getLastUsed();
+      return entryFactory.create(key, wrap(value.getValue()), metadata, null, created, lastUsed);
    }
 
    @Override
-   public Flowable<K> publishKeys(Predicate<? super K> filter) {
-      return publishKeys(null, filter);
+   public CompletionStage<Boolean> containsKey(int segment, Object key) {
+      return continueOnNonBlockingThread(remoteCache.containsKeyAsync(unwrap(key)), "remotestore-containsKey");
    }
 
    @Override
-   public Flowable<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
-      Flowable<K> keyFlowable = entryFlowable(remoteCache.keySet(segments).iterator())
-            .map(RemoteStore::wrap);
+   public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
+      Flowable<K> keyFlowable;
+      if (supportsKeyOnlyIteration()) {
+         keyFlowable = Flowable.fromPublisher(remoteCache.<Object>publishEntries(KEY_ONLY_CONVERTER, null,
+               segmentsToUse(segments), ITERATION_BATCH_SIZE))
+               .map(e -> wrap(e.getKey()));
+      } else {
+         // Older protocols iterate the keys with a blocking iterator
+         keyFlowable = Flowable.fromPublisher(blockingManager.blockingPublisher(
+               entryFlowable(remoteCache.keySet(configuration.segmented() ? segments : null).iterator())))
+               .map(RemoteStore::wrap);
+      }
       if (filter != null) {
          keyFlowable = keyFlowable.filter(filter::test);
       }
-      return keyFlowable;
+      return keyFlowable.observeOn(nonBlockingScheduler);
    }
 
-   @Override
-   public Publisher<MarshallableEntry<K, V>> entryPublisher(Predicate<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
-      return entryPublisher(null, filter, fetchValue, fetchMetadata);
+   private boolean supportsKeyOnlyIteration() {
+      ProtocolVersion protocol = configuration.protocol();
+      return protocol == null || protocol.compareTo(ProtocolVersion.PROTOCOL_VERSION_27) >= 0;
+   }
+
+   private static <E> Flowable<E> entryFlowable(CloseableIterator<E> closeableIteratorSet) {
+      return Flowable.using(
+            () -> closeableIteratorSet,
+            iter -> Flowable.fromIterable(() -> iter),
+            AutoCloseable::close);
    }
 
    @Override
-   public Publisher<MarshallableEntry<K, V>> entryPublisher(IntSet segments, Predicate<? super K> filter, boolean fetchValue, boolean fetchMetadata) {
-      if (!fetchValue && !fetchMetadata) {
-         Flowable<K> keyFlowable = publishKeys(segments, filter);
-         return keyFlowable.map(key -> entryFactory.create(key));
+   public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predicate<? super K> filter, boolean includeValues) {
+      if (!includeValues) {
+         return Flowable.fromPublisher(publishKeys(segments, filter))
+               .map(entryFactory::create);
       }
+      Flowable<MarshallableEntry<K, V>> entryFlowable;
       if (configuration.rawValues()) {
-         io.reactivex.rxjava3.functions.Predicate<Map.Entry<Object, ?>> filterToUse = filter == null ? null :
-               e -> filter.test(wrap(e.getKey()));
-         if (!fetchMetadata) {
-            // Only pass segments if we are running segmented mode (denoted by keyPartitioner being non null)
-            Flowable<Map.Entry<Object, Object>> entryFlowable = entryFlowable(remoteCache.entrySet(segments)
-                  .iterator());
-            if (filterToUse != null) {
-               entryFlowable = entryFlowable.filter(filterToUse);
-            }
-            return entryFlowable.map(e -> entryFactory.create(wrap(e.getKey()), (V) wrap(e.getValue())));
-         } else {
-            Flowable<Map.Entry<Object, MetadataValue<Object>>> entryMetatdataFlowable = entryFlowable(
-                  remoteCache.retrieveEntriesWithMetadata(segments, 512));
-            if (filterToUse != null) {
-               entryMetatdataFlowable = entryMetatdataFlowable.filter(filterToUse);
-            }
-            return entryMetatdataFlowable.map(e -> {
-               MetadataValue<Object> value = e.getValue();
-               Metadata metadata = new EmbeddedMetadata.Builder()
-                     .version(new NumericVersion(value.getVersion()))
-                     .lifespan(value.getLifespan(), TimeUnit.SECONDS)
-                     .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
-               long created = value.getCreated();
-               long lastUsed = value.getLastUsed();
-               Object realValue = value.getValue();
-               return entryFactory.create(wrap(e.getKey()), wrap(realValue), metadata, null, created, lastUsed);
-            });
-         }
+         entryFlowable = Flowable.fromPublisher(remoteCache.publishEntriesWithMetadata(segmentsToUse(segments), ITERATION_BATCH_SIZE))
+               .map(e -> toEntry(wrap(e.getKey()), e.getValue()));
       } else {
-         Flowable<Map.Entry<Object, Object>> entryFlowable = entryFlowable(remoteCache.entrySet(segments).iterator());
-         if (filter != null) {
-            entryFlowable = entryFlowable.filter(e -> filter.test(wrap(e.getKey())));
-         }
-         // Technically we will send the metadata and value to the user, no matter what.
-         return entryFlowable.map(e -> e.getValue() == null ? null : entryFactory.create(e.getKey(), (MarshalledValue) e.getValue()));
+         entryFlowable = Flowable.fromPublisher(remoteCache.publishEntries(null, null, segmentsToUse(segments), ITERATION_BATCH_SIZE))
+               .map(e -> entryFactory.create(e.getKey(), (MarshalledValue) e.getValue()));
       }
+      if (filter != null) {
+         entryFlowable = entryFlowable.filter(e -> filter.test(e.getKey()));
+      }
+      return entryFlowable.observeOn(nonBlockingScheduler);
    }
 
-   private static <E> Flowable<E> entryFlowable(CloseableIterator<E> closeableIteratorSet) {
-      return Flowable.using(
-            () -> closeableIteratorSet,
-            iter -> Flowable.fromIterable(() -> iter),
-            AutoCloseable::close);
+   /**
+    * Only pass segments to the remote iteration if the store is segmented, otherwise the whole remote cache is read.
+    */
+   private Set<Integer> segmentsToUse(IntSet segments) {
+      return configuration.segmented() ? segments : null;
+   }
+
+   private static Object unwrap(Object key) {
+      return key instanceof WrappedByteArray ? ((WrappedByteArray) key).getBytes() : key;
    }
 
    private static <T> T wrap(Object obj) {
@@ -269,27 +296,28 @@ private static <T> T wrap(Object obj) {
    }
 
    @Override
-   public int size() {
-      return remoteCache.size();
-   }
-
-   @Override
-   public int size(IntSet segments) {
-      return PersistenceUtil.count(this, segments);
+   public CompletionStage<Long> size(IntSet segments) {
+      if (configuration.segmented()) {
+         return Flowable.fromPublisher(publishKeys(segments, null))
+               .count()
+               .toCompletionStage();
+      }
+      return approximateSize(segments);
    }
 
    @Override
-   public void purge(Executor threadPool, PurgeListener task) {
-      //ignored
+   public CompletionStage<Long> approximateSize(IntSet segments) {
+      return continueOnNonBlockingThread(remoteCache.sizeAsync(), "remotestore-size");
    }
 
    @Override
-   public void write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
-      write(entry);
+   public Publisher<MarshallableEntry<K, V>> purgeExpired() {
+      // Expiration takes place at the remote end
+      return Flowable.empty();
    }
 
    @Override
-   public void write(MarshallableEntry entry) throws PersistenceException {
+   public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
       if (trace) {
          log.tracef("Adding entry: %s", entry);
       }
@@ -299,65 +327,87 @@ public void write(MarshallableEntry entry) throws PersistenceException {
       Object key = getKey(entry);
       Object value = getValue(entry);
 
-      remoteCache.put(key, value, toSeconds(lifespan, entry.getKey(), LIFESPAN), TimeUnit.SECONDS,
-            toSeconds(maxIdle, entry.getKey(), MAXIDLE), TimeUnit.SECONDS);
+      CompletionStage<Void> stage = remoteCache.putAsync(key, value, toSeconds(lifespan, entry.getKey(), LIFESPAN), TimeUnit.SECONDS,
+            toSeconds(maxIdle, entry.getKey(), MAXIDLE), TimeUnit.SECONDS)
+            .thenApply(CompletableFutures.toNullFunction());
+      return continueOnNonBlockingThread(stage, "remotestore-write");
    }
 
    private Object getKey(MarshallableEntry entry) {
-      Object key = entry.getKey();
-      if (key instanceof WrappedByteArray)
-         return ((WrappedByteArray) key).getBytes();
-      return key;
+      return unwrap(entry.getKey());
    }
 
    private Object getValue(MarshallableEntry entry) {
       if (configuration.rawValues()) {
-         Object value = entry.getValue();
-         return value instanceof WrappedByteArray ? ((WrappedByteArray) value).getBytes() : value;
+         return unwrap(entry.getValue());
       }
       return entry.getMarshalledValue();
    }
 
    @Override
-   public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
-      return Flowable.fromPublisher(publisher)
+   public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
+         Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
+      Completable removes = Flowable.fromPublisher(removePublisher)
+            .flatMap(sp -> sp, publisherCount)
+            .flatMapCompletable(key -> Completable.fromCompletionStage(remoteCache.removeAsync(unwrap(key))),
+                  false, pipelineDepth * configuration.maxBatchSize());
+      Completable writes = Flowable.fromPublisher(writePublisher)
+            .flatMap(sp -> sp, publisherCount)
             .buffer(configuration.maxBatchSize())
-            // TODO: this is blocking - when the full non blocking SPI is introduced this needs to chain returns
-            // of the putAll to ensure that only a single batch is sent at a time
-            .doOnNext(entries -> remoteCache.putAll(entries.stream().collect(Collectors.toMap(this::getKey, this::getValue))))
-            .doOnError(PersistenceException::new)
-            .ignoreElements()
+            .flatMapCompletable(entries -> Completable.fromCompletionStage(putAll(entries)), false, pipelineDepth);
+      CompletionStage<Void> stage = Completable.mergeArray(removes, writes)
+            .onErrorResumeNext(t -> Completable.error(new PersistenceException(t)))
             .toCompletionStage(null);
+      return continueOnNonBlockingThread(stage, "remotestore-batch");
+   }
+
+   /**
+    * Writes the entries with a {@code putAll} per distinct lifespan and max idle, as a {@code putAll} applies the
+    * same expiration to all of its entries.
+    */
+   private CompletableFuture<Void> putAll(List<MarshallableEntry<K, V>> entries) {
+      Map<Expiration, Map<Object, Object>> entriesByExpiration = new HashMap<>();
+      for (MarshallableEntry<K, V> entry : entries) {
+         Metadata metadata = entry.getMetadata();
+         long lifespan = toSeconds(metadata != null ? metadata.lifespan() : -1, entry.getKey(), LIFESPAN);
+         long maxIdle = toSeconds(metadata != null ? metadata.maxIdle() : -1, entry.getKey(), MAXIDLE);
+         entriesByExpiration.computeIfAbsent(new Expiration(lifespan, maxIdle), ignore -> new HashMap<>())
+               .put(getKey(entry), getValue(entry));
+      }
+      if (entriesByExpiration.size() == 1) {
+         Map.Entry<Expiration, Map<Object, Object>> single = entriesByExpiration.entrySet().iterator().next();
+         return putAll(single.getKey(), single.getValue());
+      }
+      List<CompletableFuture<Void>> futures = new ArrayList<>(entriesByExpiration.size());
+      entriesByExpiration.forEach((expiration, map) -> futures.add(putAll(expiration, map)));
+      return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
    }
 
-   @Override
-   public void clear() throws PersistenceException {
-      remoteCache.clear();
-   }
-
-   @Override
-   public void clear(IntSet segments) {
-      CompletionStage<Void> stage = publishKeys(segments, null)
-            .doOnNext(k -> remoteCache.remove(k))
-            .ignoreElements()
-            .toCompletionStage(null);
-      CompletionStages.join(stage);
+   private CompletableFuture<Void> putAll(Expiration expiration, Map<Object, Object> map) {
+      return remoteCache.putAllAsync(map, expiration.lifespan, TimeUnit.SECONDS, expiration.maxIdle, TimeUnit.SECONDS);
    }
 
    @Override
-   public boolean delete(int segment, Object key) {
-      return delete(key);
+   public CompletionStage<Void> clear() {
+      return continueOnNonBlockingThread(remoteCache.clearAsync(), "remotestore-clear");
    }
 
    @Override
-   public boolean delete(Object key) throws PersistenceException {
-      if (key instanceof WrappedByteArray) {
-         key = ((WrappedByteArray) key).getBytes();
-      }
+   public CompletionStage<Boolean> delete(int segment, Object key) {
       // Less than ideal, but RemoteCache, since it extends Cache, can only
       // know whether the operation succeeded based on whether the previous
       // value is null or not.
-      return remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).remove(key) != null;
+      CompletionStage<Boolean> stage = remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).removeAsync(unwrap(key))
+            .thenApply(Objects::nonNull);
+      return continueOnNonBlockingThread(stage, "remotestore-delete");
+   }
+
+   /**
+    * The HotRod client completes its operations on its IO threads, so the callbacks of the persistence layer are
+    * moved to a non blocking thread not to delay the processing of other responses.
+    */
+   private <T> CompletionStage<T> continueOnNonBlockingThread(CompletionStage<T> stage, Object traceId) {
+      return blockingManager.continueOnNonBlockingThread(stage, traceId);
    }
 
    private long toSeconds(long millis, Object key, String desc) {
@@ -451,7 +501,30 @@ public RemoteStoreConfiguration getConfiguration() {
    }
 
    @Override
-   public boolean shouldWrite(long commandFlags) {
-      return !EnumUtil.containsAny(FlagBitSets.ROLLING_UPGRADE, commandFlags);
+   public boolean ignoreCommandWithFlags(long commandFlags) {
+      return EnumUtil.containsAny(FlagBitSets.ROLLING_UPGRADE, commandFlags);
+   }
+
+   private static final class Expiration {
+      private final long lifespan;
+      private final long maxIdle;
+
+      Expiration(long lifespan, long maxIdle) {
+         this.lifespan = lifespan;
+         this.maxIdle = maxIdle;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         Expiration that = (Expiration) o;
+         return lifespan == that.lifespan && maxIdle == that.maxIdle;
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * Long.hashCode(lifespan) + Long.hashCode(maxIdle);
+      }
    }
 }
@@ -7,14 +7,15 @@
 import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
-import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.remote.configuration.RemoteStoreConfigurationBuilder;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.server.hotrod.HotRodServer;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -28,14 +29,14 @@
  * @since 5.2
  */
 @Test(testName = "persistence.remote.RemoteStoreRawValuesTest", groups = "functional")
-public class RemoteStoreRawValuesTest extends BaseStoreTest {
+public class RemoteStoreRawValuesTest extends BaseNonBlockingStoreTest {
 
    private static final String REMOTE_CACHE = "remote-cache";
    private EmbeddedCacheManager localCacheManager;
    private HotRodServer hrServer;
 
    @Override
-   protected AdvancedLoadWriteStore createStore() {
+   protected NonBlockingStore createStore() {
       ConfigurationBuilder localBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
       localBuilder.memory().evictionType(EvictionType.COUNT).size(WRITE_DELETE_BATCH_MAX_ENTRIES)
             .expiration().wakeUpInterval(10L);
@@ -49,7 +50,11 @@ protected AdvancedLoadWriteStore createStore() {
       localCacheManager.getCache(REMOTE_CACHE).getAdvancedCache().getComponentRegistry().rewire();
       hrServer = HotRodClientTestingUtil.startHotRodServer(localCacheManager);
 
-      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      return new RemoteStore();
+   }
+
+   @Override
+   protected Configuration buildConfig(ConfigurationBuilder builder) {
       RemoteStoreConfigurationBuilder storeConfigurationBuilder = builder
             .persistence()
                .addStore(RemoteStoreConfigurationBuilder.class)
@@ -59,11 +64,7 @@ protected AdvancedLoadWriteStore createStore() {
                   .addServer()
                      .host(hrServer.getHost())
                      .port(hrServer.getPort());
-
-      RemoteStore remoteStore = new RemoteStore();
-      remoteStore.init(createContext(builder.build()));
-
-      return remoteStore;
+      return builder.build();
    }
 
    @Override
@@ -86,13 +87,13 @@ protected boolean storePurgesAllExpired() {
 
    @Override
    public void testReplaceExpiredEntry() throws Exception {
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100l)));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", 100l)));
       // Hot Rod does not support milliseconds, so 100ms is rounded to the nearest second,
       // and so data is stored for 1 second here. Adjust waiting time accordingly.
       timeService.advance(1101);
-      assertNull(cl.loadEntry("k1"));
+      assertNull(store.loadEntry("k1"));
       long start = System.currentTimeMillis();
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v2", 100l)));
-      assertTrue(cl.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v2", 100l)));
+      assertTrue(store.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
    }
 }
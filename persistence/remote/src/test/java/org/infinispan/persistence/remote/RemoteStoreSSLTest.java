@@ -6,14 +6,15 @@
 
 import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
-import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.remote.configuration.RemoteStoreConfigurationBuilder;
 import org.infinispan.persistence.remote.configuration.SecurityConfigurationBuilder;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.server.core.security.simple.SimpleServerAuthenticationProvider;
 import org.infinispan.server.hotrod.HotRodServer;
@@ -30,14 +31,14 @@
  * @since 9.1
  */
 @Test(testName = "persistence.remote.RemoteStoreSSLTest", groups = "functional")
-public class RemoteStoreSSLTest extends BaseStoreTest {
+public class RemoteStoreSSLTest extends BaseNonBlockingStoreTest {
 
    private static final String REMOTE_CACHE = "remote-cache";
    private EmbeddedCacheManager localCacheManager;
    private HotRodServer hrServer;
 
    @Override
-   protected AdvancedLoadWriteStore createStore() throws Exception {
+   protected NonBlockingStore createStore() throws Exception {
       ConfigurationBuilder localBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
 
       localCacheManager = TestCacheManagerFactory.createCacheManager(
@@ -68,7 +69,12 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       hrServer = new HotRodServer();
       hrServer.start(serverBuilder.build(), localCacheManager);
 
-      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      return new RemoteStore();
+   }
+
+   @Override
+   protected Configuration buildConfig(ConfigurationBuilder builder) {
+      ClassLoader cl = RemoteStoreSSLTest.class.getClassLoader();
       SecurityConfigurationBuilder remoteSecurity = builder
             .persistence()
             .addStore(RemoteStoreConfigurationBuilder.class)
@@ -86,10 +92,7 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       remoteSecurity
             .authentication().enable()
             .saslMechanism("EXTERNAL");
-      RemoteStore remoteStore = new RemoteStore();
-      remoteStore.init(createContext(builder.build()));
-
-      return remoteStore;
+      return builder.build();
    }
 
    @Override
@@ -116,11 +119,11 @@ public void testLoadAll() throws PersistenceException {
 
    @Override
    public void testReplaceExpiredEntry() throws Exception {
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100l)));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", 100l)));
       timeService.advance(1101);
-      assertNull(cl.loadEntry("k1"));
+      assertNull(store.loadEntry("k1"));
       long start = System.currentTimeMillis();
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v2", 100l)));
-      assertTrue(cl.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v2", 100l)));
+      assertTrue(store.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
    }
 }
@@ -15,16 +15,16 @@
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.persistence.PersistenceMarshaller;
-import org.infinispan.persistence.BaseStoreTest;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
 import org.infinispan.persistence.remote.configuration.RemoteStoreConfigurationBuilder;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
-import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.server.hotrod.HotRodServer;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -38,14 +38,14 @@
  * @since 4.1
  */
 @Test(testName = "persistence.remote.RemoteStoreTest", groups = "functional")
-public class RemoteStoreTest extends BaseStoreTest {
+public class RemoteStoreTest extends BaseNonBlockingStoreTest {
 
    private static final String REMOTE_CACHE = "remote-cache";
    private EmbeddedCacheManager localCacheManager;
    private HotRodServer hrServer;
 
    @Override
-   protected AdvancedLoadWriteStore createStore() {
+   protected NonBlockingStore createStore() {
       ConfigurationBuilder localBuilder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
       localBuilder.memory().evictionType(EvictionType.COUNT).size(WRITE_DELETE_BATCH_MAX_ENTRIES).expiration().wakeUpInterval(10L);
       // Set it to dist so it has segments
@@ -63,8 +63,11 @@ protected AdvancedLoadWriteStore createStore() {
       // In case if the server has to unmarshall the value, make sure to use the same marshaller
       hrServer.setMarshaller(getMarshaller());
 
-      ConfigurationBuilder builder = TestCacheManagerFactory
-            .getDefaultCacheConfiguration(false);
+      return new RemoteStore();
+   }
+
+   @Override
+   protected Configuration buildConfig(ConfigurationBuilder builder) {
       RemoteStoreConfigurationBuilder storeConfigurationBuilder = builder
             .persistence()
                .addStore(RemoteStoreConfigurationBuilder.class)
@@ -73,10 +76,7 @@ protected AdvancedLoadWriteStore createStore() {
                .addServer()
                   .host(hrServer.getHost())
                   .port(hrServer.getPort());
-
-      RemoteStore remoteStore = new RemoteStore();
-      remoteStore.init(createContext(builder.build()));
-      return remoteStore;
+      return builder.build();
    }
 
    @Override
@@ -99,22 +99,20 @@ protected boolean storePurgesAllExpired() {
 
    @Override
    public void testReplaceExpiredEntry() {
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
       // Hot Rod does not support milliseconds, so 100ms is rounded to the nearest second,
       // and so data is stored for 1 second here. Adjust waiting time accordingly.
       timeService.advance(1101);
-      assertNull(cl.loadEntry("k1"));
+      assertNull(store.loadEntry("k1"));
       long start = System.currentTimeMillis();
-      cl.write(marshalledEntry(internalCacheEntry("k1", "v2", 100)));
-      assertTrue(cl.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v2", 100)));
+      assertTrue(store.loadEntry("k1").getValue().equals("v2") || TestingUtil.moreThanDurationElapsed(start, 100));
    }
 
-   void countWithSegments(ToIntBiFunction<SegmentedAdvancedLoadWriteStore<?, ?>, IntSet> countFunction) {
+   void countWithSegments(ToIntBiFunction<NonBlockingStore<?, ?>, IntSet> countFunction) {
       Cache<byte[], byte[]> cache = localCacheManager.<byte[], byte[]>getCache(REMOTE_CACHE).getAdvancedCache().withStorageMediaType();
 
-      RemoteStore rs = (RemoteStore) cl;
-
-      rs.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
 
       Iterator<byte[]> iter = cache.keySet().iterator();
       assertTrue(iter.hasNext());
@@ -126,7 +124,7 @@ void countWithSegments(ToIntBiFunction<SegmentedAdvancedLoadWriteStore<?, ?>, In
       int segment = keyPartitioner.getSegment(key);
 
       // Publish keys should return our key if we use a set that contains that segment
-      assertEquals(1, countFunction.applyAsInt(rs, IntSets.immutableSet(segment)));
+      assertEquals(1, countFunction.applyAsInt(store, IntSets.immutableSet(segment)));
 
       // Create int set that includes all segments but the one that maps to the key
       int maxSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
@@ -138,20 +136,20 @@ void countWithSegments(ToIntBiFunction<SegmentedAdvancedLoadWriteStore<?, ?>, In
       }
 
       // Publish keys shouldn't return our key since the IntSet doesn't contain our segment
-      assertEquals(0, countFunction.applyAsInt(rs, intSet));
+      assertEquals(0, countFunction.applyAsInt(store, intSet));
    }
 
    public void testPublishKeysWithSegments() {
-      countWithSegments((salws, intSet) ->
-         Flowable.fromPublisher(salws.publishKeys(intSet, null))
+      countWithSegments((nbs, intSet) ->
+         Flowable.fromPublisher(nbs.publishKeys(intSet, null))
                .count()
                .blockingGet().intValue()
       );
    }
 
    public void testPublishEntriesWithSegments() {
-      countWithSegments((salws, intSet) ->
-            Flowable.fromPublisher(salws.entryPublisher(intSet, null, true, true))
+      countWithSegments((nbs, intSet) ->
+            Flowable.fromPublisher(nbs.publishEntries(intSet, null, true))
                   .count()
                   .blockingGet().intValue()
       );
@@ -5,13 +5,13 @@
 import java.io.File;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -19,6 +19,7 @@
 import java.util.Set;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -59,16 +60,18 @@
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.SstFileWriter;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
 import io.reactivex.rxjava3.core.Flowable;
-import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.UnicastProcessor;
 
@@ -79,6 +82,14 @@
 
    static final String DATABASE_PROPERTY_NAME_WITH_SUFFIX = "database.";
    static final String COLUMN_FAMILY_PROPERTY_NAME_WITH_SUFFIX = "data.";
+   // Expiration index entries are grouped by buckets of this duration, which are purged as a whole once elapsed
+   static final long EXPIRY_BUCKET_MILLIS = 1000;
+   static final byte EXPIRY_INDEX_PREFIX = 0;
+   static final int EXPIRY_INDEX_KEY_OFFSET = 1 + Long.BYTES;
+   private static final byte[] EXPIRY_INDEX_START = {EXPIRY_INDEX_PREFIX};
+   // Legacy entries are keyed by the marshalled expiry time which never starts with the prefix of the index
+   private static final byte[] LEGACY_EXPIRY_START = {EXPIRY_INDEX_PREFIX + 1};
+   private static final int PURGE_BATCH_SIZE = 1000;
 
    protected RocksDBStoreConfiguration configuration;
    private RocksDB db;
@@ -93,6 +104,7 @@
    private KeyPartitioner keyPartitioner;
    private MarshallableEntryFactory<K, V> entryFactory;
    private BlockingManager blockingManager;
+   private final AtomicLong ingestFileCounter = new AtomicLong();
 
    @Override
    public CompletionStage<Void> start(InitializationContext ctx) {
@@ -134,6 +146,9 @@ public CompletionStage<Void> start(InitializationContext ctx) {
          try {
             db = handler.open(getLocation(), dataDbOptions());
             expiredDb = openDatabase(getExpirationLocation(), expiredDbOptions());
+            migrateLegacyExpiryEntries();
+            // SST files left behind by an interrupted ingestion are not referenced by the database
+            Util.recursiveFileRemove(getIngestLocation().toFile());
          } catch (Exception e) {
             throw new CacheConfigurationException("Unable to open database", e);
          }
@@ -144,6 +159,10 @@ private Path getLocation() {
       return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.location(), ctx.getCache().getName(), "data");
    }
 
+   private Path getIngestLocation() {
+      return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.location(), ctx.getCache().getName(), "ingest");
+   }
+
    private Path getExpirationLocation() {
       return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.expiredLocation(), ctx.getCache().getName(), "expired");
    }
@@ -198,7 +217,8 @@ public CompletionStage<Void> stop() {
 
    @Override
    public Set<Characteristic> characteristics() {
-      return EnumSet.of(Characteristic.BULK_READ, Characteristic.EXPIRATION, Characteristic.SEGMENTABLE);
+      return EnumSet.of(Characteristic.BULK_READ, Characteristic.EXPIRATION, Characteristic.SEGMENTABLE,
+            Characteristic.BULK_WRITE);
    }
 
    @Override
@@ -255,42 +275,125 @@ public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       return handler.load(segment, key);
    }
 
+   @Override
+   public Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+      return handler.loadAll(publisherCount, keyPublisher);
+   }
+
    @Override
    public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublisher<Object>> removePublisher,
          Publisher<SegmentedPublisher<MarshallableEntry<K, V>>> writePublisher) {
       WriteBatch batch = new WriteBatch();
-      Set<MarshallableEntry<K, V>> expirableEntries = new HashSet<>();
+      WriteBatch indexBatch = new WriteBatch();
       Flowable.fromPublisher(removePublisher)
             .subscribe(sp -> {
                ColumnFamilyHandle handle = handler.getHandle(sp.getSegment());
                Flowable.fromPublisher(sp)
                      .subscribe(removed -> batch.delete(handle, marshall(removed)));
             });
+      List<Map.Entry<ColumnFamilyHandle, List<Map.Entry<byte[], byte[]>>>> ingestions = new ArrayList<>();
       Flowable.fromPublisher(writePublisher)
             .subscribe(sp -> {
                ColumnFamilyHandle handle = handler.getHandle(sp.getSegment());
+               List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
                Flowable.fromPublisher(sp)
+                     .doOnComplete(() -> {
+                        if (shouldIngest(handle, entries.size())) {
+                           ingestions.add(new AbstractMap.SimpleImmutableEntry<>(handle, entries));
+                        } else {
+                           for (Map.Entry<byte[], byte[]> entry : entries) {
+                              batch.put(handle, entry.getKey(), entry.getValue());
+                           }
+                        }
+                     })
                      .subscribe(me -> {
-                        batch.put(handle, marshall(me.getKey()), marshall(me.getMarshalledValue()));
+                        entries.add(new AbstractMap.SimpleImmutableEntry<>(marshall(me.getKey()), marshall(me.getMarshalledValue())));
                         if (me.expiryTime() > -1) {
-                           expirableEntries.add(me);
+                           addNewExpiry(indexBatch, me);
                         }
                      });
             });
-      if (batch.count() <= 0) {
+      if (batch.count() <= 0 && ingestions.isEmpty()) {
          batch.close();
+         indexBatch.close();
          return CompletableFutures.completedNull();
       }
       return blockingManager.runBlocking(() -> {
          try {
-            db.write(dataWriteOptions(), batch);
-            for (MarshallableEntry<K, V> me : expirableEntries) {
-               addNewExpiry(me);
+            if (batch.count() > 0) {
+               db.write(dataWriteOptions(), batch);
+            }
+            for (Map.Entry<ColumnFamilyHandle, List<Map.Entry<byte[], byte[]>>> ingestion : ingestions) {
+               ingest(ingestion.getKey(), ingestion.getValue());
+            }
+            if (indexBatch.count() > 0) {
+               expiredDb.write(dataWriteOptions(), indexBatch);
             }
          } catch (RocksDBException e) {
             throw new PersistenceException(e);
          }
-      }, "rocksdb-batch").whenComplete((ignore, t) -> batch.close());
+      }, "rocksdb-batch").whenComplete((ignore, t) -> {
+         batch.close();
+         indexBatch.close();
+      });
+   }
+
+   private boolean shouldIngest(ColumnFamilyHandle handle, int size) {
+      int ingestThreshold = configuration.ingestThreshold();
+      // Each segment has its own column family only when segmented
+      return configuration.segmented() && ingestThreshold > 0 && size >= ingestThreshold && handle != null;
+   }
+
+   /**
+    * Writes the entries to an SST file that is then ingested into the column family, which avoids the memtable, the
+    * write-ahead log and most of the compactions for large batches, such as the chunks received through state transfer.
+    */
+   private void ingest(ColumnFamilyHandle handle, List<Map.Entry<byte[], byte[]>> entries) throws RocksDBException {
+      // The keys of an SST file must be added in the order of the column family comparator, which sorts the bytes
+      entries.sort((e1, e2) -> compareBytes(e1.getKey(), e2.getKey()));
+      Path ingestLocation = getIngestLocation();
+      ingestLocation.toFile().mkdirs();
+      String sstFile = ingestLocation.resolve(ingestFileCounter.incrementAndGet() + ".sst").toString();
+      try {
+         // The writer copies the options when it is created, they are the ones of the column families so that the
+         // ingested file has the same format and compression as the files written by the database
+         try (EnvOptions envOptions = new EnvOptions();
+              DBOptions dbOptions = new DBOptions();
+              ColumnFamilyOptions columnFamilyOptions = handler.newColumnFamilyOptions();
+              Options options = new Options(dbOptions, columnFamilyOptions);
+              SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+            writer.open(sstFile);
+            for (int i = 0; i < entries.size(); ++i) {
+               Map.Entry<byte[], byte[]> entry = entries.get(i);
+               // Only the last write of a key is kept, the sort is stable
+               if (i + 1 < entries.size() && Arrays.equals(entry.getKey(), entries.get(i + 1).getKey())) {
+                  continue;
+               }
+               writer.put(entry.getKey(), entry.getValue());
+            }
+            writer.finish();
+         }
+         try (IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions().setMoveFiles(true)) {
+            db.ingestExternalFile(handle, Collections.singletonList(sstFile), ingestOptions);
+         }
+         if (trace) {
+            log.tracef("Ingested %d entries into RocksDBStore", entries.size());
+         }
+      } finally {
+         // The file is only left behind if it was copied instead of moved or the ingestion failed
+         new File(sstFile).delete();
+      }
+   }
+
+   static int compareBytes(byte[] b1, byte[] b2) {
+      int length = Math.min(b1.length, b2.length);
+      for (int i = 0; i < length; ++i) {
+         int diff = (b1[i] & 0xFF) - (b2[i] & 0xFF);
+         if (diff != 0) {
+            return diff;
+         }
+      }
+      return b1.length - b2.length;
    }
 
    @Override
@@ -298,21 +401,19 @@ public Publisher<MarshallableEntry<K, V>> purgeExpired() {
       Publisher<List<MarshallableEntry<K, V>>> purgedBatches = blockingManager.blockingPublisher(Flowable.defer(() -> {
          // We check expiration based on time of subscription only
          long now = timeService.wallClockTime();
-         return actualPurgeExpired(now)
-               // We return a buffer of expired entries emitted to the non blocking thread
-               // This prevents waking up the non blocking thread for every entry as they will most likely be
-               // consumed much faster than emission (since each emission performs a get and remove)
-               .buffer(16);
+         // We return batches of expired entries emitted to the non blocking thread
+         // This prevents waking up the non blocking thread for every entry as they will most likely be
+         // consumed much faster than emission (since each batch performs a multi get and a batched remove)
+         return actualPurgeExpired(now);
       }));
 
       return Flowable.fromPublisher(purgedBatches)
             .concatMap(Flowable::fromIterable);
    }
 
-   private Flowable<MarshallableEntry<K, V>> actualPurgeExpired(long now) {
-      // The following flowable is responsible for emitting entries that have expired from expiredDb and removing the
-      // given entries
-      Flowable<byte[]> expiredFlowable = Flowable.using(() -> {
+   private Flowable<List<MarshallableEntry<K, V>>> actualPurgeExpired(long now) {
+      long dueBucket = expiryBucket(now);
+      Flowable<List<MarshallableEntry<K, V>>> expiredFlowable = Flowable.using(() -> {
          ReadOptions readOptions = new ReadOptions().setFillCache(false);
          return new AbstractMap.SimpleImmutableEntry<>(readOptions, expiredDb.newIterator(readOptions));
       }, entry -> {
@@ -320,27 +421,27 @@ private Flowable<MarshallableEntry<K, V>> actualPurgeExpired(long now) {
             return Flowable.empty();
          }
          RocksIterator iterator = entry.getValue();
-         iterator.seekToFirst();
+         // Only the range of buckets that are due is read, the index entries are sorted by the bucket
+         iterator.seek(EXPIRY_INDEX_START);
 
          return Flowable.fromIterable(() ->
-               new AbstractIterator<byte[]>() {
+               new AbstractIterator<List<MarshallableEntry<K, V>>>() {
                   @Override
-                  protected byte[] getNext() {
-                     if (!iterator.isValid()) {
-                        return null;
-                     }
-                     byte[] keyBytes = iterator.key();
-                     Long time = unmarshall(keyBytes);
-                     if (time > now)
-                        return null;
+                  protected List<MarshallableEntry<K, V>> getNext() {
                      try {
-                        expiredDb.delete(keyBytes);
+                        while (true) {
+                           List<byte[]> indexKeys = nextDueIndexKeys(iterator, dueBucket, now);
+                           if (indexKeys.isEmpty()) {
+                              return null;
+                           }
+                           List<MarshallableEntry<K, V>> purged = purgeIndexedKeys(indexKeys, now);
+                           if (!purged.isEmpty()) {
+                              return purged;
+                           }
+                        }
                      } catch (RocksDBException e) {
                         throw new PersistenceException(e);
                      }
-                     byte[] value = iterator.value();
-                     iterator.next();
-                     return value;
                   }
                });
       }, entry -> {
@@ -351,53 +452,87 @@ protected byte[] getNext() {
          }
       });
 
-      Flowable<MarshallableEntry<K, V>> expiredEntryFlowable = expiredFlowable.flatMap(expiredBytes -> {
-         Object bucketKey = unmarshall(expiredBytes);
-         if (bucketKey instanceof ExpiryBucket) {
-            return Flowable.fromIterable(((ExpiryBucket) bucketKey).entries)
-                  .flatMapMaybe(marshalledKey -> {
-                     ColumnFamilyHandle columnFamilyHandle = handler.getHandleForMarshalledKey(marshalledKey);
-                     MarshalledValue mv = handlePossiblyExpiredKey(columnFamilyHandle, marshalledKey, now);
-                     return mv == null ? Maybe.empty() : Maybe.just(entryFactory.create(unmarshall(marshalledKey), mv));
-                  });
-         } else {
-            // The bucketKey is an actual key
-            ColumnFamilyHandle columnFamilyHandle = handler.getHandle(bucketKey);
-            MarshalledValue mv = handlePossiblyExpiredKey(columnFamilyHandle, marshall(bucketKey), now);
-            return mv == null ? Flowable.empty() : Flowable.just(entryFactory.create(bucketKey, mv));
-         }
-      });
-
       if (trace) {
          // Note this tracing only works properly for one subscriber
-         FlowableProcessor<MarshallableEntry<K, V>> mirrorEntries = UnicastProcessor.create();
-         expiredEntryFlowable = expiredEntryFlowable
+         FlowableProcessor<List<MarshallableEntry<K, V>>> mirrorEntries = UnicastProcessor.create();
+         expiredFlowable = expiredFlowable
                .doOnEach(mirrorEntries)
                .doOnSubscribe(subscription -> log.tracef("Purging entries from RocksDBStore"));
-         mirrorEntries.count()
-               .subscribe(count -> log.tracef("Purged %d entries from RocksDBStore"));
+         mirrorEntries.reduce(0L, (count, batch) -> count + batch.size())
+               .subscribe(count -> log.tracef("Purged %d entries from RocksDBStore", count));
       }
 
-      return expiredEntryFlowable;
+      return expiredFlowable;
    }
 
-   private MarshalledValue handlePossiblyExpiredKey(ColumnFamilyHandle columnFamilyHandle, byte[] marshalledKey,
-         long now) throws RocksDBException {
-      byte[] valueBytes = db.get(columnFamilyHandle, marshalledKey);
-      if (valueBytes == null) {
-         return null;
+   /**
+    * Reads the next index entries that are due, at most {@link #PURGE_BATCH_SIZE} of them. Entries of the due bucket
+    * that have not expired yet are skipped, the iteration stops at the first bucket after it.
+    */
+   private List<byte[]> nextDueIndexKeys(RocksIterator iterator, long dueBucket, long now) {
+      List<byte[]> indexKeys = new ArrayList<>();
+      while (indexKeys.size() < PURGE_BATCH_SIZE && iterator.isValid()) {
+         byte[] indexKey = iterator.key();
+         if (indexKey[0] != EXPIRY_INDEX_PREFIX) {
+            break;
+         }
+         long bucket = expiryBucket(indexKey);
+         if (bucket > dueBucket) {
+            break;
+         }
+         if (bucket < dueBucket || toLong(iterator.value()) <= now) {
+            indexKeys.add(indexKey);
+         }
+         iterator.next();
       }
-      MarshalledValue mv = unmarshall(valueBytes);
-      if (mv != null) {
-         // TODO race condition: the entry could be updated between the get and delete!
-         Metadata metadata = unmarshall(MarshallUtil.toByteArray(mv.getMetadataBytes()));
-         if (MarshallableEntryImpl.isExpired(metadata, now, mv.getCreated(), mv.getLastUsed())) {
-            // somewhat inefficient to FIND then REMOVE... but required if the value is updated
-            db.delete(columnFamilyHandle, marshalledKey);
-            return mv;
+      return indexKeys;
+   }
+
+   /**
+    * Removes the entries referenced by the given index keys that have expired with a single {@link WriteBatch}. The
+    * entries are read again since they could have been updated after the index entry was written.
+    */
+   private List<MarshallableEntry<K, V>> purgeIndexedKeys(List<byte[]> indexKeys, long now)
+         throws RocksDBException {
+      List<ColumnFamilyHandle> handles = new ArrayList<>(indexKeys.size());
+      List<byte[]> marshalledKeys = new ArrayList<>(indexKeys.size());
+      try (WriteBatch dataBatch = new WriteBatch(); WriteBatch indexBatch = new WriteBatch()) {
+         for (byte[] indexKey : indexKeys) {
+            byte[] marshalledKey = Arrays.copyOfRange(indexKey, EXPIRY_INDEX_KEY_OFFSET, indexKey.length);
+            ColumnFamilyHandle handle = handler.getHandleForMarshalledKey(marshalledKey);
+            if (handle != null) {
+               handles.add(handle);
+               marshalledKeys.add(marshalledKey);
+            }
+            // Only the index entries that were read are removed, entries added to the due buckets by concurrent
+            // writes since the iteration started are purged by the next run
+            indexBatch.delete(indexKey);
+         }
+         List<MarshallableEntry<K, V>> purged = new ArrayList<>();
+         if (!marshalledKeys.isEmpty()) {
+            List<byte[]> values = db.multiGetAsList(handles, marshalledKeys);
+            for (int i = 0; i < values.size(); ++i) {
+               MarshalledValue mv = unmarshall(values.get(i));
+               // TODO race condition: the entry could be updated between the get and delete!
+               if (mv != null && isExpired(mv, now)) {
+                  dataBatch.delete(handles.get(i), marshalledKeys.get(i));
+                  purged.add(entryFactory.create(unmarshall(marshalledKeys.get(i)), mv));
+               }
+            }
+         }
+         if (dataBatch.count() > 0) {
+            db.write(dataWriteOptions(), dataBatch);
          }
+         if (indexBatch.count() > 0) {
+            expiredDb.write(dataWriteOptions(), indexBatch);
+         }
+         return purged;
       }
-      return null;
+   }
+
+   private boolean isExpired(MarshalledValue mv, long now) {
+      Metadata metadata = unmarshall(MarshallUtil.toByteArray(mv.getMetadataBytes()));
+      return MarshallableEntryImpl.isExpired(metadata, now, mv.getCreated(), mv.getLastUsed());
    }
 
    @Override
@@ -442,6 +577,18 @@ private MarshallableEntry<K, V> unmarshallEntry(Object key, byte[] valueBytes) {
    }
 
    private void addNewExpiry(MarshallableEntry entry) throws RocksDBException {
+      expiredDb.put(expiryIndexKey(entry), toBytes(expiryTime(entry)));
+   }
+
+   private void addNewExpiry(WriteBatch indexBatch, MarshallableEntry entry) throws RocksDBException {
+      indexBatch.put(expiryIndexKey(entry), toBytes(expiryTime(entry)));
+   }
+
+   private byte[] expiryIndexKey(MarshallableEntry entry) {
+      return expiryIndexKey(expiryBucket(expiryTime(entry)), MarshallUtil.toByteArray(entry.getKeyBytes()));
+   }
+
+   private long expiryTime(MarshallableEntry entry) {
       long expiry = entry.expiryTime();
       long maxIdle = entry.getMetadata().maxIdle();
       if (maxIdle > 0) {
@@ -449,49 +596,86 @@ private void addNewExpiry(MarshallableEntry entry) throws RocksDBException {
          // which could lead to unexpected results, hence, InternalCacheEntry calls are required
          expiry = maxIdle + ctx.getTimeService().wallClockTime();
       }
-      byte[] keyBytes = entry.getKeyBytes().copy().getBuf();
-      putExpireDbData(new ExpiryEntry(expiry, keyBytes));
+      return expiry;
    }
 
-   @ProtoTypeId(ProtoStreamTypeIds.ROCKSDB_EXPIRY_BUCKET)
-   static final class ExpiryBucket {
-      @ProtoField(number = 1, collectionImplementation = ArrayList.class)
-      List<byte[]> entries;
+   /**
+    * The expiration index is keyed by the expiry bucket followed by the marshalled key, so that the entries of a bucket
+    * are contiguous and the buckets are sorted by time. The value holds the exact expiry time.
+    */
+   static byte[] expiryIndexKey(long bucket, byte[] marshalledKey) {
+      byte[] indexKey = new byte[EXPIRY_INDEX_KEY_OFFSET + marshalledKey.length];
+      indexKey[0] = EXPIRY_INDEX_PREFIX;
+      ByteBuffer.wrap(indexKey, 1, Long.BYTES).putLong(bucket);
+      System.arraycopy(marshalledKey, 0, indexKey, EXPIRY_INDEX_KEY_OFFSET, marshalledKey.length);
+      return indexKey;
+   }
 
-      ExpiryBucket(){}
+   static long expiryBucket(long expiry) {
+      return expiry / EXPIRY_BUCKET_MILLIS;
+   }
 
-      ExpiryBucket(byte[] existingKey, byte[] newKey) {
-         entries = new ArrayList<>(2);
-         entries.add(existingKey);
-         entries.add(newKey);
-      }
+   static long expiryBucket(byte[] indexKey) {
+      return ByteBuffer.wrap(indexKey).getLong(1);
    }
 
-   private static final class ExpiryEntry {
+   private static byte[] toBytes(long value) {
+      return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+   }
 
-      final long expiry;
-      final byte[] keyBytes;
+   private static long toLong(byte[] bytes) {
+      return ByteBuffer.wrap(bytes).getLong();
+   }
 
-      ExpiryEntry(long expiry, byte[] keyBytes) {
-         this.expiry = expiry;
-         this.keyBytes = keyBytes;
+   /**
+    * Moves the entries written by previous versions, which are keyed by the marshalled expiry time, to the expiration
+    * index.
+    */
+   private void migrateLegacyExpiryEntries() throws RocksDBException {
+      long count = 0;
+      try (ReadOptions readOptions = new ReadOptions().setFillCache(false);
+           RocksIterator it = expiredDb.newIterator(readOptions);
+           WriteBatch batch = new WriteBatch()) {
+         // The index entries are sorted before any legacy entry
+         for (it.seek(LEGACY_EXPIRY_START); it.isValid(); it.next()) {
+            byte[] legacyKey = it.key();
+            long expiry = this.<Long>unmarshall(legacyKey);
+            long bucket = expiryBucket(expiry);
+            byte[] expiryBytes = toBytes(expiry);
+            byte[] legacyValue = it.value();
+            Object value = unmarshall(legacyValue);
+            if (value instanceof ExpiryBucket) {
+               for (byte[] marshalledKey : ((ExpiryBucket) value).entries) {
+                  batch.put(expiryIndexKey(bucket, marshalledKey), expiryBytes);
+               }
+            } else {
+               // The value is the marshalled key
+               batch.put(expiryIndexKey(bucket, legacyValue), expiryBytes);
+            }
+            batch.delete(legacyKey);
+            if (++count % PURGE_BATCH_SIZE == 0) {
+               expiredDb.write(dataWriteOptions(), batch);
+               batch.clear();
+            }
+         }
+         if (batch.count() > 0) {
+            expiredDb.write(dataWriteOptions(), batch);
+         }
       }
-
-      @Override
-      public boolean equals(Object o) {
-         if (this == o) return true;
-         if (o == null || getClass() != o.getClass()) return false;
-         ExpiryEntry that = (ExpiryEntry) o;
-         return expiry == that.expiry &&
-               Arrays.equals(keyBytes, that.keyBytes);
+      if (count > 0) {
+         log.debugf("Migrated %d expiration entries of RocksDBStore to the expiration index", count);
       }
+   }
 
-      @Override
-      public int hashCode() {
-         int result = Objects.hash(expiry);
-         result = 31 * result + Arrays.hashCode(keyBytes);
-         return result;
-      }
+   /**
+    * Legacy format of the entries that expire at the same time, only read to migrate them to the expiration index.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.ROCKSDB_EXPIRY_BUCKET)
+   static final class ExpiryBucket {
+      @ProtoField(number = 1, collectionImplementation = ArrayList.class)
+      List<byte[]> entries;
+
+      ExpiryBucket(){}
    }
 
    private class RocksEntryIterator extends AbstractIterator<MarshallableEntry<K, V>> {
@@ -535,6 +719,10 @@ private abstract class RocksDBHandler {
       abstract ColumnFamilyHandle getHandleForMarshalledKey(byte[] marshalledKey);
 
       ColumnFamilyDescriptor newDescriptor(byte[] name) {
+         return new ColumnFamilyDescriptor(name, newColumnFamilyOptions());
+      }
+
+      ColumnFamilyOptions newColumnFamilyOptions() {
          ColumnFamilyOptions columnFamilyOptions;
          if (columnFamilyProperties != null) {
             columnFamilyOptions = ColumnFamilyOptions.getColumnFamilyOptionsFromProps(columnFamilyProperties);
@@ -547,7 +735,7 @@ ColumnFamilyDescriptor newDescriptor(byte[] name) {
          if (configuration.attributes().attribute(RocksDBStoreConfiguration.COMPRESSION_TYPE).isModified()) {
             columnFamilyOptions.setCompressionType(configuration.compressionType().getValue());
          }
-         return new ColumnFamilyDescriptor(name, columnFamilyOptions);
+         return columnFamilyOptions;
       }
 
       CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
@@ -576,6 +764,51 @@ CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
          }
       }
 
+      Publisher<MarshallableEntry<K, V>> loadAll(int publisherCount, Publisher<SegmentedPublisher<Object>> keyPublisher) {
+         return Flowable.fromPublisher(keyPublisher)
+               .<Map.Entry<Object, ColumnFamilyHandle>>flatMap(sp -> {
+                  ColumnFamilyHandle handle = getHandle(sp.getSegment());
+                  if (handle == null) {
+                     log.trace("Ignoring load as handle is not currently configured");
+                     return Flowable.empty();
+                  }
+                  return Flowable.fromPublisher(sp)
+                        .map(key -> new AbstractMap.SimpleImmutableEntry<>(key, handle));
+               }, publisherCount)
+               .toList()
+               .flatMapPublisher(keysAndHandles -> {
+                  if (keysAndHandles.isEmpty()) {
+                     return Flowable.empty();
+                  }
+                  List<ColumnFamilyHandle> handles = new ArrayList<>(keysAndHandles.size());
+                  List<byte[]> marshalledKeys = new ArrayList<>(keysAndHandles.size());
+                  for (Map.Entry<Object, ColumnFamilyHandle> keyAndHandle : keysAndHandles) {
+                     handles.add(keyAndHandle.getValue());
+                     marshalledKeys.add(marshall(keyAndHandle.getKey()));
+                  }
+                  CompletionStage<List<MarshallableEntry<K, V>>> entriesStage = blockingManager.supplyBlocking(() -> {
+                     List<byte[]> values;
+                     try {
+                        // A single multiGet avoids a separate lookup per key
+                        values = db.multiGetAsList(handles, marshalledKeys);
+                     } catch (RocksDBException e) {
+                        throw new PersistenceException(e);
+                     }
+                     long now = timeService.wallClockTime();
+                     List<MarshallableEntry<K, V>> entries = new ArrayList<>(values.size());
+                     for (int i = 0; i < values.size(); ++i) {
+                        MarshallableEntry<K, V> me = unmarshallEntry(keysAndHandles.get(i).getKey(), values.get(i));
+                        if (me != null && !me.isExpired(now)) {
+                           entries.add(me);
+                        }
+                     }
+                     return entries;
+                  }, "rocksdb-loadAll");
+                  return Flowable.fromCompletionStage(entriesStage)
+                        .concatMapIterable(RxJavaInterop.identityFunction());
+               });
+      }
+
       CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> me) {
          ColumnFamilyHandle handle = getHandle(segment);
          if (handle == null) {
@@ -1016,23 +1249,4 @@ CompletionStage<Void> removeSegments(IntSet segments) {
          }, "testng-removeSegments");
       }
    }
-
-   private void putExpireDbData(ExpiryEntry entry) throws RocksDBException {
-      final byte[] expiryBytes = marshall(entry.expiry);
-      final byte[] existingBytes = expiredDb.get(expiryBytes);
-
-      if (existingBytes != null) {
-         // in the case of collision make the value a List ...
-         final Object existing = unmarshall(existingBytes);
-         if (existing instanceof ExpiryBucket) {
-            ((ExpiryBucket) existing).entries.add(entry.keyBytes);
-            expiredDb.put(expiryBytes, marshall(existing));
-         } else {
-            ExpiryBucket bucket = new ExpiryBucket(existingBytes, entry.keyBytes);
-            expiredDb.put(expiryBytes, marshall(bucket));
-         }
-      } else {
-         expiredDb.put(expiryBytes, entry.keyBytes);
-      }
-   }
 }
@@ -33,10 +33,11 @@ public class RocksDBStoreConfiguration extends AbstractStoreConfiguration implem
    final static AttributeDefinition<Integer> BLOCK_SIZE = AttributeDefinition.builder("blockSize", 0).immutable().build();
    final static AttributeDefinition<Long> CACHE_SIZE = AttributeDefinition.builder("cacheSize", 0l).immutable().build();
    final static AttributeDefinition<Integer> CLEAR_THRESHOLD = AttributeDefinition.builder("clearThreshold", 10000).immutable().build();
+   final static AttributeDefinition<Integer> INGEST_THRESHOLD = AttributeDefinition.builder("ingestThreshold", 512).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(RocksDBStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, COMPRESSION_TYPE,
-            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD);
+            BLOCK_SIZE, CACHE_SIZE, CLEAR_THRESHOLD, INGEST_THRESHOLD);
    }
 
    public static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(ROCKSDB_STORE.getLocalName(), true, false);
@@ -46,6 +47,7 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<Integer> blockSize;
    private final Attribute<Long> cacheSize;
    private final Attribute<Integer> clearThreshold;
+   private final Attribute<Integer> ingestThreshold;
    private final RocksDBExpirationConfiguration expiration;
 
    public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async, RocksDBExpirationConfiguration expiration) {
@@ -55,6 +57,7 @@ public RocksDBStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguratio
       blockSize = attributes.attribute(BLOCK_SIZE);
       cacheSize = attributes.attribute(CACHE_SIZE);
       clearThreshold = attributes.attribute(CLEAR_THRESHOLD);
+      ingestThreshold = attributes.attribute(INGEST_THRESHOLD);
       this.expiration = expiration;
    }
 
@@ -108,4 +111,8 @@ public int expiryQueueSize() {
    public int clearThreshold() {
       return clearThreshold.get();
    }
+
+   public int ingestThreshold() {
+      return ingestThreshold.get();
+   }
 }
@@ -5,6 +5,7 @@
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CACHE_SIZE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.CLEAR_THRESHOLD;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_TYPE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.INGEST_THRESHOLD;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.LOCATION;
 
 import java.util.Collection;
@@ -18,6 +19,8 @@
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.persistence.PersistenceUtil;
+import org.infinispan.persistence.rocksdb.logging.Log;
+import org.infinispan.util.logging.LogFactory;
 
 /**
  *
@@ -26,6 +29,7 @@
  */
 public class RocksDBStoreConfigurationBuilder extends AbstractStoreConfigurationBuilder<RocksDBStoreConfiguration, RocksDBStoreConfigurationBuilder>
       implements ConfigurationBuilderInfo {
+   private static final Log log = LogFactory.getLog(RocksDBStoreConfigurationBuilder.class, Log.class);
 
    protected RocksDBExpirationConfigurationBuilder expiration = new RocksDBExpirationConfigurationBuilder();
 
@@ -86,6 +90,17 @@ public RocksDBStoreConfigurationBuilder clearThreshold(int clearThreshold) {
       return self();
    }
 
+   /**
+    * The minimum number of entries of a segment written in a single batch, such as a chunk received through state
+    * transfer, for them to be written to an SST file and ingested into the segment's column family instead of going
+    * through the memtable and the write-ahead log. Only applies to segmented stores. A value of 0 disables ingestion.
+    * Defaults to 512, the default state transfer chunk size.
+    */
+   public RocksDBStoreConfigurationBuilder ingestThreshold(int ingestThreshold) {
+      attributes.attribute(INGEST_THRESHOLD).set(ingestThreshold);
+      return self();
+   }
+
    public RocksDBStoreConfigurationBuilder compressionType(CompressionType compressionType) {
       attributes.attribute(COMPRESSION_TYPE).set(compressionType);
       return self();
@@ -96,6 +111,9 @@ public void validate() {
       // how do you validate required attributes?
       super.validate();
       expiration.validate();
+      if (attributes.attribute(INGEST_THRESHOLD).get() < 0) {
+         throw log.invalidIngestThreshold(attributes.attribute(INGEST_THRESHOLD).get());
+      }
    }
 
    @Override
@@ -69,6 +69,10 @@ private void parseRocksDBCacheStore(XMLExtendedStreamReader reader, RocksDBStore
                builder.clearThreshold(Integer.parseInt(value));
                break;
             }
+            case INGEST_THRESHOLD: {
+               builder.ingestThreshold(Integer.parseInt(value));
+               break;
+            }
             case BLOCK_SIZE: {
                builder.blockSize(Integer.parseInt(value));
                break;
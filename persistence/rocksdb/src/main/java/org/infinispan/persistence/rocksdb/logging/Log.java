@@ -21,4 +21,7 @@ public interface Log extends BasicLogger {
 
    @Message(value = "RocksDB properties %s, contains an unknown property", id = 294)
    CacheConfigurationException rocksDBUnknownPropertiesSupplied(String properties);
+
+   @Message(value = "Invalid ingest threshold %d, it cannot be negative", id = 23001)
+   CacheConfigurationException invalidIngestThreshold(int ingestThreshold);
 }
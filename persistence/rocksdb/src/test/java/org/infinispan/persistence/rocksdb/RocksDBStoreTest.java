@@ -5,10 +5,13 @@
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.infinispan.commons.test.CommonsTestingUtil;
 import org.infinispan.commons.util.IntSets;
@@ -23,15 +26,20 @@
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.NonBlockingStore;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
 import org.infinispan.util.concurrent.CompletionStages;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Factory;
 import org.testng.annotations.Test;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 @Test(groups = "unit", testName = "persistence.rocksdb.RocksDBStoreTest")
 public class RocksDBStoreTest extends BaseNonBlockingStoreTest {
 
+   private static final int INGEST_THRESHOLD = 50;
+
    private String tmpDirectory = CommonsTestingUtil.tmpDirectory(this.getClass());
    private boolean segmented;
 
@@ -72,6 +80,7 @@ protected RocksDBStoreConfigurationBuilder createCacheStoreConfig(PersistenceCon
       cfg.location(tmpDirectory);
       cfg.expiredLocation(tmpDirectory);
       cfg.clearThreshold(2);
+      cfg.ingestThreshold(INGEST_THRESHOLD);
       return cfg;
    }
 
@@ -155,4 +164,53 @@ public void testSegmentsRemovedAndAdded() {
 
       assertTrue(store.contains(key));
    }
+
+   /**
+    * Test to make sure that purge only removes the entries of the expiry buckets that are due
+    */
+   public void testPurgeOnlyDueExpiryBuckets() {
+      long now = timeService.wallClockTime();
+      long bucketStart = (RocksDBStore.expiryBucket(now) + 5) * RocksDBStore.EXPIRY_BUCKET_MILLIS;
+      // k0 expires in an earlier bucket, k1 and k2 in the due bucket and k3 in a later one
+      store.write(marshalledEntry(internalCacheEntry("k0", "v0", bucketStart - 900 - now)));
+      store.write(marshalledEntry(internalCacheEntry("k1", "v1", bucketStart + 100 - now)));
+      store.write(marshalledEntry(internalCacheEntry("k2", "v2", bucketStart + 900 - now)));
+      store.write(marshalledEntry(internalCacheEntry("k3", "v3", bucketStart + 2500 - now)));
+
+      timeService.advance(bucketStart + 500 - now);
+      purgeExpired("k0", "k1");
+      assertContains("k2", true);
+      assertContains("k3", true);
+
+      timeService.advance(2500);
+      purgeExpired("k2", "k3");
+      assertEquals(store.sizeWait(IntSets.immutableRangeSet(16)), 0);
+   }
+
+   /**
+    * Test to make sure that the entries of a segment written in bulk are readable and overwrite the existing ones
+    */
+   public void testBatchIngestedForSegment() {
+      int segment = keyPartitioner.getSegment("k0");
+      List<String> keys = IntStream.range(0, 100 * INGEST_THRESHOLD)
+            .mapToObj(i -> "k" + i)
+            .filter(k -> keyPartitioner.getSegment(k) == segment)
+            .limit(2 * INGEST_THRESHOLD)
+            .collect(Collectors.toList());
+      assertEquals(keys.size(), 2 * INGEST_THRESHOLD);
+
+      store.batchUpdate(1, Flowable.empty(), TestingUtil.multipleSegmentPublisher(Flowable.fromIterable(keys)
+            .map(k -> marshalledEntry(internalCacheEntry(k, "v1-" + k, -1))), MarshallableEntry::getKey, keyPartitioner));
+      // Overwrite half of the entries, which also have to be ingested
+      store.batchUpdate(1, Flowable.empty(), TestingUtil.multipleSegmentPublisher(Flowable.fromIterable(keys)
+            .take(INGEST_THRESHOLD)
+            .map(k -> marshalledEntry(internalCacheEntry(k, "v2-" + k, -1))), MarshallableEntry::getKey, keyPartitioner));
+
+      for (int i = 0; i < keys.size(); ++i) {
+         String key = keys.get(i);
+         String expected = (i < INGEST_THRESHOLD ? "v2-" : "v1-") + key;
+         assertEquals(unwrap(store.loadEntry(key).getValue()), expected);
+      }
+      assertEquals(store.sizeWait(IntSets.immutableSet(segment)), keys.size());
+   }
 }
@@ -5,27 +5,35 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.util.logging.LogFactory;
 
+import net.jcip.annotations.GuardedBy;
+
 /**
  * Component keeping the data about log file usage - as soon as entries from some file are overwritten so that the file
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
+ * <p>
+ * Scheduled files are compacted by a configurable number of threads, each of them writing to its own log file. Files
+ * with the highest ratio of free space are compacted first, as they reclaim the most space for the least amount of
+ * copying. The bytes read from compacted files can be limited to a maximum rate, so that compaction does not take all
+ * the disk bandwidth away from the log appender.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-class Compactor extends Thread {
+class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
 
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<Integer, Stats>();
-   private final BlockingQueue<Integer> scheduledCompaction = new LinkedBlockingQueue<Integer>();
+   private final BlockingQueue<ScheduledFile> scheduledCompaction = new PriorityBlockingQueue<>();
    private final BlockingQueue<IndexRequest> indexQueue;
    private final FileProvider fileProvider;
    private final TemporaryTable temporaryTable;
@@ -33,6 +41,15 @@ class Compactor extends Thread {
    private final TimeService timeService;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final Thread[] threads;
+   // null if the compaction rate is not limited
+   private final RateLimiter rateLimiter;
+   // files scheduled for compaction that no thread has started compacting yet
+   private final AtomicInteger pendingFiles = new AtomicInteger();
+   private final AtomicLong reclaimedBytes = new AtomicLong();
+   // compactor threads that have not terminated, a failed thread would never pause
+   @GuardedBy("this")
+   private int liveThreads;
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -46,7 +63,14 @@ public Compactor(FileProvider fileProvider,
                     TemporaryTable temporaryTable,
                     BlockingQueue<IndexRequest> indexQueue,
                     Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold) {
-      super("BCS-Compactor");
+      this(fileProvider, temporaryTable, indexQueue, marshaller, timeService, maxFileSize, compactionThreshold, 1, 0);
+   }
+
+   public Compactor(FileProvider fileProvider,
+                    TemporaryTable temporaryTable,
+                    BlockingQueue<IndexRequest> indexQueue,
+                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold,
+                    int compactionThreads, long compactionRateLimit) {
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
       this.indexQueue = indexQueue;
@@ -54,7 +78,13 @@ public Compactor(FileProvider fileProvider,
       this.timeService = timeService;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
-      this.start();
+      this.rateLimiter = compactionRateLimit > 0 ? new RateLimiter(compactionRateLimit) : null;
+      this.threads = new Thread[compactionThreads];
+      this.liveThreads = compactionThreads;
+      for (int i = 0; i < compactionThreads; ++i) {
+         threads[i] = new Thread(this::compactFiles, compactionThreads == 1 ? "BCS-Compactor" : "BCS-Compactor-" + i);
+         threads[i].start();
+      }
    }
 
    public void setIndex(Index index) {
@@ -111,9 +141,12 @@ private void schedule(int file, Stats stats) {
       try {
          synchronized (stats) {
             if (!stats.isScheduled()) {
-               log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total));
+               int free = stats.free.get();
+               int total = stats.total;
+               log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, free, total));
                stats.setScheduled();
-               scheduledCompaction.put(file);
+               pendingFiles.incrementAndGet();
+               scheduledCompaction.put(new ScheduledFile(file, total > 0 ? (double) free / total : 1));
             }
          }
       } catch (InterruptedException e) {
@@ -122,15 +155,31 @@ private void schedule(int file, Stats stats) {
       }
    }
 
-   @Override
-   public void run() {
+   /**
+    * @return the number of files scheduled for compaction that are not being compacted yet
+    */
+   public int getCompactionLag() {
+      return pendingFiles.get();
+   }
+
+   /**
+    * @return the number of bytes released by compacting files, i.e. the size of the compacted files minus the size of
+    * the records that had to be moved to another file
+    */
+   public long getReclaimedBytes() {
+      return reclaimedBytes.get();
+   }
+
+   private void compactFiles() {
+      // whether this thread has already been counted as paused by clearAndPause
+      boolean paused = false;
       try {
          FileProvider.Log logFile = null;
          int currentOffset = 0;
          for(;;) {
-            Integer scheduledFile = null;
+            ScheduledFile next = null;
             try {
-               scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               next = scheduledCompaction.poll(1, TimeUnit.MINUTES);
             } catch (InterruptedException e) {
             }
             if (terminateSignal) {
@@ -141,11 +190,13 @@ public void run() {
                break;
             }
             if (clearSignal) {
+               paused = true;
                pauseCompactor(logFile);
+               paused = false;
                logFile = null;
                continue;
             }
-            if (scheduledFile == null) {
+            if (next == null) {
                if (logFile != null) {
                   logFile.close();
                   completeFile(logFile.fileId);
@@ -153,19 +204,30 @@ public void run() {
                }
                continue;
             }
+            if (next.file < 0) {
+               // Signal for another thread that has already noticed it
+               continue;
+            }
+            int scheduledFile = next.file;
+            pendingFiles.decrementAndGet();
 
             log.debugf("Compacting file %d", scheduledFile);
             int scheduledOffset = 0;
+            long movedBytes = 0;
             FileProvider.Handle handle = fileProvider.getFile(scheduledFile);
             if (handle == null) {
                throw new IllegalStateException("Compactor should not get deleted file for compaction!");
             }
+            long fileSize = handle.getFileSize();
             try {
                while (!clearSignal && !terminateSignal) {
                   EntryHeader header = EntryRecord.readEntryHeader(handle, scheduledOffset);
                   if (header == null) {
                      break;
                   }
+                  if (rateLimiter != null) {
+                     rateLimiter.acquire(header.totalLength());
+                  }
                   byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
                   if (serializedKey == null) {
                      throw new IllegalStateException("End of file reached when reading key on "
@@ -292,6 +354,7 @@ public void run() {
                            scheduledFile, indexedOffset));
 
                      currentOffset += writtenLength;
+                     movedBytes += writtenLength;
                   }
                   scheduledOffset += header.totalLength();
                }
@@ -305,35 +368,55 @@ public void run() {
                }
                return;
             } else if (clearSignal) {
+               paused = true;
                pauseCompactor(logFile);
+               paused = false;
                logFile = null;
             } else {
                // The deletion must be executed only after the index is fully updated.
                log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
                indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
+               reclaimedBytes.addAndGet(fileSize - movedBytes);
             }
          }
       } catch (Exception e) {
          log.compactorFailed(e);
+      } finally {
+         compactorTerminated(paused);
+      }
+   }
+
+   private synchronized void compactorTerminated(boolean paused) {
+      liveThreads--;
+      if (clearSignal && !terminateSignal && !paused) {
+         // The thread failed before pausing, clearAndPause must not wait for it
+         compactorStop.countDown();
       }
    }
 
    private void pauseCompactor(FileProvider.Log logFile) throws IOException, InterruptedException {
-      if (logFile != null) {
-         logFile.close();
-         completeFile(logFile.fileId);
+      try {
+         if (logFile != null) {
+            logFile.close();
+            completeFile(logFile.fileId);
+         }
+      } finally {
+         compactorStop.countDown();
       }
-      compactorStop.countDown();
       compactorResume.await();
    }
 
    public void clearAndPause() throws InterruptedException {
-      compactorResume = new CountDownLatch(1);
-      compactorStop = new CountDownLatch(1);
-      clearSignal = true;
-      scheduledCompaction.put(-1);
+      synchronized (this) {
+         compactorResume = new CountDownLatch(1);
+         // Threads that have already failed will never pause
+         compactorStop = new CountDownLatch(liveThreads);
+         clearSignal = true;
+      }
+      wakeUpThreads();
       compactorStop.await();
       scheduledCompaction.clear();
+      pendingFiles.set(0);
       fileStats.clear();
    }
 
@@ -344,8 +427,65 @@ public void resumeAfterPause() {
 
    public void stopOperations() throws InterruptedException {
       terminateSignal = true;
-      scheduledCompaction.put(-1);
-      this.join();
+      wakeUpThreads();
+      for (Thread thread : threads) {
+         thread.join();
+      }
+   }
+
+   private void wakeUpThreads() throws InterruptedException {
+      for (int i = 0; i < threads.length; ++i) {
+         scheduledCompaction.put(ScheduledFile.SIGNAL);
+      }
+   }
+
+   private static class ScheduledFile implements Comparable<ScheduledFile> {
+      // Sorted before any file, so that signals are noticed even if there are many files scheduled
+      static final ScheduledFile SIGNAL = new ScheduledFile(-1, Double.POSITIVE_INFINITY);
+
+      final int file;
+      final double freeRatio;
+
+      ScheduledFile(int file, double freeRatio) {
+         this.file = file;
+         this.freeRatio = freeRatio;
+      }
+
+      @Override
+      public int compareTo(ScheduledFile other) {
+         // The file with most free space first
+         return Double.compare(other.freeRatio, freeRatio);
+      }
+   }
+
+   /**
+    * Limits the rate of bytes processed by all compaction threads together. Each thread reserves the time slot its
+    * bytes need and waits until the slot starts, so the threads are served in the order they asked.
+    */
+   static class RateLimiter {
+      private final long bytesPerSecond;
+      private long nextFreeNanos = System.nanoTime();
+
+      RateLimiter(long bytesPerSecond) {
+         this.bytesPerSecond = bytesPerSecond;
+      }
+
+      void acquire(int bytes) throws InterruptedException {
+         long waitNanos = reserve(bytes, System.nanoTime());
+         if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+         }
+      }
+
+      /**
+       * @return how long the caller has to wait before processing the given bytes
+       */
+      synchronized long reserve(int bytes, long now) {
+         // Unused time in the past does not accumulate, so an idle period is not followed by a burst
+         long start = Math.max(now, nextFreeNanos);
+         nextFreeNanos = start + TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+         return start - now;
+      }
    }
 
    private static class Stats {
@@ -62,11 +62,15 @@ public EntryRecord loadMetadataAndValue(FileProvider.Handle handle, int offset)
    }
 
    public static EntryHeader readEntryHeader(FileProvider.Handle handle, long offset) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
-      if (read(handle, header, offset, EntryHeader.HEADER_SIZE_11_0) < 0) {
-         return null;
+      // Decode the header in place if the file is memory-mapped
+      ByteBuffer header = handle.mappedRegion(offset, EntryHeader.HEADER_SIZE_11_0);
+      if (header == null) {
+         header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
+         if (read(handle, header, offset, EntryHeader.HEADER_SIZE_11_0) < 0) {
+            return null;
+         }
+         header.flip();
       }
-      header.flip();
       try {
          return new EntryHeader(header);
       } catch (IllegalStateException e) {
@@ -7,6 +7,7 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.HashSet;
@@ -18,6 +19,7 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -27,6 +29,10 @@
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
+ * <p>
+ * When a maximum mapped size is set, files that are no longer appended to are memory-mapped when opened, as long as
+ * the total size of the mapped files stays below that limit. Reads from such files copy the data from the mapped
+ * region instead of reading from the channel.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -45,16 +51,37 @@ public class FileProvider {
    private final Set<Integer> logFiles = new HashSet<>();
    private final Set<FileIterator> iterators = ConcurrentHashMap.newKeySet();
    private final String prefix;
+   private final long maxMappedSize;
+   private final AtomicLong mappedSize = new AtomicLong();
 
    private int nextFileId = 0;
 
    public FileProvider(Path dataDir, int openFileLimit, String prefix) {
+      this(dataDir, openFileLimit, prefix, 0);
+   }
+
+   public FileProvider(Path dataDir, int openFileLimit, String prefix, long maxMappedSize) {
       this.openFileLimit = openFileLimit;
+      this.maxMappedSize = maxMappedSize;
       this.recordQueue = new ArrayBlockingQueue<>(openFileLimit);
       this.dataDir = dataDir.toFile();
       this.prefix = prefix;
       //noinspection ResultOfMethodCallIgnored
       this.dataDir.mkdirs();
+      // new files get ids higher than the existing ones, so an index checkpoint can tell which files were
+      // written after it was taken, even across restarts
+      String regex = String.format(REGEX_FORMAT, prefix);
+      String[] files = this.dataDir.list();
+      if (files != null) {
+         for (String file : files) {
+            if (file.matches(regex)) {
+               int fileId = Integer.parseInt(file.substring(prefix.length()));
+               if (fileId != Integer.MAX_VALUE) {
+                  nextFileId = Math.max(nextFileId, fileId + 1);
+               }
+            }
+         }
+      }
    }
 
    public Handle getFile(int fileId) throws IOException {
@@ -86,6 +113,9 @@ public Handle getFile(int fileId) throws IOException {
                   }
                   Record newRecord = new Record(fileChannel, fileId);
                   Record other = openFiles.putIfAbsent(fileId, newRecord);
+                  if (other == null) {
+                     newRecord.map();
+                  }
                   if (other != null) {
                      fileChannel.close();
                      synchronized (other) {
@@ -124,6 +154,13 @@ public Handle getFile(int fileId) throws IOException {
       }
    }
 
+   /**
+    * @return the total size of the files that are currently memory-mapped, in bytes
+    */
+   public long getMappedSize() {
+      return mappedSize.get();
+   }
+
    public long getFileSize(int file) {
       lock.readLock().lock();
       try {
@@ -199,6 +236,32 @@ public Log getFileForLog() throws IOException {
       }
    }
 
+   /**
+    * @return the lowest id of the files currently written by the log appender or compactor, or the id of the last
+    * created file if there are none
+    */
+   public int getFirstLogFile() {
+      lock.readLock().lock();
+      try {
+         int first = nextFileId;
+         for (int fileId : logFiles) {
+            first = Math.min(first, fileId);
+         }
+         return first;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   public boolean isLogFile(int fileId) {
+      lock.readLock().lock();
+      try {
+         return logFiles.contains(fileId);
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
    public CloseableIterator<Integer> getFileIterator() {
       String regex = String.format(REGEX_FORMAT, prefix);
       lock.readLock().lock();
@@ -335,9 +398,38 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
+         ByteBuffer mapped = record.mapped;
+         if (mapped != null) {
+            if (offset >= mapped.limit()) {
+               return -1;
+            }
+            int length = (int) Math.min(buffer.remaining(), mapped.limit() - offset);
+            ByteBuffer source = mapped.duplicate();
+            source.position((int) offset);
+            source.limit((int) offset + length);
+            buffer.put(source);
+            return length;
+         }
          return record.getFileChannel().read(buffer, offset);
       }
 
+      /**
+       * Returns a view of the mapped file for the given region, so that it can be decoded without copying it.
+       *
+       * @return the view, or {@code null} if the file is not memory-mapped or the region is beyond its end
+       */
+      public ByteBuffer mappedRegion(long offset, int length) {
+         if (!usable) throw new IllegalStateException();
+         ByteBuffer mapped = record.mapped;
+         if (mapped == null || offset + length > mapped.limit()) {
+            return null;
+         }
+         ByteBuffer region = mapped.duplicate();
+         region.position((int) offset);
+         region.limit((int) offset + length);
+         return region;
+      }
+
       @Override
       public void close() throws IOException {
          usable = false;
@@ -347,7 +439,8 @@ public void close() throws IOException {
       }
 
       public long getFileSize() throws IOException {
-         return record.fileChannel.size();
+         ByteBuffer mapped = record.mapped;
+         return mapped != null ? mapped.limit() : record.fileChannel.size();
       }
 
       public int getFileId() {
@@ -358,6 +451,8 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      // Read-only view of the file, only present if the file was not a log file when opened
+      private volatile MappedByteBuffer mapped;
       private int handleCount;
       private boolean deleteOnClose = false;
 
@@ -370,6 +465,51 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      /**
+       * Maps the file if it won't be appended to anymore and the maximum mapped size allows it. Must be invoked while
+       * holding the provider lock, so that the file can't become a log file in the meantime.
+       */
+      void map() {
+         if (maxMappedSize <= 0 || logFiles.contains(fileId)) {
+            return;
+         }
+         long size;
+         try {
+            size = fileChannel.size();
+         } catch (IOException e) {
+            log.debugf(e, "Cannot get size of file %d", fileId);
+            return;
+         }
+         // Files are limited by max-file-size, which is an int, but mapping is limited anyway
+         if (size == 0 || size > Integer.MAX_VALUE) {
+            return;
+         }
+         long current;
+         do {
+            current = mappedSize.get();
+            if (current + size > maxMappedSize) {
+               return;
+            }
+         } while (!mappedSize.compareAndSet(current, current + size));
+         try {
+            mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+         } catch (IOException e) {
+            mappedSize.addAndGet(-size);
+            log.debugf(e, "Cannot map file %d", fileId);
+         }
+      }
+
+      private void closeChannel() throws IOException {
+         fileChannel.close();
+         fileChannel = null;
+         MappedByteBuffer mapped = this.mapped;
+         if (mapped != null) {
+            // The mapping itself is released once the buffer is garbage collected
+            this.mapped = null;
+            mappedSize.addAndGet(-mapped.limit());
+         }
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -379,8 +519,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -399,8 +538,7 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
@@ -415,8 +553,7 @@ public void delete() {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
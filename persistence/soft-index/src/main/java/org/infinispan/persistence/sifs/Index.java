@@ -5,12 +5,16 @@
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
@@ -24,6 +28,12 @@
  * Keeps the entry positions persisted in a file. It consists of couple of segments, each for one modulo-range
  * of key's hashcodes (according to DataContainer's key equivalence configuration) - writes to each index segment
  * are performed by single thread, having multiple segments spreads the load between them.
+ * <p>
+ * When checkpointing is enabled, each segment periodically persists a consistent image of its tree (the root, the free
+ * blocks and the size) into a separate checkpoint file, together with the first data file that may contain records
+ * not reflected in the image. Nodes referenced by the image are never overwritten in place and their space is not
+ * reused until the next checkpoint; data files deleted after compaction are kept until then too. After a crash the
+ * index is loaded from the checkpoint and only the data files written since then have to be replayed.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -33,6 +43,8 @@ class Index {
    private static final int GRACEFULLY = 0x512ACEF0;
    private static final int DIRTY = 0xD112770C;
    private static final int INDEX_FILE_HEADER_SIZE = 30;
+   private static final int CHECKPOINT = 0xC4EC4017;
+   private static final int CHECKPOINT_HEADER_SIZE = 42;
 
    private final Path indexDir;
    private final FileProvider fileProvider;
@@ -42,22 +54,41 @@ class Index {
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Segment[] segments;
    private final TimeService timeService;
+   private final boolean checkpointing;
+   // files that were compacted and are no longer referenced by the index, deleted after the next checkpoint
+   private final Set<Integer> deletedFiles = ConcurrentHashMap.newKeySet();
 
    public Index(FileProvider fileProvider, Path indexDir, int segments, int minNodeSize, int maxNodeSize,
                 IndexQueue indexQueue, TemporaryTable temporaryTable, Compactor compactor,
                 TimeService timeService) throws IOException {
+      this(fileProvider, indexDir, segments, minNodeSize, maxNodeSize, indexQueue, temporaryTable, compactor,
+            timeService, false);
+   }
+
+   public Index(FileProvider fileProvider, Path indexDir, int segments, int minNodeSize, int maxNodeSize,
+                IndexQueue indexQueue, TemporaryTable temporaryTable, Compactor compactor,
+                TimeService timeService, boolean checkpointing) throws IOException {
       this.fileProvider = fileProvider;
       this.compactor = compactor;
       this.timeService = timeService;
       this.indexDir = indexDir;
       this.minNodeSize = minNodeSize;
       this.maxNodeSize = maxNodeSize;
+      this.checkpointing = checkpointing;
       indexDir.toFile().mkdirs();
 
       this.segments = new Segment[segments];
       for (int i = 0; i < segments; ++i) {
          this.segments[i] = new Segment(i, indexQueue.subQueue(i), temporaryTable);
       }
+      if (!isRecovered()) {
+         // a checkpoint of some segments is useless when the others must be rebuilt from all data files
+         for (Segment segment : this.segments) {
+            if (segment.recovered) {
+               segment.reset();
+            }
+         }
+      }
    }
 
    /**
@@ -70,6 +101,74 @@ public boolean isLoaded() {
       return true;
    }
 
+   /**
+    * @return True if the index was loaded from checkpoints and the data files since
+    * {@link #getReplayFile()} must be replayed
+    */
+   public boolean isRecovered() {
+      for (Segment segment : segments) {
+         if (!segment.recovered) return false;
+      }
+      return true;
+   }
+
+   /**
+    * @return the first data file that may contain records not included in the recovered checkpoints
+    */
+   public int getReplayFile() {
+      int replayFile = Integer.MAX_VALUE;
+      for (Segment segment : segments) {
+         replayFile = Math.min(replayFile, segment.replayFile);
+      }
+      return replayFile;
+   }
+
+   /**
+    * @return the highest sequence id used by the log appender when the recovered checkpoints were taken
+    */
+   public long getCheckpointSeqId() {
+      long seqId = 0;
+      for (Segment segment : segments) {
+         seqId = Math.max(seqId, segment.checkpointSeqId);
+      }
+      return seqId;
+   }
+
+   /**
+    * Persists a checkpoint of all segments and waits until it is written. All the records in data files with id lower
+    * than <code>replayFile</code> must have been already queued for indexing.
+    *
+    * @param replayFile first data file that may contain records not queued for indexing yet
+    * @param seqId the sequence id of the last record written to the data files
+    * @return true if all segments have persisted the checkpoint
+    */
+   public synchronized boolean checkpoint(int replayFile, long seqId) throws InterruptedException {
+      lock.readLock().lock();
+      try {
+         // files deleted after this point may still be referenced by the checkpoint
+         List<Integer> filesToDelete = new ArrayList<>(deletedFiles);
+         List<IndexRequest> requests = new ArrayList<>(segments.length);
+         for (Segment segment : segments) {
+            IndexRequest request = IndexRequest.checkpointRequest(replayFile, seqId);
+            segment.indexQueue.put(request);
+            requests.add(request);
+         }
+         boolean success = true;
+         for (IndexRequest request : requests) {
+            success &= (Boolean) request.getResult();
+         }
+         if (success) {
+            for (Integer file : filesToDelete) {
+               fileProvider.deleteFile(file);
+               deletedFiles.remove(file);
+            }
+         }
+         return success;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
    public void start() {
       for (Segment segment : segments) {
          segment.start();
@@ -122,6 +221,7 @@ public void clear() throws IOException {
          for (Segment seg : segments) {
             pauses.add(seg.pauseAndClear());
          }
+         deletedFiles.clear();
          for (CountDownLatch pause : pauses) {
             pause.countDown();
          }
@@ -137,6 +237,16 @@ public void stopOperations() throws InterruptedException {
       for (Segment seg : segments) {
          seg.stopOperations();
       }
+      // the index was persisted gracefully, so nothing references the compacted files anymore
+      deletedFiles.forEach(fileProvider::deleteFile);
+      deletedFiles.clear();
+   }
+
+   /**
+    * @return true if the file was compacted and it is only kept until the next checkpoint
+    */
+   public boolean isDeleted(int file) {
+      return deletedFiles.contains(file);
    }
 
    public long size() throws InterruptedException {
@@ -153,10 +263,17 @@ class Segment extends Thread {
       private final TreeMap<Short, List<IndexSpace>> freeBlocks = new TreeMap<>();
       private final ReadWriteLock rootLock = new ReentrantReadWriteLock();
       private final File indexFileFile;
+      private final File checkpointFile;
       private final boolean loaded;
+      // space freed since the last checkpoint, which may still be referenced by it
+      private final List<IndexSpace> checkpointedFreeBlocks = new ArrayList<>();
       private FileChannel indexFile;
       private long indexFileSize;
       private AtomicLong size = new AtomicLong();
+      private boolean recovered;
+      private int replayFile = -1;
+      private long checkpointSeqId;
+      private volatile int checkpointEpoch;
 
       private volatile IndexNode root;
 
@@ -168,6 +285,7 @@ private Segment(int id, BlockingQueue<IndexRequest> indexQueue, TemporaryTable t
          this.temporaryTable = temporaryTable;
 
          this.indexFileFile = new File(indexDir.toFile(), "index." + id);
+         this.checkpointFile = new File(indexDir.toFile(), "index." + id + ".checkpoint");
          this.indexFile = new RandomAccessFile(indexFileFile, "rw").getChannel();
          indexFile.position(0);
          ByteBuffer buffer = ByteBuffer.allocate(INDEX_FILE_HEADER_SIZE);
@@ -177,15 +295,23 @@ private Segment(int id, BlockingQueue<IndexRequest> indexQueue, TemporaryTable t
             long freeBlocksOffset = buffer.getLong(14);
             size.set(buffer.getLong(22));
             root = new IndexNode(this, rootOffset, rootOccupied);
-            loadFreeBlocks(freeBlocksOffset);
+            loadFreeBlocks(indexFile, freeBlocksOffset);
             indexFileSize = freeBlocksOffset;
             loaded = true;
+            // the tree will be modified, an older checkpoint would be inconsistent with it
+            deleteCheckpoint();
+         } else if (checkpointing && loadCheckpoint()) {
+            log.debugf("Index segment %d recovered from checkpoint, replaying data files from %d", id, replayFile);
+            indexFile.truncate(indexFileSize);
+            loaded = false;
+            recovered = true;
          } else {
             this.indexFile.truncate(0);
             root = IndexNode.emptyWithLeaves(this);
             loaded = false;
             // reserve space for shutdown
             indexFileSize = INDEX_FILE_HEADER_SIZE;
+            deleteCheckpoint();
          }
          buffer.putInt(0, DIRTY);
          buffer.position(0);
@@ -239,10 +365,17 @@ public void run() {
                   case DELETE_FILE:
                      // the last segment that processes the delete request actually deletes the file
                      if (request.countDown()) {
-                        fileProvider.deleteFile(request.getFile());
+                        if (checkpointing) {
+                           deletedFiles.add(request.getFile());
+                        } else {
+                           fileProvider.deleteFile(request.getFile());
+                        }
                         compactor.releaseStats(request.getFile());
                      }
                      continue;
+                  case CHECKPOINT:
+                     request.setResult(checkpoint(request.getFile(), request.getSeqId()));
+                     continue;
                   case STOP:
                      assert indexQueue.poll() == null;
                      shutdown();
@@ -323,12 +456,48 @@ public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
       }
 
       private void shutdown() throws IOException {
+         IndexSpace rootSpace = storeRoot();
+         // the graceful state supersedes the last checkpoint
+         releaseCheckpointedFreeBlocks();
+         indexFile.position(indexFileSize);
+         ByteBuffer buffer = writeFreeBlocks(indexFile);
+         int headerWithoutMagic = INDEX_FILE_HEADER_SIZE - 4;
+         buffer = buffer.capacity() < headerWithoutMagic ? ByteBuffer.allocate(headerWithoutMagic) : buffer;
+         buffer.position(0);
+         // we need to set limit ahead, otherwise the putLong could throw IndexOutOfBoundsException
+         buffer.limit(headerWithoutMagic);
+         buffer.putLong(0, rootSpace.offset);
+         buffer.putShort(8, rootSpace.length);
+         buffer.putLong(10, indexFileSize);
+         buffer.putLong(18, size.get());
+         indexFile.position(4);
+         write(indexFile, buffer);
+         buffer.position(0);
+         buffer.limit(4);
+         buffer.putInt(0, GRACEFULLY);
+         indexFile.position(0);
+         write(indexFile, buffer);
+      }
+
+      private IndexSpace storeRoot() throws IOException {
+         if (root.getOffset() >= 0) {
+            // the root has not changed since it was stored
+            return new IndexSpace(root.getOffset(), root.getOccupiedSpace());
+         }
          IndexSpace rootSpace = allocateIndexSpace(root.length());
          root.store(rootSpace);
-         indexFile.position(indexFileSize);
-         ByteBuffer buffer = ByteBuffer.allocate(4);
+         return rootSpace;
+      }
+
+      /**
+       * Writes the free blocks lists at the current position of the channel.
+       * @return the buffer used for writing, to be reused by the caller
+       */
+      private ByteBuffer writeFreeBlocks(FileChannel channel) throws IOException {
+         ByteBuffer buffer = ByteBuffer.allocate(INDEX_FILE_HEADER_SIZE);
+         buffer.limit(4);
          buffer.putInt(0, freeBlocks.size());
-         write(indexFile, buffer);
+         write(channel, buffer);
          for (Map.Entry<Short, List<IndexSpace>> entry : freeBlocks.entrySet()) {
             List<IndexSpace> list = entry.getValue();
             int requiredSize = 8 + list.size() * 10;
@@ -343,27 +512,114 @@ private void shutdown() throws IOException {
                buffer.putShort(space.length);
             }
             buffer.flip();
-            write(indexFile, buffer);
+            write(channel, buffer);
          }
-         int headerWithoutMagic = INDEX_FILE_HEADER_SIZE - 4;
-         buffer = buffer.capacity() < headerWithoutMagic ? ByteBuffer.allocate(headerWithoutMagic) : buffer;
-         buffer.position(0);
-         // we need to set limit ahead, otherwise the putLong could throw IndexOutOfBoundsException
-         buffer.limit(headerWithoutMagic);
-         buffer.putLong(0, rootSpace.offset);
-         buffer.putShort(8, rootSpace.length);
-         buffer.putLong(10, indexFileSize);
-         buffer.putLong(18, size.get());
-         indexFile.position(4);
-         write(indexFile, buffer);
-         buffer.position(0);
-         buffer.limit(4);
-         buffer.putInt(0, GRACEFULLY);
+         return buffer;
+      }
+
+      /**
+       * Persists the current state of the tree into the checkpoint file. Invoked from the updater thread, so all the
+       * requests queued before are already applied.
+       */
+      private boolean checkpoint(int replayFile, long seqId) {
+         File tmpFile = new File(indexDir.toFile(), checkpointFile.getName() + ".tmp");
+         try {
+            IndexSpace rootSpace = storeRoot();
+            // nodes freed since the previous checkpoint are not referenced by this one, the space can be reused
+            // after the checkpoint is written as no more nodes are stored here
+            releaseCheckpointedFreeBlocks();
+            indexFile.force(false);
+            try (FileChannel channel = new RandomAccessFile(tmpFile, "rw").getChannel()) {
+               channel.truncate(0);
+               ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_HEADER_SIZE);
+               buffer.putInt(CHECKPOINT);
+               buffer.putLong(rootSpace.offset);
+               buffer.putShort(rootSpace.length);
+               buffer.putLong(indexFileSize);
+               buffer.putLong(size.get());
+               buffer.putInt(replayFile);
+               buffer.putLong(seqId);
+               buffer.flip();
+               write(channel, buffer);
+               writeFreeBlocks(channel);
+               channel.force(true);
+            }
+            Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                  StandardCopyOption.REPLACE_EXISTING);
+            checkpointEpoch++;
+            return true;
+         } catch (IOException e) {
+            log.cannotCheckpointIndex(checkpointFile.getPath(), e);
+            // the released free blocks may be reused, so the previous checkpoint cannot be used anymore
+            deleteCheckpoint();
+            return false;
+         } finally {
+            tmpFile.delete();
+         }
+      }
+
+      private boolean loadCheckpoint() {
+         if (!checkpointFile.exists()) {
+            return false;
+         }
+         try (FileChannel channel = new RandomAccessFile(checkpointFile, "r").getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_HEADER_SIZE);
+            if (channel.size() < CHECKPOINT_HEADER_SIZE || !read(channel, buffer) || buffer.getInt(0) != CHECKPOINT) {
+               return false;
+            }
+            buffer.position(4);
+            long rootOffset = buffer.getLong();
+            short rootOccupied = buffer.getShort();
+            long checkpointFileSize = buffer.getLong();
+            if (indexFile.size() < checkpointFileSize) {
+               return false;
+            }
+            root = new IndexNode(this, rootOffset, rootOccupied);
+            loadFreeBlocks(channel, CHECKPOINT_HEADER_SIZE);
+            indexFileSize = checkpointFileSize;
+            size.set(buffer.getLong());
+            replayFile = buffer.getInt();
+            checkpointSeqId = buffer.getLong();
+            return true;
+         } catch (IOException e) {
+            log.debugf(e, "Cannot load index checkpoint %s", checkpointFile);
+            freeBlocks.clear();
+            return false;
+         }
+      }
+
+      private void deleteCheckpoint() {
+         checkpointFile.delete();
+      }
+
+      private void releaseCheckpointedFreeBlocks() {
+         for (IndexSpace space : checkpointedFreeBlocks) {
+            freeBlocks.computeIfAbsent(space.length, k -> new ArrayList<>()).add(space);
+         }
+         checkpointedFreeBlocks.clear();
+      }
+
+      /**
+       * Drops the state recovered from checkpoint when the index has to be rebuilt.
+       */
+      private void reset() throws IOException {
+         indexFile.truncate(0);
+         root = IndexNode.emptyWithLeaves(this);
+         indexFileSize = INDEX_FILE_HEADER_SIZE;
+         freeBlocks.clear();
+         size.set(0);
+         recovered = false;
+         replayFile = -1;
+         checkpointSeqId = 0;
+         deleteCheckpoint();
+         // the truncated file lost the dirty marker
+         ByteBuffer buffer = ByteBuffer.allocate(4);
+         buffer.putInt(0, DIRTY);
          indexFile.position(0);
          write(indexFile, buffer);
       }
 
-      private void loadFreeBlocks(long freeBlocksOffset) throws IOException {
+      private void loadFreeBlocks(FileChannel indexFile, long freeBlocksOffset) throws IOException {
          indexFile.position(freeBlocksOffset);
          ByteBuffer buffer = ByteBuffer.allocate(8);
          buffer.limit(4);
@@ -405,7 +661,9 @@ CountDownLatch pauseAndClear() throws InterruptedException, IOException {
          indexFile.truncate(0);
          indexFileSize = INDEX_FILE_HEADER_SIZE;
          freeBlocks.clear();
+         checkpointedFreeBlocks.clear();
          size.set(0);
+         deleteCheckpoint();
          return pause;
       }
 
@@ -446,6 +704,14 @@ public int getMinNodeSize() {
          return minNodeSize;
       }
 
+      boolean isCheckpointing() {
+         return checkpointing;
+      }
+
+      int getCheckpointEpoch() {
+         return checkpointEpoch;
+      }
+
       // this should be accessed only from the updater thread
       IndexSpace allocateIndexSpace(short length) {
          Map.Entry<Short, List<IndexSpace>> entry = freeBlocks.ceilingEntry(length);
@@ -461,6 +727,11 @@ IndexSpace allocateIndexSpace(short length) {
       // this should be accessed only from the updater thread
       void freeIndexSpace(long offset, short length) {
          if (length <= 0) throw new IllegalArgumentException("Offset=" + offset + ", length=" + length);
+         if (checkpointing) {
+            // the space can't be reused until the next checkpoint
+            checkpointedFreeBlocks.add(new IndexSpace(offset, length));
+            return;
+         }
          // TODO: fragmentation!
          // TODO: memory bounds!
          if (offset + length < indexFileSize) {
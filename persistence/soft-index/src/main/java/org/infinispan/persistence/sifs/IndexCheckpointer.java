@@ -0,0 +1,65 @@
+package org.infinispan.persistence.sifs;
+
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Periodically persists a checkpoint of the {@link Index}, so that after a crash only the data files written since
+ * the last checkpoint have to be replayed instead of rebuilding the whole index.
+ *
+ * @author agent
+ * @since 12.0
+ */
+class IndexCheckpointer extends Thread {
+   private static final Log log = LogFactory.getLog(IndexCheckpointer.class, Log.class);
+
+   private final Index index;
+   private final FileProvider fileProvider;
+   private final LogAppender logAppender;
+   private final long interval;
+   private volatile boolean terminate;
+
+   IndexCheckpointer(Index index, FileProvider fileProvider, LogAppender logAppender, long interval) {
+      super("BCS-IndexCheckpointer");
+      this.setDaemon(true);
+      this.index = index;
+      this.fileProvider = fileProvider;
+      this.logAppender = logAppender;
+      this.interval = interval;
+   }
+
+   /**
+    * Persists a checkpoint of the index and waits until it is written.
+    */
+   boolean checkpoint() throws InterruptedException {
+      // Records in files that are not written anymore have already been queued for indexing. The sequence id
+      // must be read afterwards so that it is higher than the ids in these files.
+      int replayFile = fileProvider.getFirstLogFile();
+      long seqId = logAppender.getSeqId();
+      boolean success = index.checkpoint(replayFile, seqId);
+      if (success) {
+         log.tracef("Index checkpoint written, data files from %d have to be replayed", replayFile);
+      }
+      return success;
+   }
+
+   @Override
+   public void run() {
+      try {
+         // the first checkpoint bounds the replay after a crash, even if the index was loaded or rebuilt
+         while (!terminate) {
+            checkpoint();
+            Thread.sleep(interval);
+         }
+      } catch (InterruptedException e) {
+         if (!terminate) {
+            log.debug("Index checkpointer was interrupted", e);
+         }
+      }
+   }
+
+   void stopOperations() throws InterruptedException {
+      terminate = true;
+      interrupt();
+      join();
+   }
+}
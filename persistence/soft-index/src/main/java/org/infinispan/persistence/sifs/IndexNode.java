@@ -47,6 +47,8 @@ class IndexNode {
    private short contentLength = -1;
    private short totalLength = -1;
    private short occupiedSpace;
+   // index checkpoint epoch when this node was stored, nodes loaded from the file are considered checkpointed
+   private int epoch = -1;
 
    public enum RecordChange {
       INCREASE,
@@ -161,10 +163,26 @@ private void replaceContent(IndexNode other) throws IOException {
       }
    }
 
+   /**
+    * Nodes persisted before the last index checkpoint are part of its image and must not be overwritten in place.
+    */
+   private boolean isCheckpointed() {
+      return offset >= 0 && segment.isCheckpointing() && epoch < segment.getCheckpointEpoch();
+   }
+
+   long getOffset() {
+      return offset;
+   }
+
+   short getOccupiedSpace() {
+      return occupiedSpace;
+   }
+
    // called only internally or for root
    void store(Index.IndexSpace indexSpace) throws IOException {
       this.offset = indexSpace.offset;
       this.occupiedSpace = indexSpace.length;
+      this.epoch = segment.getCheckpointEpoch();
       ByteBuffer buffer = ByteBuffer.allocate(length());
       buffer.putShort((short) prefix.length);
       buffer.put(prefix);
@@ -396,7 +414,7 @@ private static JoinSplitResult manageLength(Index.Segment segment, Stack<Path> s
          Path parent = stack.peek();
          if (parent.node.innerNodes.length == 1) {
             // we have no siblings - we can't merge with them even when we're really short
-            if (copy.length() <= node.occupiedSpace) {
+            if (copy.length() <= node.occupiedSpace && !node.isCheckpointed()) {
                node.replaceContent(copy);
                return null;
             } else {
@@ -443,11 +461,13 @@ private static JoinSplitResult manageLength(Index.Segment segment, Stack<Path> s
          if (copy.innerNodes != null && copy.innerNodes.length == 1 && stack.isEmpty()) {
             IndexNode child = copy.innerNodes[0].getIndexNode(copy.segment);
             return new JoinSplitResult(0, 0, Collections.singletonList(child));
-         } else {
+         } else if (!node.isCheckpointed()) {
             // special case where we only overwrite the key
             node.replaceContent(copy);
             return null;
          }
+         // the node is referenced by the last checkpoint, the copy has to be stored elsewhere
+         from = to = stack.isEmpty() ? 0 : stack.peek().index;
       } else if (stack.isEmpty()) {
          from = to = 0;
       } else {
@@ -18,7 +18,8 @@ public enum Type {
       CLEAR,
       DELETE_FILE,
       STOP,
-      GET_SIZE
+      GET_SIZE,
+      CHECKPOINT
    }
 
    private final Type type;
@@ -30,10 +31,15 @@ public enum Type {
    private final int prevOffset;
    private final byte[] serializedKey;
    private final int size;
+   private final long seqId;
    private volatile Object result;
    private AtomicInteger countDown;
 
    private IndexRequest(Type type, Object key, byte[] serializedKey, int file, int offset, int size, int prevFile, int prevOffset) {
+      this(type, key, serializedKey, file, offset, size, prevFile, prevOffset, -1);
+   }
+
+   private IndexRequest(Type type, Object key, byte[] serializedKey, int file, int offset, int size, int prevFile, int prevOffset, long seqId) {
       this.type = type;
       this.key = key;
       this.file = file;
@@ -42,6 +48,7 @@ private IndexRequest(Type type, Object key, byte[] serializedKey, int file, int
       this.prevOffset = prevOffset;
       this.serializedKey = serializedKey;
       this.size = size;
+      this.seqId = seqId;
    }
 
    public static IndexRequest update(Object key, byte[] serializedKey, int file, int offset, int size) {
@@ -76,6 +83,10 @@ public static IndexRequest sizeRequest() {
       return new IndexRequest(Type.GET_SIZE, null, null, -1, -1, -1, -1, -1);
    }
 
+   public static IndexRequest checkpointRequest(int replayFile, long seqId) {
+      return new IndexRequest(Type.CHECKPOINT, null, null, replayFile, -1, -1, -1, -1, seqId);
+   }
+
    public Type getType() {
       return type;
    }
@@ -130,6 +141,10 @@ public int getSize() {
       return size;
    }
 
+   public long getSeqId() {
+      return seqId;
+   }
+
    @Override
    public String toString() {
       return "IndexRequest{" +
@@ -84,4 +84,23 @@ public interface Log extends BasicLogger {
 
    @Message(value = "Index looks corrupt.", id = 29020)
    PersistenceException indexLooksCorrupt(@Cause Exception e);
+
+   @Message(value = "Number of compaction threads (%d) must be at least 1.", id = 29021)
+   CacheConfigurationException invalidCompactionThreads(int value);
+
+   @Message(value = "Compaction rate limit (%d) must not be negative.", id = 29022)
+   CacheConfigurationException invalidCompactionRateLimit(long value);
+
+   @Message(value = "Group commit delay (%d) must not be negative.", id = 29023)
+   CacheConfigurationException invalidGroupCommitDelay(long value);
+
+   @Message(value = "Group commit size (%d) must not be negative.", id = 29024)
+   CacheConfigurationException invalidGroupCommitSize(int value);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(value = "Cannot write index checkpoint %s", id = 29025)
+   void cannotCheckpointIndex(String checkpointFile, @Cause IOException e);
+
+   @Message(value = "Index checkpoint interval (%d) must not be negative.", id = 29026)
+   CacheConfigurationException invalidIndexCheckpointInterval(long value);
 }
@@ -1,5 +1,6 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
 import java.util.concurrent.BlockingQueue;
 
 import org.infinispan.commons.io.ByteBuffer;
@@ -10,6 +11,10 @@
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
  *
+ * When sync writes are enabled, the writers are released only after the data file has been synced. Records appended
+ * while the queue was being drained share a single sync; with a group commit delay the sync is also postponed until
+ * more writers arrive, the delay elapses or the queue batch limit is reached.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class LogAppender extends Thread {
@@ -18,18 +23,21 @@ public class LogAppender extends Thread {
    private final SyncProcessingQueue<LogRequest> queue;
    private final BlockingQueue<IndexRequest> indexQueue;
    private final boolean syncWrites;
+   private final long groupCommitDelay;
    private final TemporaryTable temporaryTable;
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
    private LogRequest pausedRequest;
-   private long seqId = 0;
+   private volatile long seqId = 0;
+   private int unsyncedWrites;
+   private long unsyncedSince;
 
    LogAppender(SyncProcessingQueue<LogRequest> inboundQueue,
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
-               FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+               FileProvider fileProvider, boolean syncWrites, long groupCommitDelay, int maxFileSize) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -38,6 +46,7 @@ public class LogAppender extends Thread {
       this.compactor = compactor;
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
+      this.groupCommitDelay = groupCommitDelay;
       this.maxFileSize = maxFileSize;
       start();
    }
@@ -46,6 +55,13 @@ public void setSeqId(long seqId) {
       this.seqId = seqId;
    }
 
+   /**
+    * @return the sequence id that will be assigned to the next record
+    */
+   public long getSeqId() {
+      return seqId;
+   }
+
    public void pause() throws InterruptedException {
       LogRequest pause = LogRequest.pauseRequest();
       queue.pushAndWait(pause);
@@ -73,6 +89,7 @@ public void run() {
             if (request != null) {
                if (request.isClear()) {
                   logFile.close();
+                  unsyncedWrites = 0;
                   queue.notifyNoWait();
                   request.pause();
                   currentOffset = 0;
@@ -80,15 +97,18 @@ public void run() {
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  sync(logFile);
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
+                  sync(logFile);
                   queue.notifyNoWait();
                   request.pause();
                   continue;
                }
                if (currentOffset + request.length() > maxFileSize) {
                   // switch to next file
+                  sync(logFile);
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
                   currentOffset = 0;
@@ -106,10 +126,18 @@ public void run() {
                request.setIndexRequest(indexRequest);
                indexQueue.put(indexRequest);
                currentOffset += request.length();
+               if (unsyncedWrites++ == 0) {
+                  unsyncedSince = System.nanoTime();
+               }
             } else {
-               if (syncWrites) {
-                  logFile.fileChannel.force(false);
+               if (syncWrites && unsyncedWrites > 0 && groupCommitDelay > 0 && !queue.isBatchFull()) {
+                  long remaining = unsyncedSince + groupCommitDelay - System.nanoTime();
+                  if (remaining > 0 && queue.awaitElement(remaining)) {
+                     // more writers arrived, append their records before syncing
+                     continue;
+                  }
                }
+               sync(logFile);
                queue.notifyAndWait();
             }
          }
@@ -119,6 +147,13 @@ public void run() {
       }
    }
 
+   private void sync(FileProvider.Log logFile) throws IOException {
+      if (syncWrites && unsyncedWrites > 0) {
+         logFile.fileChannel.force(false);
+      }
+      unsyncedWrites = 0;
+   }
+
    private byte[] raw(ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
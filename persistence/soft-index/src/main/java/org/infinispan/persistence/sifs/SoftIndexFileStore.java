@@ -6,9 +6,13 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
@@ -25,6 +29,7 @@
 import org.infinispan.metadata.impl.PrivateMetadata;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.CompactingStore;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.MarshallableEntryFactory;
@@ -110,7 +115,7 @@
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 @Store
-public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object> {
+public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object>, CompactingStore {
 
    private static final Log log = LogFactory.getLog(SoftIndexFileStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -126,6 +131,7 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object
    private FileProvider fileProvider;
    private LogAppender logAppender;
    private Index index;
+   private IndexCheckpointer checkpointer;
    private Compactor compactor;
    private Marshaller marshaller;
    private ByteBufferFactory byteBufferFactory;
@@ -152,15 +158,19 @@ public synchronized void start() {
       }
       started = true;
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments());
-      storeQueue = new SyncProcessingQueue<>();
+      storeQueue = configuration.groupCommitSize() > 0 ?
+            new SyncProcessingQueue<>(configuration.groupCommitSize()) : new SyncProcessingQueue<>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength());
-      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_11_0);
-      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_11_0,
+            configuration.memoryMapped() ? configuration.maxMappedSize() : 0);
+      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(),
+            configuration.compactionThreshold(), configuration.compactionThreads(), configuration.compactionRateLimit());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(),
+            TimeUnit.MICROSECONDS.toNanos(configuration.groupCommitDelay()), configuration.maxFileSize());
       try {
          index = new Index(fileProvider, getIndexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
-               indexQueue, temporaryTable, compactor, timeService);
+               indexQueue, temporaryTable, compactor, timeService, configuration.checkpointInterval() > 0);
       } catch (IOException e) {
          throw log.cannotOpenIndex(configuration.indexLocation(), e);
       }
@@ -168,6 +178,7 @@ public synchronized void start() {
       startIndex();
       final AtomicLong maxSeqId = new AtomicLong(0);
       boolean migrateData = false;
+      List<Integer> replayedFiles = Collections.emptyList();
 
       if (!configuration.purgeOnStartup()) {
          // we don't destroy the data on startup
@@ -179,6 +190,10 @@ public synchronized void start() {
             migrateData = true;
          } else if (index.isLoaded()) {
             log.debug("Not building the index - loaded from persisted state");
+         } else if (index.isRecovered()) {
+            log.debugf("Replaying data files from %d on top of the index checkpoint", index.getReplayFile());
+            maxSeqId.set(index.getCheckpointSeqId());
+            replayedFiles = replayIndex(maxSeqId);
          } else {
             log.debug("Building the index");
             buildIndex(maxSeqId);
@@ -189,6 +204,12 @@ public synchronized void start() {
       if (!migrateData) {
          logAppender.setSeqId(maxSeqId.get() + 1);
       }
+      if (configuration.checkpointInterval() > 0) {
+         checkpointer = new IndexCheckpointer(index, fileProvider, logAppender, configuration.checkpointInterval());
+         checkpointer.start();
+      }
+      // compacted files are not deleted before the next checkpoint, so the replayed files can be compacted right away
+      replayedFiles.forEach(compactor::completeFile);
    }
 
    private void migrateFromOldFormat(FileProvider oldFileProvider) {
@@ -231,8 +252,23 @@ private void migrateFromOldFormat(FileProvider oldFileProvider) {
    }
 
    private void buildIndex(final AtomicLong maxSeqId) {
-      Flowable<Integer> filePublisher = filePublisher();
-      CompletionStage<Void> stage = handleFilePublisher(filePublisher.doAfterNext(compactor::completeFile), false, false,
+      indexFiles(filePublisher().doAfterNext(compactor::completeFile), maxSeqId, false);
+   }
+
+   /**
+    * Applies the records from the data files not covered by the index checkpoint.
+    * @return the replayed files
+    */
+   private List<Integer> replayIndex(final AtomicLong maxSeqId) {
+      int replayFile = index.getReplayFile();
+      List<Integer> replayedFiles = Collections.synchronizedList(new ArrayList<>());
+      indexFiles(filePublisher().filter(file -> file >= replayFile && !fileProvider.isLogFile(file))
+            .doOnNext(replayedFiles::add), maxSeqId, true);
+      return replayedFiles;
+   }
+
+   private void indexFiles(Flowable<Integer> filePublisher, final AtomicLong maxSeqId, boolean replay) {
+      CompletionStage<Void> stage = handleFilePublisher(filePublisher, false, false,
             (file, offset, size, serializedKey, entryMetadata, serializedValue, serializedInternalMetadata, seqId, expiration) -> {
                long prevSeqId;
                while (seqId > (prevSeqId = maxSeqId.get()) && !maxSeqId.compareAndSet(prevSeqId, seqId)) {
@@ -242,6 +278,10 @@ private void buildIndex(final AtomicLong maxSeqId) {
                   log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
                }
                try {
+                  // records indexed before the checkpoint was taken must not be counted again
+                  if (replay && isIndexedAt(key, serializedKey, file, offset)) {
+                     return null;
+                  }
                   // We may check the seqId safely as we are the only thread writing to index
                   if (isSeqIdOld(seqId, key, serializedKey)) {
                      indexQueue.put(IndexRequest.foundOld(key, serializedKey, file, offset));
@@ -259,7 +299,7 @@ private void buildIndex(final AtomicLong maxSeqId) {
       CompletionStages.join(stage);
    }
 
-   private Path getDataLocation() {
+   Path getDataLocation() {
       return getQualifiedLocation(ctx.getGlobalConfiguration(), configuration.dataLocation(), ctx.getCache().getName(), "data");
    }
 
@@ -301,6 +341,16 @@ protected boolean isSeqIdOld(long seqId, Object key, byte[] serializedKey) throw
       }
    }
 
+   private boolean isIndexedAt(Object key, byte[] serializedKey, int file, int offset) throws IOException {
+      EntryPosition entry = temporaryTable.get(key);
+      if (entry == null) {
+         entry = index.getInfo(key, serializedKey);
+      }
+      // expired records are reported with negative offset
+      return entry != null && entry.file == file
+            && (entry.offset < 0 ? ~entry.offset : entry.offset) == (offset < 0 ? ~offset : offset);
+   }
+
    protected void startIndex() {
       // this call is extracted for better testability
       index.start();
@@ -310,9 +360,30 @@ protected boolean isIndexLoaded() {
       return index.isLoaded();
    }
 
+   protected boolean isIndexRecovered() {
+      return index.isRecovered();
+   }
+
+   boolean checkpointIndex() throws InterruptedException {
+      return checkpointer != null && checkpointer.checkpoint();
+   }
+
+   @Override
+   public int getCompactionLag() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getCompactionLag();
+   }
+
+   @Override
+   public long getCompactionReclaimedBytes() {
+      Compactor compactor = this.compactor;
+      return compactor == null ? 0 : compactor.getReclaimedBytes();
+   }
+
    @Override
    public synchronized void stop() {
       try {
+         stopCheckpointer();
          logAppender.stopOperations();
          logAppender = null;
          compactor.stopOperations();
@@ -335,6 +406,7 @@ public synchronized void stop() {
    @Override
    public synchronized void destroy() {
       try {
+         stopCheckpointer();
          logAppender.stopOperations();
          logAppender = null;
          compactor.stopOperations();
@@ -363,6 +435,13 @@ public synchronized void destroy() {
       }
    }
 
+   private void stopCheckpointer() throws InterruptedException {
+      if (checkpointer != null) {
+         checkpointer.stopOperations();
+         checkpointer = null;
+      }
+   }
+
    @Override
    public boolean isAvailable() {
       return new File(configuration.dataLocation()).exists() && new File(configuration.dataLocation()).exists();
@@ -566,7 +645,9 @@ private Flowable<Integer> filePublisher() {
       return Flowable.using(fileProvider::getFileIterator, it -> Flowable.fromIterable(() -> it),
             // This close happens after the lasst file iterator is returned, but before processing it.
             // TODO: Is this okay or can compaction etc affect this?
-            CloseableIterator::close);
+            CloseableIterator::close)
+            // compacted files kept until the next index checkpoint only contain duplicates
+            .filter(file -> !index.isDeleted(file));
    }
 
    private <R> Flowable<R> handleFilePublisher(Flowable<Integer> filePublisher, boolean fetchValue, boolean fetchMetadata,
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.sifs;
 
 import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Multiple producer-single consumer queue. The producers are expected to call pushAndWait(),
@@ -48,7 +49,8 @@ public void pushAndWait(T element) throws InterruptedException {
 
    public long push(T element) {
       synchronized (queue) {
-         queue.push(element);
+         // Producers are released by count, so the elements must be popped in the order they were pushed
+         queue.addLast(element);
          queue.notify();
          pushIndex++;
          return pushIndex;
@@ -84,6 +86,27 @@ public T pop() {
       }
    }
 
+   /**
+    * @return true if pop() returns null because the limit of elements processed in a loop has been reached.
+    */
+   public boolean isBatchFull() {
+      return poppedInRow >= maxPoppedInRow;
+   }
+
+   /**
+    * Waits until an element is pushed or the timeout elapses, without releasing the producers.
+    *
+    * @return true if there is an element to be popped
+    */
+   public boolean awaitElement(long timeoutNanos) throws InterruptedException {
+      synchronized (queue) {
+         if (queue.isEmpty()) {
+            TimeUnit.NANOSECONDS.timedWait(queue, timeoutNanos);
+         }
+         return !queue.isEmpty();
+      }
+   }
+
    public void notifyAndWait() {
       poppedInRow = 0;
       popIndex = processorPopIndex;
@@ -11,12 +11,19 @@
 public enum Attribute {
    // must be first
    UNKNOWN(null),
+   CHECKPOINT_INTERVAL("checkpoint-interval"),
+   COMPACTION_RATE_LIMIT("compaction-rate-limit"),
+   COMPACTION_THREADS("compaction-threads"),
    COMPACTION_THRESHOLD("compaction-threshold"),
    PATH("path"),
+   GROUP_COMMIT_DELAY("group-commit-delay"),
+   GROUP_COMMIT_SIZE("group-commit-size"),
    INDEX_QUEUE_LENGTH("max-queue-length"),
    SEGMENTS("segments"),
    MAX_FILE_SIZE("max-file-size"),
+   MAX_MAPPED_SIZE("max-mapped-size"),
    MAX_NODE_SIZE("max-node-size"),
+   MEMORY_MAPPED("memory-mapped"),
    MIN_NODE_SIZE("min-node-size"),
    OPEN_FILES_LIMIT("open-files-limit"),
    SYNC_WRITES("sync-writes"),
@@ -12,10 +12,15 @@ public class DataConfiguration implements ConfigurationInfo {
    public static final AttributeDefinition<String> DATA_LOCATION = AttributeDefinition.builder("dataLocation", null, String.class).immutable().autoPersist(false).xmlName("path").build();
    public static final AttributeDefinition<Integer> MAX_FILE_SIZE = AttributeDefinition.builder("maxFileSize", 16 * 1024 * 1024).immutable().autoPersist(false).build();
    public static final AttributeDefinition<Boolean> SYNC_WRITES = AttributeDefinition.builder("syncWrites", false).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Boolean> MEMORY_MAPPED = AttributeDefinition.builder("memoryMapped", false).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Long> MAX_MAPPED_SIZE = AttributeDefinition.builder("maxMappedSize", 256L * 1024 * 1024).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Long> GROUP_COMMIT_DELAY = AttributeDefinition.builder("groupCommitDelay", 0L).immutable().autoPersist(false).build();
+   public static final AttributeDefinition<Integer> GROUP_COMMIT_SIZE = AttributeDefinition.builder("groupCommitSize", 0).immutable().autoPersist(false).build();
    private final AttributeSet attributes;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(DataConfiguration.class, DATA_LOCATION, MAX_FILE_SIZE, SYNC_WRITES);
+      return new AttributeSet(DataConfiguration.class, DATA_LOCATION, MAX_FILE_SIZE, SYNC_WRITES, MEMORY_MAPPED, MAX_MAPPED_SIZE,
+            GROUP_COMMIT_DELAY, GROUP_COMMIT_SIZE);
    }
 
    static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(DATA.getLocalName());
@@ -42,6 +47,22 @@ public boolean syncWrites() {
       return attributes.attribute(SYNC_WRITES).get();
    }
 
+   public boolean memoryMapped() {
+      return attributes.attribute(MEMORY_MAPPED).get();
+   }
+
+   public long maxMappedSize() {
+      return attributes.attribute(MAX_MAPPED_SIZE).get();
+   }
+
+   public long groupCommitDelay() {
+      return attributes.attribute(GROUP_COMMIT_DELAY).get();
+   }
+
+   public int groupCommitSize() {
+      return attributes.attribute(GROUP_COMMIT_SIZE).get();
+   }
+
    public String dataLocation() {
       return attributes.attribute(DATA_LOCATION).get();
    }
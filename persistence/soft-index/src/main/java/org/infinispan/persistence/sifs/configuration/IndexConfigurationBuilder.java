@@ -1,5 +1,6 @@
 package org.infinispan.persistence.sifs.configuration;
 
+import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.CHECKPOINT_INTERVAL;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.INDEX_LOCATION;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.INDEX_QUEUE_LENGTH;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.INDEX_SEGMENTS;
@@ -62,6 +63,11 @@ public IndexConfigurationBuilder indexQueueLength(int indexQueueLength) {
       return this;
    }
 
+   public IndexConfigurationBuilder checkpointInterval(long checkpointInterval) {
+      attributes.attribute(CHECKPOINT_INTERVAL).set(checkpointInterval);
+      return this;
+   }
+
    @Override
    public IndexConfiguration create() {
       return new IndexConfiguration(attributes.protect());
@@ -82,6 +88,10 @@ public void validate() {
       } else if (minNodeSize < 0 || minNodeSize > maxNodeSize) {
          throw log.minNodeSizeMustBeLessOrEqualToMax(minNodeSize, maxNodeSize);
       }
+      long checkpointInterval = attributes.attribute(CHECKPOINT_INTERVAL).get();
+      if (checkpointInterval < 0) {
+         throw log.invalidIndexCheckpointInterval(checkpointInterval);
+      }
    }
 
    @Override
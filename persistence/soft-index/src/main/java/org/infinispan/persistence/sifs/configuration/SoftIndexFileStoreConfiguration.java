@@ -30,12 +30,14 @@ public class SoftIndexFileStoreConfiguration extends AbstractSegmentedStoreConfi
 
    public static final AttributeDefinition<Integer> OPEN_FILES_LIMIT = AttributeDefinition.builder("openFilesLimit", 1000).immutable().build();
    public static final AttributeDefinition<Double> COMPACTION_THRESHOLD = AttributeDefinition.builder("compactionThreshold", 0.5d).immutable().build();
+   public static final AttributeDefinition<Integer> COMPACTION_THREADS = AttributeDefinition.builder("compactionThreads", 1).immutable().build();
+   public static final AttributeDefinition<Long> COMPACTION_RATE_LIMIT = AttributeDefinition.builder("compactionRateLimit", 0L).immutable().build();
    private final IndexConfiguration index;
    private final DataConfiguration data;
    private final List<ConfigurationInfo> elements;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD);
+      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD, COMPACTION_THREADS, COMPACTION_RATE_LIMIT);
    }
 
    public static ElementDefinition ELEMENT_DEFINITION = new DefaultElementDefinition(SOFT_INDEX_FILE_STORE.getLocalName(), true, false);
@@ -112,10 +114,30 @@ public int indexQueueLength() {
       return index.indexQueueLength();
    }
 
+   public long checkpointInterval() {
+      return index.checkpointInterval();
+   }
+
    public boolean syncWrites() {
       return data.syncWrites();
    }
 
+   public boolean memoryMapped() {
+      return data.memoryMapped();
+   }
+
+   public long maxMappedSize() {
+      return data.maxMappedSize();
+   }
+
+   public long groupCommitDelay() {
+      return data.groupCommitDelay();
+   }
+
+   public int groupCommitSize() {
+      return data.groupCommitSize();
+   }
+
    public int openFilesLimit() {
       return attributes.attribute(OPEN_FILES_LIMIT).get();
    }
@@ -124,6 +146,14 @@ public double compactionThreshold() {
       return attributes.attribute(COMPACTION_THRESHOLD).get();
    }
 
+   public int compactionThreads() {
+      return attributes.attribute(COMPACTION_THREADS).get();
+   }
+
+   public long compactionRateLimit() {
+      return attributes.attribute(COMPACTION_RATE_LIMIT).get();
+   }
+
    public IndexConfiguration index() {
       return index;
    }
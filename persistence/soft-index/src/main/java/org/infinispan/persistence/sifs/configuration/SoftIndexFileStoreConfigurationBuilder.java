@@ -1,6 +1,8 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_RATE_LIMIT;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 
@@ -126,6 +128,18 @@ public SoftIndexFileStoreConfigurationBuilder indexQueueLength(int indexQueueLen
       return this;
    }
 
+   /**
+    * Sets the interval in milliseconds between checkpoints of the index. After an unclean shutdown the index is loaded
+    * from the last checkpoint and only the data files written since then are scanned, instead of rebuilding the index
+    * from all data files. Compacted data files are deleted only after the next checkpoint.
+    *
+    * Defaults to <code>0</code>, which disables checkpoints.
+    */
+   public SoftIndexFileStoreConfigurationBuilder checkpointInterval(long checkpointInterval) {
+      index.checkpointInterval(checkpointInterval);
+      return this;
+   }
+
    /**
     * Sets whether writes shoud wait to be fsynced to disk.
     *
@@ -136,6 +150,53 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * If true, data files that are no longer written to are memory-mapped when opened, and entries are read from the
+    * mapped region instead of the file channel. Files that would exceed {@link #maxMappedSize(long)} are read from the
+    * channel as usual.
+    *
+    * Defaults to <code>false</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      data.memoryMapped(memoryMapped);
+      return this;
+   }
+
+   /**
+    * Sets the maximum total size of the memory-mapped data files, in bytes. Only used when
+    * {@link #memoryMapped(boolean)} is enabled.
+    *
+    * Defaults to <code>268435456</code> (256MB).
+    */
+   public SoftIndexFileStoreConfigurationBuilder maxMappedSize(long maxMappedSize) {
+      data.maxMappedSize(maxMappedSize);
+      return this;
+   }
+
+   /**
+    * Sets the maximum time, in microseconds, that the data file is left unsynced waiting for more writes to be
+    * flushed together, when {@link #syncWrites(boolean)} is enabled. A write completes once the data file has been
+    * synced after it, so concurrent writers share a single sync at the cost of a higher latency.
+    *
+    * Defaults to <code>0</code>, meaning the data file is synced as soon as there are no more writes waiting.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitDelay(long groupCommitDelay) {
+      data.groupCommitDelay(groupCommitDelay);
+      return this;
+   }
+
+   /**
+    * Sets the maximum number of writes that are flushed by a single sync of the data file, when
+    * {@link #syncWrites(boolean)} is enabled. Once this many writes are pending, the data file is synced without
+    * waiting for {@link #groupCommitDelay(long)} to elapse.
+    *
+    * Defaults to <code>0</code>, which means unlimited.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitSize(int groupCommitSize) {
+      data.groupCommitSize(groupCommitSize);
+      return this;
+   }
+
    /**
     * Sets the maximum number of open files.
     *
@@ -156,6 +217,28 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold(double compact
       return this;
    }
 
+   /**
+    * Sets the number of threads compacting data files concurrently. Files with the highest ratio of unused space are
+    * compacted first.
+    *
+    * Defaults to <code>1</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionThreads(int compactionThreads) {
+      attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+      return this;
+   }
+
+   /**
+    * Limits the number of bytes per second read from data files by all compaction threads together, so that compaction
+    * leaves disk bandwidth for writes.
+    *
+    * Defaults to <code>0</code>, which means unlimited.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionRateLimit(long compactionRateLimit) {
+      attributes.attribute(COMPACTION_RATE_LIMIT).set(compactionRateLimit);
+      return this;
+   }
+
    @Override
    public SoftIndexFileStoreConfiguration create() {
       return new SoftIndexFileStoreConfiguration(attributes.protect(), async.create(), index.create(), data.create());
@@ -187,6 +270,22 @@ protected void validate(boolean skipClassChecks) {
       if (compactionThreshold <= 0 || compactionThreshold > 1) {
          throw log.invalidCompactionThreshold(compactionThreshold);
       }
+      int compactionThreads = attributes.attribute(COMPACTION_THREADS).get();
+      if (compactionThreads < 1) {
+         throw log.invalidCompactionThreads(compactionThreads);
+      }
+      long compactionRateLimit = attributes.attribute(COMPACTION_RATE_LIMIT).get();
+      if (compactionRateLimit < 0) {
+         throw log.invalidCompactionRateLimit(compactionRateLimit);
+      }
+      long groupCommitDelay = data.attributes().attribute(DataConfiguration.GROUP_COMMIT_DELAY).get();
+      if (groupCommitDelay < 0) {
+         throw log.invalidGroupCommitDelay(groupCommitDelay);
+      }
+      int groupCommitSize = data.attributes().attribute(DataConfiguration.GROUP_COMMIT_SIZE).get();
+      if (groupCommitSize < 0) {
+         throw log.invalidGroupCommitSize(groupCommitSize);
+      }
    }
 
    @Override
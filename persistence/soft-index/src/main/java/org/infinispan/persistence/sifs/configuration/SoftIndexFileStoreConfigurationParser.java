@@ -61,6 +61,12 @@ private void parseSoftIndexFileStore(XMLExtendedStreamReader reader, SoftIndexFi
             case COMPACTION_THRESHOLD:
                builder.compactionThreshold(Double.parseDouble(value));
                break;
+            case COMPACTION_THREADS:
+               builder.compactionThreads(Integer.parseInt(value));
+               break;
+            case COMPACTION_RATE_LIMIT:
+               builder.compactionRateLimit(Long.parseLong(value));
+               break;
             default:
                Parser.parseStoreAttribute(reader, i, builder);
                break;
@@ -106,6 +112,18 @@ private void parseData(XMLExtendedStreamReader reader, SoftIndexFileStoreConfigu
             case SYNC_WRITES:
                builder.syncWrites(Boolean.parseBoolean(value));
                break;
+            case MEMORY_MAPPED:
+               builder.memoryMapped(Boolean.parseBoolean(value));
+               break;
+            case MAX_MAPPED_SIZE:
+               builder.maxMappedSize(Long.parseLong(value));
+               break;
+            case GROUP_COMMIT_DELAY:
+               builder.groupCommitDelay(Long.parseLong(value));
+               break;
+            case GROUP_COMMIT_SIZE:
+               builder.groupCommitSize(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -144,6 +162,9 @@ private void parseIndex(XMLExtendedStreamReader reader, SoftIndexFileStoreConfig
             case MAX_NODE_SIZE:
                builder.maxNodeSize(Integer.parseInt(value));
                break;
+            case CHECKPOINT_INTERVAL:
+               builder.checkpointInterval(Long.parseLong(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
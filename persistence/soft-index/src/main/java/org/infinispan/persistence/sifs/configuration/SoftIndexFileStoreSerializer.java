@@ -29,7 +29,11 @@ private void writeDataElement(XMLExtendedStreamWriter writer, SoftIndexFileStore
       configuration.data().attributes().write(writer, Element.DATA.getLocalName(),
             DataConfiguration.DATA_LOCATION,
             DataConfiguration.MAX_FILE_SIZE,
-            DataConfiguration.SYNC_WRITES);
+            DataConfiguration.SYNC_WRITES,
+            DataConfiguration.MEMORY_MAPPED,
+            DataConfiguration.MAX_MAPPED_SIZE,
+            DataConfiguration.GROUP_COMMIT_DELAY,
+            DataConfiguration.GROUP_COMMIT_SIZE);
    }
 
    private void writeIndexElement(XMLExtendedStreamWriter writer, SoftIndexFileStoreConfiguration configuration) throws XMLStreamException {
@@ -38,6 +42,7 @@ private void writeIndexElement(XMLExtendedStreamWriter writer, SoftIndexFileStor
             IndexConfiguration.INDEX_QUEUE_LENGTH,
             IndexConfiguration.INDEX_SEGMENTS,
             IndexConfiguration.MIN_NODE_SIZE,
-            IndexConfiguration.MAX_NODE_SIZE);
+            IndexConfiguration.MAX_NODE_SIZE,
+            IndexConfiguration.CHECKPOINT_INTERVAL);
    }
 }
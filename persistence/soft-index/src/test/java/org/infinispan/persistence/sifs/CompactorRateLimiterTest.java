@@ -0,0 +1,34 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.CompactorRateLimiterTest")
+public class CompactorRateLimiterTest {
+
+   public void testReservationsAreSpacedByRate() {
+      Compactor.RateLimiter limiter = new Compactor.RateLimiter(1000);
+      long now = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+      // 500 bytes take half a second at 1000 bytes per second
+      assertEquals(0, limiter.reserve(500, now));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve(500, now));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), limiter.reserve(100, now));
+   }
+
+   public void testIdleTimeDoesNotAccumulate() {
+      Compactor.RateLimiter limiter = new Compactor.RateLimiter(1000);
+      long now = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+      assertEquals(0, limiter.reserve(1000, now));
+      // Long after the previous reservation finished, only the new bytes count
+      long later = now + TimeUnit.SECONDS.toNanos(10);
+      assertEquals(0, limiter.reserve(1000, later));
+      assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve(1000, later));
+   }
+}
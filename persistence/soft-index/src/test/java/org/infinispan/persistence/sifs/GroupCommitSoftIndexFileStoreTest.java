@@ -0,0 +1,56 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index store tests with synced writes flushed by group commit.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.GroupCommitSoftIndexFileStoreTest")
+public class GroupCommitSoftIndexFileStoreTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder storeBuilder) {
+      storeBuilder.syncWrites(true).groupCommitDelay(500).groupCommitSize(16);
+   }
+
+   public void testConcurrentWriters() throws Exception {
+      testConcurrentWriters(8);
+   }
+
+   public void testMoreConcurrentWritersThanBatchSize() throws Exception {
+      // The batches are capped, so the producers must be released in the order their records are written
+      testConcurrentWriters(40);
+   }
+
+   private void testConcurrentWriters(int writers) throws Exception {
+      int writesPerWriter = 50;
+      List<Future<Void>> futures = new ArrayList<>(writers);
+      for (int i = 0; i < writers; i++) {
+         int writer = i;
+         futures.add(fork(() -> {
+            for (int j = 0; j < writesPerWriter; j++) {
+               store.write(marshalledEntry(internalCacheEntry(writer + "-" + j, "v" + j, -1)));
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(10, TimeUnit.SECONDS);
+      }
+      for (int i = 0; i < writers; i++) {
+         for (int j = 0; j < writesPerWriter; j++) {
+            assertEquals("v" + j, unwrap(store.loadEntry(i + "-" + j).getValue()));
+         }
+      }
+   }
+}
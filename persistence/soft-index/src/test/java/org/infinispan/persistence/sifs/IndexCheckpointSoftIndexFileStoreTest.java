@@ -0,0 +1,73 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index store tests with index checkpoints enabled.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.IndexCheckpointSoftIndexFileStoreTest")
+public class IndexCheckpointSoftIndexFileStoreTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder storeBuilder) {
+      // checkpoints are taken explicitly by the tests
+      storeBuilder.checkpointInterval(TimeUnit.HOURS.toMillis(1));
+   }
+
+   public void testRecoveryFromCheckpoint() throws Exception {
+      keepIndex = true;
+      try {
+         for (int i = 0; i < 100; i++) {
+            store.write(marshalledEntry("k" + i, "v" + i));
+         }
+         assertTrue(store.checkpointIndex());
+         // these writes are not covered by the checkpoint and have to be replayed
+         for (int i = 100; i < 150; i++) {
+            store.write(marshalledEntry("k" + i, "v" + i));
+         }
+         for (int i = 0; i < 150; i += 10) {
+            store.delete("k" + i);
+         }
+         store.stop();
+         simulateCrash();
+         keepIndex = false;
+         store.start();
+
+         assertTrue(store.isIndexRecovered());
+         for (int i = 0; i < 150; i++) {
+            if (i % 10 == 0) {
+               assertNull(store.loadEntry("k" + i));
+            } else {
+               assertEquals("v" + i, store.loadEntry("k" + i).getValue());
+            }
+         }
+         assertEquals(135, store.size());
+      } finally {
+         keepIndex = false;
+      }
+   }
+
+   private void simulateCrash() throws Exception {
+      File[] indexFiles = store.getIndexLocation().toFile().listFiles((dir, name) -> name.matches("index\\.[0-9]+"));
+      for (File indexFile : indexFiles) {
+         try (FileChannel channel = new RandomAccessFile(indexFile, "rw").getChannel()) {
+            // overwrite the marker of the graceful shutdown
+            channel.write(ByteBuffer.allocate(4), 0);
+         }
+      }
+   }
+}
@@ -0,0 +1,61 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index store tests with memory-mapped data files.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.MemoryMappedSoftIndexFileStoreTest")
+public class MemoryMappedSoftIndexFileStoreTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder storeBuilder) {
+      storeBuilder.memoryMapped(true);
+   }
+
+   public void testMappedSizeIsCapped() throws IOException {
+      FileProvider fileProvider = new FileProvider(Paths.get(tmpDirectory, "mapped"), 10, "test-", 150);
+      try {
+         int first = writeFile(fileProvider, 100);
+         int second = writeFile(fileProvider, 100);
+
+         try (FileProvider.Handle handle = fileProvider.getFile(first)) {
+            assertEquals(100, fileProvider.getMappedSize());
+            assertNotNull(handle.mappedRegion(0, 100));
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+            assertEquals(5, handle.read(buffer, 95));
+            assertEquals(5, buffer.position());
+            assertEquals(-1, handle.read(buffer, 100));
+
+            // The second file would exceed the limit, it has to be read through the channel
+            try (FileProvider.Handle other = fileProvider.getFile(second)) {
+               assertEquals(100, fileProvider.getMappedSize());
+               assertNull(other.mappedRegion(0, 100));
+            }
+         }
+      } finally {
+         fileProvider.clear();
+         fileProvider.stop();
+      }
+      assertEquals(0, fileProvider.getMappedSize());
+   }
+
+   private int writeFile(FileProvider fileProvider, int size) throws IOException {
+      try (FileProvider.Log log = fileProvider.getFileForLog()) {
+         log.fileChannel.write(ByteBuffer.allocate(size));
+         return log.fileId;
+      }
+   }
+}
@@ -0,0 +1,61 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.io.File;
+
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index store tests with several compaction threads.
+ *
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.ParallelCompactionSoftIndexFileStoreTest")
+public class ParallelCompactionSoftIndexFileStoreTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder storeBuilder) {
+      storeBuilder.compactionThreads(4);
+   }
+
+   public void testParallelCompaction() {
+      long reclaimedBefore = store.getCompactionReclaimedBytes();
+      int numEntries = 200;
+      int rounds = 5;
+      for (int round = 0; round < rounds; ++round) {
+         for (int i = 0; i < numEntries; ++i) {
+            write("key" + i, "value" + round + "-" + i);
+         }
+      }
+      // Most records were overwritten, so the files written in the first rounds are compacted and deleted
+      int filesAfterWrites = dataFiles();
+      eventually(() -> dataFiles() < filesAfterWrites / 2);
+      eventually(() -> store.getCompactionReclaimedBytes() > reclaimedBefore);
+      eventually(() -> store.getCompactionLag() == 0);
+
+      for (int i = 0; i < numEntries; ++i) {
+         assertEquals("value" + (rounds - 1) + "-" + i, unwrap(store.loadEntry("key" + i).getValue()));
+      }
+
+      // Every compaction thread pauses on clear
+      store.clear();
+      for (int i = 0; i < numEntries; ++i) {
+         write("key" + i, "value" + i);
+      }
+      for (int i = 0; i < numEntries; ++i) {
+         assertEquals("value" + i, unwrap(store.loadEntry("key" + i).getValue()));
+      }
+   }
+
+   private void write(String key, String value) {
+      store.write(marshalledEntry(internalCacheEntry(key, value, -1)));
+   }
+
+   private int dataFiles() {
+      File[] files = store.getDataLocation().toFile().listFiles();
+      return files == null ? 0 : files.length;
+   }
+}
@@ -77,16 +77,20 @@ public void stop() {
       };
       ConfigurationBuilder builder = TestCacheManagerFactory
             .getDefaultCacheConfiguration(false);
-      builder.persistence()
+      SoftIndexFileStoreConfigurationBuilder storeBuilder = builder.persistence()
             .addStore(SoftIndexFileStoreConfigurationBuilder.class)
             .indexLocation(tmpDirectory).dataLocation(tmpDirectory)
             .maxFileSize(1000);
+      configureStore(storeBuilder);
 
       Configuration c = builder.build();
       store.init(createContext(c));
       return store;
    }
 
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder storeBuilder) {
+   }
+
    @Override
    protected boolean storePurgesAllExpired() {
       return false;
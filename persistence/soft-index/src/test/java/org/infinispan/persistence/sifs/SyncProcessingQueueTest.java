@@ -0,0 +1,68 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * @author agent
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.SyncProcessingQueueTest")
+public class SyncProcessingQueueTest extends AbstractInfinispanTest {
+   private static final int BATCH_SIZE = 4;
+
+   public void testElementsArePoppedInPushOrder() {
+      SyncProcessingQueue<Integer> queue = new SyncProcessingQueue<>();
+      for (int i = 0; i < 10; ++i) {
+         queue.push(i);
+      }
+      for (int i = 0; i < 10; ++i) {
+         assertEquals(Integer.valueOf(i), queue.pop());
+      }
+      assertNull(queue.pop());
+   }
+
+   public void testProducersAreReleasedAfterTheirElementIsPopped() throws Exception {
+      SyncProcessingQueue<Integer> queue = new SyncProcessingQueue<>(BATCH_SIZE);
+      Set<Integer> popped = ConcurrentHashMap.newKeySet();
+      int producers = BATCH_SIZE * 3;
+      List<Future<Boolean>> futures = new ArrayList<>(producers);
+      for (int i = 0; i < producers; ++i) {
+         int element = i;
+         long index = queue.push(element);
+         futures.add(fork(() -> {
+            queue.waitFor(index);
+            return popped.contains(element);
+         }));
+      }
+
+      // Every batch is capped, so the producers of the elements that are still queued must keep waiting
+      int batches = 0;
+      while (popped.size() < producers) {
+         Integer element;
+         while ((element = queue.pop()) != null) {
+            popped.add(element);
+         }
+         assertTrue(queue.isBatchFull() || popped.size() == producers);
+         queue.notifyNoWait();
+         batches++;
+      }
+      assertEquals(3, batches);
+
+      for (int i = 0; i < producers; ++i) {
+         assertTrue("Producer " + i + " was released before its element was popped",
+               futures.get(i).get(10, TimeUnit.SECONDS));
+      }
+   }
+}
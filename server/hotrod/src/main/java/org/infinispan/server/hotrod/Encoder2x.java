@@ -55,6 +55,7 @@
 import org.jgroups.SuspectedException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 
 /**
@@ -63,6 +64,8 @@
 class Encoder2x implements VersionedEncoder {
    private static final Log log = LogFactory.getLog(Encoder2x.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
+   // Values of at least this size are appended to the response instead of being copied into it
+   static final int WRAP_VALUE_THRESHOLD = 4096;
 
    @Override
    public void writeEvent(Events.Event e, ByteBuf buf) {
@@ -110,7 +113,7 @@ public ByteBuf valueResponse(HotRodHeader header, HotRodServer server, Channel c
       if (prev == null) {
          ExtendedByteBuf.writeUnsignedInt(0, buf);
       } else {
-         ExtendedByteBuf.writeRangedBytes(prev, buf);
+         buf = writeValue(channel, buf, prev);
       }
       if (trace) {
          log.tracef("Write response to %s messageId=%d status=%s prev=%s", header.op, header.messageId, status, Util.printArray(prev));
@@ -227,8 +230,7 @@ private void writePair(ByteBuf buf, String key, String value) {
    public ByteBuf valueWithVersionResponse(HotRodHeader header, HotRodServer server, Channel channel, byte[] value, long version) {
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       buf.writeLong(version);
-      ExtendedByteBuf.writeRangedBytes(value, buf);
-      return buf;
+      return writeValue(channel, buf, value);
    }
 
 
@@ -237,8 +239,7 @@ public ByteBuf getWithMetadataResponse(HotRodHeader header, HotRodServer server,
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       MetadataUtils.writeMetadata(MetadataUtils.extractLifespan(entry), MetadataUtils.extractMaxIdle(entry),
             MetadataUtils.extractCreated(entry), MetadataUtils.extractLastUsed(entry), MetadataUtils.extractVersion(entry), buf);
-      ExtendedByteBuf.writeRangedBytes(entry.getValue(), buf);
-      return buf;
+      return writeValue(channel, buf, entry.getValue());
    }
 
    @Override
@@ -429,6 +430,20 @@ public OperationStatus errorStatus(Throwable t) {
       }
    }
 
+   /**
+    * Writes the value as the last field of the response. Large values are not copied into the response buffer, which
+    * would also have to grow, but appended to it as a wrapped buffer. The values returned by the cache are never
+    * modified, so they can be shared with the channel until the response is written.
+    */
+   private static ByteBuf writeValue(Channel channel, ByteBuf buf, byte[] value) {
+      if (value.length < WRAP_VALUE_THRESHOLD) {
+         ExtendedByteBuf.writeRangedBytes(value, buf);
+         return buf;
+      }
+      ExtendedByteBuf.writeUnsignedInt(value.length, buf);
+      return channel.alloc().compositeBuffer(2).addComponents(true, buf, Unpooled.wrappedBuffer(value));
+   }
+
    private ByteBuf writeHeader(HotRodHeader header, HotRodServer server, Channel channel, OperationStatus status) {
       return writeHeader(header, server, channel, status, false);
    }
@@ -2,10 +2,13 @@
 
 import static org.infinispan.server.hotrod.OperationStatus.Success;
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.assertStatus;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.assertSuccess;
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.k;
 import static org.testng.AssertJUnit.assertEquals;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
@@ -48,4 +51,19 @@ public void testSize(Method m) {
       assertEquals(20, sizeEnd.size);
    }
 
+   public void testGetLargeValueFromStore(Method m) {
+      byte[] value = new byte[Encoder2x.WRAP_VALUE_THRESHOLD * 4];
+      Arrays.fill(value, (byte) 'v');
+      assertStatus(client().put(k(m), 0, 0, value), Success);
+
+      // Clear contents from memory, so that the value is loaded from the store
+      advancedCache.withFlags(Flag.SKIP_CACHE_STORE).clear();
+      assertSuccess(client().get(k(m), 0), value);
+
+      advancedCache.withFlags(Flag.SKIP_CACHE_STORE).clear();
+      assertSuccess(client().getWithVersion(k(m), 0), value, 0);
+
+      advancedCache.withFlags(Flag.SKIP_CACHE_STORE).clear();
+      assertSuccess(client().getWithMetadata(k(m), 0), value, -1, -1);
+   }
 }